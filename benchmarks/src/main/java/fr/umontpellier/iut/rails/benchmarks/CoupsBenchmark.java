@@ -0,0 +1,59 @@
+package fr.umontpellier.iut.rails.benchmarks;
+
+import fr.umontpellier.iut.rails.Coup;
+import fr.umontpellier.iut.rails.CouleurWagon;
+import fr.umontpellier.iut.rails.Joueur;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction de la liste des coups possibles au début de {@code Joueur.jouerTour}.
+ * <p>
+ * {@code coups} mesure l'appel répété sur une main inchangée (les routes capturables sont en cache) ;
+ * {@code coupsApresPioche} modifie la main avant chaque appel, comme entre deux tours d'un joueur, ce qui
+ * oblige le générateur à recalculer les routes des couleurs modifiées.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CoupsBenchmark {
+    @Param({ "DEBUT", "MILIEU", "FIN" })
+    public EtatsDePartie.Phase phase;
+
+    private Joueur joueur;
+    private List<CouleurWagon> main;
+
+    @Setup
+    public void preparer() {
+        joueur = EtatsDePartie.restaurer(phase).getJoueurCourant();
+        main = joueur.getCartesWagon();
+    }
+
+    @Benchmark
+    public List<Coup> coups() {
+        return joueur.getGenerateurCoups().getCoups();
+    }
+
+    @Benchmark
+    public List<Coup> coupsApresPioche() {
+        main.add(CouleurWagon.ROUGE);
+        List<Coup> coups = joueur.getGenerateurCoups().getCoups();
+        main.remove(CouleurWagon.ROUGE);
+        return coups;
+    }
+}
@@ -0,0 +1,62 @@
+package fr.umontpellier.iut.rails.benchmarks;
+
+import fr.umontpellier.iut.rails.Coup;
+import fr.umontpellier.iut.rails.Jeu;
+import fr.umontpellier.iut.rails.ia.EtatCompact;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code jouer}/{@code annuler} sur un {@code EtatCompact} (le moteur des simulations du robot MCTS) : fin
+ * de partie aléatoire jouée depuis l'état de référence, puis entièrement annulée.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EtatCompactBenchmark {
+    @Param({ "DEBUT", "MILIEU", "FIN" })
+    public EtatsDePartie.Phase phase;
+
+    private EtatCompact depart;
+    private EtatCompact etat;
+    private Coup[] coups;
+    private Random random;
+
+    @Setup
+    public void preparer() {
+        Jeu jeu = EtatsDePartie.restaurer(phase);
+        depart = EtatCompact.depuis(jeu);
+        etat = depart.copier();
+        coups = new Coup[etat.getNbMaxCoups()];
+        random = new Random(2);
+    }
+
+    @Benchmark
+    public int jouerEtAnnuler() {
+        etat.copierDepuis(depart);
+        int nbCoups = 0;
+        while (!etat.estTerminee()) {
+            etat.jouer(coups[random.nextInt(etat.genererCoups(coups))]);
+            nbCoups++;
+        }
+        while (etat.getNbCoupsJoues() > 0) {
+            etat.annuler();
+        }
+        return nbCoups;
+    }
+}
@@ -0,0 +1,91 @@
+package fr.umontpellier.iut.rails.benchmarks;
+
+import fr.umontpellier.iut.rails.InstantanePartie;
+import fr.umontpellier.iut.rails.Jeu;
+import fr.umontpellier.iut.rails.Journal;
+import fr.umontpellier.iut.rails.ia.DecideurGlouton;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * États de partie de référence pour les benchmarks : une partie à 4 joueurs gloutons, de graine fixe, est
+ * jouée une fois et un instantané (voir {@code InstantanePartie}) est pris au début de chaque tour. Les
+ * benchmarks restaurent l'instantané de la phase qu'ils mesurent, ce qui leur donne exactement le même état
+ * d'une exécution à l'autre.
+ */
+public final class EtatsDePartie {
+    public static final String[] NOMS = { "Guybrush", "Largo", "LeChuck", "Elaine" };
+    private static final long GRAINE = 1;
+
+    /**
+     * Avancement de la partie au moment de l'instantané
+     */
+    public enum Phase {
+        /**
+         * Début de partie (10 % des tours joués) : mains petites, plateau presque vide
+         */
+        DEBUT(0.1),
+        /**
+         * Milieu de partie (50 % des tours joués)
+         */
+        MILIEU(0.5),
+        /**
+         * Fin de partie (90 % des tours joués) : grandes mains, plateau presque plein, peu de wagons
+         */
+        FIN(0.9);
+
+        private final double avancement;
+
+        Phase(double avancement) {
+            this.avancement = avancement;
+        }
+    }
+
+    private static List<byte[]> instantanes;
+
+    private EtatsDePartie() {
+    }
+
+    /**
+     * @return une nouvelle partie, sans décideurs et avec l'affichage désactivé, restaurée au début du tour
+     * correspondant à la phase
+     */
+    public static Jeu restaurer(Phase phase) {
+        List<byte[]> tours = getInstantanes();
+        try {
+            Jeu jeu = InstantanePartie.restaurer(tours.get((int) (phase.avancement * (tours.size() - 1))));
+            jeu.setSansAffichage(true);
+            return jeu;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static synchronized List<byte[]> getInstantanes() {
+        if (instantanes == null) {
+            Jeu jeu = new Jeu(NOMS, GRAINE);
+            jeu.setDecideur(new DecideurGlouton());
+            List<byte[]> tours = new ArrayList<>();
+            jeu.setJournal(new Journal() {
+                @Override
+                public void debutTour() {
+                    tours.add(InstantanePartie.capturer(jeu));
+                }
+
+                @Override
+                public void choix(int indice) {
+                }
+
+                @Override
+                public void coup(int indice) {
+                }
+            });
+            jeu.run();
+            instantanes = tours;
+        }
+        return instantanes;
+    }
+}
@@ -0,0 +1,90 @@
+package fr.umontpellier.iut.rails.benchmarks;
+
+import fr.umontpellier.iut.rails.CouleurWagon;
+import fr.umontpellier.iut.rails.MainCartesWagon;
+import fr.umontpellier.iut.rails.Plateau;
+import fr.umontpellier.iut.rails.Route;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test « le joueur peut-il payer cette route ? » sur une main de fin de partie (35 cartes), pour toutes les
+ * routes du plateau : liste de cartes avec {@code Collections.frequency} (ancienne représentation) contre
+ * {@code MainCartesWagon}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MainCartesWagonBenchmark {
+    private List<CouleurWagon> liste;
+    private MainCartesWagon main;
+    private List<Route> routes;
+
+    @Setup
+    public void preparer() {
+        Random random = new Random(1);
+        CouleurWagon[] couleurs = CouleurWagon.getCouleursSimples().toArray(new CouleurWagon[0]);
+        liste = new ArrayList<>();
+        for (int i = 0; i < 35; i++) {
+            liste.add(random.nextInt(10) == 0 ? CouleurWagon.LOCOMOTIVE : couleurs[random.nextInt(couleurs.length)]);
+        }
+        main = new MainCartesWagon(liste);
+        routes = Plateau.makePlateauEurope().getRoutes();
+    }
+
+    @Benchmark
+    public int liste() {
+        int total = 0;
+        for (Route route : routes) {
+            total += peutPayerListe(liste, route) ? 1 : 0;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int mainCartesWagon() {
+        int total = 0;
+        for (Route route : routes) {
+            total += peutPayerMain(main, route) ? 1 : 0;
+        }
+        return total;
+    }
+
+    private static boolean peutPayerListe(List<CouleurWagon> cartes, Route route) {
+        int nbLoco = Collections.frequency(cartes, CouleurWagon.LOCOMOTIVE);
+        if (route.getCouleur() != CouleurWagon.GRIS) {
+            return Collections.frequency(cartes, route.getCouleur()) + nbLoco >= route.getLongueur();
+        }
+        for (CouleurWagon c : cartes) {
+            if (c != CouleurWagon.LOCOMOTIVE && Collections.frequency(cartes, c) + nbLoco >= route.getLongueur()) {
+                return true;
+            }
+        }
+        return nbLoco >= route.getLongueur();
+    }
+
+    private static boolean peutPayerMain(MainCartesWagon main, Route route) {
+        int nbLoco = main.nombre(CouleurWagon.LOCOMOTIVE);
+        if (route.getCouleur() != CouleurWagon.GRIS) {
+            return main.nombre(route.getCouleur()) + nbLoco >= route.getLongueur();
+        }
+        return main.maxHorsLocomotives() + nbLoco >= route.getLongueur();
+    }
+}
@@ -0,0 +1,53 @@
+package fr.umontpellier.iut.rails.benchmarks;
+
+import fr.umontpellier.iut.rails.DecideurAleatoire;
+import fr.umontpellier.iut.rails.Jeu;
+import fr.umontpellier.iut.rails.Joueur;
+import fr.umontpellier.iut.rails.ia.DecideurGlouton;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parties complètes sans interface (création du plateau, distribution, tous les tours et décompte), jouées
+ * par 4 robots. La graine change à chaque partie, dans le même ordre d'une exécution à l'autre.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PartieBenchmark {
+    public enum Robot {
+        ALEATOIRE, GLOUTON
+    }
+
+    @Param({ "ALEATOIRE", "GLOUTON" })
+    public Robot robot;
+
+    private long graine;
+
+    @Benchmark
+    public Joueur partie() {
+        Random random = new Random(graine++);
+        Jeu jeu = new Jeu(EtatsDePartie.NOMS, random);
+        if (robot == Robot.ALEATOIRE) {
+            jeu.setDecideur(new DecideurAleatoire(random));
+        } else {
+            jeu.setDecideur(new DecideurGlouton());
+        }
+        jeu.run();
+        return jeu.getVainqueur();
+    }
+}
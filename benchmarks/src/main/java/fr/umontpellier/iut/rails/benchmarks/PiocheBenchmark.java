@@ -0,0 +1,102 @@
+package fr.umontpellier.iut.rails.benchmarks;
+
+import fr.umontpellier.iut.rails.CouleurWagon;
+import fr.umontpellier.iut.rails.Jeu;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pioche des cartes wagon : {@code Jeu.piocherCarteWagon} et {@code Jeu.retirerCarteWagonVisible}.
+ * <p>
+ * Chaque carte prise est aussitôt défaussée, pour que le nombre de cartes en jeu reste constant : la pioche
+ * se vide et est reconstituée à partir de la défausse au rythme d'une vraie partie. {@code remelange}
+ * prépare avant chaque appel 2 locomotives visibles et une locomotive sur le dessus de la pioche, de sorte
+ * que la carte prise soit remplacée par une troisième locomotive et que les 5 cartes visibles soient
+ * défaussées puis retirées.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PiocheBenchmark {
+    @Param({ "DEBUT", "MILIEU", "FIN" })
+    public EtatsDePartie.Phase phase;
+
+    private Jeu jeu;
+
+    @Setup
+    public void preparer() {
+        jeu = EtatsDePartie.restaurer(phase);
+    }
+
+    /**
+     * Place 2 locomotives et 3 autres cartes face visible et une locomotive sur le dessus de la pioche
+     */
+    @State(Scope.Thread)
+    public static class TroisLocomotives {
+        @Setup(Level.Invocation)
+        public void preparer(PiocheBenchmark benchmark) {
+            List<CouleurWagon> pile = benchmark.jeu.getPileCartesWagon();
+            List<CouleurWagon> defausse = benchmark.jeu.getDefausseCartesWagon();
+            List<CouleurWagon> visibles = benchmark.jeu.getCartesWagonVisibles();
+            pile.addAll(defausse);
+            defausse.clear();
+            pile.addAll(visibles);
+            visibles.clear();
+            for (int i = 0; i < 2; i++) {
+                visibles.add(prendre(pile, true));
+            }
+            for (int i = 0; i < 3; i++) {
+                visibles.add(prendre(pile, false));
+            }
+            pile.add(0, prendre(pile, true));
+        }
+
+        private static CouleurWagon prendre(List<CouleurWagon> pile, boolean locomotive) {
+            for (int i = 0; i < pile.size(); i++) {
+                if ((pile.get(i) == CouleurWagon.LOCOMOTIVE) == locomotive) {
+                    return pile.remove(i);
+                }
+            }
+            throw new IllegalStateException("Pas assez de cartes dans la pioche pour préparer le remélange");
+        }
+    }
+
+    @Benchmark
+    public CouleurWagon piocherCarteWagon() {
+        CouleurWagon carte = jeu.piocherCarteWagon();
+        jeu.defausserCarteWagon(carte);
+        return carte;
+    }
+
+    @Benchmark
+    public CouleurWagon retirerCarteWagonVisible() {
+        CouleurWagon carte = jeu.getCartesWagonVisibles().get(0);
+        jeu.retirerCarteWagonVisible(carte);
+        jeu.defausserCarteWagon(carte);
+        return carte;
+    }
+
+    @Benchmark
+    public CouleurWagon remelange(TroisLocomotives troisLocomotives) {
+        CouleurWagon carte = jeu.getCartesWagonVisibles().get(4);
+        jeu.retirerCarteWagonVisible(carte);
+        jeu.defausserCarteWagon(carte);
+        return carte;
+    }
+}
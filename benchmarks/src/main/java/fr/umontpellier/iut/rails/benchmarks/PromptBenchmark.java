@@ -0,0 +1,112 @@
+package fr.umontpellier.iut.rails.benchmarks;
+
+import com.google.gson.Gson;
+import fr.umontpellier.iut.rails.CouleurWagon;
+import fr.umontpellier.iut.rails.EtatPartie;
+import fr.umontpellier.iut.rails.Jeu;
+import fr.umontpellier.iut.rails.Joueur;
+import fr.umontpellier.iut.rails.Route;
+import fr.umontpellier.iut.rails.SerialiseurEtat;
+import fr.umontpellier.iut.rails.Ville;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Sérialisation de l'état envoyé aux clients par {@code Jeu.prompt}.
+ * <p>
+ * {@code publierEtat} est le chemin suivi à chaque prompt (sans l'affichage console) : mise à jour
+ * incrémentale de {@code EtatPartie}, la main du joueur courant changeant d'un prompt à l'autre.
+ * {@code etatComplet} ajoute l'état complet envoyé à un client qui se connecte, {@code serialiseurComplet}
+ * resérialise tout avec {@code SerialiseurEtat}, et {@code ancienPrompt} est la sérialisation d'origine (cartes
+ * de {@code asPOJO()} puis {@code new Gson().toJson}), gardée comme référence.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PromptBenchmark {
+    private static final String INSTRUCTION = "veuillez exécuter l'unique action de votre tour";
+
+    @Param({ "DEBUT", "MILIEU", "FIN" })
+    public EtatsDePartie.Phase phase;
+
+    private Jeu jeu;
+    private EtatPartie etat;
+    private SerialiseurEtat serialiseur;
+    private List<String> boutons;
+    private List<CouleurWagon> main;
+    private boolean cartePiochee;
+
+    @Setup
+    public void preparer() {
+        jeu = EtatsDePartie.restaurer(phase);
+        jeu.setSansAffichage(false);
+        jeu.setSortieEtat(etat -> {
+        });
+        etat = jeu.getEtatPartie();
+        serialiseur = new SerialiseurEtat();
+        boutons = List.of("a", "b");
+        main = jeu.getJoueurCourant().getCartesWagon();
+        jeu.publierEtat(INSTRUCTION, boutons, true);
+    }
+
+    @Benchmark
+    public String publierEtat() {
+        if (cartePiochee) {
+            main.remove(CouleurWagon.BLEU);
+        } else {
+            main.add(CouleurWagon.BLEU);
+        }
+        cartePiochee = !cartePiochee;
+        jeu.publierEtat(INSTRUCTION, boutons, true);
+        return etat.getDelta();
+    }
+
+    @Benchmark
+    public String etatComplet() {
+        jeu.publierEtat(INSTRUCTION, boutons, true);
+        return etat.getComplet();
+    }
+
+    @Benchmark
+    public int serialiseurComplet() {
+        return serialiseur.versJsonPrompt(jeu, INSTRUCTION, boutons, true).length()
+                + SerialiseurEtat.GSON.toJson(jeu).length();
+    }
+
+    @Benchmark
+    public String ancienPrompt() {
+        Map<String, Object> data = Map.of(
+                "prompt", Map.of(
+                        "instruction", INSTRUCTION,
+                        "boutons", boutons,
+                        "nomJoueurCourant", jeu.getJoueurCourant().getNom(),
+                        "peutPasser", true),
+                "villes", jeu.getVilles().stream().map(Ville::asPOJO).collect(Collectors.toList()),
+                "routes", jeu.getRoutes().stream().map(Route::asPOJO).collect(Collectors.toList()),
+                "joueurs", jeu.getJoueurs().stream().map(Joueur::asPOJO).collect(Collectors.toList()),
+                "piles", Map.of(
+                        "pileCartesWagon", jeu.getPileCartesWagon().size(),
+                        "pileDestinations", jeu.getPileDestinations().size(),
+                        "defausseCartesWagon", jeu.getDefausseCartesWagon(),
+                        "cartesWagonVisibles", jeu.getCartesWagonVisibles()),
+                "log", jeu.getLog().getMessages(0, jeu.getLog().getNbMessages()));
+        return new Gson().toJson(data);
+    }
+}
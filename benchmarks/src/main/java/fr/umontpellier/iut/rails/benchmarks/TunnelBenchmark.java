@@ -0,0 +1,119 @@
+package fr.umontpellier.iut.rails.benchmarks;
+
+import fr.umontpellier.iut.rails.Coup;
+import fr.umontpellier.iut.rails.CouleurWagon;
+import fr.umontpellier.iut.rails.Decideur;
+import fr.umontpellier.iut.rails.Jeu;
+import fr.umontpellier.iut.rails.Joueur;
+import fr.umontpellier.iut.rails.Route;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Achat d'un tunnel : tour complet ({@code Joueur.jouerTour}) d'un joueur qui capture un tunnel, ce qui
+ * passe par {@code acheterTunnel} (paiement, 3 cartes retournées, supplément éventuel).
+ * <p>
+ * Le joueur courant de l'état de référence reçoit 4 cartes de chaque couleur pour pouvoir capturer un
+ * tunnel, choisi une fois pour toutes. Avant chaque appel, la main du joueur, ses wagons, son score, les
+ * cartes wagon et le propriétaire du tunnel sont remis dans leur état initial : les 3 cartes retournées
+ * sont donc toujours les mêmes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TunnelBenchmark {
+    @Param({ "DEBUT", "MILIEU", "FIN" })
+    public EtatsDePartie.Phase phase;
+
+    private Jeu jeu;
+    private Joueur joueur;
+    private Route tunnel;
+    private List<CouleurWagon> main;
+    private List<CouleurWagon> pile;
+    private List<CouleurWagon> defausse;
+    private List<CouleurWagon> visibles;
+    private int nbWagons;
+    private int score;
+
+    @Setup
+    public void preparer() {
+        jeu = EtatsDePartie.restaurer(phase);
+        joueur = jeu.getJoueurCourant();
+        for (CouleurWagon couleur : CouleurWagon.values()) {
+            if (couleur != CouleurWagon.GRIS) {
+                for (int i = 0; i < 4; i++) {
+                    joueur.getCartesWagon().add(couleur);
+                }
+            }
+        }
+        for (Coup coup : joueur.getGenerateurCoups().getCoups()) {
+            if (coup.getType() == Coup.Type.ROUTE && jeu.getPlateau().getRoute(coup.getId()).estTunnel()) {
+                tunnel = jeu.getPlateau().getRoute(coup.getId());
+                break;
+            }
+        }
+        if (tunnel == null) {
+            throw new IllegalStateException("Aucun tunnel capturable en phase " + phase);
+        }
+        Coup coupTunnel = Coup.route(tunnel);
+        jeu.setDecideur(new Decideur() {
+            @Override
+            public String choisir(Joueur joueur, String instruction, List<String> choix, boolean peutPasser) {
+                return choix.get(0);
+            }
+
+            @Override
+            public Coup choisirCoup(Joueur joueur, String instruction, List<Coup> coups, boolean peutPasser) {
+                // le tunnel en début de tour, puis la première carte proposée pour le payer
+                return coups.contains(coupTunnel) ? coupTunnel : coups.get(0);
+            }
+        });
+        main = new ArrayList<>(joueur.getCartesWagon());
+        pile = new ArrayList<>(jeu.getPileCartesWagon());
+        defausse = new ArrayList<>(jeu.getDefausseCartesWagon());
+        visibles = new ArrayList<>(jeu.getCartesWagonVisibles());
+        nbWagons = joueur.getNbWagons();
+        score = joueur.getScore();
+    }
+
+    @Setup(Level.Invocation)
+    public void reinitialiser() {
+        if (tunnel.getProprietaire() != null) {
+            tunnel.setProprietaire(null);
+        }
+        remplacer(joueur.getCartesWagon(), main);
+        remplacer(jeu.getPileCartesWagon(), pile);
+        remplacer(jeu.getDefausseCartesWagon(), defausse);
+        remplacer(jeu.getCartesWagonVisibles(), visibles);
+        joueur.setNbWagons(nbWagons);
+        joueur.setScore(score);
+    }
+
+    @Benchmark
+    public Joueur acheterTunnel() {
+        joueur.jouerTour();
+        return tunnel.getProprietaire();
+    }
+
+    private static void remplacer(List<CouleurWagon> liste, List<CouleurWagon> cartes) {
+        liste.clear();
+        liste.addAll(cartes);
+    }
+}
@@ -0,0 +1,273 @@
+package fr.umontpellier.iut.gui;
+
+import javax.websocket.CloseReason;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Client connecté à une table, avec sa file d'envoi.
+ * <p>
+ * Les envois sont asynchrones : le thread de la partie ne fait que déposer le nouvel état dans la file du
+ * client et n'attend jamais le réseau. La file ne contient qu'un seul message : si un état est déposé
+ * alors que le précédent n'a pas encore été envoyé, il le remplace (seul le dernier état compte pour
+ * l'affichage). Chaque envoi est surveillé par un minuteur : un client dont l'envoi dure plus de
+ * {@code DELAI_MAX_ENVOI_MS} est déconnecté, même si la partie ne lui dépose plus rien.
+ */
+public class ClientConnecte {
+    /**
+     * Durée maximale d'un envoi avant que le client soit considéré comme trop lent et déconnecté
+     */
+    public static final long DELAI_MAX_ENVOI_MS = 10_000;
+    /**
+     * Nombre maximal de réponses en attente d'envoi
+     */
+    public static final int NB_MAX_REPONSES = 8;
+    /**
+     * Minuteur des envois de tous les clients (un seul thread, qui ne fait que fermer les connexions des
+     * clients trop lents)
+     */
+    private static final ScheduledThreadPoolExecutor SURVEILLANCE = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "surveillance-clients");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        // les envois terminés à temps annulent leur minuteur : il ne doit pas rester dans la file
+        SURVEILLANCE.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Session websocket du client
+     */
+    private final Session session;
+    /**
+     * Indique que le client reçoit l'état versionné (état complet puis deltas) plutôt que l'état complet
+     * à chaque prompt
+     */
+    private final boolean differentiel;
+    /**
+     * Indique qu'un état complet a déjà été déposé pour ce client (un client différentiel ne peut
+     * appliquer des deltas qu'à partir d'un état complet)
+     */
+    private volatile boolean synchronise;
+    /**
+     * Prochain message à envoyer (`null` si aucun)
+     */
+    private final AtomicReference<String> enAttente;
+    /**
+     * Réponses aux demandes du client (pages du log), envoyées avant le prochain état. Elles ne sont
+     * jamais fusionnées ; si la file est pleine, la réponse est abandonnée et le client doit redemander.
+     */
+    private final ArrayBlockingQueue<String> reponses;
+    /**
+     * Indique qu'un envoi asynchrone est en cours
+     */
+    private final AtomicBoolean envoiEnCours;
+    /**
+     * Date de début de l'envoi en cours (en nanosecondes)
+     */
+    private volatile long debutEnvoi;
+    /**
+     * Durée maximale d'un envoi, en millisecondes
+     */
+    private final long delaiMaxEnvoiMs;
+    /**
+     * Minuteur de l'envoi en cours (`null` si aucun)
+     */
+    private volatile ScheduledFuture<?> minuteur;
+    /**
+     * Indique que la connexion du client a été fermée par le serveur
+     */
+    private final AtomicBoolean deconnecte;
+    /**
+     * Nombre de messages remplacés par un état plus récent avant d'avoir été envoyés
+     */
+    private final AtomicLong nbMessagesFusionnes;
+    /**
+     * Date du dernier dépôt d'un état dans la file (en nanosecondes)
+     */
+    private volatile long depotEtat;
+    /**
+     * Date de dépôt de l'état en cours d'envoi (0 si le message en cours d'envoi n'est pas un état)
+     */
+    private volatile long depotEnvoi;
+    /**
+     * Durées entre le dépôt d'un état et la fin de son envoi
+     */
+    private final Histogramme latences;
+
+    /**
+     * @param latences        histogramme dans lequel sont enregistrées les durées entre le dépôt de chaque état
+     *                        et la fin de son envoi
+     * @param delaiMaxEnvoiMs durée maximale d'un envoi avant que le client soit déconnecté, en millisecondes
+     */
+    public ClientConnecte(Session session, boolean differentiel, Histogramme latences, long delaiMaxEnvoiMs) {
+        this.session = session;
+        this.differentiel = differentiel;
+        this.latences = latences;
+        this.delaiMaxEnvoiMs = delaiMaxEnvoiMs;
+        enAttente = new AtomicReference<>();
+        reponses = new ArrayBlockingQueue<>(NB_MAX_REPONSES);
+        envoiEnCours = new AtomicBoolean(false);
+        nbMessagesFusionnes = new AtomicLong();
+        deconnecte = new AtomicBoolean(false);
+    }
+
+    public ClientConnecte(Session session, boolean differentiel, Histogramme latences) {
+        this(session, differentiel, latences, DELAI_MAX_ENVOI_MS);
+    }
+
+    public Session getSession() {
+        return session;
+    }
+
+    public boolean estDifferentiel() {
+        return differentiel;
+    }
+
+    public boolean estSynchronise() {
+        return synchronise;
+    }
+
+    public void setSynchronise(boolean synchronise) {
+        this.synchronise = synchronise;
+    }
+
+    public long getNbMessagesFusionnes() {
+        return nbMessagesFusionnes.get();
+    }
+
+    /**
+     * Dépose un message dans la file du client et lance son envoi si aucun envoi n'est en cours.
+     * Cette méthode ne bloque jamais.
+     *
+     * @param message le message à envoyer
+     */
+    public void envoyer(String message) {
+        depotEtat = System.nanoTime();
+        if (enAttente.getAndSet(message) != null) {
+            nbMessagesFusionnes.incrementAndGet();
+        }
+        envoyerSuivant();
+    }
+
+    /**
+     * Dépose un message dans la file du client seulement si elle est vide (un delta ne doit jamais
+     * remplacer un message qui n'a pas été envoyé, sinon le client perdrait une partie des changements).
+     * Cette méthode ne bloque jamais.
+     *
+     * @param message le message à envoyer
+     * @return vrai si le message a été déposé, faux si un message était déjà en attente
+     */
+    public boolean envoyerSiFileVide(String message) {
+        depotEtat = System.nanoTime();
+        if (!enAttente.compareAndSet(null, message)) {
+            return false;
+        }
+        envoyerSuivant();
+        return true;
+    }
+
+    /**
+     * Dépose une réponse à une demande du client dans sa file (sans remplacer l'état en attente).
+     * Cette méthode ne bloque jamais.
+     *
+     * @param reponse la réponse à envoyer
+     * @return faux si la file des réponses est pleine (la réponse est alors abandonnée)
+     */
+    public boolean repondre(String reponse) {
+        if (!reponses.offer(reponse)) {
+            return false;
+        }
+        envoyerSuivant();
+        return true;
+    }
+
+    /**
+     * Envoie le message en attente, sauf si un envoi est déjà en cours (dans ce cas le message sera envoyé
+     * à la fin de l'envoi en cours)
+     */
+    private void envoyerSuivant() {
+        while (!deconnecte.get() && envoiEnCours.compareAndSet(false, true)) {
+            String message = reponses.poll();
+            depotEnvoi = 0;
+            if (message == null) {
+                depotEnvoi = depotEtat;
+                message = enAttente.getAndSet(null);
+            }
+            if (message != null) {
+                long debut = System.nanoTime();
+                debutEnvoi = debut;
+                minuteur = SURVEILLANCE.schedule(() -> verifierEnvoi(debut), delaiMaxEnvoiMs, TimeUnit.MILLISECONDS);
+                try {
+                    session.getAsyncRemote().sendText(message, this::envoiTermine);
+                } catch (RuntimeException e) {
+                    envoiEnCours.set(false);
+                    deconnecter("erreur d'envoi");
+                }
+                return;
+            }
+            envoiEnCours.set(false);
+            // un message a pu être déposé entre la lecture de la file et la fin de l'envoi
+            if (enAttente.get() == null && reponses.isEmpty()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Appelée par le conteneur websocket à la fin d'un envoi asynchrone
+     */
+    private void envoiTermine(SendResult resultat) {
+        long depot = depotEnvoi;
+        ScheduledFuture<?> minuteurEnvoi = minuteur;
+        if (minuteurEnvoi != null) {
+            minuteurEnvoi.cancel(false);
+        }
+        envoiEnCours.set(false);
+        if (resultat.isOK()) {
+            if (depot != 0) {
+                latences.enregistrer(System.nanoTime() - depot);
+            }
+            envoyerSuivant();
+        } else {
+            deconnecter("erreur d'envoi");
+        }
+    }
+
+    /**
+     * Appelée par le minuteur de l'envoi qui a commencé à la date passée en argument : déconnecte le client
+     * si cet envoi n'est toujours pas terminé
+     */
+    private void verifierEnvoi(long debut) {
+        if (envoiEnCours.get() && debutEnvoi == debut) {
+            deconnecter("client trop lent");
+        }
+    }
+
+    /**
+     * Ferme la connexion du client (il est ensuite retiré de sa table par {@code GameServer.removeClient}).
+     * La connexion n'est fermée qu'une fois, et plus rien n'est envoyé ensuite.
+     */
+    private void deconnecter(String raison) {
+        if (!deconnecte.compareAndSet(false, true)) {
+            return;
+        }
+        enAttente.set(null);
+        reponses.clear();
+        try {
+            session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, raison));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package fr.umontpellier.iut.gui;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Nombre d'événements par seconde, en moyenne sur les dernières secondes écoulées.
+ * <p>
+ * Les événements sont comptés par seconde dans un tableau circulaire ; une case est remise à zéro par le
+ * premier événement d'une nouvelle seconde. Plusieurs threads peuvent compter en même temps sans se
+ * bloquer (un événement compté pendant la remise à zéro d'une case peut être perdu, ce qui est sans
+ * importance pour un indicateur).
+ */
+public class Debit {
+    /**
+     * Nombre de secondes complètes sur lesquelles le débit est calculé
+     */
+    private static final int NB_SECONDES = 10;
+
+    private final AtomicLongArray nombres;
+    /**
+     * Seconde comptée dans chaque case
+     */
+    private final AtomicLongArray secondes;
+
+    public Debit() {
+        // une case de plus pour la seconde en cours
+        nombres = new AtomicLongArray(NB_SECONDES + 1);
+        secondes = new AtomicLongArray(NB_SECONDES + 1);
+    }
+
+    /**
+     * Compte un événement
+     */
+    public void ajouter() {
+        long seconde = secondeCourante();
+        int i = (int) (seconde % nombres.length());
+        long ancienne = secondes.get(i);
+        if (ancienne != seconde && secondes.compareAndSet(i, ancienne, seconde)) {
+            nombres.set(i, 0);
+        }
+        nombres.incrementAndGet(i);
+    }
+
+    /**
+     * @return le nombre moyen d'événements par seconde sur les {@code NB_SECONDES} dernières secondes
+     * complètes
+     */
+    public double getParSeconde() {
+        long courante = secondeCourante();
+        long total = 0;
+        for (int i = 0; i < nombres.length(); i++) {
+            long seconde = secondes.get(i);
+            if (seconde < courante && seconde >= courante - NB_SECONDES) {
+                total += nombres.get(i);
+            }
+        }
+        return (double) total / NB_SECONDES;
+    }
+
+    private static long secondeCourante() {
+        return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+    }
+}
@@ -1,41 +1,205 @@
 package fr.umontpellier.iut.gui;
 
+import fr.umontpellier.iut.rails.Decideur;
+import fr.umontpellier.iut.rails.InstantanePartie;
 import fr.umontpellier.iut.rails.Jeu;
+import fr.umontpellier.iut.rails.Joueur;
+import fr.umontpellier.iut.rails.JournalBinaire;
+import fr.umontpellier.iut.rails.SauvegardePeriodique;
+import fr.umontpellier.iut.rails.ia.DecideurGlouton;
+import fr.umontpellier.iut.rails.ia.DecideurMCTS;
+import fr.umontpellier.iut.rails.ia.PoolRecherche;
 import org.glassfish.tyrus.server.Server;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.websocket.CloseReason;
 import javax.websocket.DeploymentException;
 import javax.websocket.Session;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.lang.management.ManagementFactory;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Random;
 import java.util.Scanner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 
 public class GameServer {
     /**
-     * Liste des clients connectés au serveur
+     * Identifiant de la table utilisée par les clients qui se connectent à la racine du serveur
      */
-    private static final ArrayList<Session> clients = new ArrayList<>();
+    public static final String TABLE_PAR_DEFAUT = "defaut";
     /**
-     * Description de l'état du jeu, envoyé aux clients pour la mise à jour de l'interface graphique
+     * Format des identifiants de table acceptés : l'identifiant est choisi par le client et sert à nommer
+     * les fichiers de la table (historique, journal, instantané) et son thread
      */
-    private static String etatJeu = "";
+    private static final Pattern FORMAT_ID_TABLE = Pattern.compile("[A-Za-z0-9_-]{1,64}");
     /**
-     * Instance de jeu exécutée par le serveur
+     * Message envoyé par un client différentiel pour redemander l'état complet de la partie
      */
-    private static Jeu jeu;
+    public static final String MESSAGE_RESYNCHRONISATION = "#resync";
+    /**
+     * Préfixe du message envoyé par un client pour demander une page d'anciennes lignes du log
+     * ({@code #log <numéro de la ligne qui suit la page> <nombre de lignes>})
+     */
+    public static final String MESSAGE_PAGE_LOG = "#log ";
+    /**
+     * Dossier dans lequel l'historique complet du log de chaque table est recopié (propriété système
+     * {@code rails.log.dossier}, l'historique n'est pas conservé si elle n'est pas définie)
+     */
+    private static final String DOSSIER_LOG = System.getProperty("rails.log.dossier");
+    /**
+     * Dossier dans lequel le journal binaire de chaque partie est écrit, pour pouvoir la rejouer (propriété
+     * système {@code rails.journal.dossier}, les parties ne sont pas journalisées si elle n'est pas définie).
+     * Le journal d'une partie s'appelle {@code <id de la table>-<graine>.journal} : une nouvelle partie à la
+     * même table n'écrase jamais le journal d'une partie précédente.
+     */
+    private static final String DOSSIER_JOURNAL = System.getProperty("rails.journal.dossier");
+    /**
+     * Dossier dans lequel un instantané de chaque partie en cours est écrit régulièrement (propriété système
+     * {@code rails.instantanes.dossier}) : au démarrage, le serveur reprend les parties qui y sont
+     * sauvegardées. Les parties ne sont pas sauvegardées si elle n'est pas définie.
+     */
+    private static final String DOSSIER_INSTANTANES = System.getProperty("rails.instantanes.dossier");
+    /**
+     * Extension des fichiers d'instantanés
+     */
+    private static final String EXTENSION_INSTANTANE = ".instantane";
+    /**
+     * Nombre de tours entre deux instantanés d'une partie (propriété système
+     * {@code rails.instantanes.intervalle}, un tour de table de 4 joueurs par défaut)
+     */
+    private static final int INTERVALLE_INSTANTANES = Integer.getInteger("rails.instantanes.intervalle", 4);
+    /**
+     * Paramètre de connexion par lequel un client demande l'état versionné ({@code ?format=delta})
+     */
+    private static final String PARAMETRE_FORMAT = "format";
+    /**
+     * Clé sous laquelle la table d'un client est rangée dans les propriétés de sa session
+     */
+    private static final String PROPRIETE_TABLE = "table";
+    /**
+     * Noms des joueurs des parties créées par le serveur
+     */
+    private static final String[] NOMS_JOUEURS = {"Guybrush", "Largo", "LeChuck", "Elaine"};
+    /**
+     * Temps de réflexion maximal des robots MCTS par décision, en millisecondes (propriété système
+     * {@code rails.robots.duree})
+     */
+    private static final long DUREE_ROBOTS_MS = Long.getLong("rails.robots.duree", 150);
+    /**
+     * Threads de recherche des robots MCTS, partagés par toutes les tables (propriété système
+     * {@code rails.robots.threads}, un par processeur par défaut) : les robots n'utilisent pas le pool
+     * commun, qui reste disponible pour le reste du serveur
+     */
+    private static final PoolRecherche poolRobots = new PoolRecherche(
+            Integer.getInteger("rails.robots.threads", Runtime.getRuntime().availableProcessors()),
+            runnable -> {
+                Thread thread = new Thread(runnable, "robots");
+                thread.setDaemon(true);
+                return thread;
+            });
+    /**
+     * Nombre de places de chaque nouvelle table tenues par des robots, en partant de la dernière (propriété
+     * système {@code rails.robots}, aucun robot par défaut)
+     */
+    private static volatile int nbRobots = Integer.getInteger("rails.robots", 0);
+    /**
+     * Fabrique des décideurs des robots (propriété système {@code rails.robots.type} : {@code mcts}, par
+     * défaut, ou {@code glouton})
+     */
+    private static volatile Supplier<Decideur> fabriqueRobots =
+            "glouton".equals(System.getProperty("rails.robots.type"))
+                    ? DecideurGlouton::new
+                    : () -> new DecideurMCTS(DUREE_ROBOTS_MS, poolRobots, new Random());
+    /**
+     * Délai au bout duquel une table sans client où il ne se passe plus rien est fermée et sa partie
+     * abandonnée, en millisecondes (propriété système {@code rails.tables.inactivite}, 10 minutes par défaut)
+     */
+    private static volatile long delaiInactiviteMs = Long.getLong("rails.tables.inactivite", 600_000);
+    /**
+     * Nombre maximal de tables hébergées en même temps (propriété système {@code rails.tables.max}) : au-delà,
+     * les connexions à une nouvelle table sont refusées
+     */
+    private static volatile int nbMaxTables = Integer.getInteger("rails.tables.max", 10_000);
+    /**
+     * Intervalle entre deux recherches de tables inactives, en secondes
+     */
+    private static final long INTERVALLE_INACTIVITE_S = 10;
+    /**
+     * Taille de pile des threads de parties : une partie n'a besoin que d'une pile d'appels peu profonde,
+     * ce qui permet d'héberger des milliers de tables dans une seule JVM
+     */
+    private static final long TAILLE_PILE_THREAD = 256 * 1024;
+    /**
+     * Tables hébergées par le serveur, indexées par leur identifiant
+     */
+    private static final ConcurrentHashMap<String, Table> tables = new ConcurrentHashMap<>();
+    /**
+     * Fabrique des threads qui exécutent les parties
+     */
+    private static final ThreadFactory fabriqueThreads = runnable -> {
+        Thread thread = new Thread(null, runnable, "partie", TAILLE_PILE_THREAD);
+        thread.setDaemon(true);
+        return thread;
+    };
+    /**
+     * Exécuteur des écritures d'instantanés sur le disque (un seul thread, en dehors des threads de parties)
+     */
+    private static final ExecutorService executeurInstantanes = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "instantanes");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /**
+     * Planificateur de la fermeture des tables inactives
+     */
+    private static final ScheduledExecutorService planificateur = Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+                Thread thread = new Thread(runnable, "tables");
+                thread.setDaemon(true);
+                return thread;
+            });
 
-    public static void main(String[] args) {
-        // Lancement de la partie
-        jeu = new Jeu(new String[]{"Guybrush", "Largo", "LeChuck", "Elaine"});
+    // les indicateurs du serveur et de chaque table sont publiés par JMX (visibles avec jconsole)
+    static {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MetriquesServeur(tables.values()),
+                    new ObjectName(MetriquesServeur.NOM));
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+        planificateur.scheduleWithFixedDelay(GameServer::fermerTablesInactives, INTERVALLE_INACTIVITE_S,
+                INTERVALLE_INACTIVITE_S, TimeUnit.SECONDS);
+    }
 
+    public static void main(String[] args) {
         // Prépare le serveur websocket
-        Server server = new Server("localhost", 3232, "/", WebSocketClient.class);
+        Server server = new Server("localhost", 3232, "/", WebSocketClient.class, WebSocketTable.class);
 
         try (Scanner scanner = new Scanner(System.in)) {
             server.start();             // lance le serveur
-            new Thread(jeu).start();    // démarre le jeu (exécute la méthode Jeu.run() dans un nouveau thread)
+            reprendrePartiesSauvegardees();
+            getTable(TABLE_PAR_DEFAUT);   // démarre la partie par défaut
 
+            // les entrées clavier sont transmises à la partie par défaut (recréée si elle a été fermée)
             while (true) {
-                jeu.addInput(scanner.nextLine());
+                String ligne = scanner.nextLine();
+                Table table = getTable(TABLE_PAR_DEFAUT);
+                if (table != null) {
+                    table.addInput(ligne);
+                }
             }
         } catch (DeploymentException e) {
             throw new RuntimeException(e);
@@ -45,54 +209,258 @@ public class GameServer {
     }
 
     /**
-     * Ajoute une nouvelle instruction à la file d'instructions
-     * (cette méthode est appelée lorsqu'un message est reçue sur la websocket)
-     * 
-     * @param message l'instruction à ajouter
+     * @return vrai si l'identifiant de table passé en argument est accepté (de 1 à 64 lettres non accentuées,
+     * chiffres, tirets ou soulignés)
      */
-    public static void addInput(String message) {
-        jeu.addInput(message);
+    public static boolean estIdentifiantValide(String id) {
+        return id != null && FORMAT_ID_TABLE.matcher(id).matches();
     }
 
     /**
-     * Met à jour l'état de la partie, et envoie le nouvel état à tous les clients connectés
-     * 
-     * @param etatJeu l'état de la partie
+     * Renvoie la table dont l'identifiant est passé en argument, en la créant et en démarrant sa partie
+     * si elle n'existe pas encore
+     *
+     * @param id identifiant de la table
+     * @return la table, ou `null` si elle n'existe pas et que le serveur héberge déjà le nombre maximal de
+     * tables
      */
-    public static void setEtatJeu(String etatJeu) {
-        GameServer.etatJeu = etatJeu;
-        // Envoie l'état de la partie à tous les clients
-        try {
-            for (Session session : clients) {
-                session.getBasicRemote().sendText(etatJeu);
+    public static Table getTable(String id) {
+        Table table = tables.computeIfAbsent(id, cle -> tables.size() < nbMaxTables ? creerTable(cle) : null);
+        if (table != null) {
+            table.demarrer(fabriqueThreads, () -> fermerSiInactive(table));
+        }
+        return table;
+    }
+
+    private static Table creerTable(String id) {
+        Jeu jeu = DOSSIER_INSTANTANES != null ? restaurer(id) : null;
+        if (jeu == null) {
+            jeu = new Jeu(NOMS_JOUEURS);
+        }
+        List<Joueur> joueurs = jeu.getJoueurs();
+        for (int i = Math.max(0, joueurs.size() - nbRobots); i < joueurs.size(); i++) {
+            joueurs.get(i).setDecideur(fabriqueRobots.get());
+        }
+        if (DOSSIER_LOG != null) {
+            try {
+                jeu.getLog().deverserDans(Paths.get(DOSSIER_LOG, id + ".log"));
+            } catch (IOException e) {
+                e.printStackTrace();
             }
+        }
+        // une partie restaurée n'a plus de graine : elle ne peut pas être rejouée
+        if (DOSSIER_JOURNAL != null && jeu.getGraine() != null) {
+            try {
+                Path fichier = Paths.get(DOSSIER_JOURNAL, id + "-" + Long.toUnsignedString(jeu.getGraine()) + ".journal");
+                jeu.setJournal(new JournalBinaire(Files.newOutputStream(fichier, StandardOpenOption.CREATE_NEW), jeu));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        if (DOSSIER_INSTANTANES != null) {
+            jeu.setJournal(new SauvegardePeriodique(jeu, Paths.get(DOSSIER_INSTANTANES, id + EXTENSION_INSTANTANE),
+                    INTERVALLE_INSTANTANES, executeurInstantanes, jeu.getJournal()));
+        }
+        Table table = new Table(id, jeu);
+        table.getMetriques().enregistrer();
+        return table;
+    }
+
+    /**
+     * Restaure la partie de la table à partir de son dernier instantané
+     *
+     * @return la partie restaurée, ou `null` s'il n'y a pas d'instantané lisible
+     */
+    private static Jeu restaurer(String id) {
+        Path fichier = Paths.get(DOSSIER_INSTANTANES, id + EXTENSION_INSTANTANE);
+        if (!Files.exists(fichier)) {
+            return null;
+        }
+        try {
+            return InstantanePartie.restaurer(Files.readAllBytes(fichier));
         } catch (IOException e) {
             e.printStackTrace();
+            return null;
         }
     }
 
     /**
-     * Ajoute un nouveau client à la liste, et lui transmet l'état actuel de la partie
-     * (cette méthode est appelée lorsqu'une nouvelle connexion est établie)
-     * 
-     * @param session la session du nouveau client
+     * Recrée les tables dont une partie en cours a été sauvegardée avant l'arrêt du serveur
      */
-    public static void addClient(Session session) {
-        GameServer.clients.add(session);
-        try {
-            session.getBasicRemote().sendText(etatJeu);
+    private static void reprendrePartiesSauvegardees() {
+        if (DOSSIER_INSTANTANES == null) {
+            return;
+        }
+        try (DirectoryStream<Path> fichiers = Files.newDirectoryStream(Paths.get(DOSSIER_INSTANTANES),
+                "*" + EXTENSION_INSTANTANE)) {
+            for (Path fichier : fichiers) {
+                String nom = fichier.getFileName().toString();
+                String id = nom.substring(0, nom.length() - EXTENSION_INSTANTANE.length());
+                if (estIdentifiantValide(id)) {
+                    getTable(id);
+                }
+            }
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
     /**
-     * Retire un client de la liste
+     * Change le nombre de places tenues par des robots dans les tables créées ensuite
+     *
+     * @param nb       nombre de places tenues par des robots, en partant de la dernière
+     * @param fabrique fabrique des décideurs des robots (un décideur par place)
+     */
+    public static void setRobots(int nb, Supplier<Decideur> fabrique) {
+        fabriqueRobots = fabrique;
+        nbRobots = nb;
+    }
+
+    /**
+     * Change le délai au bout duquel une table sans client où il ne se passe plus rien est fermée
+     *
+     * @param delaiMs délai d'inactivité, en millisecondes
+     */
+    static void setDelaiInactivite(long delaiMs) {
+        delaiInactiviteMs = delaiMs;
+    }
+
+    /**
+     * Change le nombre maximal de tables hébergées en même temps (les tables existantes sont conservées)
+     */
+    static void setNbMaxTables(int nb) {
+        nbMaxTables = nb;
+    }
+
+    /**
+     * @return le nombre de tables hébergées par le serveur
+     */
+    public static int getNbTables() {
+        return tables.size();
+    }
+
+    /**
+     * Ajoute une nouvelle instruction à la file d'instructions de la table du client
+     * (cette méthode est appelée lorsqu'un message est reçue sur la websocket)
+     *
+     * @param session la session du client qui a envoyé le message
+     * @param message l'instruction à ajouter
+     */
+    public static void addInput(Session session, String message) {
+        Table table = (Table) session.getUserProperties().get(PROPRIETE_TABLE);
+        if (table != null) {
+            if (message.equals(MESSAGE_RESYNCHRONISATION)) {
+                table.resynchroniser(session);
+            } else if (message.startsWith(MESSAGE_PAGE_LOG)) {
+                String[] arguments = message.substring(MESSAGE_PAGE_LOG.length()).trim().split(" ");
+                try {
+                    table.envoyerPageLog(session, Long.parseLong(arguments[0]), Integer.parseInt(arguments[1]));
+                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                    System.err.println("Demande de log invalide : " + message);
+                }
+            } else {
+                table.addInput(message);
+            }
+        }
+    }
+
+    /**
+     * Ajoute un nouveau client à une table, et lui transmet l'état actuel de la partie
+     * (cette méthode est appelée lorsqu'une nouvelle connexion est établie).
+     * Les clients connectés avec le paramètre {@code format=delta} reçoivent l'état versionné.
+     *
+     * @param id      identifiant de la table à rejoindre
+     * @param session la session du nouveau client
+     */
+    public static void addClient(String id, Session session) {
+        boolean differentiel = "delta".equals(getParametre(session, PARAMETRE_FORMAT));
+        while (true) {
+            Table table = getTable(id);
+            if (table == null) {
+                try {
+                    session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, "trop de parties"));
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+                return;
+            }
+            // une table fermée entre-temps pour inactivité est remplacée par une nouvelle
+            if (table.addClient(session, differentiel)) {
+                session.getUserProperties().put(PROPRIETE_TABLE, table);
+                return;
+            }
+            retirer(table);
+        }
+    }
+
+    /**
+     * Renvoie la valeur d'un paramètre de l'URL de connexion d'un client (la version de Tyrus utilisée ne
+     * remplit pas {@code Session.getRequestParameterMap()}, la chaîne de requête est donc lue directement)
+     *
+     * @return la valeur du paramètre, ou `null` s'il est absent
+     */
+    private static String getParametre(Session session, String nom) {
+        String requete = session.getQueryString();
+        if (requete != null) {
+            for (String parametre : requete.split("&")) {
+                String[] cleValeur = parametre.split("=", 2);
+                if (cleValeur[0].equals(nom)) {
+                    return cleValeur.length > 1 ? cleValeur[1] : "";
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retire un client de sa table, et ferme la table si sa partie est terminée et qu'il n'y a plus de
+     * clients
      * (cette méthode est appelée lorsqu'une connexion est fermée)
-     * 
+     *
      * @param session la session du client à retirer
      */
     public static void removeClient(Session session) {
-        GameServer.clients.remove(session);
+        Table table = (Table) session.getUserProperties().remove(PROPRIETE_TABLE);
+        if (table != null) {
+            table.removeClient(session);
+            fermerSiInactive(table);
+        }
+    }
+
+    /**
+     * Ferme les tables sans client où il ne s'est rien passé depuis le délai d'inactivité : leur partie est
+     * abandonnée et elles sont retirées du serveur (la fermeture est appelée régulièrement par le
+     * planificateur)
+     */
+    static void fermerTablesInactives() {
+        long delaiNanos = TimeUnit.MILLISECONDS.toNanos(delaiInactiviteMs);
+        for (Table table : tables.values()) {
+            if (table.fermerSiInactive(delaiNanos)) {
+                retirer(table);
+            }
+        }
+    }
+
+    /**
+     * Retire une table du serveur si sa partie est terminée et qu'aucun client n'y est connecté
+     */
+    private static void fermerSiInactive(Table table) {
+        if (table.estTerminee() && table.getNbClients() == 0) {
+            retirer(table);
+        }
+    }
+
+    /**
+     * Retire une table du serveur et ses indicateurs de JMX, si elle n'a pas déjà été retirée (le retrait est
+     * atomique vis-à-vis de la création d'une nouvelle table avec le même identifiant)
+     */
+    private static void retirer(Table table) {
+        tables.computeIfPresent(table.getId(), (id, t) -> {
+            if (t != table) {
+                return t;
+            }
+            t.getMetriques().retirer();
+            return null;
+        });
     }
 }
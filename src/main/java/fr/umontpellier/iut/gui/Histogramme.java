@@ -0,0 +1,100 @@
+package fr.umontpellier.iut.gui;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramme de durées, en microsecondes, que plusieurs threads peuvent alimenter sans se bloquer.
+ * <p>
+ * Les durées sont rangées dans des intervalles de taille croissante : 4 intervalles par puissance de 2, ce
+ * qui donne les centiles à 25 % près quelle que soit l'échelle. La moyenne et le maximum sont exacts.
+ */
+public class Histogramme {
+    /**
+     * Nombre d'intervalles par puissance de 2 (puissance de 2)
+     */
+    private static final int PRECISION = 4;
+    private static final int BITS_PRECISION = Integer.numberOfTrailingZeros(PRECISION);
+    private static final int NB_INTERVALLES = (Long.SIZE - BITS_PRECISION) * PRECISION;
+
+    private final AtomicLongArray nombres;
+    private final LongAdder nombre;
+    private final LongAdder somme;
+    private final AtomicLong max;
+
+    public Histogramme() {
+        nombres = new AtomicLongArray(NB_INTERVALLES);
+        nombre = new LongAdder();
+        somme = new LongAdder();
+        max = new AtomicLong();
+    }
+
+    /**
+     * Ajoute une durée à l'histogramme
+     *
+     * @param nanos durée en nanosecondes
+     */
+    public void enregistrer(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        nombres.incrementAndGet(intervalle(micros));
+        nombre.increment();
+        somme.add(micros);
+        max.accumulateAndGet(micros, Math::max);
+    }
+
+    /**
+     * @return le résumé des durées enregistrées jusqu'ici
+     */
+    public ResumeHistogramme getResume() {
+        long[] copie = new long[NB_INTERVALLES];
+        long total = 0;
+        for (int i = 0; i < NB_INTERVALLES; i++) {
+            copie[i] = nombres.get(i);
+            total += copie[i];
+        }
+        long n = nombre.sum();
+        return new ResumeHistogramme(total, n == 0 ? 0 : (double) somme.sum() / n,
+                centile(copie, total, 0.5), centile(copie, total, 0.9), centile(copie, total, 0.99), max.get());
+    }
+
+    /**
+     * @return la borne supérieure de l'intervalle qui contient le centile {@code p} des durées
+     */
+    private static long centile(long[] nombres, long total, double p) {
+        long rang = (long) Math.ceil(p * total);
+        long cumul = 0;
+        for (int i = 0; i < nombres.length; i++) {
+            cumul += nombres[i];
+            if (cumul >= rang && cumul > 0) {
+                return borneSuperieure(i);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return l'indice de l'intervalle qui contient la valeur : les petites valeurs ont chacune leur
+     * intervalle, puis chaque puissance de 2 est découpée en {@code PRECISION} intervalles égaux
+     */
+    static int intervalle(long valeur) {
+        if (valeur < 2 * PRECISION) {
+            return (int) valeur;
+        }
+        int exposant = Long.SIZE - 1 - Long.numberOfLeadingZeros(valeur);
+        int decalage = exposant - BITS_PRECISION;
+        return (decalage + 1) * PRECISION + (int) (valeur >>> decalage) - PRECISION;
+    }
+
+    /**
+     * @return la plus grande valeur rangée dans l'intervalle
+     */
+    static long borneSuperieure(int intervalle) {
+        if (intervalle < 2 * PRECISION) {
+            return intervalle;
+        }
+        int decalage = intervalle / PRECISION - 1;
+        long debut = (long) (intervalle % PRECISION + PRECISION) << decalage;
+        return debut + (1L << decalage) - 1;
+    }
+}
@@ -0,0 +1,63 @@
+package fr.umontpellier.iut.gui;
+
+import java.util.Collection;
+
+/**
+ * Indicateurs de l'ensemble des tables du serveur (voir {@code MetriquesServeurMXBean}), calculés à chaque
+ * lecture à partir des tables hébergées
+ */
+public class MetriquesServeur implements MetriquesServeurMXBean {
+    public static final String NOM = "fr.umontpellier.iut.rails:type=Serveur";
+
+    private final Collection<Table> tables;
+
+    /**
+     * @param tables vue sur les tables hébergées par le serveur
+     */
+    public MetriquesServeur(Collection<Table> tables) {
+        this.tables = tables;
+    }
+
+    @Override
+    public int getNbTables() {
+        return tables.size();
+    }
+
+    @Override
+    public int getNbPartiesActives() {
+        int nb = 0;
+        for (Table table : tables) {
+            if (!table.estTerminee()) {
+                nb++;
+            }
+        }
+        return nb;
+    }
+
+    @Override
+    public int getNbSessions() {
+        int nb = 0;
+        for (Table table : tables) {
+            nb += table.getNbClients();
+        }
+        return nb;
+    }
+
+    @Override
+    public int getNbEntreesEnAttente() {
+        int nb = 0;
+        for (Table table : tables) {
+            nb += table.getJeu().getNbEntreesEnAttente();
+        }
+        return nb;
+    }
+
+    @Override
+    public double getPromptsParSeconde() {
+        double total = 0;
+        for (Table table : tables) {
+            total += table.getMetriques().getPromptsParSeconde();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,35 @@
+package fr.umontpellier.iut.gui;
+
+/**
+ * Indicateurs de l'ensemble des tables du serveur, publiés par JMX sous le nom
+ * {@code fr.umontpellier.iut.rails:type=Serveur}. Le détail de chaque table est publié par
+ * {@code MetriquesTableMXBean}.
+ */
+public interface MetriquesServeurMXBean {
+    /**
+     * @return le nombre de tables hébergées (parties en cours et parties terminées qui ont encore des
+     * clients)
+     */
+    int getNbTables();
+
+    /**
+     * @return le nombre de parties en cours
+     */
+    int getNbPartiesActives();
+
+    /**
+     * @return le nombre de sessions websocket connectées à une table
+     */
+    int getNbSessions();
+
+    /**
+     * @return le nombre total d'entrées reçues des clients et pas encore lues par les parties
+     */
+    int getNbEntreesEnAttente();
+
+    /**
+     * @return le nombre moyen d'états publiés par seconde, toutes tables confondues, sur les dernières
+     * secondes
+     */
+    double getPromptsParSeconde();
+}
@@ -0,0 +1,204 @@
+package fr.umontpellier.iut.gui;
+
+import fr.umontpellier.iut.rails.Jeu;
+import fr.umontpellier.iut.rails.Joueur;
+import fr.umontpellier.iut.rails.Journal;
+
+import javax.management.JMException;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Indicateurs d'une table (voir {@code MetriquesTableMXBean}).
+ * <p>
+ * Les publications d'état sont mesurées par {@code Table.publier}, les envois par les clients de la table.
+ * La durée des tours est mesurée par un journal (voir {@code suivre}) : un tour dure d'un début de tour au
+ * suivant et est attribué au joueur courant au début du tour.
+ */
+public class MetriquesTable implements MetriquesTableMXBean {
+    private final Table table;
+    private final LongAdder nbPrompts;
+    private final Debit prompts;
+    private volatile int tailleDernierDelta;
+    private volatile int tailleDernierEtatComplet;
+    private final Histogramme latencePublication;
+    private final Histogramme latenceDiffusion;
+    /**
+     * Durées des tours de chaque joueur (la map n'est plus modifiée après la construction)
+     */
+    private final Map<Joueur, Histogramme> dureesTours;
+
+    public MetriquesTable(Table table) {
+        this.table = table;
+        nbPrompts = new LongAdder();
+        prompts = new Debit();
+        latencePublication = new Histogramme();
+        latenceDiffusion = new Histogramme();
+        dureesTours = new LinkedHashMap<>();
+        for (Joueur joueur : table.getJeu().getJoueurs()) {
+            dureesTours.put(joueur, new Histogramme());
+        }
+    }
+
+    /**
+     * @return le nom sous lequel les indicateurs de la table sont publiés par JMX
+     */
+    public static ObjectName getNom(String idTable) {
+        try {
+            return new ObjectName("fr.umontpellier.iut.rails:type=Table,id=" + ObjectName.quote(idTable));
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Publie les indicateurs de la table par JMX
+     */
+    public void enregistrer() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, getNom(table.getId()));
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Retire les indicateurs de la table de JMX
+     */
+    public void retirer() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(getNom(table.getId()));
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Compte un état publié
+     *
+     * @param tailleDelta taille du delta de cette version de l'état
+     * @param nanos       durée de la publication
+     */
+    void prompt(int tailleDelta, long nanos) {
+        nbPrompts.increment();
+        prompts.ajouter();
+        tailleDernierDelta = tailleDelta;
+        latencePublication.enregistrer(nanos);
+    }
+
+    void etatComplet(int taille) {
+        tailleDernierEtatComplet = taille;
+    }
+
+    Histogramme getHistogrammeDiffusion() {
+        return latenceDiffusion;
+    }
+
+    /**
+     * @return un journal qui mesure la durée des tours de la partie et transmet les décisions au journal
+     * {@code suivant} (qui peut être `null`)
+     */
+    Journal suivre(Journal suivant) {
+        return new Journal() {
+            private Joueur joueur;
+            private long debut;
+
+            @Override
+            public void debutTour() {
+                terminerTour();
+                joueur = table.getJeu().getJoueurCourant();
+                debut = System.nanoTime();
+                if (suivant != null) {
+                    suivant.debutTour();
+                }
+            }
+
+            @Override
+            public void choix(int indice) {
+                if (suivant != null) {
+                    suivant.choix(indice);
+                }
+            }
+
+            @Override
+            public void coup(int indice) {
+                if (suivant != null) {
+                    suivant.coup(indice);
+                }
+            }
+
+            @Override
+            public void fermer() {
+                terminerTour();
+                if (suivant != null) {
+                    suivant.fermer();
+                }
+            }
+
+            private void terminerTour() {
+                if (joueur != null) {
+                    dureesTours.get(joueur).enregistrer(System.nanoTime() - debut);
+                    joueur = null;
+                }
+            }
+        };
+    }
+
+    @Override
+    public boolean isTerminee() {
+        return table.estTerminee();
+    }
+
+    @Override
+    public int getNbSessions() {
+        return table.getNbClients();
+    }
+
+    @Override
+    public int getNbEntreesEnAttente() {
+        return table.getJeu().getNbEntreesEnAttente();
+    }
+
+    @Override
+    public long getNbPrompts() {
+        return nbPrompts.sum();
+    }
+
+    @Override
+    public double getPromptsParSeconde() {
+        return prompts.getParSeconde();
+    }
+
+    @Override
+    public int getTailleDernierDelta() {
+        return tailleDernierDelta;
+    }
+
+    @Override
+    public int getTailleDernierEtatComplet() {
+        return tailleDernierEtatComplet;
+    }
+
+    @Override
+    public ResumeHistogramme getLatencePublication() {
+        return latencePublication.getResume();
+    }
+
+    @Override
+    public ResumeHistogramme getLatenceDiffusion() {
+        return latenceDiffusion.getResume();
+    }
+
+    @Override
+    public Map<String, ResumeHistogramme> getDureesTours() {
+        Map<String, ResumeHistogramme> durees = new LinkedHashMap<>();
+        for (Map.Entry<Joueur, Histogramme> entree : dureesTours.entrySet()) {
+            durees.put(entree.getKey().getNom(), entree.getValue().getResume());
+        }
+        return durees;
+    }
+}
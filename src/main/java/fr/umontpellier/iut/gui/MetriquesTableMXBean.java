@@ -0,0 +1,60 @@
+package fr.umontpellier.iut.gui;
+
+import java.util.Map;
+
+/**
+ * Indicateurs d'une table, publiés par JMX sous le nom {@code fr.umontpellier.iut.rails:type=Table,id=<id>}.
+ * Les durées sont en microsecondes et les tailles d'état en caractères.
+ */
+public interface MetriquesTableMXBean {
+    /**
+     * @return vrai si la partie de la table est terminée
+     */
+    boolean isTerminee();
+
+    /**
+     * @return le nombre de sessions websocket connectées à la table
+     */
+    int getNbSessions();
+
+    /**
+     * @return le nombre d'entrées reçues des clients et pas encore lues par la partie
+     */
+    int getNbEntreesEnAttente();
+
+    /**
+     * @return le nombre d'états publiés depuis le début de la partie (un par prompt ou par coup de robot)
+     */
+    long getNbPrompts();
+
+    /**
+     * @return le nombre moyen d'états publiés par seconde sur les dernières secondes
+     */
+    double getPromptsParSeconde();
+
+    /**
+     * @return la taille du dernier delta publié
+     */
+    int getTailleDernierDelta();
+
+    /**
+     * @return la taille du dernier état complet envoyé à un client
+     */
+    int getTailleDernierEtatComplet();
+
+    /**
+     * @return la durée de publication d'un état par le thread de la partie (dépôt dans la file de chaque
+     * client)
+     */
+    ResumeHistogramme getLatencePublication();
+
+    /**
+     * @return la durée entre le dépôt d'un état dans la file d'un client et la fin de son envoi
+     */
+    ResumeHistogramme getLatenceDiffusion();
+
+    /**
+     * @return la durée des tours de chaque joueur, indexée par son nom
+     */
+    Map<String, ResumeHistogramme> getDureesTours();
+}
@@ -0,0 +1,59 @@
+package fr.umontpellier.iut.gui;
+
+import javax.management.ConstructorParameters;
+
+/**
+ * Résumé d'un {@code Histogramme} à un instant donné (durées en microsecondes). Publié par JMX sous forme
+ * de données composites.
+ */
+public class ResumeHistogramme {
+    private final long nombre;
+    private final double moyenne;
+    private final long p50;
+    private final long p90;
+    private final long p99;
+    private final long max;
+
+    @ConstructorParameters({ "nombre", "moyenne", "p50", "p90", "p99", "max" })
+    public ResumeHistogramme(long nombre, double moyenne, long p50, long p90, long p99, long max) {
+        this.nombre = nombre;
+        this.moyenne = moyenne;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.max = max;
+    }
+
+    /**
+     * @return le nombre de durées enregistrées
+     */
+    public long getNombre() {
+        return nombre;
+    }
+
+    public double getMoyenne() {
+        return moyenne;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public long getP90() {
+        return p90;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d moyenne=%.1f p50=%d p90=%d p99=%d max=%d (µs)", nombre, moyenne, p50, p90, p99,
+                max);
+    }
+}
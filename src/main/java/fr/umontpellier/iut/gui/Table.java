@@ -0,0 +1,227 @@
+package fr.umontpellier.iut.gui;
+
+import fr.umontpellier.iut.rails.EtatPartie;
+import fr.umontpellier.iut.rails.Jeu;
+import fr.umontpellier.iut.rails.LogPartie;
+import fr.umontpellier.iut.rails.SerialiseurEtat;
+import fr.umontpellier.iut.rails.SortieEtat;
+
+import javax.websocket.Session;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Partie hébergée par le serveur, avec les clients qui y sont connectés
+ */
+public class Table implements SortieEtat {
+    /**
+     * Identifiant de la table (dernier segment du chemin de connexion des clients)
+     */
+    private final String id;
+    /**
+     * Instance de jeu exécutée par la table
+     */
+    private final Jeu jeu;
+    /**
+     * Clients connectés à la table, indexés par leur session
+     */
+    private final ConcurrentHashMap<Session, ClientConnecte> clients;
+    /**
+     * Thread qui exécute la partie (`null` tant que la partie n'est pas démarrée)
+     */
+    private Thread thread;
+    /**
+     * Indique que la méthode {@code Jeu.run()} de la partie est terminée
+     */
+    private volatile boolean terminee;
+    /**
+     * Indique que la table a été fermée par le serveur : elle n'accepte plus de clients
+     */
+    private boolean fermee;
+    /**
+     * Date de la dernière activité de la table (état publié, entrée reçue, client arrivé ou parti), en
+     * nanosecondes
+     */
+    private volatile long derniereActivite;
+    /**
+     * Indicateurs de la table (publiés par JMX par {@code GameServer})
+     */
+    private final MetriquesTable metriques;
+
+    public Table(String id, Jeu jeu) {
+        this.id = id;
+        this.jeu = jeu;
+        clients = new ConcurrentHashMap<>();
+        metriques = new MetriquesTable(this);
+        derniereActivite = System.nanoTime();
+        jeu.setSortieEtat(this);
+        jeu.setJournal(metriques.suivre(jeu.getJournal()));
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Jeu getJeu() {
+        return jeu;
+    }
+
+    public MetriquesTable getMetriques() {
+        return metriques;
+    }
+
+    public int getNbClients() {
+        return clients.size();
+    }
+
+    public boolean estTerminee() {
+        return terminee;
+    }
+
+    /**
+     * Démarre la partie dans un thread créé par la fabrique passée en argument (sans effet si la partie
+     * est déjà démarrée)
+     *
+     * @param fabrique   fabrique des threads de parties
+     * @param finPartie  action exécutée par le thread de la partie lorsque celle-ci se termine
+     */
+    public synchronized void demarrer(ThreadFactory fabrique, Runnable finPartie) {
+        if (thread == null && !fermee) {
+            thread = fabrique.newThread(() -> {
+                try {
+                    jeu.run();
+                } catch (CancellationException e) {
+                    // la table a été fermée pendant que la partie attendait une entrée
+                } finally {
+                    terminee = true;
+                    finPartie.run();
+                }
+            });
+            thread.setName("partie-" + id);
+            thread.start();
+        }
+    }
+
+    /**
+     * Ferme la table si aucun client n'y est connecté et qu'il ne s'y est rien passé depuis le délai passé en
+     * argument : la table n'accepte plus de clients et le thread de la partie est interrompu (la partie se
+     * termine dès qu'elle attend une entrée, voir {@code Jeu.lireLigne})
+     *
+     * @param delaiNanos délai d'inactivité, en nanosecondes
+     * @return vrai si la table est fermée
+     */
+    public synchronized boolean fermerSiInactive(long delaiNanos) {
+        if (!fermee) {
+            if (!clients.isEmpty() || System.nanoTime() - derniereActivite < delaiNanos) {
+                return false;
+            }
+            fermee = true;
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Ajoute une nouvelle instruction à la file d'instructions de la partie
+     */
+    public void addInput(String message) {
+        derniereActivite = System.nanoTime();
+        jeu.addInput(message);
+    }
+
+    /**
+     * Dépose la nouvelle version de l'état dans la file d'envoi de chaque client de la table (sans
+     * attendre que les clients l'aient reçue). Les clients historiques reçoivent l'état complet, les
+     * clients différentiels reçoivent le delta, ou l'état complet versionné s'ils n'ont encore reçu aucun
+     * état complet ou si le message précédent n'a pas encore pu leur être envoyé.
+     *
+     * @param etat l'état versionné de la partie
+     */
+    @Override
+    public void publier(EtatPartie etat) {
+        long debut = System.nanoTime();
+        derniereActivite = debut;
+        for (ClientConnecte client : clients.values()) {
+            if (!client.estDifferentiel()) {
+                deposerEtatComplet(client, etat.getComplet());
+            } else if (!client.estSynchronise() || !client.envoyerSiFileVide(etat.getDelta())) {
+                deposerEtatComplet(client, etat.getCompletVersionne());
+                client.setSynchronise(true);
+            }
+        }
+        metriques.prompt(etat.getDelta().length(), System.nanoTime() - debut);
+    }
+
+    /**
+     * Ajoute un nouveau client à la table, et lui transmet l'état actuel de la partie
+     *
+     * @param session      la session du client
+     * @param differentiel vrai si le client reçoit l'état versionné (état complet puis deltas)
+     * @return faux si la table a été fermée (le client n'est pas ajouté)
+     */
+    public synchronized boolean addClient(Session session, boolean differentiel) {
+        if (fermee) {
+            return false;
+        }
+        derniereActivite = System.nanoTime();
+        ClientConnecte client = new ClientConnecte(session, differentiel, metriques.getHistogrammeDiffusion());
+        clients.put(session, client);
+        envoyerEtatComplet(client);
+        return true;
+    }
+
+    /**
+     * Renvoie l'état complet de la partie à un client (sur demande du client, lorsqu'il a manqué un delta)
+     */
+    public void resynchroniser(Session session) {
+        ClientConnecte client = clients.get(session);
+        if (client != null) {
+            envoyerEtatComplet(client);
+        }
+    }
+
+    /**
+     * Envoie à un client une page d'anciennes lignes du log, au format
+     * {@code {"type":"log","debut":n,"log":[...]}} où {@code n} est le numéro de la première ligne
+     * renvoyée. Seules les lignes encore conservées en mémoire par la partie peuvent être renvoyées.
+     *
+     * @param session la session du client
+     * @param avant   numéro de la ligne qui suit la page demandée
+     * @param nombre  nombre de lignes demandées
+     */
+    public void envoyerPageLog(Session session, long avant, int nombre) {
+        ClientConnecte client = clients.get(session);
+        if (client != null) {
+            LogPartie log = jeu.getLog();
+            List<String> lignes = log.getMessages(avant - nombre, avant);
+            long debut = Math.max(0, Math.min(avant, log.getNbMessages()) - lignes.size());
+            client.repondre("{\"type\":\"log\",\"debut\":" + debut + ",\"log\":" + SerialiseurEtat.GSON.toJson(lignes) + "}");
+        }
+    }
+
+    private void envoyerEtatComplet(ClientConnecte client) {
+        EtatPartie etat = jeu.getEtatPartie();
+        // aucun état n'existe tant que la partie n'a pas encore affiché son premier prompt
+        if (etat.getSequence() > 0) {
+            deposerEtatComplet(client, client.estDifferentiel() ? etat.getCompletVersionne() : etat.getComplet());
+            client.setSynchronise(true);
+        }
+    }
+
+    private void deposerEtatComplet(ClientConnecte client, String etat) {
+        metriques.etatComplet(etat.length());
+        client.envoyer(etat);
+    }
+
+    /**
+     * Retire un client de la table
+     */
+    public void removeClient(Session session) {
+        derniereActivite = System.nanoTime();
+        clients.remove(session);
+    }
+}
@@ -0,0 +1,39 @@
+package fr.umontpellier.iut.gui;
+
+import fr.umontpellier.iut.rails.ia.DecideurGlouton;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Test de charge du serveur : crée un grand nombre de tables dont toutes les places sont tenues par des
+ * robots gloutons, attend la fin de toutes les parties et affiche le débit obtenu.
+ * <p>
+ * Les parties passent par le même chemin que sur le serveur (un thread par table, publication de l'état
+ * avant chaque coup), mais sans websocket. Leur sortie console est ignorée.
+ * <p>
+ * Usage : {@code TestDeCharge [nombre de tables, 1000 par défaut]}
+ */
+public class TestDeCharge {
+    public static void main(String[] args) throws InterruptedException {
+        int nbTables = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        GameServer.setRobots(4, DecideurGlouton::new);
+
+        long debut = System.nanoTime();
+        for (int i = 0; i < nbTables; i++) {
+            GameServer.getTable("charge-" + i);
+        }
+        int maxTables = 0;
+        while (GameServer.getNbTables() > 0) {
+            maxTables = Math.max(maxTables, GameServer.getNbTables());
+            Thread.sleep(50);
+        }
+        double secondes = (System.nanoTime() - debut) / 1e9;
+
+        System.setOut(console);
+        console.printf("%d parties en %.2f s (%.0f parties/s, jusqu'à %d tables simultanées)%n",
+                nbTables, secondes, nbTables / secondes, maxTables);
+    }
+}
@@ -3,16 +3,19 @@ package fr.umontpellier.iut.gui;
 import javax.websocket.*;
 import javax.websocket.server.ServerEndpoint;
 
+/**
+ * Point de connexion des clients à la racine du serveur (ils rejoignent la table par défaut)
+ */
 @ServerEndpoint(value = "/")
 public class WebSocketClient {
     @OnOpen
     public void onOpen(Session session) {
-        GameServer.addClient(session);
+        GameServer.addClient(GameServer.TABLE_PAR_DEFAUT, session);
     }
 
     @OnMessage
     public void onMessage(String message, Session session) {
-        GameServer.addInput(message);
+        GameServer.addInput(session, message);
     }
 
     @OnClose
@@ -25,4 +28,4 @@ public class WebSocketClient {
         exception.printStackTrace();
         System.err.println("Error for client: " + session.getId());
     }
-}
\ No newline at end of file
+}
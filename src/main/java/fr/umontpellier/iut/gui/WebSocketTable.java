@@ -0,0 +1,43 @@
+package fr.umontpellier.iut.gui;
+
+import javax.websocket.*;
+import javax.websocket.server.PathParam;
+import javax.websocket.server.ServerEndpoint;
+import java.io.IOException;
+
+/**
+ * Point de connexion des clients à une table choisie par son identifiant ({@code /parties/<id>}).
+ * La table est créée (et sa partie démarrée) à la première connexion. Les connexions dont l'identifiant
+ * n'est pas accepté par {@code GameServer.estIdentifiantValide} sont refusées.
+ */
+@ServerEndpoint(value = "/parties/{table}")
+public class WebSocketTable {
+    @OnOpen
+    public void onOpen(Session session, @PathParam("table") String table) {
+        if (!GameServer.estIdentifiantValide(table)) {
+            try {
+                session.close(new CloseReason(CloseReason.CloseCodes.CANNOT_ACCEPT, "identifiant de table invalide"));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            return;
+        }
+        GameServer.addClient(table, session);
+    }
+
+    @OnMessage
+    public void onMessage(String message, Session session) {
+        GameServer.addInput(session, message);
+    }
+
+    @OnClose
+    public void onClose(Session session) {
+        GameServer.removeClient(session);
+    }
+
+    @OnError
+    public void onError(Throwable exception, Session session) {
+        exception.printStackTrace();
+        System.err.println("Error for client: " + session.getId());
+    }
+}
@@ -0,0 +1,238 @@
+package fr.umontpellier.iut.rails;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Longueur du plus long chemin continu d'un joueur (bonus « European Express »), c'est-à-dire du plus long
+ * parcours de ses routes qui n'emprunte pas deux fois la même route (il peut repasser par une ville).
+ * <p>
+ * Le calcul est une recherche en profondeur sur le sous-graphe des routes du joueur, où l'ensemble des
+ * routes déjà parcourues est un masque de bits (un joueur a au plus 45 routes, puisqu'il n'a que 45 wagons), avec mémorisation du plus
+ * long prolongement possible depuis chaque couple (ville, routes parcourues). Un parcours le plus long qui
+ * ne revient pas à son départ commence forcément sur une ville de degré impair ; les recherches ne partent
+ * donc que de ces villes, et d'une seule ville des composantes dont tous les degrés sont pairs.
+ * <p>
+ * Le résultat est conservé d'un tour à l'autre et n'est recalculé qu'après un changement des routes du
+ * joueur.
+ */
+public class CheminLePlusLong implements EcouteurRoutes {
+    /**
+     * Nombre maximal de routes d'un joueur pris en charge (un joueur n'a que 45 wagons)
+     */
+    private static final int NB_ROUTES_MAX = 56;
+
+    private final Joueur joueur;
+    private final Plateau plateau;
+    /**
+     * Routes du joueur lors du dernier calcul
+     */
+    private final BitSet routes;
+    private boolean aJour;
+    private int longueur;
+
+    // sous-graphe du joueur pendant un calcul (villes et routes renumérotées à partir de 0)
+    private int[] villes1;
+    private int[] villes2;
+    private int[] longueurs;
+    /**
+     * Masque des routes qui partent de chaque ville
+     */
+    private long[] incidentes;
+    /**
+     * Table de mémorisation à adressage ouvert : clés (ville, routes parcourues), 0 pour une case vide
+     */
+    private long[] cles = new long[1 << 10];
+    private int[] valeurs = new int[1 << 10];
+    private int nbCles;
+
+    public CheminLePlusLong(Joueur joueur, Plateau plateau) {
+        this.joueur = joueur;
+        this.plateau = plateau;
+        routes = new BitSet(plateau.getNbRoutes());
+        plateau.ajouterEcouteur(this);
+    }
+
+    @Override
+    public void proprietaireModifie(Route route) {
+        if (route.getProprietaire() == joueur || routes.get(route.getId())) {
+            aJour = false;
+        }
+    }
+
+    /**
+     * @return la longueur (en wagons) du plus long chemin continu du joueur
+     */
+    public int getLongueur() {
+        if (!aJour) {
+            longueur = calculer();
+            aJour = true;
+        }
+        return longueur;
+    }
+
+    private int calculer() {
+        routes.clear();
+        for (Route route : plateau.getRoutes()) {
+            if (route.getProprietaire() == joueur) {
+                routes.set(route.getId());
+            }
+        }
+        int nbRoutes = routes.cardinality();
+        if (nbRoutes > NB_ROUTES_MAX) {
+            throw new IllegalStateException(joueur.getNom() + " a plus de " + NB_ROUTES_MAX + " routes");
+        }
+        // renumérotation des villes du sous-graphe
+        int[] numeros = new int[plateau.getNbVilles()];
+        Arrays.fill(numeros, -1);
+        int nbVilles = 0;
+        villes1 = new int[nbRoutes];
+        villes2 = new int[nbRoutes];
+        longueurs = new int[nbRoutes];
+        int e = 0;
+        for (int id = routes.nextSetBit(0); id >= 0; id = routes.nextSetBit(id + 1), e++) {
+            Route route = plateau.getRoute(id);
+            int v1 = route.getVille1().getId();
+            int v2 = route.getVille2().getId();
+            if (numeros[v1] < 0) {
+                numeros[v1] = nbVilles++;
+            }
+            if (numeros[v2] < 0) {
+                numeros[v2] = nbVilles++;
+            }
+            villes1[e] = numeros[v1];
+            villes2[e] = numeros[v2];
+            longueurs[e] = route.getLongueur();
+        }
+        incidentes = new long[nbVilles];
+        for (e = 0; e < nbRoutes; e++) {
+            incidentes[villes1[e]] |= 1L << e;
+            incidentes[villes2[e]] |= 1L << e;
+        }
+
+        // composantes dont toutes les villes sont de degré pair : on part de leur première ville
+        int[] composantes = new int[nbVilles];
+        Arrays.fill(composantes, -1);
+        boolean[] composantePaire = new boolean[nbVilles];
+        for (int v = 0; v < nbVilles; v++) {
+            if (composantes[v] < 0) {
+                composantePaire[v] = marquer(v, v, composantes);
+            }
+        }
+
+        Arrays.fill(cles, 0L);
+        nbCles = 0;
+        int meilleure = 0;
+        for (int v = 0; v < nbVilles; v++) {
+            boolean impaire = Long.bitCount(incidentes[v]) % 2 == 1;
+            if (impaire || (composantes[v] == v && composantePaire[v])) {
+                meilleure = Math.max(meilleure, prolonger(v, 0L));
+            }
+        }
+        return meilleure;
+    }
+
+    /**
+     * Marque la composante de la ville {@code v} avec le numéro {@code composante}
+     *
+     * @return vrai si toutes les villes marquées sont de degré pair
+     */
+    private boolean marquer(int v, int composante, int[] composantes) {
+        composantes[v] = composante;
+        boolean paire = Long.bitCount(incidentes[v]) % 2 == 0;
+        for (long masque = incidentes[v]; masque != 0; masque &= masque - 1) {
+            int e = Long.numberOfTrailingZeros(masque);
+            int voisine = villes1[e] == v ? villes2[e] : villes1[e];
+            if (composantes[voisine] < 0) {
+                paire &= marquer(voisine, composante, composantes);
+            }
+        }
+        return paire;
+    }
+
+    /**
+     * @return la longueur du plus long parcours qui part de la ville {@code v} sans emprunter les routes de
+     * {@code parcourues}
+     */
+    private int prolonger(int v, long parcourues) {
+        if ((incidentes[v] & ~parcourues) == 0) {
+            return 0;
+        }
+        // le prolongement ne dépend que des routes libres encore accessibles depuis v : elles seules forment
+        // la clé (au plus 56 routes et 112 villes, +1 pour que la clé ne soit jamais nulle)
+        long accessibles = accessibles(v, ~parcourues);
+        long cle = (accessibles << 7 | v) + 1;
+        int connue = chercher(cle);
+        if (connue >= 0) {
+            return connue;
+        }
+        int meilleure = 0;
+        for (long masque = incidentes[v] & accessibles; masque != 0; masque &= masque - 1) {
+            int e = Long.numberOfTrailingZeros(masque);
+            int voisine = villes1[e] == v ? villes2[e] : villes1[e];
+            meilleure = Math.max(meilleure, longueurs[e] + prolonger(voisine, parcourues | 1L << e));
+        }
+        memoriser(cle, meilleure);
+        return meilleure;
+    }
+
+    /**
+     * @return le masque des routes de {@code libres} que l'on peut atteindre depuis la ville {@code v} en
+     * n'empruntant que des routes de {@code libres}
+     */
+    private long accessibles(int v, long libres) {
+        long atteintes = 0;
+        long aVisiter = incidentes[v] & libres;
+        while (aVisiter != 0) {
+            int e = Long.numberOfTrailingZeros(aVisiter);
+            atteintes |= 1L << e;
+            aVisiter = (aVisiter | incidentes[villes1[e]] | incidentes[villes2[e]]) & libres & ~atteintes;
+        }
+        return atteintes;
+    }
+
+    /**
+     * @return la valeur mémorisée pour la clé, ou -1 si elle est absente
+     */
+    private int chercher(long cle) {
+        int masque = cles.length - 1;
+        for (int i = hacher(cle) & masque; cles[i] != 0; i = (i + 1) & masque) {
+            if (cles[i] == cle) {
+                return valeurs[i];
+            }
+        }
+        return -1;
+    }
+
+    private void memoriser(long cle, int valeur) {
+        if (2 * (nbCles + 1) > cles.length) {
+            agrandir();
+        }
+        int masque = cles.length - 1;
+        int i = hacher(cle) & masque;
+        while (cles[i] != 0) {
+            i = (i + 1) & masque;
+        }
+        cles[i] = cle;
+        valeurs[i] = valeur;
+        nbCles++;
+    }
+
+    private void agrandir() {
+        long[] anciennesCles = cles;
+        int[] anciennesValeurs = valeurs;
+        cles = new long[2 * anciennesCles.length];
+        valeurs = new int[2 * anciennesCles.length];
+        nbCles = 0;
+        for (int i = 0; i < anciennesCles.length; i++) {
+            if (anciennesCles[i] != 0) {
+                memoriser(anciennesCles[i], anciennesValeurs[i]);
+            }
+        }
+    }
+
+    private static int hacher(long cle) {
+        long h = cle * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ h >>> 32);
+    }
+}
@@ -0,0 +1,164 @@
+package fr.umontpellier.iut.rails;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Action de début de tour d'un joueur, représentée par son type et un identifiant entier (couleur de la
+ * carte, identifiant de la route ou de la ville dans le plateau).
+ * <p>
+ * Les choix secondaires qui suivent certains coups sont représentés de la même façon : carte à payer pour
+ * une route, une gare ou le supplément d'un tunnel ({@code PAYER}), destination à défausser
+ * ({@code DEFAUSSER_DESTINATION}). Les décideurs et le moteur de jeu partagent ainsi les mêmes
+ * identifiants, sans passer par des chaînes de caractères.
+ * <p>
+ * Les coups sont créés une seule fois (voir {@code Coup.de}) : deux coups égaux sont le même objet, et
+ * produire la liste des coups d'un joueur n'alloue pas de nouveaux coups.
+ */
+public final class Coup {
+    public enum Type {
+        /**
+         * Prendre une carte wagon face visible (identifiant : {@code CouleurWagon.ordinal()})
+         */
+        CARTE_VISIBLE,
+        /**
+         * Piocher une carte wagon face cachée
+         */
+        CARTE_PIOCHE,
+        /**
+         * Piocher des cartes destination
+         */
+        DESTINATIONS,
+        /**
+         * Capturer une route (identifiant : {@code Route.getId()})
+         */
+        ROUTE,
+        /**
+         * Construire une gare (identifiant : {@code Ville.getId()})
+         */
+        GARE,
+        /**
+         * Passer son tour
+         */
+        PASSER,
+        /**
+         * Payer une carte wagon de sa main (identifiant : {@code CouleurWagon.ordinal()})
+         */
+        PAYER,
+        /**
+         * Défausser une des destinations proposées (identifiant : indice de la destination dans la liste
+         * proposée)
+         */
+        DEFAUSSER_DESTINATION
+    }
+
+    /**
+     * Nombre maximal d'identifiants pour un type de coup (le plateau Europe a 101 routes et 47 villes)
+     */
+    public static final int NB_MAX_IDS = 256;
+    private static final CouleurWagon[] COULEURS = CouleurWagon.values();
+    private static final Coup[][] COUPS = new Coup[Type.values().length][NB_MAX_IDS];
+
+    static {
+        for (Type type : Type.values()) {
+            for (int id = 0; id < NB_MAX_IDS; id++) {
+                COUPS[type.ordinal()][id] = new Coup(type, id);
+            }
+        }
+    }
+
+    public static final Coup CARTE_PIOCHE = de(Type.CARTE_PIOCHE, 0);
+    public static final Coup DESTINATIONS = de(Type.DESTINATIONS, 0);
+    public static final Coup PASSER = de(Type.PASSER, 0);
+
+    private final Type type;
+    private final int id;
+
+    private Coup(Type type, int id) {
+        this.type = type;
+        this.id = id;
+    }
+
+    /**
+     * @return le coup du type et de l'identifiant passés en argument
+     */
+    public static Coup de(Type type, int id) {
+        if (id < 0 || id >= NB_MAX_IDS) {
+            throw new IllegalArgumentException("identifiant de coup invalide : " + id);
+        }
+        return COUPS[type.ordinal()][id];
+    }
+
+    public static Coup carteVisible(CouleurWagon couleur) {
+        return de(Type.CARTE_VISIBLE, couleur.ordinal());
+    }
+
+    public static Coup route(Route route) {
+        return de(Type.ROUTE, route.getId());
+    }
+
+    public static Coup gare(Ville ville) {
+        return de(Type.GARE, ville.getId());
+    }
+
+    public static Coup payer(CouleurWagon couleur) {
+        return de(Type.PAYER, couleur.ordinal());
+    }
+
+    /**
+     * @param indice indice de la destination dans la liste des destinations proposées
+     */
+    public static Coup defausserDestination(int indice) {
+        return de(Type.DEFAUSSER_DESTINATION, indice);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return la couleur de la carte visible prise ou de la carte payée (uniquement pour un coup
+     * CARTE_VISIBLE ou PAYER)
+     */
+    public CouleurWagon getCouleur() {
+        return COULEURS[id];
+    }
+
+    /**
+     * @return le libellé du coup dans les entrées textuelles (interface graphique, console) : nom de la
+     * couleur en majuscules, "GRIS" pour la pioche, "destinations", nom de la route ou de la ville, ou la
+     * chaîne vide pour passer. Le plateau ne connaît pas les destinations proposées : le libellé d'une
+     * défausse de destination est son indice ({@code Joueur.choisirDestinations} présente leurs noms).
+     */
+    public String getLibelle(Plateau plateau) {
+        return switch (type) {
+            case CARTE_VISIBLE, PAYER -> getCouleur().name();
+            case CARTE_PIOCHE -> "GRIS";
+            case DESTINATIONS -> "destinations";
+            case ROUTE -> plateau.getRoute(id).getNom();
+            case GARE -> plateau.getVille(id).getNom();
+            case PASSER -> "";
+            case DEFAUSSER_DESTINATION -> Integer.toString(id);
+        };
+    }
+
+    /**
+     * @return les libellés des coups passés en argument, dans le même ordre
+     */
+    public static List<String> getLibelles(List<Coup> coups, Plateau plateau) {
+        List<String> libelles = new ArrayList<>(coups.size());
+        for (Coup coup : coups) {
+            libelles.add(coup.getLibelle(plateau));
+        }
+        return libelles;
+    }
+
+    @Override
+    public String toString() {
+        return type + "(" + id + ")";
+    }
+}
@@ -0,0 +1,44 @@
+package fr.umontpellier.iut.rails;
+
+import java.util.List;
+
+/**
+ * Source de décisions d'un joueur, utilisée à la place des entrées clavier ou de la websocket.
+ * <p>
+ * Lorsqu'un joueur a un décideur, {@code Joueur.choisir} ne passe plus par {@code Jeu.prompt} ni par
+ * {@code Jeu.lireLigne} : le choix est demandé directement au décideur, ce qui permet de faire tourner
+ * des parties complètes sans interface (simulations, robots).
+ */
+public interface Decideur {
+    /**
+     * Renvoie le choix du joueur parmi les choix valides, pour les questions textuelles posées par
+     * {@code Joueur.choisir} (les décisions du jeu passent par {@code choisirCoup}).
+     *
+     * @param joueur      le joueur qui doit faire un choix
+     * @param instruction l'instruction qui aurait été affichée au joueur
+     * @param choix       la liste des choix valides (sans doublons, jamais vide)
+     * @param peutPasser  indique si le joueur peut passer (en renvoyant la chaîne vide)
+     * @return un élément de {@code choix}, ou la chaîne vide si {@code peutPasser} est vrai
+     */
+    String choisir(Joueur joueur, String instruction, List<String> choix, boolean peutPasser);
+
+    /**
+     * Renvoie le coup choisi par le joueur parmi les coups possibles. Les coups proposés sont soit des coups
+     * de début de tour, soit tous des choix secondaires du même type ({@code PAYER} ou
+     * {@code DEFAUSSER_DESTINATION}).
+     * <p>
+     * Par défaut, les coups sont traduits en libellés et le choix est fait par {@code choisir} ; les
+     * décideurs qui raisonnent directement sur les coups redéfinissent cette méthode.
+     *
+     * @param joueur      le joueur qui doit faire un choix
+     * @param instruction l'instruction qui aurait été affichée au joueur
+     * @param coups       la liste des coups possibles (sans doublons, jamais vide)
+     * @param peutPasser  indique si le joueur peut passer (en renvoyant {@code Coup.PASSER})
+     * @return un élément de {@code coups}, ou {@code Coup.PASSER} si {@code peutPasser} est vrai
+     */
+    default Coup choisirCoup(Joueur joueur, String instruction, List<Coup> coups, boolean peutPasser) {
+        List<String> libelles = Coup.getLibelles(coups, joueur.getJeu().getPlateau());
+        String choix = choisir(joueur, instruction, libelles, peutPasser);
+        return choix.equals("") ? Coup.PASSER : coups.get(libelles.indexOf(choix));
+    }
+}
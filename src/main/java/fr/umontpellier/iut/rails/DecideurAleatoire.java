@@ -0,0 +1,44 @@
+package fr.umontpellier.iut.rails;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Décideur qui choisit uniformément au hasard parmi les choix valides.
+ * Quand il est autorisé à passer, il ne le fait qu'avec une probabilité fixée.
+ */
+public class DecideurAleatoire implements Decideur {
+    /**
+     * Générateur utilisé pour tous les tirages (une graine fixée rend les parties reproductibles)
+     */
+    private final Random random;
+    /**
+     * Probabilité de passer lorsque c'est autorisé
+     */
+    private final double probabilitePasser;
+
+    public DecideurAleatoire(Random random, double probabilitePasser) {
+        this.random = random;
+        this.probabilitePasser = probabilitePasser;
+    }
+
+    public DecideurAleatoire(Random random) {
+        this(random, 0.1);
+    }
+
+    @Override
+    public String choisir(Joueur joueur, String instruction, List<String> choix, boolean peutPasser) {
+        if (peutPasser && random.nextDouble() < probabilitePasser) {
+            return "";
+        }
+        return choix.get(random.nextInt(choix.size()));
+    }
+
+    @Override
+    public Coup choisirCoup(Joueur joueur, String instruction, List<Coup> coups, boolean peutPasser) {
+        if (peutPasser && random.nextDouble() < probabilitePasser) {
+            return Coup.PASSER;
+        }
+        return coups.get(random.nextInt(coups.size()));
+    }
+}
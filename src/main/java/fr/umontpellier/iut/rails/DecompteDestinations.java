@@ -0,0 +1,172 @@
+package fr.umontpellier.iut.rails;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Décompte des points de destinations d'un joueur en fin de partie, en tenant compte de ses gares.
+ * <p>
+ * Chaque gare permet à son propriétaire d'emprunter une route d'un adversaire partant de la ville de la
+ * gare. Le décompte cherche l'affectation des routes empruntées qui maximise les points de destinations
+ * (valeur des destinations réalisées moins valeur des destinations non réalisées), par une recherche en
+ * profondeur sur les gares :
+ * <ul>
+ * <li>le réseau du joueur est représenté par une structure union-find sur les identifiants des villes,
+ * recopiée à chaque niveau de la recherche (un tableau par gare, sans allocation pendant la recherche) ;</li>
+ * <li>emprunter une route ne peut qu'ajouter des destinations réalisées : seules les routes qui relient
+ * deux composantes différentes sont essayées, et une gare n'emprunte rien seulement si aucune route
+ * n'est utile ;</li>
+ * <li>une seule route est essayée par ville voisine (les deux voies d'une route double sont
+ * équivalentes) ;</li>
+ * <li>la recherche s'arrête dès que toutes les destinations sont réalisées.</li>
+ * </ul>
+ */
+public class DecompteDestinations {
+    private final Plateau plateau;
+    /**
+     * Routes que chaque gare peut emprunter (ensembles d'identifiants de routes)
+     */
+    private final List<BitSet> empruntsPossibles = new ArrayList<>();
+    /**
+     * Villes (identifiants) et valeurs des destinations du joueur dont les villes sont sur le plateau
+     */
+    private final int[] villes1;
+    private final int[] villes2;
+    private final int[] valeurs;
+    /**
+     * Points des destinations dont une ville n'est pas sur le plateau (jamais réalisables)
+     */
+    private int pointsFixes;
+    /**
+     * Réseau union-find à chaque profondeur de la recherche (indice 0 : routes du joueur seulement)
+     */
+    private final int[][] parents;
+    /**
+     * Routes empruntées sur le chemin courant de la recherche
+     */
+    private final BitSet emprunts = new BitSet();
+    private final int pointsMax;
+    private int meilleursPoints = Integer.MIN_VALUE;
+    private BitSet meilleursEmprunts = new BitSet();
+
+    /**
+     * Calcule le meilleur décompte des destinations du joueur
+     */
+    public DecompteDestinations(Joueur joueur) {
+        plateau = joueur.getJeu().getPlateau();
+        for (Ville ville : plateau.getVilles()) {
+            if (ville.getProprietaire() == joueur) {
+                BitSet possibles = new BitSet(plateau.getNbRoutes());
+                BitSet voisines = new BitSet(plateau.getNbVilles());
+                for (Route route : plateau.getRoutes(ville)) {
+                    Ville voisine = route.getVille1() == ville ? route.getVille2() : route.getVille1();
+                    if (route.getProprietaire() != null && route.getProprietaire() != joueur
+                            && !voisines.get(voisine.getId())) {
+                        voisines.set(voisine.getId());
+                        possibles.set(route.getId());
+                    }
+                }
+                empruntsPossibles.add(possibles);
+            }
+        }
+
+        List<Destination> destinations = joueur.getDestinations();
+        villes1 = new int[destinations.size()];
+        villes2 = new int[destinations.size()];
+        valeurs = new int[destinations.size()];
+        int n = 0;
+        int total = 0;
+        for (Destination destination : destinations) {
+            Ville ville1 = plateau.getVille(destination.getVille1());
+            Ville ville2 = plateau.getVille(destination.getVille2());
+            if (ville1 == null || ville2 == null) {
+                pointsFixes -= destination.getValeur();
+            } else {
+                villes1[n] = ville1.getId();
+                villes2[n] = ville2.getId();
+                valeurs[n] = destination.getValeur();
+                total += destination.getValeur();
+                n++;
+            }
+        }
+        pointsMax = total;
+
+        parents = new int[empruntsPossibles.size() + 1][plateau.getNbVilles()];
+        for (int i = 0; i < parents[0].length; i++) {
+            parents[0][i] = i;
+        }
+        for (Route route : plateau.getRoutes()) {
+            if (route.getProprietaire() == joueur) {
+                unir(parents[0], route.getVille1().getId(), route.getVille2().getId());
+            }
+        }
+        chercher(0, n);
+    }
+
+    /**
+     * @return le nombre de points de destinations du joueur (positif ou négatif) avec le meilleur choix des
+     * routes empruntées
+     */
+    public int getPoints() {
+        return meilleursPoints + pointsFixes;
+    }
+
+    /**
+     * @return les identifiants des routes empruntées grâce aux gares dans le meilleur choix
+     */
+    public BitSet getRoutesEmpruntees() {
+        return (BitSet) meilleursEmprunts.clone();
+    }
+
+    /**
+     * Essaie les emprunts possibles de la gare {@code gare} et des suivantes
+     *
+     * @param gare           indice de la gare à traiter (profondeur de la recherche)
+     * @param nbDestinations nombre de destinations prises en compte
+     */
+    private void chercher(int gare, int nbDestinations) {
+        int[] reseau = parents[gare];
+        if (gare == empruntsPossibles.size()) {
+            int points = 0;
+            for (int i = 0; i < nbDestinations; i++) {
+                points += trouver(reseau, villes1[i]) == trouver(reseau, villes2[i]) ? valeurs[i] : -valeurs[i];
+            }
+            if (points > meilleursPoints) {
+                meilleursPoints = points;
+                meilleursEmprunts = (BitSet) emprunts.clone();
+            }
+            return;
+        }
+        int[] suivant = parents[gare + 1];
+        BitSet possibles = empruntsPossibles.get(gare);
+        boolean utile = false;
+        for (int id = possibles.nextSetBit(0); id >= 0 && meilleursPoints < pointsMax; id = possibles.nextSetBit(id + 1)) {
+            Route route = plateau.getRoute(id);
+            if (trouver(reseau, route.getVille1().getId()) != trouver(reseau, route.getVille2().getId())) {
+                utile = true;
+                System.arraycopy(reseau, 0, suivant, 0, reseau.length);
+                unir(suivant, route.getVille1().getId(), route.getVille2().getId());
+                emprunts.set(id);
+                chercher(gare + 1, nbDestinations);
+                emprunts.clear(id);
+            }
+        }
+        if (!utile) {
+            System.arraycopy(reseau, 0, suivant, 0, reseau.length);
+            chercher(gare + 1, nbDestinations);
+        }
+    }
+
+    private static int trouver(int[] parents, int ville) {
+        while (parents[ville] != ville) {
+            parents[ville] = parents[parents[ville]];
+            ville = parents[ville];
+        }
+        return ville;
+    }
+
+    private static void unir(int[] parents, int ville1, int ville2) {
+        parents[trouver(parents, ville1)] = trouver(parents, ville2);
+    }
+}
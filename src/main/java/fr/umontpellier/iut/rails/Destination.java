@@ -2,8 +2,38 @@ package fr.umontpellier.iut.rails;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class Destination {
+    /**
+     * Toutes les destinations du jeu, "courtes" puis "longues" : le rang d'une destination dans cette liste
+     * l'identifie dans les formats binaires (instantanés, archives de simulations)
+     */
+    private static final List<Destination> CATALOGUE;
+    /**
+     * Rang de chaque destination du catalogue
+     */
+    private static final Map<Cle, Integer> RANGS = new HashMap<>();
+
+    static {
+        List<Destination> catalogue = new ArrayList<>(makeDestinationsEurope());
+        catalogue.addAll(makeDestinationsLonguesEurope());
+        CATALOGUE = List.copyOf(catalogue);
+        for (int i = 0; i < CATALOGUE.size(); i++) {
+            RANGS.put(new Cle(CATALOGUE.get(i)), i);
+        }
+    }
+
+    /**
+     * Identifie une destination par ses villes et sa valeur
+     */
+    private record Cle(String ville1, String ville2, int valeur) {
+        Cle(Destination destination) {
+            this(destination.ville1, destination.ville2, destination.valeur);
+        }
+    }
+
     /**
      * Ville de départ
      */
@@ -29,6 +59,18 @@ public class Destination {
         return getNom();
     }
 
+    public String getVille1() {
+        return ville1;
+    }
+
+    public String getVille2() {
+        return ville2;
+    }
+
+    public int getValeur() {
+        return valeur;
+    }
+
     public String getNom() {
         return String.format("%s - %s (%d)", ville1, ville2, valeur);
     }
@@ -41,6 +83,17 @@ public class Destination {
         return data;
     }
 
+    /**
+     * Renvoie la représentation de la destination dans la main d'un joueur, avec l'indicateur
+     * {@code realisee} (vrai si le joueur a déjà relié les deux villes)
+     */
+    public Object asPOJO(boolean realisee) {
+        @SuppressWarnings("unchecked")
+        HashMap<String, Object> data = (HashMap<String, Object>) asPOJO();
+        data.put("realisee", realisee);
+        return data;
+    }
+
     /**
      * @return une liste contenant toutes les destinations "normales" du jeu
      */
@@ -56,7 +109,7 @@ public class Destination {
         destinations.add(new Destination("Zurich", "Budapest", 6));
         destinations.add(new Destination("Warszawa", "Smolensk", 6));
         destinations.add(new Destination("Zagrab", "Brindisi", 6));
-        destinations.add(new Destination("Paris", "Zagreb", 7));
+        destinations.add(new Destination("Paris", "Zagrab", 7));
         destinations.add(new Destination("Brest", "Marseille", 7));
         destinations.add(new Destination("London", "Berlin", 7));
         destinations.add(new Destination("Edinburgh", "Paris", 7));
@@ -74,12 +127,12 @@ public class Destination {
         destinations.add(new Destination("Kyiv", "Sochi", 8));
         destinations.add(new Destination("Madrid", "Zurich", 8));
         destinations.add(new Destination("Berlin", "Bucuresti", 8));
-        destinations.add(new Destination("Bruxelles", "Danzic", 9));
+        destinations.add(new Destination("Bruxelles", "Danzig", 9));
         destinations.add(new Destination("Berlin", "Roma", 9));
         destinations.add(new Destination("Angora", "Kharkov", 10));
         destinations.add(new Destination("Riga", "Bucuresti", 10));
         destinations.add(new Destination("Essen", "Kyiv", 10));
-        destinations.add(new Destination("Venizia", "Constantinople", 10));
+        destinations.add(new Destination("Venezia", "Constantinople", 10));
         destinations.add(new Destination("London", "Wien", 10));
         destinations.add(new Destination("Athina", "Wilno", 11));
         destinations.add(new Destination("Stockholm", "Wien", 11));
@@ -94,7 +147,7 @@ public class Destination {
      */
     public static ArrayList<Destination> makeDestinationsLonguesEurope() {
         ArrayList<Destination> destinations = new ArrayList<>();
-        destinations.add(new Destination("Lisboa", "Danzic", 20));
+        destinations.add(new Destination("Lisboa", "Danzig", 20));
         destinations.add(new Destination("Brest", "Petrograd", 20));
         destinations.add(new Destination("Palermo", "Moskva", 20));
         destinations.add(new Destination("Kobenhavn", "Erzurum", 21));
@@ -102,4 +155,27 @@ public class Destination {
         destinations.add(new Destination("Cadiz", "Stockholm", 21));
         return destinations;
     }
+
+    /**
+     * @return le nombre de destinations du jeu ("courtes" et "longues")
+     */
+    public static int getNbDestinations() {
+        return CATALOGUE.size();
+    }
+
+    /**
+     * @return le rang de la destination parmi toutes les destinations du jeu ("courtes" puis "longues"), ou
+     * -1 si ce n'est pas une destination du jeu
+     */
+    public static int getRang(Destination destination) {
+        Integer rang = RANGS.get(new Cle(destination));
+        return rang == null ? -1 : rang;
+    }
+
+    /**
+     * @return la destination de rang {@code rang} parmi toutes les destinations du jeu
+     */
+    public static Destination getParRang(int rang) {
+        return CATALOGUE.get(rang);
+    }
 }
@@ -0,0 +1,11 @@
+package fr.umontpellier.iut.rails;
+
+/**
+ * Objet prévenu par le plateau à chaque fois qu'une route change de propriétaire
+ */
+public interface EcouteurRoutes {
+    /**
+     * @param route la route dont le propriétaire vient de changer
+     */
+    void proprietaireModifie(Route route);
+}
@@ -0,0 +1,216 @@
+package fr.umontpellier.iut.rails;
+
+import java.util.*;
+
+/**
+ * État versionné d'une partie, tel qu'il est envoyé aux interfaces graphiques.
+ * <p>
+ * L'état est découpé en fragments JSON (un par ville, par route, par joueur, plus les piles, le prompt et
+ * les lignes du log). À chaque nouvelle version ({@code mettreAJour}), seuls les fragments des éléments
+ * qui ont changé sont recalculés, et la liste de ces changements forme le « delta » de la version.
+ * L'état complet est assemblé à partir des fragments, sans resérialiser toute la partie.
+ * <p>
+ * Format des messages versionnés :
+ * <ul>
+ * <li>{@code {"type":"complet","seq":n,"etat":{...}}} où {@code etat} a le même format que l'état
+ * envoyé aux clients historiques ;</li>
+ * <li>{@code {"type":"delta","seq":n,"base":n-1,...}} qui ne contient que les sections modifiées :
+ * {@code prompt}, {@code routes} et {@code villes} (liste des éléments modifiés), {@code joueurs}
+ * (objet indexé par la position du joueur), {@code piles} et {@code log} (nouvelles lignes uniquement,
+ * la première ayant le numéro {@code logDebut}).</li>
+ * </ul>
+ * L'état complet ne contient que les dernières lignes du log (celles que {@code LogPartie} garde en
+ * mémoire) ; son champ {@code logDebut} donne le numéro de la première. Les lignes plus anciennes peuvent
+ * être redemandées page par page.
+ * Un client n'applique un delta que si {@code base} est la version qu'il affiche, et sinon demande un
+ * nouvel état complet.
+ * <p>
+ * Les mises à jour sont faites par le thread de la partie ; les lectures peuvent venir de n'importe quel
+ * thread.
+ */
+public class EtatPartie {
+    /**
+     * Sérialiseur des fragments (utilisé uniquement sous le verrou de l'état)
+     */
+    private final SerialiseurEtat serialiseur = new SerialiseurEtat();
+
+    private final Jeu jeu;
+    /**
+     * Numéro de la version courante (0 tant qu'aucune version n'a été publiée)
+     */
+    private long sequence;
+    private String fragmentPrompt;
+    private final Joueur[] proprietairesVilles;
+    private final String[] fragmentsVilles;
+    private final Joueur[] proprietairesRoutes;
+    private final String[] fragmentsRoutes;
+    private final String[] fragmentsJoueurs;
+    private String fragmentPiles;
+    /**
+     * Fragments des dernières lignes du log (au plus la capacité du log de la partie)
+     */
+    private final ArrayDeque<String> fragmentsLog;
+    /**
+     * Numéro de la première ligne de {@code fragmentsLog}
+     */
+    private long debutLog;
+    /**
+     * Nombre de lignes du log prises en compte par la version courante
+     */
+    private long finLog;
+    /**
+     * Delta de la version courante par rapport à la précédente
+     */
+    private String delta;
+    /**
+     * État complet de la version courante (`null` tant qu'il n'a pas été demandé)
+     */
+    private String complet;
+
+    public EtatPartie(Jeu jeu) {
+        this.jeu = jeu;
+        proprietairesVilles = new Joueur[jeu.getVilles().size()];
+        fragmentsVilles = new String[proprietairesVilles.length];
+        proprietairesRoutes = new Joueur[jeu.getRoutes().size()];
+        fragmentsRoutes = new String[proprietairesRoutes.length];
+        fragmentsJoueurs = new String[jeu.getJoueurs().size()];
+        fragmentsLog = new ArrayDeque<>();
+    }
+
+    /**
+     * Calcule une nouvelle version de l'état à partir de la partie
+     *
+     * @param instruction l'instruction qui est donnée au joueur
+     * @param boutons     labels des choix proposés s'il y en a
+     * @param peutPasser  indique si le joueur peut passer sans faire de choix
+     */
+    public synchronized void mettreAJour(String instruction, Collection<String> boutons, boolean peutPasser) {
+        boolean premiere = sequence == 0;
+        sequence++;
+        complet = null;
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"type\":\"delta\",\"seq\":").append(sequence).append(",\"base\":").append(sequence - 1);
+
+        fragmentPrompt = serialiseur.versJsonPrompt(jeu, instruction, boutons, peutPasser);
+        sb.append(",\"prompt\":").append(fragmentPrompt);
+
+        List<Ville> villes = jeu.getVilles();
+        StringJoiner modifiees = new StringJoiner(",", ",\"villes\":[", "]");
+        modifiees.setEmptyValue("");
+        for (int i = 0; i < villes.size(); i++) {
+            Ville v = villes.get(i);
+            if (premiere || v.getProprietaire() != proprietairesVilles[i]) {
+                proprietairesVilles[i] = v.getProprietaire();
+                fragmentsVilles[i] = serialiseur.versJson(v);
+                modifiees.add(fragmentsVilles[i]);
+            }
+        }
+        sb.append(modifiees);
+
+        List<Route> routes = jeu.getRoutes();
+        modifiees = new StringJoiner(",", ",\"routes\":[", "]");
+        modifiees.setEmptyValue("");
+        for (int i = 0; i < routes.size(); i++) {
+            Route r = routes.get(i);
+            if (premiere || r.getProprietaire() != proprietairesRoutes[i]) {
+                proprietairesRoutes[i] = r.getProprietaire();
+                fragmentsRoutes[i] = serialiseur.versJson(r);
+                modifiees.add(fragmentsRoutes[i]);
+            }
+        }
+        sb.append(modifiees);
+
+        // les joueurs sont peu nombreux : on les resérialise et on compare les fragments
+        List<Joueur> joueurs = jeu.getJoueurs();
+        modifiees = new StringJoiner(",", ",\"joueurs\":{", "}");
+        modifiees.setEmptyValue("");
+        for (int i = 0; i < joueurs.size(); i++) {
+            String fragment = serialiseur.versJson(joueurs.get(i));
+            if (!fragment.equals(fragmentsJoueurs[i])) {
+                fragmentsJoueurs[i] = fragment;
+                modifiees.add("\"" + i + "\":" + fragment);
+            }
+        }
+        sb.append(modifiees);
+
+        String fragment = serialiseur.versJsonPiles(jeu);
+        if (!fragment.equals(fragmentPiles)) {
+            fragmentPiles = fragment;
+            sb.append(",\"piles\":").append(fragmentPiles);
+        }
+
+        LogPartie log = jeu.getLog();
+        long nbMessages = log.getNbMessages();
+        if (nbMessages > finLog) {
+            List<String> nouveaux = log.getMessages(finLog, nbMessages);
+            long debut = nbMessages - nouveaux.size();
+            modifiees = new StringJoiner(",", ",\"logDebut\":" + debut + ",\"log\":[", "]");
+            for (String message : nouveaux) {
+                fragment = SerialiseurEtat.GSON.toJson(message);
+                fragmentsLog.addLast(fragment);
+                modifiees.add(fragment);
+            }
+            while (fragmentsLog.size() > log.getCapacite()) {
+                fragmentsLog.removeFirst();
+            }
+            finLog = nbMessages;
+            debutLog = finLog - fragmentsLog.size();
+            sb.append(modifiees);
+        }
+
+        delta = sb.append('}').toString();
+    }
+
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return les différences entre la version courante et la précédente
+     */
+    public synchronized String getDelta() {
+        return delta;
+    }
+
+    /**
+     * @return l'état complet de la version courante, au format historique (sans numéro de version)
+     */
+    public synchronized String getComplet() {
+        if (complet == null) {
+            StringBuilder sb = new StringBuilder();
+            sb.append("{\"prompt\":").append(fragmentPrompt);
+            sb.append(",\"villes\":");
+            joindre(sb, Arrays.asList(fragmentsVilles));
+            sb.append(",\"routes\":");
+            joindre(sb, Arrays.asList(fragmentsRoutes));
+            sb.append(",\"joueurs\":");
+            joindre(sb, Arrays.asList(fragmentsJoueurs));
+            sb.append(",\"piles\":").append(fragmentPiles);
+            sb.append(",\"logDebut\":").append(debutLog);
+            sb.append(",\"log\":");
+            joindre(sb, fragmentsLog);
+            complet = sb.append('}').toString();
+        }
+        return complet;
+    }
+
+    /**
+     * @return l'état complet de la version courante, accompagné de son numéro de version
+     */
+    public synchronized String getCompletVersionne() {
+        return "{\"type\":\"complet\",\"seq\":" + sequence + ",\"etat\":" + getComplet() + "}";
+    }
+
+    private static void joindre(StringBuilder sb, Iterable<String> fragments) {
+        sb.append('[');
+        boolean premier = true;
+        for (String fragment : fragments) {
+            if (!premier) {
+                sb.append(',');
+            }
+            sb.append(fragment);
+            premier = false;
+        }
+        sb.append(']');
+    }
+}
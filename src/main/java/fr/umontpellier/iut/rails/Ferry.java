@@ -1,6 +1,6 @@
 package fr.umontpellier.iut.rails;
 
-public class Ferry extends Route {
+public final class Ferry extends Route {
     /**
      * Nombre de locomotives qu'un joueur doit payer pour capturer le ferry
      */
@@ -17,6 +17,7 @@ public class Ferry extends Route {
                 nbLocomotives);
     }
 
+    @Override
     public int getNbLocomotives() {
         return nbLocomotives;
     }
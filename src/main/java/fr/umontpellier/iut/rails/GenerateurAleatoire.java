@@ -0,0 +1,43 @@
+package fr.umontpellier.iut.rails;
+
+import java.util.Random;
+
+/**
+ * Générateur aléatoire qui produit exactement les mêmes tirages que {@code java.util.Random} pour une même
+ * graine, mais dont l'état interne peut être lu et rétabli : une partie sauvegardée en cours de route
+ * continue alors avec les mêmes mélanges (voir {@code InstantanePartie}).
+ */
+class GenerateurAleatoire extends Random {
+    private static final long serialVersionUID = 1L;
+    private static final long MULTIPLICATEUR = 0x5DEECE66DL;
+    private static final long INCREMENT = 0xBL;
+    private static final long MASQUE = (1L << 48) - 1;
+
+    /**
+     * État du générateur congruentiel (48 bits)
+     */
+    private long etat;
+
+    GenerateurAleatoire(long graine) {
+        super(graine);
+    }
+
+    @Override
+    public void setSeed(long graine) {
+        etat = (graine ^ MULTIPLICATEUR) & MASQUE;
+    }
+
+    @Override
+    protected int next(int bits) {
+        etat = (etat * MULTIPLICATEUR + INCREMENT) & MASQUE;
+        return (int) (etat >>> (48 - bits));
+    }
+
+    long getEtat() {
+        return etat;
+    }
+
+    void setEtat(long etat) {
+        this.etat = etat & MASQUE;
+    }
+}
@@ -0,0 +1,173 @@
+package fr.umontpellier.iut.rails;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Générateur des coups possibles d'un joueur en début de tour.
+ * <p>
+ * L'ensemble des routes que le joueur peut capturer est conservé d'un tour à l'autre et mis à jour de
+ * façon incrémentale :
+ * <ul>
+ * <li>l'ensemble des routes que le joueur peut payer n'est recalculé que pour les couleurs de cartes dont
+ * le nombre a changé dans sa main (toutes les routes si ce sont les locomotives ou le nombre de wagons
+ * qui ont changé) ;</li>
+ * <li>l'ensemble des routes qu'il a le droit de prendre (libres, et pas l'autre voie d'une route double
+ * qu'il possède déjà) est mis à jour par le plateau à chaque changement de propriétaire.</li>
+ * </ul>
+ * Un générateur n'est utilisé que par le thread de la partie.
+ */
+public class GenerateurCoups implements EcouteurRoutes {
+    private static final int MASQUE_LOCOMOTIVES = 1 << CouleurWagon.LOCOMOTIVE.ordinal();
+    private static final CouleurWagon[] COULEURS = CouleurWagon.values();
+
+    private final Joueur joueur;
+    private final Jeu jeu;
+    private final Plateau plateau;
+    private final MainCartesWagon main;
+    /**
+     * Routes que le joueur peut payer avec ses cartes et ses wagons (sans tenir compte des propriétaires)
+     */
+    private final BitSet payables;
+    /**
+     * Routes que le joueur a le droit de capturer
+     */
+    private final BitSet autorisees;
+    /**
+     * Intersection des deux ensembles précédents (tampon réutilisé)
+     */
+    private final BitSet capturables;
+    /**
+     * Nombre de wagons du joueur lors du dernier calcul de {@code payables} (-1 avant le premier calcul)
+     */
+    private int nbWagonsConnus = -1;
+
+    public GenerateurCoups(Joueur joueur, MainCartesWagon main) {
+        this.joueur = joueur;
+        this.jeu = joueur.getJeu();
+        this.plateau = jeu.getPlateau();
+        this.main = main;
+        payables = new BitSet(plateau.getNbRoutes());
+        autorisees = new BitSet(plateau.getNbRoutes());
+        capturables = new BitSet(plateau.getNbRoutes());
+        for (Route route : plateau.getRoutes()) {
+            autorisees.set(route.getId(), calculerAutorisation(route));
+        }
+        plateau.ajouterEcouteur(this);
+    }
+
+    @Override
+    public void proprietaireModifie(Route route) {
+        for (Route r : plateau.getRoutesParalleles(route)) {
+            autorisees.set(r.getId(), calculerAutorisation(r));
+        }
+    }
+
+    /**
+     * @return l'ensemble des identifiants des routes que le joueur peut capturer (l'ensemble renvoyé est
+     * réutilisé par le générateur : il ne doit pas être modifié et n'est valable que jusqu'au prochain appel)
+     */
+    public BitSet getRoutesCapturables() {
+        mettreAJour();
+        capturables.clear();
+        capturables.or(payables);
+        capturables.and(autorisees);
+        return capturables;
+    }
+
+    /**
+     * @return vrai si le joueur peut capturer la route passée en argument
+     */
+    public boolean peutCapturer(Route route) {
+        mettreAJour();
+        return payables.get(route.getId()) && autorisees.get(route.getId());
+    }
+
+    /**
+     * @return vrai si le joueur a le droit de capturer la route passée en argument, qu'il puisse la payer
+     * ou non
+     */
+    public boolean estAutorisee(Route route) {
+        return autorisees.get(route.getId());
+    }
+
+    /**
+     * @return vrai si le joueur a encore des gares et assez de cartes d'une même couleur pour en construire
+     */
+    public boolean peutConstruireGare() {
+        int nbGares = joueur.getNbGares();
+        return nbGares != 0
+                && main.maxHorsLocomotives() + main.nombre(CouleurWagon.LOCOMOTIVE) >= 4 - nbGares;
+    }
+
+    /**
+     * Renvoie les coups que le joueur peut jouer en début de tour, dans l'ordre suivant : cartes visibles
+     * (une fois par couleur), pioche, destinations, routes puis gares (dans l'ordre des identifiants).
+     * Passer son tour est toujours possible et ne fait pas partie de la liste.
+     */
+    public List<Coup> getCoups() {
+        List<Coup> coups = new ArrayList<>();
+        int couleursVues = 0;
+        for (CouleurWagon couleur : jeu.getCartesWagonVisibles()) {
+            if ((couleursVues & 1 << couleur.ordinal()) == 0) {
+                couleursVues |= 1 << couleur.ordinal();
+                coups.add(Coup.carteVisible(couleur));
+            }
+        }
+        if (!jeu.getPileCartesWagon().isEmpty() || !jeu.getDefausseCartesWagon().isEmpty()) {
+            coups.add(Coup.CARTE_PIOCHE);
+        }
+        if (!jeu.getPileDestinations().isEmpty()) {
+            coups.add(Coup.DESTINATIONS);
+        }
+        BitSet routes = getRoutesCapturables();
+        for (int id = routes.nextSetBit(0); id >= 0; id = routes.nextSetBit(id + 1)) {
+            coups.add(Coup.de(Coup.Type.ROUTE, id));
+        }
+        if (peutConstruireGare()) {
+            for (int id = plateau.villeLibreSuivante(0); id >= 0; id = plateau.villeLibreSuivante(id + 1)) {
+                coups.add(Coup.de(Coup.Type.GARE, id));
+            }
+        }
+        return coups;
+    }
+
+    private boolean calculerAutorisation(Route route) {
+        if (route.getProprietaire() != null) {
+            return false;
+        }
+        for (Route r : plateau.getRoutesParalleles(route)) {
+            if (r != route && r.getProprietaire() == joueur) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void mettreAJour() {
+        int masque = main.prendreCouleursModifiees();
+        if (joueur.getNbWagons() != nbWagonsConnus || (masque & MASQUE_LOCOMOTIVES) != 0) {
+            nbWagonsConnus = joueur.getNbWagons();
+            for (Route route : plateau.getRoutes()) {
+                actualiser(route);
+            }
+        } else if (masque != 0) {
+            for (CouleurWagon couleur : COULEURS) {
+                if (couleur != CouleurWagon.GRIS && (masque & 1 << couleur.ordinal()) != 0) {
+                    for (Route route : plateau.getRoutes(couleur)) {
+                        actualiser(route);
+                    }
+                }
+            }
+            // le coût des routes grises dépend de la couleur la plus nombreuse
+            for (Route route : plateau.getRoutes(CouleurWagon.GRIS)) {
+                actualiser(route);
+            }
+        }
+    }
+
+    private void actualiser(Route route) {
+        payables.set(route.getId(), route.getLongueur() <= nbWagonsConnus && route.peutEtrePayeeAvec(main));
+    }
+}
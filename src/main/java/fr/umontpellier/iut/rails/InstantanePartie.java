@@ -0,0 +1,262 @@
+package fr.umontpellier.iut.rails;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Instantané binaire d'une partie en cours, pour la reprendre après un redémarrage du serveur.
+ * <p>
+ * L'instantané est pris au début d'un tour (entre deux tours, aucune décision n'est en attente) et contient
+ * tout ce qui n'est pas recalculable : ordre de la pioche, défausse, cartes visibles, pile de destinations,
+ * pour chaque joueur sa couleur, ses wagons, gares, score, main (nombre de cartes de chaque couleur),
+ * destinations et destination "longue" proposée au début de la partie, propriétaires des routes et des
+ * villes, joueur courant, avancement de la partie et état du générateur aléatoire. Les cartes sont écrites
+ * par leur rang dans {@code CouleurWagon} et les destinations par leur rang dans la liste des destinations
+ * du jeu ; un instantané fait environ 400 octets.
+ * <p>
+ * Les décideurs des joueurs, le journal et la sortie d'état ne font pas partie de l'instantané : ils sont
+ * fixés à nouveau sur la partie restaurée.
+ */
+public final class InstantanePartie {
+    private static final int MAGIQUE = 0x52494E53; // "RINS"
+    private static final int VERSION = 2;
+    private static final CouleurWagon[] COULEURS_WAGON = CouleurWagon.values();
+    private static final Joueur.Couleur[] COULEURS_JOUEUR = Joueur.Couleur.values();
+
+    private InstantanePartie() {
+    }
+
+    /**
+     * Écrit l'instantané de la partie (à appeler entre deux tours, sur le thread de la partie)
+     *
+     * @return l'instantané
+     * @throws IllegalArgumentException si la partie contient une destination qui n'est pas une destination
+     *                                  du jeu
+     */
+    public static byte[] capturer(Jeu jeu) {
+        List<Joueur> joueurs = jeu.getJoueurs();
+        Plateau plateau = jeu.getPlateau();
+        byte[][] noms = new byte[joueurs.size()][];
+        int taille = 32 + jeu.getPileCartesWagon().size() + jeu.getDefausseCartesWagon().size()
+                + jeu.getCartesWagonVisibles().size() + jeu.getPileDestinations().size() + plateau.getNbRoutes()
+                + plateau.getNbVilles();
+        for (int i = 0; i < noms.length; i++) {
+            Joueur joueur = joueurs.get(i);
+            noms[i] = joueur.getNom().getBytes(StandardCharsets.UTF_8);
+            taille += 32 + noms[i].length + joueur.getDestinations().size();
+        }
+
+        ByteBuffer sortie = ByteBuffer.allocate(taille);
+        sortie.putInt(MAGIQUE);
+        sortie.put((byte) VERSION);
+        sortie.put((byte) (jeu.sontDestinationsDistribuees() ? 1 : 0));
+        sortie.put((byte) (jeu.estDernierTour() ? 1 : 0));
+        boolean generateurConnu = jeu.getRandom() instanceof GenerateurAleatoire;
+        sortie.put((byte) (generateurConnu ? 1 : 0));
+        if (generateurConnu) {
+            sortie.putLong(((GenerateurAleatoire) jeu.getRandom()).getEtat());
+        }
+
+        sortie.put((byte) joueurs.size());
+        for (int i = 0; i < noms.length; i++) {
+            Joueur joueur = joueurs.get(i);
+            sortie.putShort((short) noms[i].length);
+            sortie.put(noms[i]);
+            sortie.put((byte) joueur.getCouleur().ordinal());
+            sortie.put((byte) joueur.getNbGares());
+            sortie.put((byte) joueur.getNbWagons());
+            sortie.putShort((short) joueur.getScore());
+            ecrireNombres(sortie, joueur.getCartesWagon());
+            ecrireNombres(sortie, joueur.getCartesWagonPosees());
+            ecrireDestinations(sortie, joueur.getDestinations());
+            Destination longue = joueur.getDestinationLongueInitiale();
+            sortie.put((byte) (longue == null ? -1 : rang(longue)));
+        }
+        sortie.put((byte) joueurs.indexOf(jeu.getJoueurCourant()));
+
+        ecrireCartes(sortie, jeu.getPileCartesWagon());
+        ecrireCartes(sortie, jeu.getDefausseCartesWagon());
+        ecrireCartes(sortie, jeu.getCartesWagonVisibles());
+        ecrireDestinations(sortie, jeu.getPileDestinations());
+
+        for (Route route : plateau.getRoutes()) {
+            sortie.put((byte) (joueurs.indexOf(route.getProprietaire()) + 1));
+        }
+        for (Ville ville : plateau.getVilles()) {
+            sortie.put((byte) (joueurs.indexOf(ville.getProprietaire()) + 1));
+        }
+        return Arrays.copyOf(sortie.array(), sortie.position());
+    }
+
+    /**
+     * Reconstruit une partie à partir d'un instantané. La partie restaurée n'a ni décideurs, ni journal, ni
+     * sortie d'état ; {@code run} la reprend au début du tour où l'instantané a été pris.
+     *
+     * @throws IOException si les octets ne sont pas un instantané complet dans une version connue
+     */
+    public static Jeu restaurer(byte[] instantane) throws IOException {
+        try {
+            return restaurer(ByteBuffer.wrap(instantane));
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Instantané de partie incomplet ou corrompu", e);
+        }
+    }
+
+    private static Jeu restaurer(ByteBuffer entree) throws IOException {
+        if (entree.getInt() != MAGIQUE) {
+            throw new IOException("Ces octets ne sont pas un instantané de partie");
+        }
+        int version = lireOctet(entree);
+        if (version != VERSION) {
+            throw new IOException("Version d'instantané inconnue : " + version);
+        }
+        boolean destinationsDistribuees = entree.get() != 0;
+        boolean dernierTour = entree.get() != 0;
+        GenerateurAleatoire generateur = new GenerateurAleatoire(new Random().nextLong());
+        if (entree.get() != 0) {
+            generateur.setEtat(entree.getLong());
+        }
+
+        // les joueurs sont lus avant de créer la partie, qui a besoin de leurs noms
+        int nbJoueurs = lireOctet(entree);
+        String[] noms = new String[nbJoueurs];
+        int[][] etats = new int[nbJoueurs][];
+        List<List<CouleurWagon>> mains = new ArrayList<>();
+        List<List<CouleurWagon>> posees = new ArrayList<>();
+        List<List<Destination>> destinations = new ArrayList<>();
+        Destination[] longues = new Destination[nbJoueurs];
+        for (int i = 0; i < nbJoueurs; i++) {
+            byte[] nom = new byte[entree.getShort() & 0xFFFF];
+            entree.get(nom);
+            noms[i] = new String(nom, StandardCharsets.UTF_8);
+            etats[i] = new int[] { lireOctet(entree), lireOctet(entree), lireOctet(entree), entree.getShort() };
+            mains.add(lireNombres(entree));
+            posees.add(lireNombres(entree));
+            destinations.add(lireDestinations(entree));
+            int longue = lireOctet(entree);
+            longues[i] = longue == 0xFF ? null : Destination.getParRang(longue);
+        }
+        long etatGenerateur = generateur.getEtat();
+        Jeu jeu = new Jeu(noms, generateur);
+        // la création de la partie a fait des tirages
+        generateur.setEtat(etatGenerateur);
+
+        List<Joueur> joueurs = jeu.getJoueurs();
+        for (int i = 0; i < nbJoueurs; i++) {
+            Joueur joueur = joueurs.get(i);
+            joueur.setCouleur(COULEURS_JOUEUR[etats[i][0]]);
+            joueur.setNbGares(etats[i][1]);
+            joueur.setNbWagons(etats[i][2]);
+            joueur.setScore(etats[i][3]);
+            remplacer(joueur.getCartesWagon(), mains.get(i));
+            remplacer(joueur.getCartesWagonPosees(), posees.get(i));
+            remplacer(joueur.getDestinations(), destinations.get(i));
+            joueur.setDestinationLongueInitiale(longues[i]);
+        }
+        Joueur joueurCourant = joueurs.get(lireOctet(entree));
+
+        remplacer(jeu.getPileCartesWagon(), lireCartes(entree));
+        remplacer(jeu.getDefausseCartesWagon(), lireCartes(entree));
+        remplacer(jeu.getCartesWagonVisibles(), lireCartes(entree));
+        remplacer(jeu.getPileDestinations(), lireDestinations(entree));
+
+        Plateau plateau = jeu.getPlateau();
+        for (Route route : plateau.getRoutes()) {
+            int proprietaire = lireOctet(entree);
+            if (proprietaire > 0) {
+                route.setProprietaire(joueurs.get(proprietaire - 1));
+            }
+        }
+        for (Ville ville : plateau.getVilles()) {
+            int proprietaire = lireOctet(entree);
+            if (proprietaire > 0) {
+                ville.setProprietaire(joueurs.get(proprietaire - 1));
+            }
+        }
+        jeu.restaurerAvancement(joueurCourant, destinationsDistribuees, dernierTour);
+        return jeu;
+    }
+
+    private static int lireOctet(ByteBuffer entree) {
+        return entree.get() & 0xFF;
+    }
+
+    /**
+     * Écrit le nombre de cartes de chaque couleur
+     */
+    private static void ecrireNombres(ByteBuffer sortie, List<CouleurWagon> cartes) {
+        int debut = sortie.position();
+        sortie.put(new byte[COULEURS_WAGON.length]);
+        for (int i = 0; i < cartes.size(); i++) {
+            int position = debut + cartes.get(i).ordinal();
+            sortie.put(position, (byte) (sortie.get(position) + 1));
+        }
+    }
+
+    private static List<CouleurWagon> lireNombres(ByteBuffer entree) {
+        List<CouleurWagon> cartes = new ArrayList<>();
+        for (CouleurWagon couleur : COULEURS_WAGON) {
+            for (int n = lireOctet(entree); n > 0; n--) {
+                cartes.add(couleur);
+            }
+        }
+        return cartes;
+    }
+
+    /**
+     * Écrit les cartes dans l'ordre
+     */
+    private static void ecrireCartes(ByteBuffer sortie, List<CouleurWagon> cartes) {
+        sortie.put((byte) cartes.size());
+        for (int i = 0; i < cartes.size(); i++) {
+            sortie.put((byte) cartes.get(i).ordinal());
+        }
+    }
+
+    private static List<CouleurWagon> lireCartes(ByteBuffer entree) {
+        int nombre = lireOctet(entree);
+        List<CouleurWagon> cartes = new ArrayList<>(nombre);
+        for (int i = 0; i < nombre; i++) {
+            cartes.add(COULEURS_WAGON[lireOctet(entree)]);
+        }
+        return cartes;
+    }
+
+    private static void ecrireDestinations(ByteBuffer sortie, List<Destination> destinations) {
+        sortie.put((byte) destinations.size());
+        for (int i = 0; i < destinations.size(); i++) {
+            sortie.put((byte) rang(destinations.get(i)));
+        }
+    }
+
+    private static List<Destination> lireDestinations(ByteBuffer entree) {
+        int nombre = lireOctet(entree);
+        List<Destination> destinations = new ArrayList<>(nombre);
+        for (int i = 0; i < nombre; i++) {
+            destinations.add(Destination.getParRang(lireOctet(entree)));
+        }
+        return destinations;
+    }
+
+    /**
+     * @return le rang de la destination parmi toutes les destinations du jeu
+     */
+    private static int rang(Destination destination) {
+        int rang = Destination.getRang(destination);
+        if (rang < 0) {
+            throw new IllegalArgumentException("Destination inconnue : " + destination);
+        }
+        return rang;
+    }
+
+    private static <T> void remplacer(List<T> liste, List<T> elements) {
+        liste.clear();
+        liste.addAll(elements);
+    }
+}
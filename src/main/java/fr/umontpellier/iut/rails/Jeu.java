@@ -1,14 +1,15 @@
 package fr.umontpellier.iut.rails;
 
-import com.google.gson.Gson;
-import fr.umontpellier.iut.gui.GameServer;
-
 import java.util.*;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.stream.Collectors;
 
 public class Jeu implements Runnable {
+    /**
+     * Points du bonus « European Express », attribué au(x) joueur(s) qui ont le plus long chemin continu
+     */
+    public static final int BONUS_CHEMIN_LE_PLUS_LONG = 10;
     /**
      * Liste des joueurs
      */
@@ -23,6 +24,13 @@ public class Jeu implements Runnable {
      */
     private Joueur vainqueur;
 
+    /**
+     * Plateau de jeu, avec ses index (voisinages, routes doubles, recherche par nom)
+     */
+    private final Plateau plateau;
+    /**
+     * Liste des villes du plateau de jeu
+     */
     private final List<Ville> villes;
     /**
      * Liste des routes du plateau de jeu
@@ -31,7 +39,7 @@ public class Jeu implements Runnable {
     /**
      * Pile de pioche (face cachée)
      */
-    private final List<CouleurWagon> pileCartesWagon;
+    private final PileCartes<CouleurWagon> pileCartesWagon;
     /**
      * Cartes de la pioche face visible (normalement il y a 5 cartes face visible)
      */
@@ -39,7 +47,7 @@ public class Jeu implements Runnable {
     /**
      * Pile de cartes qui ont été défaussée au cours de la partie
      */
-    private final List<CouleurWagon> defausseCartesWagon;
+    private final PileCartes<CouleurWagon> defausseCartesWagon;
 
     public Joueur getVainqueur() {
         return vainqueur;
@@ -50,7 +58,7 @@ public class Jeu implements Runnable {
      * destinations "longues" sont distribuées au début de la partie et ne peuvent
      * plus être piochées après)
      */
-    private List<Destination> pileDestinations;
+    private final PileCartes<Destination> pileDestinations;
     /**
      * File d'attente des instructions recues par le serveur
      */
@@ -58,18 +66,72 @@ public class Jeu implements Runnable {
     /**
      * Messages d'information du jeu
      */
-    private final List<String> log;
+    private final LogPartie log;
+    /**
+     * Indique que la partie tourne sans interface : toutes les décisions viennent des décideurs des
+     * joueurs, et ni le prompt, ni le log, ni l'état JSON ne sont produits
+     */
+    private boolean sansAffichage;
+    /**
+     * Destinataire de l'état de la partie produit par {@code prompt} (`null` si aucun)
+     */
+    private SortieEtat sortieEtat;
+    /**
+     * État versionné de la partie envoyé au destinataire (créé avec le destinataire)
+     */
+    private EtatPartie etatPartie;
+    /**
+     * Générateur aléatoire propre à la partie, utilisé pour tous les mélanges de cartes
+     */
+    private final Random random;
+    /**
+     * Graine du générateur de la partie (`null` si la partie a été créée avec un générateur quelconque)
+     */
+    private final Long graine;
+    /**
+     * Destinataire des décisions acceptées au cours de la partie (`null` si aucun)
+     */
+    private Journal journal;
+    /**
+     * Indique que les destinations initiales ont été distribuées (la partie a commencé)
+     */
+    private boolean destinationsDistribuees;
+    /**
+     * Indique que la boucle principale est terminée : il ne reste que le dernier tour à jouer
+     */
+    private boolean dernierTour;
 
     public Jeu(String[] nomJoueurs) {
+        this(nomJoueurs, new Random().nextLong());
+    }
+
+    /**
+     * Crée une partie dont tous les mélanges dépendent uniquement de la graine passée en argument : la
+     * partie peut être rejouée à partir de cette graine et de son journal
+     */
+    public Jeu(String[] nomJoueurs, long graine) {
+        this(nomJoueurs, new GenerateurAleatoire(graine), graine);
+    }
+
+    /**
+     * Crée une partie dont tous les mélanges dépendent uniquement du générateur passé en argument
+     * (une graine fixée rend la partie reproductible)
+     */
+    public Jeu(String[] nomJoueurs, Random random) {
+        this(nomJoueurs, random, null);
+    }
+
+    private Jeu(String[] nomJoueurs, Random random, Long graine) {
+        this.random = random;
+        this.graine = graine;
         // initialisation des entrées/sorties
         inputQueue = new LinkedBlockingQueue<>();
-        log = new ArrayList<>();
+        log = new LogPartie();
 
         // création des cartes
-        pileCartesWagon = new ArrayList<>();
+        pileCartesWagon = new PileCartes<>();
         cartesWagonVisibles = new ArrayList<>();
-        defausseCartesWagon = new ArrayList<>();
-        pileDestinations = new ArrayList<>();
+        defausseCartesWagon = new PileCartes<>();
         //initialisation des piles cartesWagon
         for (int i = 0; i < 12; i++) {
             pileCartesWagon.add(CouleurWagon.ROUGE);
@@ -84,10 +146,11 @@ public class Jeu implements Runnable {
         }
         pileCartesWagon.add(CouleurWagon.LOCOMOTIVE);
         pileCartesWagon.add(CouleurWagon.LOCOMOTIVE);
-        Collections.shuffle(pileCartesWagon);
+        pileCartesWagon.melanger(random);
 
         //cartesdestinations
-        pileDestinations = Destination.makeDestinationsEurope();
+        pileDestinations = new PileCartes<>(Destination.makeDestinationsEurope());
+        pileDestinations.melanger(random);
 
         //cartesWagonVisibles
         for (int i = 0; i < 5; i++) {
@@ -95,7 +158,7 @@ public class Jeu implements Runnable {
         }
         // création des joueurs
         ArrayList<Joueur.Couleur> couleurs = new ArrayList<>(Arrays.asList(Joueur.Couleur.values()));
-        Collections.shuffle(couleurs);
+        Collections.shuffle(couleurs, random);
         joueurs = new ArrayList<>();
         for (String nom : nomJoueurs) {
             Joueur joueur = new Joueur(nom, this, couleurs.remove(0));
@@ -104,11 +167,15 @@ public class Jeu implements Runnable {
         joueurCourant = joueurs.get(0);
 
         // création des villes et des routes
-        Plateau plateau = Plateau.makePlateauEurope();
+        plateau = Plateau.makePlateauEurope();
         villes = plateau.getVilles();
         routes = plateau.getRoutes();
     }
 
+    public Plateau getPlateau() {
+        return plateau;
+    }
+
     public List<CouleurWagon> getPileCartesWagon() {
         return pileCartesWagon;
     }
@@ -133,6 +200,81 @@ public class Jeu implements Runnable {
         return joueurCourant;
     }
 
+    /**
+     * Confie toutes les décisions de la partie au décideur passé en argument et désactive l'affichage
+     * (mode sans interface, utilisé pour les simulations)
+     *
+     * @param decideur le décideur utilisé par tous les joueurs
+     */
+    public void setDecideur(Decideur decideur) {
+        for (Joueur j : joueurs) {
+            j.setDecideur(decideur);
+        }
+        sansAffichage = true;
+    }
+
+    public boolean estSansAffichage() {
+        return sansAffichage;
+    }
+
+    public void setSansAffichage(boolean sansAffichage) {
+        this.sansAffichage = sansAffichage;
+    }
+
+    public Random getRandom() {
+        return random;
+    }
+
+    /**
+     * @return la graine du générateur de la partie, ou `null` si elle est inconnue
+     */
+    public Long getGraine() {
+        return graine;
+    }
+
+    public boolean estDernierTour() {
+        return dernierTour;
+    }
+
+    public boolean sontDestinationsDistribuees() {
+        return destinationsDistribuees;
+    }
+
+    /**
+     * Rétablit l'avancement d'une partie restaurée (voir {@code InstantanePartie}) : {@code run} reprend
+     * alors au début du tour du joueur courant
+     */
+    void restaurerAvancement(Joueur joueurCourant, boolean destinationsDistribuees, boolean dernierTour) {
+        this.joueurCourant = joueurCourant;
+        this.destinationsDistribuees = destinationsDistribuees;
+        this.dernierTour = dernierTour;
+    }
+
+    public Journal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Fixe le destinataire des décisions acceptées au cours de la partie (à appeler avant {@code run})
+     */
+    public void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Fixe le destinataire de l'état de la partie (par exemple le serveur qui l'envoie aux clients)
+     */
+    public void setSortieEtat(SortieEtat sortieEtat) {
+        this.sortieEtat = sortieEtat;
+        if (etatPartie == null) {
+            etatPartie = new EtatPartie(this);
+        }
+    }
+
+    public EtatPartie getEtatPartie() {
+        return etatPartie;
+    }
+
     /**
      * Instancie le joueurCourant en fonctions des règles de l'aventurier du rail, pour le joueur qui joue en premier.
      *
@@ -141,9 +283,23 @@ public class Jeu implements Runnable {
 
 
     /**
-     * Exécute la partie
+     * Exécute la partie (ou la reprend au début du tour du joueur courant si elle a été restaurée).
+     * L'historique et le journal sont fermés à la fin de la partie, même si elle est interrompue.
+     *
+     * @throws CancellationException si le thread de la partie est interrompu pendant qu'il attend une entrée
      */
     public void run() {
+        try {
+            jouer();
+        } finally {
+            log.fermer();
+            if (journal != null) {
+                journal.fermer();
+            }
+        }
+    }
+
+    private void jouer() {
         /*
          * ATTENTION : Cette méthode est à réécrire.
          *
@@ -164,44 +320,41 @@ public class Jeu implements Runnable {
          * doit donc être entièrement réécrit.
          */
 
-        // Distribution des cartes premier tour
-        ArrayList<Destination> destinationsLongues = Destination.makeDestinationsLonguesEurope();
-        Collections.shuffle(destinationsLongues);
-
-        for (Joueur j : joueurs) {
-            joueurCourant = j;
-            //log(joueurCourant.getNom() + " doit sélectionner les destinations qu'il souhaite défausser ou passer...");
-            // Main distribuée de routes normales
-            ArrayList<Destination> destinationsPossibles = new ArrayList<>();
-
-            for (int i = 0; i < 3; i++) {
-                destinationsPossibles.add(piocherDestination());
-            }
-
-            //ajouter une destinationsLongues a la liste des destinations possible
-            destinationsPossibles.add(destinationsLongues.get(0));
-            destinationsLongues.remove(destinationsLongues.get(0));
-
-            //faire choisir des destinations aux joueurs
-            j.choisirDestinations(destinationsPossibles, 2);
+        // Distribution des cartes premier tour (déjà faite si la partie a été restaurée en cours de route)
+        if (!destinationsDistribuees) {
+            distribuerDestinationsInitiales();
         }
-        boolean continuer = true;
-        Joueur vainqueur = joueurCourant;
-        while (continuer) {
+        while (!dernierTour) {
+            debutTour();
             joueurCourant.jouerTour();
-                if (joueurs.indexOf(joueurCourant) == joueurs.size() - 1) {
-                    joueurCourant = joueurs.get(0);
-                } else {
-                    joueurCourant = joueurs.get(joueurs.indexOf(joueurCourant) + 1);
-                }
-                if(vainqueur.getScore()<joueurCourant.getScore()){
-                    vainqueur=joueurCourant;
-                }
-                if (joueurCourant.getNbWagons()<=2){
-                continuer = false;
+            if (joueurs.indexOf(joueurCourant) == joueurs.size() - 1) {
+                joueurCourant = joueurs.get(0);
+            } else {
+                joueurCourant = joueurs.get(joueurs.indexOf(joueurCourant) + 1);
+            }
+            if (joueurCourant.getNbWagons() <= 2) {
+                dernierTour = true;
             }
         }
+        debutTour();
         joueurCourant.jouerTour();
+        // Décompte des destinations et bonus du plus long chemin (pour tous les ex aequo), puis le
+        // vainqueur est le joueur qui a le plus de points
+        int cheminLePlusLong = 0;
+        for (Joueur j : joueurs) {
+            j.compterPointsDestinations();
+            cheminLePlusLong = Math.max(cheminLePlusLong, j.getLongueurCheminLePlusLong());
+        }
+        Joueur vainqueur = joueurs.get(0);
+        for (Joueur j : joueurs) {
+            if (cheminLePlusLong > 0 && j.getLongueurCheminLePlusLong() == cheminLePlusLong) {
+                j.setScore(j.getScore() + BONUS_CHEMIN_LE_PLUS_LONG);
+                log(j.toLog() + " a le plus long chemin (" + cheminLePlusLong + " wagons)");
+            }
+            if (j.getScore() > vainqueur.getScore()) {
+                vainqueur = j;
+            }
+        }
         prompt("Fin de partie \n Le vainqueur est : "+vainqueur.getNom(), new ArrayList<>(), false);
         //Dernier tour
        /* Joueur vainqueur = joueurCourant;
@@ -217,11 +370,48 @@ public class Jeu implements Runnable {
             }
         }*/
         this.vainqueur=vainqueur;
-        System.out.println("Le vainqueur est :");
-        System.out.println(vainqueur);
+        if (!sansAffichage) {
+            System.out.println("Le vainqueur est :");
+            System.out.println(vainqueur);
+        }
         log("Le vainqueur est :"+vainqueur);
     }
 
+    /**
+     * Fait choisir à chaque joueur les destinations initiales qu'il garde parmi 3 destinations "courtes" et
+     * 1 destination "longue"
+     */
+    private void distribuerDestinationsInitiales() {
+        ArrayList<Destination> destinationsLongues = Destination.makeDestinationsLonguesEurope();
+        Collections.shuffle(destinationsLongues, random);
+
+        for (Joueur j : joueurs) {
+            joueurCourant = j;
+            //log(joueurCourant.getNom() + " doit sélectionner les destinations qu'il souhaite défausser ou passer...");
+            // Main distribuée de routes normales
+            ArrayList<Destination> destinationsPossibles = new ArrayList<>();
+
+            for (int i = 0; i < 3; i++) {
+                destinationsPossibles.add(piocherDestination());
+            }
+
+            //ajouter une destinationsLongues a la liste des destinations possible
+            destinationsPossibles.add(destinationsLongues.get(0));
+            j.setDestinationLongueInitiale(destinationsLongues.get(0));
+            destinationsLongues.remove(destinationsLongues.get(0));
+
+            //faire choisir des destinations aux joueurs
+            j.choisirDestinations(destinationsPossibles, 2);
+        }
+        destinationsDistribuees = true;
+    }
+
+    private void debutTour() {
+        if (journal != null) {
+            journal.debutTour();
+        }
+    }
+
     /**
      * Ajoute une carte dans la pile de défausse.
      * Dans le cas peu probable, où il y a moins de 5 cartes wagon face visibles
@@ -253,12 +443,7 @@ public class Jeu implements Runnable {
         if (getPileCartesWagon().isEmpty()) {
             rafraichirPioche();
         }
-        CouleurWagon result = null;
-        if (pileCartesWagon.size() > 0) {
-            result = pileCartesWagon.get(0);
-            pileCartesWagon.remove(0);
-        }
-        return result;
+        return pileCartesWagon.piocher();
     }
 
     /**
@@ -277,9 +462,9 @@ public class Jeu implements Runnable {
         }
 
         if (Collections.frequency(cartesWagonVisibles, CouleurWagon.LOCOMOTIVE) == 3) {
-            for (CouleurWagon carte : cartesWagonVisibles) {
-                defausserCarteWagon(carte);
-            }
+            // les cartes visibles vont directement à la défausse (defausserCarteWagon pourrait les remettre
+            // parmi les cartes visibles pendant qu'on les parcourt)
+            defausseCartesWagon.addAll(cartesWagonVisibles);
             cartesWagonVisibles.clear();
             if (pileCartesWagon.isEmpty()) {
                 rafraichirPioche();
@@ -287,7 +472,10 @@ public class Jeu implements Runnable {
             if (cartesWagonVisibles.size() < 5) {
                 int manque = 5 - cartesWagonVisibles.size();
                 for (int i = 0; i < manque; i++) {
-                    cartesWagonVisibles.add(piocherCarteWagon());
+                    CouleurWagon carte = piocherCarteWagon();
+                    if (carte != null) {
+                        cartesWagonVisibles.add(carte);
+                    }
                 }
             }
         }
@@ -295,7 +483,7 @@ public class Jeu implements Runnable {
 
     public void rafraichirPioche() {
         if (!defausseCartesWagon.isEmpty()) {
-            Collections.shuffle(defausseCartesWagon);
+            defausseCartesWagon.melanger(random);
             pileCartesWagon.addAll(defausseCartesWagon);
             defausseCartesWagon.clear();
         }
@@ -308,12 +496,7 @@ public class Jeu implements Runnable {
      * disponible)
      */
     public Destination piocherDestination() {
-        Destination piocheActDes = null;
-        if (pileDestinations.size() > 0) {
-            piocheActDes = pileDestinations.get(0);
-        }
-        pileDestinations.remove(0);
-        return piocheActDes;
+        return pileDestinations.piocher();
     }
 
     public List<CouleurWagon> getDefausseCartesWagon() {
@@ -337,7 +520,16 @@ public class Jeu implements Runnable {
      * Ajoute un message au log du jeu
      */
     public void log(String message) {
-        log.add(message);
+        if (!sansAffichage) {
+            log.ajouter(message);
+        }
+    }
+
+    /**
+     * @return les messages d'information du jeu
+     */
+    public LogPartie getLog() {
+        return log;
     }
 
     /**
@@ -347,6 +539,13 @@ public class Jeu implements Runnable {
         inputQueue.add(message);
     }
 
+    /**
+     * @return le nombre de messages de la file d'entrées qui n'ont pas encore été lus par {@code lireLigne}
+     */
+    public int getNbEntreesEnAttente() {
+        return inputQueue.size();
+    }
+
     /**
      * Lit une ligne de l'entrée standard
      * C'est cette méthode qui doit être appelée à chaque fois qu'on veut lire
@@ -354,13 +553,29 @@ public class Jeu implements Runnable {
      *
      * @return une chaîne de caractères correspondant à l'entrée suivante dans la
      * file
+     * @throws CancellationException si le thread de la partie est interrompu pendant l'attente (la partie
+     *                               est abandonnée, voir {@code GameServer})
      */
     public String lireLigne() {
         try {
             return inputQueue.take();
         } catch (InterruptedException e) {
-            e.printStackTrace();
-            return null;
+            throw new CancellationException("Partie interrompue en attente d'une entrée");
+        }
+    }
+
+    /**
+     * Publie l'état de la partie sur la sortie d'état, sans l'afficher dans la console ni attendre d'entrée
+     * (utilisé directement lorsqu'un robot joue à une table)
+     *
+     * @param instruction l'instruction qui est donnée au joueur
+     * @param boutons     labels des choix proposés s'il y en a
+     * @param peutPasser  indique si le joueur peut passer sans faire de choix
+     */
+    public void publierEtat(String instruction, Collection<String> boutons, boolean peutPasser) {
+        if (!sansAffichage && sortieEtat != null) {
+            etatPartie.mettreAJour(instruction, boutons, peutPasser);
+            sortieEtat.publier(etatPartie);
         }
     }
 
@@ -372,6 +587,9 @@ public class Jeu implements Runnable {
      * @param peutPasser  indique si le joueur peut passer sans faire de choix
      */
     public void prompt(String instruction, Collection<String> boutons, boolean peutPasser) {
+        if (sansAffichage) {
+            return;
+        }
         System.out.println();
         System.out.println(this);
         if (boutons.isEmpty()) {
@@ -384,25 +602,9 @@ public class Jeu implements Runnable {
             System.out.printf(">>> %s: %s [%s] <<<%n", joueurCourant.getNom(), instruction, joiner);
         }
 
-        Map<String, Object> data = Map.ofEntries(
-                new AbstractMap.SimpleEntry<String, Object>("prompt", Map.ofEntries(
-                        new AbstractMap.SimpleEntry<String, Object>("instruction", instruction),
-                        new AbstractMap.SimpleEntry<String, Object>("boutons", boutons),
-                        new AbstractMap.SimpleEntry<String, Object>("nomJoueurCourant", getJoueurCourant().getNom()),
-                        new AbstractMap.SimpleEntry<String, Object>("peutPasser", peutPasser))),
-                new AbstractMap.SimpleEntry<>("villes",
-                        villes.stream().map(Ville::asPOJO).collect(Collectors.toList())),
-                new AbstractMap.SimpleEntry<>("routes",
-                        routes.stream().map(Route::asPOJO).collect(Collectors.toList())),
-                new AbstractMap.SimpleEntry<String, Object>("joueurs",
-                        joueurs.stream().map(Joueur::asPOJO).collect(Collectors.toList())),
-                new AbstractMap.SimpleEntry<String, Object>("piles", Map.ofEntries(
-                        new AbstractMap.SimpleEntry<String, Object>("pileCartesWagon", pileCartesWagon.size()),
-                        new AbstractMap.SimpleEntry<String, Object>("pileDestinations", pileDestinations.size()),
-                        new AbstractMap.SimpleEntry<String, Object>("defausseCartesWagon", defausseCartesWagon),
-                        new AbstractMap.SimpleEntry<String, Object>("cartesWagonVisibles", cartesWagonVisibles))),
-                new AbstractMap.SimpleEntry<String, Object>("log", log));
-        GameServer.setEtatJeu(new Gson().toJson(data));
+        publierEtat(instruction, boutons, peutPasser);
+        // le joueur va réfléchir : c'est le moment d'écrire l'historique sur le disque
+        log.vider();
     }
 
 
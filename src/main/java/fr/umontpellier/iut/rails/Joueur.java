@@ -3,7 +3,6 @@ package fr.umontpellier.iut.rails;
 import org.junit.jupiter.api.Disabled;
 
 import java.lang.reflect.Array;
-import java.lang.reflect.Field;
 import java.sql.SQLOutput;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -29,7 +28,7 @@ public class Joueur {
     /**
      * CouleurWagon du joueur (pour représentation sur le plateau)
      */
-    private final Couleur couleur;
+    private Couleur couleur;
     /**
      * Nombre de gares que le joueur peut encore poser sur le plateau
      */
@@ -42,10 +41,15 @@ public class Joueur {
      * Liste des missions à réaliser pendant la partie
      */
     private final List<Destination> destinations;
+    /**
+     * Destination "longue" proposée au joueur au début de la partie, qu'il l'ait gardée ou non (`null` tant
+     * que les destinations initiales n'ont pas été distribuées)
+     */
+    private Destination destinationLongueInitiale;
     /**
      * Liste des cartes que le joueur a en main
      */
-    private final List<CouleurWagon> cartesWagon;
+    private final MainCartesWagon cartesWagon;
     /**
      * Liste temporaire de cartes wagon que le joueur est en train de jouer pour
      * payer la capture d'une route ou la construction d'une gare
@@ -55,6 +59,27 @@ public class Joueur {
      * Score courant du joueur (somme des valeurs des routes capturées)
      */
     private int score;
+    /**
+     * Décideur qui prend les décisions du joueur à la place des entrées
+     * (`null` si le joueur est contrôlé depuis l'interface)
+     */
+    private Decideur decideur;
+    /**
+     * Générateur des coups possibles du joueur (`null` tant qu'il n'a pas été demandé)
+     */
+    private GenerateurCoups generateurCoups;
+    /**
+     * Villes reliées par les routes du joueur (`null` tant qu'il n'a pas été demandé)
+     */
+    private ReseauJoueur reseau;
+    /**
+     * Plus long chemin continu du joueur (`null` tant qu'il n'a pas été demandé)
+     */
+    private CheminLePlusLong cheminLePlusLong;
+    /**
+     * Distances entre les villes pour le joueur (`null` tant qu'elles n'ont pas été demandées)
+     */
+    private TableDistances distances;
 
     public Joueur(String nom, Jeu jeu, Joueur.Couleur couleur) {
         this.nom = nom;
@@ -62,7 +87,7 @@ public class Joueur {
         this.couleur = couleur;
         nbGares = 3;
         nbWagons = 45;
-        cartesWagon = new ArrayList<>();
+        cartesWagon = new MainCartesWagon();
         for (int i = 0; i < 4; i++) {
             cartesWagon.add(jeu.piocherCarteWagon());
         }
@@ -99,14 +124,97 @@ public class Joueur {
         return cartesWagon;
     }
 
+    /**
+     * @return le nombre de cartes de la couleur passée en argument dans la main du joueur (en temps constant)
+     */
+    public int getNbCartesWagon(CouleurWagon couleur) {
+        return cartesWagon.nombre(couleur);
+    }
+
     public List<Destination> getDestinations() {
         return destinations;
     }
 
+    public Destination getDestinationLongueInitiale() {
+        return destinationLongueInitiale;
+    }
+
+    void setDestinationLongueInitiale(Destination destinationLongueInitiale) {
+        this.destinationLongueInitiale = destinationLongueInitiale;
+    }
+
+    /**
+     * @return le générateur des coups du joueur (créé au premier appel, une fois le plateau construit)
+     */
+    public GenerateurCoups getGenerateurCoups() {
+        if (generateurCoups == null) {
+            generateurCoups = new GenerateurCoups(this, cartesWagon);
+        }
+        return generateurCoups;
+    }
+
+    /**
+     * @return le réseau des villes reliées par les routes du joueur (créé au premier appel, une fois le
+     * plateau construit)
+     */
+    public ReseauJoueur getReseau() {
+        if (reseau == null) {
+            reseau = new ReseauJoueur(this, jeu.getPlateau());
+        }
+        return reseau;
+    }
+
+    /**
+     * @return les plus courtes distances entre les villes pour le joueur (ses routes ne coûtent rien,
+     * celles de ses adversaires sont bloquées), mises à jour à chaque capture (créées au premier appel)
+     */
+    public TableDistances getDistances() {
+        if (distances == null) {
+            distances = new TableDistances(jeu.getPlateau(), this);
+        }
+        return distances;
+    }
+
+    /**
+     * @return la longueur du plus long chemin continu formé par les routes du joueur (recalculée
+     * uniquement lorsque ses routes ont changé)
+     */
+    public int getLongueurCheminLePlusLong() {
+        if (cheminLePlusLong == null) {
+            cheminLePlusLong = new CheminLePlusLong(this, jeu.getPlateau());
+        }
+        return cheminLePlusLong.getLongueur();
+    }
+
+    /**
+     * @return vrai si les deux villes de la destination sont reliées par des routes du joueur (sans
+     * compter les routes que ses gares lui permettraient d'emprunter)
+     */
+    public boolean estRealisee(Destination destination) {
+        return getReseau().estRealisee(destination);
+    }
+
+    /**
+     * Ajoute au score du joueur la valeur de chacune de ses destinations réalisées, et retire celle de
+     * chacune de ses destinations non réalisées (décompte de fin de partie, où chaque gare permet
+     * d'emprunter une route adverse, choisie au mieux pour le joueur)
+     */
+    public void compterPointsDestinations() {
+        score += new DecompteDestinations(this).getPoints();
+    }
+
     public int getNbGares() {
         return nbGares;
     }
 
+    void setNbGares(int nbGares) {
+        this.nbGares = nbGares;
+    }
+
+    void setCouleur(Couleur couleur) {
+        this.couleur = couleur;
+    }
+
     public int getScore() {
         return score;
     }
@@ -115,6 +223,14 @@ public class Joueur {
         this.score = score;
     }
 
+    public Decideur getDecideur() {
+        return decideur;
+    }
+
+    public void setDecideur(Decideur decideur) {
+        this.decideur = decideur;
+    }
+
     /**
      * Attend une entrée de la part du joueur (au clavier ou sur la websocket) et
      * renvoie le choix du joueur.
@@ -165,8 +281,9 @@ public class Joueur {
      */
     public String choisir(String instruction, Collection<String> choix, Collection<String> boutons,
                           boolean peutPasser) {
-        // on retire les doublons de la liste des choix
-        HashSet<String> choixDistincts = new HashSet<>();
+        // on retire les doublons de la liste des choix (en conservant l'ordre pour que les décideurs
+        // soient reproductibles)
+        LinkedHashSet<String> choixDistincts = new LinkedHashSet<>();
         choixDistincts.addAll(choix);
         choixDistincts.addAll(boutons);
 
@@ -177,18 +294,130 @@ public class Joueur {
             // Un seul choix possible (renvoyer cet unique élément)
             if (choixDistincts.size() == 1 && !peutPasser)
                 return choixDistincts.iterator().next();
-            else {
-                String entree;
-                // Lit l'entrée de l'utilisateur jusqu'à obtenir un choix valide
-                while (true) {
-                    jeu.prompt(instruction, boutons, peutPasser);
-                    entree = jeu.lireLigne();
-                    // si une réponse valide est obtenue, elle est renvoyée
-                    if (choixDistincts.contains(entree) || (peutPasser && entree.equals("")))
-                        return entree;
-                }
+            List<String> listeChoix = new ArrayList<>(choixDistincts);
+            String entree;
+            if (decideur != null) {
+                // Le choix est délégué au décideur, sans prompt ni lecture des entrées
+                entree = decideur.choisir(this, instruction, listeChoix, peutPasser);
+                if (!choixDistincts.contains(entree) && !(peutPasser && entree.equals("")))
+                    throw new IllegalStateException("Choix invalide du décideur de " + nom + " : " + entree);
+            } else {
+                entree = lireChoix(instruction, choixDistincts, boutons, peutPasser);
             }
+            if (jeu.getJournal() != null) {
+                jeu.getJournal().choix(listeChoix.indexOf(entree));
+            }
+            return entree;
+        }
+    }
 
+    /**
+     * Lit les entrées de l'utilisateur jusqu'à obtenir un choix valide (un élément de {@code valides}, ou la
+     * chaîne vide s'il peut passer)
+     */
+    private String lireChoix(String instruction, Collection<String> valides, Collection<String> boutons,
+                             boolean peutPasser) {
+        while (true) {
+            jeu.prompt(instruction, boutons, peutPasser);
+            String entree = jeu.lireLigne();
+            // si une réponse valide est obtenue, elle est renvoyée
+            if (valides.contains(entree) || (peutPasser && entree.equals("")))
+                return entree;
+        }
+    }
+
+    /**
+     * Attend que le joueur choisisse un coup parmi ceux passés en argument, ou passe s'il en a le droit.
+     * <p>
+     * Si le joueur a un décideur, l'état de la partie est publié (sans attendre d'entrée) puis le coup lui
+     * est demandé directement. Sinon, les coups sont présentés à l'utilisateur par leurs libellés (voir
+     * {@code Coup.getLibelle}) et l'entrée lue est traduite en coup : c'est le seul endroit où les
+     * décisions de début de tour passent par des chaînes de caractères.
+     *
+     * @param instruction message à afficher à l'écran pour indiquer au joueur la nature du choix
+     * @param coups       liste des coups possibles (sans doublons)
+     * @param peutPasser  booléen indiquant si le joueur a le droit de passer sans faire de choix
+     * @return le coup choisi, ou {@code Coup.PASSER} si le joueur a passé (ou s'il n'y avait aucun coup)
+     */
+    public Coup choisirCoup(String instruction, List<Coup> coups, boolean peutPasser) {
+        if (coups.isEmpty()) {
+            return Coup.PASSER;
+        }
+        if (coups.size() == 1 && !peutPasser) {
+            return coups.get(0);
+        }
+        if (decideur != null) {
+            // les spectateurs de la table voient l'état de la partie avant chaque coup du robot
+            jeu.publierEtat(instruction, new ArrayList<>(), peutPasser);
+            return demanderCoup(instruction, coups, peutPasser);
+        }
+        return lireCoup(instruction, coups, Coup.getLibelles(coups, jeu.getPlateau()), new ArrayList<>(),
+                peutPasser);
+    }
+
+    /**
+     * Attend que le joueur fasse un choix secondaire (carte à payer, destination à défausser) parmi les
+     * coups passés en argument, ou passe s'il en a le droit. Les doublons de {@code coups} sont ignorés.
+     * <p>
+     * Comme pour {@code choisir}, le choix est résolu sans rien demander s'il n'y a aucun coup (le joueur
+     * passe) ou un seul coup sans possibilité de passer.
+     *
+     * @param coups      coups possibles, tous du même type ({@code PAYER} ou {@code DEFAUSSER_DESTINATION})
+     * @param libelles   libellés des coups dans les entrées textuelles, dans le même ordre que {@code coups}
+     * @param boutons    vrai si les libellés sont présentés au joueur par des boutons
+     * @return le coup choisi, ou {@code Coup.PASSER}
+     */
+    private Coup choisirSecondaire(String instruction, List<Coup> coups, List<String> libelles, boolean boutons,
+                                   boolean peutPasser) {
+        List<Coup> coupsDistincts = new ArrayList<>(coups.size());
+        List<String> libellesDistincts = new ArrayList<>(coups.size());
+        for (int i = 0; i < coups.size(); i++) {
+            if (!coupsDistincts.contains(coups.get(i))) {
+                coupsDistincts.add(coups.get(i));
+                libellesDistincts.add(libelles.get(i));
+            }
+        }
+        if (coupsDistincts.isEmpty()) {
+            return Coup.PASSER;
+        }
+        if (coupsDistincts.size() == 1 && !peutPasser) {
+            return coupsDistincts.get(0);
+        }
+        if (decideur != null) {
+            return demanderCoup(instruction, coupsDistincts, peutPasser);
+        }
+        return lireCoup(instruction, coupsDistincts, libellesDistincts,
+                boutons ? libellesDistincts : new ArrayList<>(), peutPasser);
+    }
+
+    /**
+     * Demande le coup au décideur du joueur, et vérifie qu'il est valide
+     */
+    private Coup demanderCoup(String instruction, List<Coup> coups, boolean peutPasser) {
+        Coup coup = decideur.choisirCoup(this, instruction, coups, peutPasser);
+        int indice = coups.indexOf(coup);
+        if (indice < 0 && !(peutPasser && coup == Coup.PASSER)) {
+            throw new IllegalStateException("Coup invalide du décideur de " + nom + " : " + coup);
+        }
+        journaliserCoup(indice);
+        return coup;
+    }
+
+    /**
+     * Lit les entrées de l'utilisateur jusqu'à obtenir le libellé d'un des coups (ou la chaîne vide s'il
+     * peut passer), et le traduit en coup
+     */
+    private Coup lireCoup(String instruction, List<Coup> coups, List<String> libelles, Collection<String> boutons,
+                          boolean peutPasser) {
+        String entree = lireChoix(instruction, libelles, boutons, peutPasser);
+        int indice = libelles.indexOf(entree);
+        journaliserCoup(indice);
+        return indice < 0 ? Coup.PASSER : coups.get(indice);
+    }
+
+    private void journaliserCoup(int indice) {
+        if (jeu.getJournal() != null) {
+            jeu.getJournal().coup(indice);
         }
     }
 
@@ -233,7 +462,7 @@ public class Joueur {
         data.put("nbGares", nbGares);
         data.put("nbWagons", nbWagons);
         data.put("estJoueurCourant", this == jeu.getJoueurCourant());
-        data.put("destinations", destinations.stream().map(Destination::asPOJO).collect(Collectors.toList()));
+        data.put("destinations", destinations.stream().map(d -> d.asPOJO(estRealisee(d))).collect(Collectors.toList()));
         data.put("cartesWagon", cartesWagon.stream().sorted().map(CouleurWagon::name).collect(Collectors.toList()));
         data.put("cartesWagonPosees",
                 cartesWagonPosees.stream().sorted().map(CouleurWagon::name).collect(Collectors.toList()));
@@ -260,28 +489,23 @@ public class Joueur {
      */
     public List<Destination> choisirDestinations(List<Destination> destinationsPossibles, int n) {
         boolean veuxPasser = false;
-        List<String> boutons = new ArrayList<String>();
         List<Destination> veuxDeffausser = new ArrayList<Destination>();
 
-        for (Destination d : destinationsPossibles) {
-            boutons.add(d.getNom());
-        }
-
         do {
-            String choix = choisir("Choisissez la/les cartes Destinations à défausser", new ArrayList<>(), boutons, true);
-            if (choix.isEmpty()) {
+            // les destinations sont désignées par leur indice dans la liste proposée, et par leur nom sur les
+            // boutons de l'interface
+            List<Coup> coups = new ArrayList<>();
+            List<String> boutons = new ArrayList<>();
+            for (int i = 0; i < destinationsPossibles.size(); i++) {
+                coups.add(Coup.defausserDestination(i));
+                boutons.add(destinationsPossibles.get(i).getNom());
+            }
+            Coup choix = choisirSecondaire("Choisissez la/les cartes Destinations à défausser", coups, boutons,
+                    true, true);
+            if (choix == Coup.PASSER) {
                 veuxPasser = true;
             } else {
-                for (Destination d : destinationsPossibles) {
-                    if (d.getNom().equals(choix)) {
-                        veuxDeffausser.add(d);
-                        destinationsPossibles.remove(d);
-                        boutons.remove(choix);
-                        break;
-
-                    }
-                }
-
+                veuxDeffausser.add(destinationsPossibles.remove(choix.getId()));
             }
 
         } while (destinationsPossibles.size() > n && !veuxPasser);
@@ -314,171 +538,115 @@ public class Joueur {
         if (jeu.getPileCartesWagon().isEmpty()) {
             jeu.rafraichirPioche();
         }
-        // Generation des paramètres de choisir();
-        List<String> boutons = new ArrayList<>();
-        List<String> choix = new ArrayList<>();
-
-        //Cartes Wagons
-        HashMap<String, CouleurWagon> cartesWagonsVisibles = new HashMap<>();
-        if (!jeu.getCartesWagonVisibles().isEmpty()) {
-            for (CouleurWagon c : this.jeu.getCartesWagonVisibles()) {
-                choix.add(c.toString().toUpperCase());
-                cartesWagonsVisibles.put(c.toString().toUpperCase(), c);
-            }
-        }
-
-        //Ajout de l'option de piocheCarteWagon
-        if (jeu.getPileCartesWagon().size() > 0) {
-            choix.add("GRIS");
-        }
-
-        //Ajout du choix de piocher une carte destination
-        choix.add("destinations");
-
-        //Ajout des routes que le joueur peux acheter.
-        HashMap<String, Route> routesPossible = new HashMap();
-        ArrayList listeTunnel = new ArrayList<>();
-        for (Route route : this.jeu.getRoutes()) {
-            if (!(route.getCouleur() == CouleurWagon.GRIS) && route.getLongueur() <= this.nbWagons && (Collections.frequency(this.cartesWagon, route.getCouleur()) + Collections.frequency(this.cartesWagon, CouleurWagon.LOCOMOTIVE)) >= route.getLongueur() && route.getProprietaire() == null && verifProprio(route)) {
-                routesPossible.put(route.getNom(), route);
-                choix.add(route.getNom());
-            } else if (route.getCouleur() == CouleurWagon.GRIS && this.peuxAcheterGris(route) && verifProprio(route) && route.getProprietaire() == null) {
-                if (getAttribute(route, "nbLocomotives") != null) {
-                    if (this.peuxAcheterFerry(route)) {
-                        routesPossible.put(route.getNom(), route);
-                        choix.add(route.getNom());
+        //////////////////Le joueur prend la décision///////////////////
+        Coup coup = choisirCoup(" veuillez exécuter l'unique action de votre tour", getGenerateurCoups().getCoups(),
+                true);
+        /////////////////////////////Nous évaluons sa réponse./////////
+        switch (coup.getType()) {
+            case DESTINATIONS -> {
+                log("Vous venez de piocher 3 nouvelles cartes Destinations, choisissez celle à défausser");
+                List<Destination> mainDestinations = new ArrayList<>();
+                for (int i = 0; i < 3; i++) {
+                    Destination d = this.jeu.piocherDestination();
+                    if (d != null) {
+                        mainDestinations.add(d);
                     }
-
-                } else if (getAttribute(route, "nbLocomotives") == null) {
-                    routesPossible.put(route.getNom(), route);
-                    choix.add(route.getNom());
                 }
+                List<Destination> aRendre = choisirDestinations(mainDestinations, 1);
+                this.jeu.getPileDestinations().addAll(aRendre);
             }
-        }
-        //Ajout des gares que le joueur pourrait bâtir, si il lui en reste à bâtir.
-        HashMap<String, Ville> garePossibles = new HashMap<>();
-        if (this.peuxAcheterGare()) {
-            for (Ville v : this.jeu.getVilles()) {
-                if (v.getProprietaire() == null) {
-                    choix.add(v.toString());
-                    garePossibles.put(v.toString(), v);
+            //Il choisit de piocher une carte wagon face cachée de la pile
+            case CARTE_PIOCHE -> {
+                this.cartesWagon.add(jeu.piocherCarteWagon());
+                log("Vous avez pioché une carte wagon");
+                deuxiemeCarte();
+            }
+            //Il a choisi de prendre une carteWagonVisible
+            case CARTE_VISIBLE -> {
+                CouleurWagon carteClick = coup.getCouleur();
+                log("Vous venez de prendre une carte wagon visible");
+                this.cartesWagon.add(carteClick);
+                jeu.retirerCarteWagonVisible(carteClick);
+                if (!carteClick.equals(CouleurWagon.LOCOMOTIVE)) {
+                    deuxiemeCarte();
                 }
-
             }
+            //Le Joueur à choisis de bâtir une gare.
+            case GARE -> construireGare(jeu.getPlateau().getVille(coup.getId()));
+            case ROUTE -> capturerRoute(jeu.getPlateau().getRoute(coup.getId()));
+            case PASSER -> log("Vous avez choisi de passer votre tour...");
         }
-        //////////////////Le joueur prend la décision///////////////////
-        String decision = choisir(" veuillez exécuter l'unique action de votre tour", choix, boutons, true);
-        /////////////////////////////Nous évaluons sa réponse./////////
+    }
 
+    private void construireGare(Ville v) {
+        log("Vous avez choisis de batir la gare: " + v.toString());
+        boolean abandon = false;
+        List<Coup> choixCartesAchatGare = new ArrayList<>();
 
-        if (decision.equals("destinations")) {
-            log("Vous venez de piocher 3 nouvelles cartes Destinations, choisissez celle à défausser");
-            List<Destination> mainDestinations = new ArrayList<>();
-            for (int i = 0; i < 3; i++) {
-                mainDestinations.add(this.jeu.piocherDestination());
+        for (CouleurWagon c : this.cartesWagon) {
+            if (cartesWagon.nombre(c) + cartesWagon.nombre(CouleurWagon.LOCOMOTIVE) >= (4 - this.nbGares) || c.equals(CouleurWagon.LOCOMOTIVE)) {
+                choixCartesAchatGare.add(Coup.payer(c));
             }
-            List<Destination> aRendre = choisirDestinations(mainDestinations, 1);
-            this.jeu.getPileDestinations().addAll(aRendre);
         }
-        //Il choisit de piocher une carte wagon face cachée de la pile
-        else if (decision.equals("GRIS")) {
-            this.cartesWagon.add(jeu.piocherCarteWagon());
-            log("Vous avez pioché une carte wagon");
-            deuxiemeCarte();
+        CouleurWagon carteChoisie = null;
+        Coup choixCouleur = choisirPaiement("Choisir couleur de cartesWagons à défausser pour acheter la gare", choixCartesAchatGare, false);
+        if (choixCouleur == Coup.PASSER) {
+            abandon = true;
+        } else {
+            carteChoisie = choixCouleur.getCouleur();
+            cartesWagonPosees.add(carteChoisie);
+            cartesWagon.remove(carteChoisie);
+            choixCartesAchatGare.remove(choixCouleur);
         }
 
-        //Il a choisi de prendre une carteWagonVisible
-        else if (!garePossibles.containsKey(decision) && cartesWagonsVisibles.containsKey(decision)) {
-            CouleurWagon carteClick = cartesWagonsVisibles.get(decision);
-            log("Vous venez de prendre une carte wagon visible");
-            this.cartesWagon.add(carteClick);
-            jeu.retirerCarteWagonVisible(carteClick);
-            choix.remove(decision);
-
-            if (!carteClick.equals(CouleurWagon.LOCOMOTIVE)) {
-                deuxiemeCarte();
-            }
-
-            //Le Joueur à choisis de bâtir une gare.
-        } else if (garePossibles.containsKey(decision)) {
-            Ville v = garePossibles.get(decision);
-            log("Vous avez choisis de batir la gare: " + v.toString());
-            List<String> choixCartesAchatGare = new ArrayList<>();
-            HashMap<String, CouleurWagon> mapMainCourante = new HashMap<>();
-
-            for (CouleurWagon c : this.cartesWagon) {
-                if (Collections.frequency(cartesWagon, c) + Collections.frequency(cartesWagon, CouleurWagon.LOCOMOTIVE) >= (4 - this.nbGares) || c.equals(CouleurWagon.LOCOMOTIVE)) {
-                    mapMainCourante.put(c.toString().toUpperCase(), c);
-                    choixCartesAchatGare.add(c.toString().toUpperCase());
-                }
-            }
-            CouleurWagon carteChoisie = null;
-            String choixCouleur = this.choisir("Choisir couleur de cartesWagons à défausser pour acheter la gare", choixCartesAchatGare, new ArrayList<>(), false);
-            if (choixCouleur.equals("")) {
-                decision = "";
+        while (!abandon && cartesWagonPosees.size() < (4 - this.nbGares)) {
+            actualiserMain(choixCartesAchatGare, carteChoisie);
+            choixCouleur = choisirPaiement("Choisir couleur de cartesWagons à défausser pour acheter la gare", choixCartesAchatGare, true);
+            if (choixCouleur == Coup.PASSER) {
+                abandon = true;
                 for (CouleurWagon c : cartesWagonPosees) {
                     cartesWagon.add(c);
-                    cartesWagonPosees.remove(c);
                 }
+                cartesWagonPosees.clear();
+                break;
             } else {
-                carteChoisie = mapMainCourante.get(choixCouleur);
+                carteChoisie = choixCouleur.getCouleur();
                 cartesWagonPosees.add(carteChoisie);
                 cartesWagon.remove(carteChoisie);
                 choixCartesAchatGare.remove(choixCouleur);
             }
 
-            while (cartesWagonPosees.size() < (4 - this.nbGares)) {
-                actualiserMain(choixCartesAchatGare, mapMainCourante, carteChoisie);
-                choixCouleur = this.choisir("Choisir couleur de cartesWagons à défausser pour acheter la gare", choixCartesAchatGare, new ArrayList<>(), true);
-                if (choixCouleur.equals("")) {
-                    decision = "";
-                    for (CouleurWagon c : cartesWagonPosees) {
-                        cartesWagon.add(c);
-                    }
-                    cartesWagonPosees.clear();
-                    break;
-                } else {
-                    carteChoisie = mapMainCourante.get(choixCouleur);
-                    cartesWagonPosees.add(carteChoisie);
-                    cartesWagon.remove(carteChoisie);
-                    choixCartesAchatGare.remove(choixCouleur);
-                }
+        }
+        for (CouleurWagon c : cartesWagonPosees) {
+            jeu.defausserCarteWagon(c);
+        }
+        if (!abandon) {
+            cartesWagonPosees.clear();
+            v.setProprietaire(this);
+            this.nbGares -= 1;
+            this.score -= 4;
+        } else {
+            cartesWagonPosees.clear();
+        }
+    }
 
-            }
+    private void capturerRoute(Route r) {
+        if (r.estTunnel()) {
+            log("Vous souhaitez acheter le tunnel " + r.getNom());
+            acheterTunnel(r);
+        } else {
+            log("Vous souhaitez acheter " + r.getNom());
+            acheterRoute(r);
             for (CouleurWagon c : cartesWagonPosees) {
                 jeu.defausserCarteWagon(c);
             }
-            if (!decision.equals("")) {
-                cartesWagonPosees.clear();
-                v.setProprietaire(this);
-                this.nbGares -= 1;
-                this.score -= 4;
-            } else {
-                cartesWagonPosees.clear();
-            }
-
-        } else if (routesPossible.containsKey(decision)) {
-            Route r = routesPossible.get(decision);
-            if (r.getClass().equals((new Tunnel(r.getVille1(), r.getVille2(), r.getLongueur(), r.getCouleur()).getClass()))) {
-                log("Vous souhaitez acheter le tunnel " + r.getNom());
-                acheterTunnel(r);
-            } else {
-                log("Vous souhaitez acheter " + r.getNom());
-                acheterRoute(r);
-                for (CouleurWagon c : cartesWagonPosees) {
-                    jeu.defausserCarteWagon(c);
-                }
-                cartesWagonPosees.clear();
-                r.setProprietaire(this);
-                nbWagons -= r.getLongueur();
-                this.score += donnerPoints(r.getLongueur());
-            }
-        } else if (decision.equals("")) {
-            log("Vous avez choisi de passer votre tour...");
+            cartesWagonPosees.clear();
+            r.setProprietaire(this);
+            nbWagons -= r.getLongueur();
+            this.score += donnerPoints(r.getLongueur());
         }
     }
 
-
     private void acheterTunnel(Route r) {
         acheterRoute(r);
         ArrayList<CouleurWagon> carteAdefaussTunnel2 = new ArrayList<>();
@@ -486,24 +654,17 @@ public class Joueur {
         /////////////////
         for (int i = 0; i < 3; i++) {
             if (!jeu.getPileCartesWagon().isEmpty()) {
-                //log(jeu.getPileCartesWagon().get(0).toString());
-                carteAdefaussTunnel2.add(jeu.getPileCartesWagon().get(0));
-                //jeu.defausserCarteWagon(jeu.getPileCartesWagon().get(0));
-                jeu.getPileCartesWagon().remove(0);
+                carteAdefaussTunnel2.add(jeu.getPileCartesWagon().remove(0));
             } else if (!jeu.getDefausseCartesWagon().isEmpty()) {
-                //log(jeu.getDefausseCartesWagon().get(0).toString());
-                carteAdefaussTunnel2.add(jeu.getDefausseCartesWagon().get(0));
-                //jeu.defausserCarteWagon(jeu.getDefausseCartesWagon().get(0));
-                jeu.getDefausseCartesWagon().remove(0);
+                carteAdefaussTunnel2.add(jeu.getDefausseCartesWagon().remove(0));
             }
         }
         for (CouleurWagon c :carteAdefaussTunnel2 ){
             jeu.defausserCarteWagon(c);
         }
         log(carteAdefaussTunnel2.toString());
-        System.out.println(carteAdefaussTunnel2.toString());
         //////////////////
-        List<String> choixCarte = new ArrayList<>();
+        List<Coup> choixCarte = new ArrayList<>();
         List<CouleurWagon> choixCarteObj = new ArrayList<>();
         List<CouleurWagon> choixCarteObj1 = new ArrayList<>();
         List<CouleurWagon> choixCarteObj2 = new ArrayList<>();
@@ -514,15 +675,15 @@ public class Joueur {
             if (c.equals(CouleurWagon.LOCOMOTIVE)) {
                 //choixCarte1.add(c.toString().toUpperCase());
                 choixCarteObj1.add(c);
-                choixCarte.add(c.toString().toUpperCase());
+                choixCarte.add(Coup.payer(c));
             } else {
                 //choixCarte2.add(c.toString().toUpperCase());
-                choixCarte.add(c.toString().toUpperCase());
+                choixCarte.add(Coup.payer(c));
                 choixCarteObj2.add(c);
             }
         }
         if (cartesWagon.contains(CouleurWagon.LOCOMOTIVE)) {
-            choixCarte.add(CouleurWagon.LOCOMOTIVE.toString().toUpperCase());
+            choixCarte.add(Coup.payer(CouleurWagon.LOCOMOTIVE));
         }
         if (choixCarteObj2.size() != 0) {
             //choixCarte.addAll(choixCarte2);
@@ -537,14 +698,21 @@ public class Joueur {
             test = false;
             ///si la carte piocher est une loco et la personne a la possibilité de payer c.a.d sa main contient une carte posee choisie Précédemment
             if ((Objects.equals(cartePiocherPourAchatTunnel.toString(), "Locomotive") || cartesWagonPosees.contains(cartePiocherPourAchatTunnel)) && (cartesWagon.contains(choixCarteObj.get(0)) || cartesWagon.contains(CouleurWagon.LOCOMOTIVE))) {
-                String choixAchatTunnel = this.choisir("Alors ? ", choixCarte, new ArrayList<>(), true);
-                if (choixAchatTunnel.equals("")) {
+                // le supplément ne peut être payé qu'avec des cartes que le joueur a encore en main
+                List<Coup> choixPayables = new ArrayList<>();
+                for (Coup choix : choixCarte) {
+                    if (cartesWagon.contains(choix.getCouleur())) {
+                        choixPayables.add(choix);
+                    }
+                }
+                Coup choixAchatTunnel = choisirPaiement("Alors ? ", choixPayables, true);
+                if (choixAchatTunnel == Coup.PASSER) {
                     // log("t'abandonne deja ! ");
                     test = false;
                     break;
                 } else {
-                    cartesWagonPosees.add(CouleurWagon.valueOf(choixAchatTunnel));
-                    cartesWagon.remove(CouleurWagon.valueOf(choixAchatTunnel));
+                    cartesWagonPosees.add(choixAchatTunnel.getCouleur());
+                    cartesWagon.remove(choixAchatTunnel.getCouleur());
                     test = true;
                     //log("tu paies ! ");
                 }
@@ -584,9 +752,7 @@ public class Joueur {
                 cartesWagon.add(c);
             }
             cartesWagonPosees.clear();
-            Collections.shuffle(cartesWagon);
             log("vous n'assumez pas le payement du tunnel !");
-            System.out.println("vous n'assumez pas le payement du tunnel !");
         } else {
             for (CouleurWagon c : cartesWagonPosees) {
                 jeu.defausserCarteWagon(c);
@@ -596,30 +762,26 @@ public class Joueur {
             nbWagons -= r.getLongueur();
             this.score += donnerPoints(r.getLongueur());
             log("félicitation vous aves acheté un tunnel !");
-            System.out.println("vous n'assumez pas le payement du tunnel !");
         }
     }
 
     private void acheterRoute(Route r) {
-        List<String> choixCarteAchat = new ArrayList<>();
-        HashMap<String, CouleurWagon> mapMainCourante = new HashMap<>();
+        List<Coup> choixCarteAchat = new ArrayList<>();
         int trigger = r.getLongueur();
         if (r.getCouleur() == CouleurWagon.GRIS) {
             // Il s'agit d'un Ferry que le joueur souhaite acheter
-            if (getAttribute(r, "nbLocomotives") != null) {
-                int loco = (int) getAttribute(r, "nbLocomotives");
+            if (r.getNbLocomotives() > 0) {
+                int loco = r.getNbLocomotives();
                 trigger-=loco;
                 while (Collections.frequency(this.cartesWagonPosees, CouleurWagon.LOCOMOTIVE) != loco) {
-                    System.out.println("Prix du tunnel soustrait");
                     this.cartesWagon.remove(CouleurWagon.LOCOMOTIVE);
                     this.cartesWagonPosees.add(CouleurWagon.LOCOMOTIVE);
                 }
             }
 
             for (CouleurWagon carteMainCourante : this.cartesWagon) {
-                if (Collections.frequency(this.cartesWagon, carteMainCourante) + (Collections.frequency(this.cartesWagon, CouleurWagon.LOCOMOTIVE)) >= trigger || carteMainCourante.equals(CouleurWagon.LOCOMOTIVE)) {
-                    mapMainCourante.put(carteMainCourante.toString().toUpperCase(), carteMainCourante);
-                    choixCarteAchat.add(carteMainCourante.toString().toUpperCase());
+                if (cartesWagon.nombre(carteMainCourante) + cartesWagon.nombre(CouleurWagon.LOCOMOTIVE) >= trigger || carteMainCourante.equals(CouleurWagon.LOCOMOTIVE)) {
+                    choixCarteAchat.add(Coup.payer(carteMainCourante));
                 }
             }
 
@@ -628,77 +790,47 @@ public class Joueur {
         else {
             for (CouleurWagon carteMainCourante : this.cartesWagon) {
                 if (carteMainCourante.equals(r.getCouleur()) || carteMainCourante.equals(CouleurWagon.LOCOMOTIVE)) {
-                    mapMainCourante.put(carteMainCourante.toString().toUpperCase(), carteMainCourante);
-                    choixCarteAchat.add(carteMainCourante.toString().toUpperCase());
+                    choixCarteAchat.add(Coup.payer(carteMainCourante));
                 }
             }
         }
 
         while (cartesWagonPosees.size() != r.getLongueur()) {
             log(this.getNom() + "choisir les cartes wagon à défausser pour capturer la route");
-            String choixCouleur = this.choisir("Choisir couleur de cartesWagons à défausser pour acheter la route", choixCarteAchat, new ArrayList<>(), false);
-            CouleurWagon carteChoisie = mapMainCourante.get(choixCouleur);
+            Coup choixCouleur = choisirPaiement("Choisir couleur de cartesWagons à défausser pour acheter la route", choixCarteAchat, false);
+            if (choixCouleur == Coup.PASSER) {
+                throw new IllegalStateException(nom + " ne peut pas payer la route " + r.getNom());
+            }
+            CouleurWagon carteChoisie = choixCouleur.getCouleur();
             cartesWagonPosees.add(carteChoisie);
             this.cartesWagon.remove(carteChoisie);
             if (carteChoisie == CouleurWagon.LOCOMOTIVE) {
                 choixCarteAchat.remove(choixCouleur);
             } else {
-                actualiserMain(choixCarteAchat, mapMainCourante, carteChoisie);
+                actualiserMain(choixCarteAchat, carteChoisie);
             }
         }
 
 
     }
 
-    private boolean peuxAcheterFerry(Route route) {
-        boolean test = false;
-        int nbLoco = (int) getAttribute(route, "nbLocomotives");
-        if (Collections.frequency(this.cartesWagon, CouleurWagon.LOCOMOTIVE) >= nbLoco) {
-            int routeLongueur = route.getLongueur() - nbLoco;
-            for (CouleurWagon c : this.cartesWagon) {
-                if ((Collections.frequency(this.cartesWagon, c) >= routeLongueur)) {
-                    return true;
-                }
-            }
-        }
-
-        return test;
-    }
-
-
-    private void actualiserMain(List<String> choixCarteAchat, HashMap<String, CouleurWagon> mapMainCourante, CouleurWagon carte) {
+    private void actualiserMain(List<Coup> choixCarteAchat, CouleurWagon carte) {
         if (!(carte == CouleurWagon.LOCOMOTIVE) && !cartesWagonPosees.isEmpty()) {
-            mapMainCourante.clear();
             choixCarteAchat.clear();
             for (CouleurWagon c : cartesWagon) {
                 if (c.equals(carte) || c.equals(CouleurWagon.LOCOMOTIVE)) {
-                    mapMainCourante.put(c.toString().toUpperCase(), c);
-                    choixCarteAchat.add(c.toString().toUpperCase());
+                    choixCarteAchat.add(Coup.payer(c));
                 }
             }
         }
     }
 
-    private boolean peuxAcheterGris(Route route) {
-        int routeLongueur = route.getLongueur();
-        boolean test = false;
-        for (CouleurWagon c : cartesWagon) {
-            if (Collections.frequency(cartesWagon, c) + (Collections.frequency(cartesWagon, CouleurWagon.LOCOMOTIVE)) >= routeLongueur) {
-                return true;
-            }
-        }
-        return test;
-    }
-
-    private boolean peuxAcheterGare() {
-        if (this.nbGares != 0) {
-            for (CouleurWagon c : cartesWagon) {
-                if (Collections.frequency(cartesWagon, c) + Collections.frequency(cartesWagon, CouleurWagon.LOCOMOTIVE) >= (4 - this.nbGares)) {
-                    return true;
-                }
-            }
-        }
-        return false;
+    /**
+     * Attend que le joueur choisisse une carte à payer parmi les coups {@code PAYER} passés en argument
+     * (présentés à l'utilisateur par le nom de leur couleur en majuscules)
+     */
+    private Coup choisirPaiement(String instruction, List<Coup> choix, boolean peutPasser) {
+        return choisirSecondaire(instruction, choix, Coup.getLibelles(choix, jeu.getPlateau()), false, peutPasser);
     }
 
     public int donnerPoints(int longueur) {
@@ -720,78 +852,25 @@ public class Joueur {
         }
     }
 
-    private boolean verifProprio(Route route) {
-        boolean test = true;
-        for (Route r : this.jeu.getRoutes()) {
-            if (r.getVille1() == (route.getVille1()) && r.getVille2() == (route.getVille2()) && r.getCouleur() != route.getCouleur() && r.getProprietaire() == this) {
-                test = false;
-            }
-            //a revoir pour ferry!!!!
-            if (r.getVille1() == (route.getVille1()) && r.getVille2() == (route.getVille2()) && r.getCouleur() == route.getCouleur() && r.getProprietaire() == this && getAttribute(r, "nbLocomotives") != null) {
-                test = false;
-            }
-        }
-        return test;
-    }
-
     private void deuxiemeCarte() {
-        HashMap<String, CouleurWagon> mapChoix = new HashMap();
-        List<String> choix = new ArrayList<String>();
+        List<Coup> coups = new ArrayList<>();
         for (CouleurWagon c : jeu.getCartesWagonVisibles()) {
-            if (!(c.equals(CouleurWagon.LOCOMOTIVE))) {
-                mapChoix.put(c.toString().toUpperCase(), c);
-                choix.add(c.toString().toUpperCase());
+            if (c != CouleurWagon.LOCOMOTIVE && !coups.contains(Coup.carteVisible(c))) {
+                coups.add(Coup.carteVisible(c));
             }
         }
-        if (jeu.getPileCartesWagon().size() > 0) {
-            choix.add("GRIS");
+        if (!jeu.getPileCartesWagon().isEmpty() || !jeu.getDefausseCartesWagon().isEmpty()) {
+            coups.add(Coup.CARTE_PIOCHE);
         }
         // Proposition du choix //
-        String deuxiemeChoix = this.choisir("Veuillez choisir votre seconde carte", choix, new ArrayList<>(), true);
+        Coup deuxiemeChoix = choisirCoup("Veuillez choisir votre seconde carte", coups, true);
         // Analyse de la décision //
-        switch (deuxiemeChoix) {
-            case "GRIS":
-                this.cartesWagon.add(jeu.piocherCarteWagon());
-                break;
-
-            case "":
-                break;
-
-            default:
-                if (mapChoix.containsKey(deuxiemeChoix)) {
-                    CouleurWagon cartePrise = mapChoix.get(deuxiemeChoix);
-                    this.cartesWagon.add(cartePrise);
-                    jeu.retirerCarteWagonVisible(cartePrise);
-                    break;
-                }
-        }
-
-
-    }
-
-    public static Object getAttribute(Object obj, String name) {
-        Class c = obj.getClass();
-        while (c != null) {
-            try {
-                Field field = c.getDeclaredField(name);
-                field.setAccessible(true);
-                return field.get(obj);
-            } catch (NoSuchFieldException e) {
-                c = c.getSuperclass();
-                continue;
-            } catch (IllegalAccessException e) {
-                e.printStackTrace();
-                return null;
-            }
+        if (deuxiemeChoix.getType() == Coup.Type.CARTE_PIOCHE) {
+            this.cartesWagon.add(jeu.piocherCarteWagon());
+        } else if (deuxiemeChoix.getType() == Coup.Type.CARTE_VISIBLE) {
+            CouleurWagon cartePrise = deuxiemeChoix.getCouleur();
+            this.cartesWagon.add(cartePrise);
+            jeu.retirerCarteWagonVisible(cartePrise);
         }
-        return null;
     }
-
-
 }
-
-
-
-
-
-
@@ -0,0 +1,35 @@
+package fr.umontpellier.iut.rails;
+
+/**
+ * Destinataire des décisions acceptées au cours d'une partie. Avec la graine du générateur de la partie,
+ * ces décisions suffisent à la rejouer à l'identique (voir {@code RejeuPartie}).
+ * <p>
+ * Seules les vraies décisions sont transmises : les choix résolus automatiquement (aucun choix, ou un
+ * seul choix sans possibilité de passer) ne le sont pas, puisque le rejeu les résout de la même façon.
+ */
+public interface Journal {
+    /**
+     * Appelée par {@code Jeu.run} au début du tour de chaque joueur
+     */
+    void debutTour();
+
+    /**
+     * Appelée par {@code Joueur.choisir} pour chaque choix accepté
+     *
+     * @param indice position du choix dans la liste des choix distincts proposés, ou -1 si le joueur a passé
+     */
+    void choix(int indice);
+
+    /**
+     * Appelée par {@code Joueur.choisirCoup} pour chaque coup accepté
+     *
+     * @param indice position du coup dans la liste des coups proposés, ou -1 si le joueur a passé
+     */
+    void coup(int indice);
+
+    /**
+     * Appelée à la fin de la partie
+     */
+    default void fermer() {
+    }
+}
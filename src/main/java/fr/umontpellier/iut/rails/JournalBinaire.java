@@ -0,0 +1,128 @@
+package fr.umontpellier.iut.rails;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Journal d'une partie écrit dans un flux binaire compact, en ajout seulement.
+ * <p>
+ * Le flux commence par un en-tête (nombre magique, version du format, graine de la partie, noms des
+ * joueurs) suivi des événements. Chaque événement est un seul entier variable (7 bits par octet, octet de
+ * poids faible en premier) qui vaut {@code (indice + 1) << 2 | type} : la plupart des événements tiennent
+ * donc sur un octet. Depuis la version 2, les choix secondaires (cartes à payer, destinations à défausser)
+ * sont journalisés comme des coups.
+ * <p>
+ * Le flux est vidé au début de chaque tour : si le serveur s'arrête brutalement, le journal contient au
+ * moins tous les tours terminés. Une erreur d'écriture (disque plein par exemple) n'interrompt pas la
+ * partie : elle est signalée une fois, puis le journal est abandonné.
+ */
+public class JournalBinaire implements Journal {
+    static final int MAGIQUE = 0x524A4E4C; // "RJNL"
+    static final int VERSION = 2;
+    static final int TOUR = 0;
+    static final int CHOIX = 1;
+    static final int COUP = 2;
+
+    /**
+     * Flux du journal (`null` s'il a été fermé ou abandonné après une erreur d'écriture)
+     */
+    private DataOutputStream sortie;
+
+    /**
+     * Écrit l'en-tête du journal de la partie dans le flux
+     *
+     * @param sortie flux dans lequel le journal est écrit (fermé à la fin de la partie)
+     * @param jeu    la partie journalisée, qui doit avoir été créée avec une graine connue
+     * @throws IllegalArgumentException si la graine de la partie n'est pas connue
+     */
+    public JournalBinaire(OutputStream sortie, Jeu jeu) throws IOException {
+        if (jeu.getGraine() == null) {
+            throw new IllegalArgumentException("La graine de la partie est inconnue, elle ne pourra pas être rejouée");
+        }
+        this.sortie = new DataOutputStream(new BufferedOutputStream(sortie));
+        this.sortie.writeInt(MAGIQUE);
+        this.sortie.writeByte(VERSION);
+        this.sortie.writeLong(jeu.getGraine());
+        List<Joueur> joueurs = jeu.getJoueurs();
+        this.sortie.writeByte(joueurs.size());
+        for (Joueur joueur : joueurs) {
+            this.sortie.writeUTF(joueur.getNom());
+        }
+    }
+
+    /**
+     * @return vrai si les décisions sont encore écrites dans le flux
+     */
+    public boolean estOuvert() {
+        return sortie != null;
+    }
+
+    @Override
+    public void debutTour() {
+        if (sortie == null) {
+            return;
+        }
+        try {
+            sortie.flush();
+        } catch (IOException e) {
+            abandonner(e);
+            return;
+        }
+        ecrire(TOUR, -1);
+    }
+
+    @Override
+    public void choix(int indice) {
+        ecrire(CHOIX, indice);
+    }
+
+    @Override
+    public void coup(int indice) {
+        ecrire(COUP, indice);
+    }
+
+    @Override
+    public void fermer() {
+        if (sortie != null) {
+            try {
+                sortie.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            sortie = null;
+        }
+    }
+
+    private void ecrire(int type, int indice) {
+        if (sortie == null) {
+            return;
+        }
+        int valeur = (indice + 1) << 2 | type;
+        try {
+            while ((valeur & ~0x7F) != 0) {
+                sortie.write(valeur & 0x7F | 0x80);
+                valeur >>>= 7;
+            }
+            sortie.write(valeur);
+        } catch (IOException e) {
+            abandonner(e);
+        }
+    }
+
+    /**
+     * Arrête le journal après une erreur d'écriture : la partie continue, mais ne pourra pas être rejouée
+     */
+    private void abandonner(IOException e) {
+        System.err.println("Écriture du journal impossible, il est abandonné : " + e);
+        DataOutputStream ferme = sortie;
+        sortie = null;
+        try {
+            ferme.close();
+        } catch (IOException ignoree) {
+            // le flux est déjà en erreur
+        }
+    }
+}
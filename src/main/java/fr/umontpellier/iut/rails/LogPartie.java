@@ -0,0 +1,153 @@
+package fr.umontpellier.iut.rails;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Messages d'information d'une partie, conservés dans un tampon circulaire de taille fixe.
+ * <p>
+ * Chaque message reçoit un numéro (0 pour le premier message de la partie, puis 1, 2...). Seuls les
+ * {@code capacite} derniers messages sont gardés en mémoire ; l'historique complet peut en plus être
+ * recopié dans un fichier (un message par ligne, en ajout seulement). Si l'écriture du fichier échoue,
+ * l'erreur est signalée une fois et la recopie est abandonnée : la partie continue avec le tampon seul.
+ * <p>
+ * Les messages sont ajoutés par le thread de la partie et peuvent être lus depuis n'importe quel thread.
+ */
+public class LogPartie {
+    /**
+     * Nombre de messages conservés en mémoire par défaut
+     */
+    public static final int CAPACITE_PAR_DEFAUT = 200;
+    /**
+     * Tampon circulaire des derniers messages (le message numéro n est à l'indice n % capacite)
+     */
+    private final String[] messages;
+    /**
+     * Nombre total de messages ajoutés depuis le début de la partie (c'est aussi le numéro du prochain)
+     */
+    private long nbMessages;
+    /**
+     * Fichier dans lequel l'historique complet est recopié (`null` si l'historique n'est pas conservé)
+     */
+    private BufferedWriter fichier;
+
+    public LogPartie(int capacite) {
+        messages = new String[capacite];
+    }
+
+    public LogPartie() {
+        this(CAPACITE_PAR_DEFAUT);
+    }
+
+    public int getCapacite() {
+        return messages.length;
+    }
+
+    /**
+     * Recopie désormais chaque nouveau message à la fin du fichier passé en argument
+     *
+     * @param chemin chemin du fichier (créé s'il n'existe pas)
+     */
+    public synchronized void deverserDans(Path chemin) throws IOException {
+        fichier = Files.newBufferedWriter(chemin, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Ajoute un message au log
+     */
+    public synchronized void ajouter(String message) {
+        messages[(int) (nbMessages % messages.length)] = message;
+        nbMessages++;
+        if (fichier != null) {
+            try {
+                // un message par ligne : les retours à la ligne du message sont échappés
+                fichier.write(message.replace("\\", "\\\\").replace("\n", "\\n"));
+                fichier.newLine();
+            } catch (IOException e) {
+                abandonnerFichier(e);
+            }
+        }
+    }
+
+    /**
+     * @return vrai si les nouveaux messages sont recopiés dans un fichier
+     */
+    public synchronized boolean estRecopie() {
+        return fichier != null;
+    }
+
+    /**
+     * @return le nombre total de messages ajoutés (le numéro du prochain message)
+     */
+    public synchronized long getNbMessages() {
+        return nbMessages;
+    }
+
+    /**
+     * @return le numéro du plus ancien message encore conservé en mémoire
+     */
+    public synchronized long getPremierConserve() {
+        return Math.max(0, nbMessages - messages.length);
+    }
+
+    /**
+     * Renvoie les messages conservés dont le numéro est compris entre {@code debut} (inclus) et
+     * {@code fin} (exclu). Les messages qui ne sont plus en mémoire sont ignorés.
+     */
+    public synchronized List<String> getMessages(long debut, long fin) {
+        List<String> resultat = new ArrayList<>();
+        for (long i = Math.max(debut, getPremierConserve()); i < Math.min(fin, nbMessages); i++) {
+            resultat.add(messages[(int) (i % messages.length)]);
+        }
+        return resultat;
+    }
+
+    /**
+     * Écrit sur le disque les messages en attente dans le tampon du fichier d'historique
+     */
+    public synchronized void vider() {
+        if (fichier != null) {
+            try {
+                fichier.flush();
+            } catch (IOException e) {
+                abandonnerFichier(e);
+            }
+        }
+    }
+
+    /**
+     * Ferme le fichier d'historique
+     */
+    public synchronized void fermer() {
+        if (fichier != null) {
+            try {
+                fichier.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            fichier = null;
+        }
+    }
+
+    /**
+     * Signale l'erreur d'écriture et abandonne la recopie de l'historique (les messages suivants ne sont
+     * plus que dans le tampon)
+     */
+    private void abandonnerFichier(IOException e) {
+        System.err.println("Écriture de l'historique impossible, il n'est plus recopié : " + e);
+        BufferedWriter ferme = fichier;
+        fichier = null;
+        try {
+            ferme.close();
+        } catch (IOException ignoree) {
+            // le fichier est déjà en erreur
+        }
+    }
+}
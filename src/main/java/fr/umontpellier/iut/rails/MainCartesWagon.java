@@ -0,0 +1,199 @@
+package fr.umontpellier.iut.rails;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * Main de cartes wagon d'un joueur, représentée par le nombre de cartes de chaque couleur (tableau indexé par
+ * {@code CouleurWagon.ordinal()}).
+ * <p>
+ * La main se présente comme une liste dont les éléments sont toujours rangés dans l'ordre des couleurs :
+ * l'ordre d'insertion n'est pas conservé ({@code add(index, carte)} ajoute simplement la carte à la main).
+ * Compter, ajouter ou retirer une carte d'une couleur donnée se fait en temps constant ; l'accès par
+ * position parcourt les couleurs.
+ */
+public class MainCartesWagon extends AbstractList<CouleurWagon> implements RandomAccess {
+    private static final CouleurWagon[] COULEURS = CouleurWagon.values();
+    /**
+     * Nombre de cartes de chaque couleur
+     */
+    private final int[] nombres = new int[COULEURS.length];
+    /**
+     * Nombre total de cartes
+     */
+    private int taille;
+    /**
+     * Masque des couleurs dont le nombre a changé depuis le dernier appel à {@code prendreCouleursModifiees}
+     * (bit {@code 1 << ordinal})
+     */
+    private int couleursModifiees;
+
+    public MainCartesWagon() {
+    }
+
+    public MainCartesWagon(Collection<CouleurWagon> cartes) {
+        addAll(cartes);
+    }
+
+    /**
+     * @return le nombre de cartes de la couleur passée en argument
+     */
+    public int nombre(CouleurWagon couleur) {
+        return nombres[couleur.ordinal()];
+    }
+
+    /**
+     * Ajoute {@code n} cartes de la couleur passée en argument
+     */
+    public void ajouter(CouleurWagon couleur, int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("nombre de cartes négatif : " + n);
+        }
+        nombres[couleur.ordinal()] += n;
+        taille += n;
+        couleursModifiees |= 1 << couleur.ordinal();
+        modCount++;
+    }
+
+    /**
+     * Retire {@code n} cartes de la couleur passée en argument
+     *
+     * @throws IllegalArgumentException si la main contient moins de {@code n} cartes de cette couleur
+     */
+    public void retirer(CouleurWagon couleur, int n) {
+        if (n < 0 || nombres[couleur.ordinal()] < n) {
+            throw new IllegalArgumentException("impossible de retirer " + n + " cartes " + couleur);
+        }
+        nombres[couleur.ordinal()] -= n;
+        taille -= n;
+        couleursModifiees |= 1 << couleur.ordinal();
+        modCount++;
+    }
+
+    /**
+     * @return le plus grand nombre de cartes d'une même couleur, sans compter les locomotives
+     */
+    public int maxHorsLocomotives() {
+        int max = 0;
+        for (CouleurWagon couleur : COULEURS) {
+            if (couleur != CouleurWagon.LOCOMOTIVE && nombres[couleur.ordinal()] > max) {
+                max = nombres[couleur.ordinal()];
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Renvoie les couleurs modifiées depuis l'appel précédent, puis remet le masque à zéro
+     *
+     * @return le masque des couleurs modifiées (bit {@code 1 << ordinal})
+     */
+    public int prendreCouleursModifiees() {
+        int masque = couleursModifiees;
+        couleursModifiees = 0;
+        return masque;
+    }
+
+    @Override
+    public CouleurWagon get(int index) {
+        return COULEURS[indiceCouleur(index)];
+    }
+
+    @Override
+    public CouleurWagon set(int index, CouleurWagon carte) {
+        CouleurWagon ancienne = get(index);
+        if (ancienne != carte) {
+            nombres[ancienne.ordinal()]--;
+            nombres[carte.ordinal()]++;
+            couleursModifiees |= 1 << ancienne.ordinal() | 1 << carte.ordinal();
+        }
+        return ancienne;
+    }
+
+    @Override
+    public int size() {
+        return taille;
+    }
+
+    @Override
+    public boolean add(CouleurWagon carte) {
+        ajouter(carte, 1);
+        return true;
+    }
+
+    /**
+     * Ajoute la carte à la main (la position est ignorée, les cartes étant rangées par couleur)
+     */
+    @Override
+    public void add(int index, CouleurWagon carte) {
+        if (index < 0 || index > taille) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + taille);
+        }
+        ajouter(carte, 1);
+    }
+
+    @Override
+    public CouleurWagon remove(int index) {
+        CouleurWagon carte = get(index);
+        retirer(carte, 1);
+        return carte;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (o instanceof CouleurWagon && nombres[((CouleurWagon) o).ordinal()] > 0) {
+            retirer((CouleurWagon) o, 1);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof CouleurWagon && nombres[((CouleurWagon) o).ordinal()] > 0;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (!contains(o)) {
+            return -1;
+        }
+        int index = 0;
+        for (int i = 0; i < ((CouleurWagon) o).ordinal(); i++) {
+            index += nombres[i];
+        }
+        return index;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        int index = indexOf(o);
+        return index < 0 ? -1 : index + nombres[((CouleurWagon) o).ordinal()] - 1;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < nombres.length; i++) {
+            if (nombres[i] != 0) {
+                couleursModifiees |= 1 << i;
+            }
+        }
+        Arrays.fill(nombres, 0);
+        taille = 0;
+        modCount++;
+    }
+
+    private int indiceCouleur(int index) {
+        if (index < 0 || index >= taille) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + taille);
+        }
+        int i = 0;
+        while (index >= nombres[i]) {
+            index -= nombres[i];
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,148 @@
+package fr.umontpellier.iut.rails;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+import java.util.RandomAccess;
+
+/**
+ * Pile de cartes (pioche ou défausse) stockée dans un tableau circulaire.
+ * <p>
+ * Le dessus de la pile est l'élément d'indice 0. Piocher sur le dessus ({@code piocher()} ou
+ * {@code remove(0)}), poser une carte dessus ({@code add(0, carte)}) ou dessous ({@code add(carte)}) se font
+ * en temps constant, sans décaler les autres cartes. Les insertions et suppressions au milieu de la pile
+ * restent possibles (en temps linéaire) pour respecter le contrat de {@code List}.
+ *
+ * @param <T> type des cartes
+ */
+public class PileCartes<T> extends AbstractList<T> implements RandomAccess {
+    private Object[] cartes;
+    /**
+     * Position du dessus de la pile dans le tableau
+     */
+    private int debut;
+    private int taille;
+
+    public PileCartes() {
+        cartes = new Object[16];
+    }
+
+    public PileCartes(Collection<? extends T> cartes) {
+        this.cartes = new Object[Math.max(16, cartes.size())];
+        addAll(cartes);
+    }
+
+    /**
+     * Retire et renvoie la carte du dessus de la pile
+     *
+     * @return la carte piochée (`null` si la pile est vide)
+     */
+    public T piocher() {
+        return taille == 0 ? null : remove(0);
+    }
+
+    /**
+     * Mélange la pile sur place (même algorithme que {@code Collections.shuffle}, donc même résultat pour un
+     * générateur dans le même état)
+     */
+    public void melanger(Random random) {
+        for (int i = taille; i > 1; i--) {
+            int j = random.nextInt(i);
+            int a = position(i - 1);
+            int b = position(j);
+            Object carte = cartes[a];
+            cartes[a] = cartes[b];
+            cartes[b] = carte;
+        }
+        modCount++;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        verifierIndex(index, taille);
+        return (T) cartes[position(index)];
+    }
+
+    @Override
+    public T set(int index, T carte) {
+        T ancienne = get(index);
+        cartes[position(index)] = carte;
+        return ancienne;
+    }
+
+    @Override
+    public int size() {
+        return taille;
+    }
+
+    @Override
+    public boolean add(T carte) {
+        add(taille, carte);
+        return true;
+    }
+
+    @Override
+    public void add(int index, T carte) {
+        verifierIndex(index, taille + 1);
+        if (taille == cartes.length) {
+            agrandir();
+        }
+        if (index == 0) {
+            debut = (debut - 1 + cartes.length) % cartes.length;
+        } else {
+            for (int i = taille; i > index; i--) {
+                cartes[position(i)] = cartes[position(i - 1)];
+            }
+        }
+        cartes[position(index)] = carte;
+        taille++;
+        modCount++;
+    }
+
+    @Override
+    public T remove(int index) {
+        T carte = get(index);
+        if (index == 0) {
+            cartes[debut] = null;
+            debut = (debut + 1) % cartes.length;
+        } else {
+            for (int i = index; i < taille - 1; i++) {
+                cartes[position(i)] = cartes[position(i + 1)];
+            }
+            cartes[position(taille - 1)] = null;
+        }
+        taille--;
+        modCount++;
+        return carte;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(cartes, null);
+        debut = 0;
+        taille = 0;
+        modCount++;
+    }
+
+    private int position(int index) {
+        int p = debut + index;
+        return p < cartes.length ? p : p - cartes.length;
+    }
+
+    private void agrandir() {
+        Object[] nouvelles = new Object[cartes.length * 2];
+        for (int i = 0; i < taille; i++) {
+            nouvelles[i] = cartes[position(i)];
+        }
+        cartes = nouvelles;
+        debut = 0;
+    }
+
+    private static void verifierIndex(int index, int borne) {
+        if (index < 0 || index >= borne) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + (borne));
+        }
+    }
+}
@@ -11,10 +11,99 @@ public class Plateau {
      * Liste des routes
      */
     private final List<Route> routes;
+    /**
+     * Routes partant de chaque ville (indexées par l'identifiant de la ville)
+     */
+    private final List<List<Route>> routesParVille;
+    /**
+     * Routes reliant chaque paire de villes (case {@code id1 * nbVilles + id2}, dans les deux sens), plusieurs
+     * dans le cas des routes doubles
+     */
+    private final List<List<Route>> routesParPaire;
+    private final Map<String, Route> routesParNom;
+    private final Map<String, Ville> villesParNom;
+    /**
+     * Routes de chaque couleur (indexées par {@code CouleurWagon.ordinal()})
+     */
+    private final List<List<Route>> routesParCouleur;
+    /**
+     * Identifiants des routes qui n'ont pas encore été capturées
+     */
+    private final BitSet routesLibres;
+    /**
+     * Identifiants des villes sur lesquelles aucune gare n'a été construite
+     */
+    private final BitSet villesLibres;
+    /**
+     * Objets prévenus à chaque changement de propriétaire d'une route
+     */
+    private final List<EcouteurRoutes> ecouteurs = new ArrayList<>();
+    /**
+     * Plus courtes distances entre les villes, sans tenir compte des propriétaires (`null` tant qu'elles
+     * n'ont pas été demandées)
+     */
+    private TableDistances distances;
 
+    /**
+     * Construit le plateau et ses index. Les villes et les routes reçoivent comme identifiant leur position
+     * dans la liste correspondante.
+     */
     public Plateau(List<Ville> villes, List<Route> routes) {
-        this.villes = villes;
-        this.routes = routes;
+        this.villes = Collections.unmodifiableList(new ArrayList<>(villes));
+        this.routes = Collections.unmodifiableList(new ArrayList<>(routes));
+        int nbVilles = villes.size();
+
+        List<List<Route>> adjacences = new ArrayList<>(nbVilles);
+        Map<String, Ville> parNomVille = new HashMap<>();
+        for (int i = 0; i < nbVilles; i++) {
+            Ville ville = villes.get(i);
+            ville.setId(i);
+            ville.setPlateau(this);
+            adjacences.add(new ArrayList<>());
+            parNomVille.put(ville.getNom(), ville);
+        }
+
+        List<List<Route>> paires = new ArrayList<>(Collections.nCopies(nbVilles * nbVilles, List.of()));
+        Map<String, Route> parNomRoute = new HashMap<>();
+        List<List<Route>> parCouleur = new ArrayList<>();
+        for (int i = 0; i < CouleurWagon.values().length; i++) {
+            parCouleur.add(new ArrayList<>());
+        }
+        for (int i = 0; i < routes.size(); i++) {
+            Route route = routes.get(i);
+            route.setId(i);
+            route.setPlateau(this);
+            parCouleur.get(route.getCouleur().ordinal()).add(route);
+            int id1 = route.getVille1().getId();
+            int id2 = route.getVille2().getId();
+            adjacences.get(id1).add(route);
+            adjacences.get(id2).add(route);
+            List<Route> paralleles = new ArrayList<>(paires.get(id1 * nbVilles + id2));
+            paralleles.add(route);
+            paralleles = Collections.unmodifiableList(paralleles);
+            paires.set(id1 * nbVilles + id2, paralleles);
+            paires.set(id2 * nbVilles + id1, paralleles);
+            parNomRoute.put(route.getNom(), route);
+        }
+        for (int i = 0; i < nbVilles; i++) {
+            adjacences.set(i, Collections.unmodifiableList(adjacences.get(i)));
+        }
+        for (int i = 0; i < parCouleur.size(); i++) {
+            parCouleur.set(i, Collections.unmodifiableList(parCouleur.get(i)));
+        }
+        routesParVille = Collections.unmodifiableList(adjacences);
+        routesParCouleur = Collections.unmodifiableList(parCouleur);
+        routesLibres = new BitSet(routes.size());
+        for (Route route : routes) {
+            routesLibres.set(route.getId(), route.getProprietaire() == null);
+        }
+        villesLibres = new BitSet(nbVilles);
+        for (Ville ville : villes) {
+            villesLibres.set(ville.getId(), ville.getProprietaire() == null);
+        }
+        routesParPaire = paires;
+        routesParNom = Collections.unmodifiableMap(parNomRoute);
+        villesParNom = Collections.unmodifiableMap(parNomVille);
     }
 
     public List<Ville> getVilles() {
@@ -25,6 +114,132 @@ public class Plateau {
         return routes;
     }
 
+    /**
+     * @return la ville d'identifiant {@code id}
+     */
+    public Ville getVille(int id) {
+        return villes.get(id);
+    }
+
+    /**
+     * @return la route d'identifiant {@code id}
+     */
+    public Route getRoute(int id) {
+        return routes.get(id);
+    }
+
+    /**
+     * @return la ville dont le nom est passé en argument (`null` si elle n'existe pas)
+     */
+    public Ville getVille(String nom) {
+        return villesParNom.get(nom);
+    }
+
+    /**
+     * @return la route dont le nom est passé en argument (`null` si elle n'existe pas)
+     */
+    public Route getRoute(String nom) {
+        return routesParNom.get(nom);
+    }
+
+    /**
+     * @return les routes ayant la ville passée en argument comme extrémité
+     */
+    public List<Route> getRoutes(Ville ville) {
+        return routesParVille.get(ville.getId());
+    }
+
+    /**
+     * @return les routes reliant directement les deux villes (deux pour une route double, aucune si les
+     * villes ne sont pas voisines)
+     */
+    public List<Route> getRoutesEntre(Ville ville1, Ville ville2) {
+        return routesParPaire.get(ville1.getId() * villes.size() + ville2.getId());
+    }
+
+    /**
+     * @return les routes reliant les mêmes villes que la route passée en argument (y compris elle-même)
+     */
+    public List<Route> getRoutesParalleles(Route route) {
+        return getRoutesEntre(route.getVille1(), route.getVille2());
+    }
+
+    /**
+     * @return les routes de la couleur passée en argument (GRIS pour les routes grises)
+     */
+    public List<Route> getRoutes(CouleurWagon couleur) {
+        return routesParCouleur.get(couleur.ordinal());
+    }
+
+    /**
+     * @return vrai si la route d'identifiant {@code id} n'a pas encore été capturée
+     */
+    public boolean estLibre(int idRoute) {
+        return routesLibres.get(idRoute);
+    }
+
+    /**
+     * Copie dans {@code resultat} l'ensemble des identifiants des routes qui n'ont pas été capturées
+     */
+    public void copierRoutesLibres(BitSet resultat) {
+        resultat.clear();
+        resultat.or(routesLibres);
+    }
+
+    /**
+     * @return vrai si aucune gare n'a été construite sur la ville d'identifiant {@code id}
+     */
+    public boolean estVilleLibre(int idVille) {
+        return villesLibres.get(idVille);
+    }
+
+    /**
+     * @return l'identifiant de la première ville libre à partir de {@code id} (-1 s'il n'y en a pas)
+     */
+    public int villeLibreSuivante(int idVille) {
+        return villesLibres.nextSetBit(idVille);
+    }
+
+    public void ajouterEcouteur(EcouteurRoutes ecouteur) {
+        ecouteurs.add(ecouteur);
+    }
+
+    /**
+     * Appelée par une route du plateau lorsque son propriétaire change
+     */
+    void proprietaireModifie(Route route) {
+        routesLibres.set(route.getId(), route.getProprietaire() == null);
+        for (int i = 0; i < ecouteurs.size(); i++) {
+            ecouteurs.get(i).proprietaireModifie(route);
+        }
+    }
+
+    /**
+     * Appelée par une ville du plateau lorsqu'une gare y est construite (ou retirée)
+     */
+    void proprietaireModifie(Ville ville) {
+        villesLibres.set(ville.getId(), ville.getProprietaire() == null);
+    }
+
+    /**
+     * @return le nombre minimal de wagons nécessaires pour relier les deux villes, sans tenir compte des
+     * propriétaires des routes (la table des distances est calculée au premier appel)
+     */
+    public int getDistance(Ville ville1, Ville ville2) {
+        if (distances == null) {
+            distances = new TableDistances(this, null);
+        }
+        return distances.getDistance(ville1, ville2);
+    }
+
+    public int getNbVilles() {
+        return villes.size();
+    }
+
+    public int getNbRoutes() {
+        return routes.size();
+    }
+
     static public Plateau makePlateauEurope() {
         Map<String, Ville> villes = new HashMap<>();
         villes.put("amsterdam", new Ville("Amsterdam"));
@@ -0,0 +1,202 @@
+package fr.umontpellier.iut.rails;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Rejoue une partie à partir de son journal binaire (voir {@code JournalBinaire}).
+ * <p>
+ * La partie est recréée avec la graine du journal, puis chaque décision est rendue par un décideur qui lit
+ * les événements dans l'ordre, sans affichage : le rejeu ne coûte que l'exécution des règles. Le rejeu
+ * peut s'arrêter au début de n'importe quel tour, et s'arrête de lui-même à la fin du journal si la partie
+ * n'était pas terminée quand il a été écrit.
+ */
+public class RejeuPartie {
+    private final long graine;
+    private final String[] nomsJoueurs;
+    /**
+     * Événements du journal, dans le format de {@code JournalBinaire}
+     */
+    private final byte[] evenements;
+
+    /**
+     * Lit entièrement le journal contenu dans le flux
+     *
+     * @throws IOException si le flux ne contient pas un journal dans une version connue
+     */
+    public RejeuPartie(InputStream entree) throws IOException {
+        DataInputStream donnees = new DataInputStream(entree);
+        if (donnees.readInt() != JournalBinaire.MAGIQUE) {
+            throw new IOException("Ce flux ne contient pas un journal de partie");
+        }
+        int version = donnees.readUnsignedByte();
+        if (version != JournalBinaire.VERSION) {
+            throw new IOException("Version de journal inconnue : " + version);
+        }
+        graine = donnees.readLong();
+        nomsJoueurs = new String[donnees.readUnsignedByte()];
+        for (int i = 0; i < nomsJoueurs.length; i++) {
+            nomsJoueurs[i] = donnees.readUTF();
+        }
+        evenements = donnees.readAllBytes();
+    }
+
+    public RejeuPartie(byte[] journal) throws IOException {
+        this(new ByteArrayInputStream(journal));
+    }
+
+    public static RejeuPartie lire(Path chemin) throws IOException {
+        try (InputStream entree = Files.newInputStream(chemin)) {
+            return new RejeuPartie(entree);
+        }
+    }
+
+    public long getGraine() {
+        return graine;
+    }
+
+    public String[] getNomsJoueurs() {
+        return nomsJoueurs.clone();
+    }
+
+    /**
+     * @return le nombre de tours commencés dans le journal
+     */
+    public int getNbTours() {
+        int nbTours = 0;
+        Lecteur lecteur = new Lecteur();
+        try {
+            while (lecteur.position < evenements.length) {
+                if ((lecteur.lire() & 3) == JournalBinaire.TOUR) {
+                    nbTours++;
+                }
+            }
+        } catch (Arret e) {
+            // dernier événement coupé par l'arrêt du serveur
+        }
+        return nbTours;
+    }
+
+    /**
+     * Rejoue tout le journal
+     *
+     * @return la partie, terminée si le journal est complet
+     */
+    public Jeu rejouer() {
+        return rejouer(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Rejoue la partie jusqu'au début d'un tour
+     *
+     * @param nbTours nombre de tours à rejouer (0 pour s'arrêter juste après le choix des destinations
+     *                initiales)
+     * @return la partie, dans l'état où elle était au début du tour {@code nbTours + 1} (ou à la fin du
+     * journal s'il est plus court)
+     * @throws IllegalStateException si le journal ne correspond pas aux règles du jeu
+     */
+    public Jeu rejouer(int nbTours) {
+        Jeu jeu = new Jeu(nomsJoueurs, graine);
+        Lecteur lecteur = new Lecteur();
+        jeu.setDecideur(lecteur);
+        jeu.setJournal(new Journal() {
+            private int nbToursCommences;
+
+            @Override
+            public void debutTour() {
+                if (nbToursCommences == nbTours) {
+                    throw Arret.INSTANCE;
+                }
+                lecteur.attendre(JournalBinaire.TOUR);
+                nbToursCommences++;
+            }
+
+            @Override
+            public void choix(int indice) {
+            }
+
+            @Override
+            public void coup(int indice) {
+            }
+        });
+        try {
+            jeu.run();
+        } catch (Arret e) {
+            // fin du rejeu demandée, ou fin du journal
+        }
+        return jeu;
+    }
+
+    /**
+     * Décideur qui rend les décisions du journal dans l'ordre
+     */
+    private class Lecteur implements Decideur {
+        private int position;
+
+        @Override
+        public String choisir(Joueur joueur, String instruction, List<String> choix, boolean peutPasser) {
+            int indice = attendre(JournalBinaire.CHOIX);
+            return indice < 0 ? "" : choix.get(indice);
+        }
+
+        @Override
+        public Coup choisirCoup(Joueur joueur, String instruction, List<Coup> coups, boolean peutPasser) {
+            int indice = attendre(JournalBinaire.COUP);
+            return indice < 0 ? Coup.PASSER : coups.get(indice);
+        }
+
+        /**
+         * Lit l'événement suivant, qui doit être du type attendu
+         *
+         * @return l'indice de l'événement
+         */
+        private int attendre(int type) {
+            if (position == evenements.length) {
+                throw Arret.INSTANCE;
+            }
+            int valeur = lire();
+            if ((valeur & 3) != type) {
+                throw new IllegalStateException("Journal incohérent à l'octet " + position);
+            }
+            return (valeur >>> 2) - 1;
+        }
+
+        /**
+         * Lit l'événement suivant
+         *
+         * @throws Arret si le journal se termine au milieu de l'événement (le serveur s'est arrêté pendant
+         *               son écriture)
+         */
+        private int lire() {
+            int valeur = 0;
+            int decalage = 0;
+            byte octet;
+            do {
+                if (position == evenements.length) {
+                    throw Arret.INSTANCE;
+                }
+                octet = evenements[position++];
+                valeur |= (octet & 0x7F) << decalage;
+                decalage += 7;
+            } while (octet < 0);
+            return valeur;
+        }
+    }
+
+    /**
+     * Interrompt la partie rejouée (sans trace de pile, ce n'est pas une erreur)
+     */
+    private static final class Arret extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private static final Arret INSTANCE = new Arret();
+
+        private Arret() {
+            super(null, null, false, false);
+        }
+    }
+}
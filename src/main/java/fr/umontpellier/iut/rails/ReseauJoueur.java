@@ -0,0 +1,119 @@
+package fr.umontpellier.iut.rails;
+
+import java.util.BitSet;
+
+/**
+ * Villes reliées entre elles par les routes d'un joueur.
+ * <p>
+ * Les composantes connexes du réseau sont représentées par une structure union-find sur les identifiants
+ * des villes (union par rang et compression de chemin) : la capture d'une route par le joueur fusionne les
+ * composantes de ses deux villes, et savoir si deux villes sont reliées se fait en temps quasi constant.
+ * Le réseau n'est reconstruit entièrement que si une route du joueur lui est retirée, ce qui n'arrive pas
+ * au cours d'une partie.
+ * <p>
+ * Les gares ne sont pas prises en compte : les routes qu'elles permettent d'emprunter dépendent de la
+ * destination considérée.
+ */
+public class ReseauJoueur implements EcouteurRoutes {
+    private final Joueur joueur;
+    private final Plateau plateau;
+    /**
+     * Parent de chaque ville dans sa composante (une ville est la racine de sa composante si elle est son
+     * propre parent)
+     */
+    private final int[] parents;
+    /**
+     * Majorant de la hauteur de l'arbre de chaque racine
+     */
+    private final byte[] rangs;
+    /**
+     * Routes du joueur prises en compte dans le réseau
+     */
+    private final BitSet routes;
+
+    public ReseauJoueur(Joueur joueur, Plateau plateau) {
+        this.joueur = joueur;
+        this.plateau = plateau;
+        parents = new int[plateau.getNbVilles()];
+        rangs = new byte[plateau.getNbVilles()];
+        routes = new BitSet(plateau.getNbRoutes());
+        reconstruire();
+        plateau.ajouterEcouteur(this);
+    }
+
+    @Override
+    public void proprietaireModifie(Route route) {
+        boolean appartient = route.getProprietaire() == joueur;
+        if (appartient && !routes.get(route.getId())) {
+            routes.set(route.getId());
+            unir(route.getVille1().getId(), route.getVille2().getId());
+        } else if (!appartient && routes.get(route.getId())) {
+            reconstruire();
+        }
+    }
+
+    /**
+     * @return vrai si les villes d'identifiants {@code idVille1} et {@code idVille2} sont reliées par des
+     * routes du joueur
+     */
+    public boolean sontReliees(int idVille1, int idVille2) {
+        return trouver(idVille1) == trouver(idVille2);
+    }
+
+    /**
+     * @return vrai si les deux villes de la destination sont reliées par des routes du joueur (faux si une
+     * des villes n'existe pas sur le plateau)
+     */
+    public boolean estRealisee(Destination destination) {
+        Ville ville1 = plateau.getVille(destination.getVille1());
+        Ville ville2 = plateau.getVille(destination.getVille2());
+        return ville1 != null && ville2 != null && sontReliees(ville1.getId(), ville2.getId());
+    }
+
+    /**
+     * @return l'identifiant de la ville qui représente la composante de la ville d'identifiant {@code idVille}
+     */
+    public int trouver(int idVille) {
+        int racine = idVille;
+        while (parents[racine] != racine) {
+            racine = parents[racine];
+        }
+        // compression du chemin parcouru
+        while (parents[idVille] != racine) {
+            int suivante = parents[idVille];
+            parents[idVille] = racine;
+            idVille = suivante;
+        }
+        return racine;
+    }
+
+    private void unir(int idVille1, int idVille2) {
+        int racine1 = trouver(idVille1);
+        int racine2 = trouver(idVille2);
+        if (racine1 == racine2) {
+            return;
+        }
+        if (rangs[racine1] < rangs[racine2]) {
+            parents[racine1] = racine2;
+        } else if (rangs[racine1] > rangs[racine2]) {
+            parents[racine2] = racine1;
+        } else {
+            parents[racine2] = racine1;
+            rangs[racine1]++;
+        }
+    }
+
+    private void reconstruire() {
+        for (int i = 0; i < parents.length; i++) {
+            parents[i] = i;
+            rangs[i] = 0;
+        }
+        routes.clear();
+        for (Route route : plateau.getRoutes()) {
+            if (route.getProprietaire() == joueur) {
+                routes.set(route.getId());
+                unir(route.getVille1().getId(), route.getVille2().getId());
+            }
+        }
+    }
+}
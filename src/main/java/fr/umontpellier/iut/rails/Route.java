@@ -3,7 +3,11 @@ package fr.umontpellier.iut.rails;
 import java.util.ArrayList;
 import java.util.HashMap;
 
-public class Route {
+/**
+ * Route entre deux villes. Les routes particulières (ferries et tunnels) sont des sous-classes qui
+ * redéfinissent les règles de paiement ({@code getNbLocomotives}, {@code estTunnel}).
+ */
+public sealed class Route permits Ferry, Tunnel {
     /**
      * Première extrémité
      */
@@ -29,6 +33,14 @@ public class Route {
      * (voir la classe Plateau pour plus de clarté)
      */
     private String nom;
+    /**
+     * Identifiant de la route, attribué par le plateau (position dans la liste des routes)
+     */
+    private int id = -1;
+    /**
+     * Plateau auquel appartient la route (prévenu des changements de propriétaire)
+     */
+    private Plateau plateau;
 
     public Route(Ville ville1, Ville ville2, int longueur, CouleurWagon couleur) {
         this.ville1 = ville1;
@@ -55,12 +67,27 @@ public class Route {
         return couleur;
     }
 
+    public int getId() {
+        return id;
+    }
+
+    void setId(int id) {
+        this.id = id;
+    }
+
+    void setPlateau(Plateau plateau) {
+        this.plateau = plateau;
+    }
+
     public Joueur getProprietaire() {
         return proprietaire;
     }
 
     public void setProprietaire(Joueur proprietaire) {
         this.proprietaire = proprietaire;
+        if (plateau != null) {
+            plateau.proprietaireModifie(this);
+        }
     }
 
     public String getNom() {
@@ -71,6 +98,35 @@ public class Route {
         this.nom = nom;
     }
 
+    /**
+     * @return le nombre de locomotives qui doivent obligatoirement faire partie du paiement (0 sauf pour
+     * les ferries)
+     */
+    public int getNbLocomotives() {
+        return 0;
+    }
+
+    /**
+     * @return vrai si la capture de la route se termine par le tirage des trois cartes du tunnel
+     */
+    public boolean estTunnel() {
+        return false;
+    }
+
+    /**
+     * Indique si les cartes passées en argument suffisent pour payer la route : les locomotives imposées,
+     * puis des cartes de la couleur de la route (de n'importe quelle couleur unique pour une route grise),
+     * complétées par des locomotives
+     */
+    public boolean peutEtrePayeeAvec(MainCartesWagon cartes) {
+        int nbLocomotives = cartes.nombre(CouleurWagon.LOCOMOTIVE);
+        if (nbLocomotives < getNbLocomotives()) {
+            return false;
+        }
+        int nbCouleur = couleur == CouleurWagon.GRIS ? cartes.maxHorsLocomotives() : cartes.nombre(couleur);
+        return nbCouleur + nbLocomotives >= longueur;
+    }
+
     public String toLog() {
         return String.format("<span class=\"route\">%s - %s</span>", ville1.getNom(), ville2.getNom());
     }
@@ -0,0 +1,105 @@
+package fr.umontpellier.iut.rails;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Journal qui prend un instantané de la partie (voir {@code InstantanePartie}) au début d'un tour sur
+ * {@code intervalle} et l'écrit sur le disque en arrière-plan.
+ * <p>
+ * Seule la capture de l'instantané (quelques microsecondes) est faite sur le thread de la partie ; l'écriture
+ * est confiée à l'exécuteur. Si le disque est plus lent que la partie, les instantanés en attente sont
+ * remplacés par le plus récent. Le fichier est écrit à côté puis renommé, il est donc toujours complet, et il
+ * est supprimé à la fin de la partie. Les autres événements sont transmis au journal suivant.
+ */
+public class SauvegardePeriodique implements Journal {
+    private final Jeu jeu;
+    private final Path fichier;
+    private final int intervalle;
+    private final Executor executeur;
+    /**
+     * Journal auquel les événements sont transmis (`null` si aucun)
+     */
+    private final Journal suivant;
+    /**
+     * Instantané le plus récent qui n'a pas encore été écrit (`null` si aucun)
+     */
+    private final AtomicReference<byte[]> enAttente = new AtomicReference<>();
+    private int nbTours;
+
+    /**
+     * @param jeu        la partie sauvegardée
+     * @param fichier    fichier de l'instantané
+     * @param intervalle nombre de tours entre deux instantanés
+     * @param executeur  exécuteur des écritures sur le disque
+     * @param suivant    journal auquel les événements sont transmis (`null` si aucun)
+     */
+    public SauvegardePeriodique(Jeu jeu, Path fichier, int intervalle, Executor executeur, Journal suivant) {
+        this.jeu = jeu;
+        this.fichier = fichier;
+        this.intervalle = intervalle;
+        this.executeur = executeur;
+        this.suivant = suivant;
+    }
+
+    @Override
+    public void debutTour() {
+        if (nbTours++ % intervalle == 0) {
+            if (enAttente.getAndSet(InstantanePartie.capturer(jeu)) == null) {
+                executeur.execute(this::ecrire);
+            }
+        }
+        if (suivant != null) {
+            suivant.debutTour();
+        }
+    }
+
+    @Override
+    public void choix(int indice) {
+        if (suivant != null) {
+            suivant.choix(indice);
+        }
+    }
+
+    @Override
+    public void coup(int indice) {
+        if (suivant != null) {
+            suivant.coup(indice);
+        }
+    }
+
+    @Override
+    public void fermer() {
+        executeur.execute(this::supprimer);
+        if (suivant != null) {
+            suivant.fermer();
+        }
+    }
+
+    private synchronized void ecrire() {
+        byte[] instantane = enAttente.getAndSet(null);
+        if (instantane == null) {
+            return;
+        }
+        try {
+            Path temporaire = fichier.resolveSibling(fichier.getFileName() + ".tmp");
+            Files.write(temporaire, instantane);
+            Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private synchronized void supprimer() {
+        enAttente.set(null);
+        try {
+            Files.deleteIfExists(fichier);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
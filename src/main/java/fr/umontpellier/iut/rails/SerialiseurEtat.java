@@ -0,0 +1,297 @@
+package fr.umontpellier.iut.rails;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Sérialisation JSON de l'état d'une partie pour les interfaces graphiques.
+ * <p>
+ * Les objets du jeu ({@code Jeu}, {@code Joueur}, {@code Route}, {@code Ville}, {@code Destination}) sont
+ * écrits directement dans le flux JSON par des {@code TypeAdapter}, sans passer par les objets
+ * intermédiaires de {@code asPOJO()} (le format produit est le même). L'instance de Gson est construite
+ * une seule fois et partagée par toutes les parties. La sérialisation est en écriture seule : l'état n'est
+ * jamais relu, et {@code GSON.fromJson} lève une {@code JsonIOException} pour ces types.
+ * <p>
+ * Un sérialiseur écrit dans un tampon qu'il réutilise d'un appel à l'autre : il ne doit être utilisé que
+ * par un seul thread à la fois (en pratique, un sérialiseur par partie).
+ */
+public class SerialiseurEtat {
+    /**
+     * Couleurs de cartes, dans l'ordre de tri (copie unique de {@code CouleurWagon.values()})
+     */
+    private static final CouleurWagon[] COULEURS = CouleurWagon.values();
+    /**
+     * Instance de Gson partagée (les instances de Gson sont utilisables par plusieurs threads)
+     */
+    public static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(Jeu.class, new AdaptateurJeu().nullSafe())
+            .registerTypeAdapter(Joueur.class, new AdaptateurJoueur().nullSafe())
+            .registerTypeHierarchyAdapter(Route.class, new AdaptateurRoute().nullSafe())
+            .registerTypeAdapter(Ville.class, new AdaptateurVille().nullSafe())
+            .registerTypeAdapter(Destination.class, new AdaptateurDestination().nullSafe())
+            .create();
+
+    /**
+     * Tampon réutilisé par toutes les sérialisations de ce sérialiseur
+     */
+    private final Tampon tampon = new Tampon();
+
+    /**
+     * @return la représentation JSON de l'objet passé en argument
+     */
+    public String versJson(Object objet) {
+        tampon.vider();
+        try {
+            JsonWriter writer = new JsonWriter(tampon);
+            ecrire(writer, objet);
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return tampon.toString();
+    }
+
+    /**
+     * @return la description JSON du prompt envoyé aux joueurs
+     */
+    public String versJsonPrompt(Jeu jeu, String instruction, Collection<String> boutons, boolean peutPasser) {
+        tampon.vider();
+        try {
+            JsonWriter writer = new JsonWriter(tampon);
+            ecrirePrompt(writer, jeu, instruction, boutons, peutPasser);
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return tampon.toString();
+    }
+
+    /**
+     * @return la description JSON des piles de cartes de la partie
+     */
+    public String versJsonPiles(Jeu jeu) {
+        tampon.vider();
+        try {
+            JsonWriter writer = new JsonWriter(tampon);
+            ecrirePiles(writer, jeu);
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return tampon.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void ecrire(JsonWriter out, Object objet) throws IOException {
+        ((TypeAdapter<Object>) GSON.getAdapter(objet.getClass())).write(out, objet);
+    }
+
+    private static void ecrirePrompt(JsonWriter out, Jeu jeu, String instruction, Collection<String> boutons,
+                                     boolean peutPasser) throws IOException {
+        out.beginObject();
+        out.name("instruction").value(instruction);
+        out.name("boutons").beginArray();
+        for (String bouton : boutons) {
+            out.value(bouton);
+        }
+        out.endArray();
+        out.name("nomJoueurCourant").value(jeu.getJoueurCourant().getNom());
+        out.name("peutPasser").value(peutPasser);
+        out.endObject();
+    }
+
+    private static void ecrirePiles(JsonWriter out, Jeu jeu) throws IOException {
+        out.beginObject();
+        out.name("pileCartesWagon").value(jeu.getPileCartesWagon().size());
+        out.name("pileDestinations").value(jeu.getPileDestinations().size());
+        out.name("defausseCartesWagon");
+        ecrireCartes(out, jeu.getDefausseCartesWagon());
+        out.name("cartesWagonVisibles");
+        ecrireCartes(out, jeu.getCartesWagonVisibles());
+        out.endObject();
+    }
+
+    private static void ecrireChampsDestination(JsonWriter out, Destination destination) throws IOException {
+        out.name("ville1").value(destination.getVille1());
+        out.name("ville2").value(destination.getVille2());
+        out.name("valeur").value(destination.getValeur());
+    }
+
+    private static void ecrireCartes(JsonWriter out, List<CouleurWagon> cartes) throws IOException {
+        out.beginArray();
+        for (int i = 0; i < cartes.size(); i++) {
+            out.value(cartes.get(i).name());
+        }
+        out.endArray();
+    }
+
+    /**
+     * Écrit les noms des cartes triés par couleur (comme le faisait {@code asPOJO})
+     */
+    private static void ecrireCartesTriees(JsonWriter out, List<CouleurWagon> cartes) throws IOException {
+        out.beginArray();
+        for (CouleurWagon couleur : COULEURS) {
+            for (int i = 0; i < cartes.size(); i++) {
+                if (cartes.get(i) == couleur) {
+                    out.value(couleur.name());
+                }
+            }
+        }
+        out.endArray();
+    }
+
+    /**
+     * Adaptateur qui ne fait qu'écrire : les objets du jeu ne sont jamais reconstruits à partir du JSON
+     */
+    private abstract static class AdaptateurEcriture<T> extends TypeAdapter<T> {
+        @Override
+        public final T read(JsonReader in) {
+            throw new JsonIOException("sérialisation en écriture seule");
+        }
+    }
+
+    /**
+     * État complet de la partie, sans le prompt (qui n'est pas conservé dans {@code Jeu})
+     */
+    private static class AdaptateurJeu extends AdaptateurEcriture<Jeu> {
+        @Override
+        public void write(JsonWriter out, Jeu jeu) throws IOException {
+            out.beginObject();
+            out.name("villes").beginArray();
+            for (Ville ville : jeu.getVilles()) {
+                ecrire(out, ville);
+            }
+            out.endArray();
+            out.name("routes").beginArray();
+            for (Route route : jeu.getRoutes()) {
+                ecrire(out, route);
+            }
+            out.endArray();
+            out.name("joueurs").beginArray();
+            for (Joueur joueur : jeu.getJoueurs()) {
+                ecrire(out, joueur);
+            }
+            out.endArray();
+            out.name("piles");
+            ecrirePiles(out, jeu);
+            LogPartie log = jeu.getLog();
+            long nbMessages = log.getNbMessages();
+            out.name("logDebut").value(log.getPremierConserve());
+            out.name("log").beginArray();
+            for (String message : log.getMessages(0, nbMessages)) {
+                out.value(message);
+            }
+            out.endArray();
+            out.endObject();
+        }
+    }
+
+    private static class AdaptateurJoueur extends AdaptateurEcriture<Joueur> {
+        @Override
+        public void write(JsonWriter out, Joueur joueur) throws IOException {
+            out.beginObject();
+            out.name("nom").value(joueur.getNom());
+            out.name("couleur").value(joueur.getCouleur().name());
+            out.name("score").value(joueur.getScore());
+            out.name("nbGares").value(joueur.getNbGares());
+            out.name("nbWagons").value(joueur.getNbWagons());
+            out.name("estJoueurCourant").value(joueur == joueur.getJeu().getJoueurCourant());
+            out.name("destinations").beginArray();
+            for (Destination destination : joueur.getDestinations()) {
+                out.beginObject();
+                ecrireChampsDestination(out, destination);
+                out.name("realisee").value(joueur.estRealisee(destination));
+                out.endObject();
+            }
+            out.endArray();
+            out.name("cartesWagon");
+            ecrireCartesTriees(out, joueur.getCartesWagon());
+            out.name("cartesWagonPosees");
+            ecrireCartesTriees(out, joueur.getCartesWagonPosees());
+            out.endObject();
+        }
+    }
+
+    private static class AdaptateurRoute extends AdaptateurEcriture<Route> {
+        @Override
+        public void write(JsonWriter out, Route route) throws IOException {
+            out.beginObject();
+            out.name("nom").value(route.getNom());
+            if (route.getProprietaire() != null) {
+                out.name("proprietaire").value(route.getProprietaire().getCouleur().name());
+            }
+            out.endObject();
+        }
+    }
+
+    private static class AdaptateurVille extends AdaptateurEcriture<Ville> {
+        @Override
+        public void write(JsonWriter out, Ville ville) throws IOException {
+            out.beginObject();
+            out.name("nom").value(ville.getNom());
+            if (ville.getProprietaire() != null) {
+                out.name("proprietaire").value(ville.getProprietaire().getCouleur().name());
+            }
+            out.endObject();
+        }
+    }
+
+    private static class AdaptateurDestination extends AdaptateurEcriture<Destination> {
+        @Override
+        public void write(JsonWriter out, Destination destination) throws IOException {
+            out.beginObject();
+            ecrireChampsDestination(out, destination);
+            out.endObject();
+        }
+    }
+
+    /**
+     * Writer sur un {@code StringBuilder} réutilisable (contrairement à {@code StringWriter}, sans
+     * synchronisation et vidé sans réallocation)
+     */
+    private static class Tampon extends Writer {
+        private final StringBuilder sb = new StringBuilder(1024);
+
+        void vider() {
+            sb.setLength(0);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            sb.append(cbuf, off, len);
+        }
+
+        @Override
+        public void write(int c) {
+            sb.append((char) c);
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            sb.append(str, off, off + len);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String toString() {
+            return sb.toString();
+        }
+    }
+}
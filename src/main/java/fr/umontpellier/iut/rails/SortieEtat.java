@@ -0,0 +1,15 @@
+package fr.umontpellier.iut.rails;
+
+/**
+ * Destinataire de l'état d'une partie (par exemple une table du serveur qui l'envoie à ses clients)
+ */
+public interface SortieEtat {
+    /**
+     * Appelée par {@code Jeu.prompt} chaque fois qu'une nouvelle version de l'état est disponible.
+     * Le destinataire choisit pour chaque client la forme à envoyer : état complet ou différences
+     * avec la version précédente.
+     *
+     * @param etat l'état versionné de la partie
+     */
+    void publier(EtatPartie etat);
+}
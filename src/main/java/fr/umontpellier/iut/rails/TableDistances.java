@@ -0,0 +1,175 @@
+package fr.umontpellier.iut.rails;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Plus courtes distances, en nombre de wagons, entre toutes les paires de villes du plateau.
+ * <p>
+ * Les distances sont rangées dans un tableau plat de {@code short} indexé par {@code id1 * nbVilles + id2}
+ * et calculées par l'algorithme de Floyd-Warshall. Deux variantes existent :
+ * <ul>
+ * <li>la table du plateau (sans joueur), où toutes les routes comptent pour leur longueur ;</li>
+ * <li>la table d'un joueur, où ses routes ne coûtent rien et celles des autres joueurs sont bloquées. Elle
+ * est mise à jour à chaque changement de propriétaire : une route capturée par le joueur ne fait que
+ * raccourcir des distances (mise à jour en O(n²)), alors qu'une route capturée par un adversaire n'oblige à
+ * tout recalculer (au prochain appel) que si elle était le seul plus court chemin entre ses deux villes.</li>
+ * </ul>
+ */
+public class TableDistances implements EcouteurRoutes {
+    /**
+     * Distance entre deux villes qui ne peuvent pas être reliées
+     */
+    public static final int INFINI = Short.MAX_VALUE;
+
+    private final Plateau plateau;
+    /**
+     * Joueur dont les routes sont gratuites et pour qui les routes des adversaires sont bloquées (`null`
+     * pour la table du plateau)
+     */
+    private final Joueur joueur;
+    private final int nbVilles;
+    private final short[] distances;
+    /**
+     * Routes du joueur (utilisé pour connaître le coût d'une route avant un changement de propriétaire)
+     */
+    private final BitSet routesDuJoueur;
+    /**
+     * Indique que les distances doivent être entièrement recalculées avant la prochaine lecture
+     */
+    private boolean aRecalculer = true;
+
+    /**
+     * @param plateau le plateau
+     * @param joueur  le joueur de la table, ou `null` pour ignorer les propriétaires des routes
+     */
+    public TableDistances(Plateau plateau, Joueur joueur) {
+        this.plateau = plateau;
+        this.joueur = joueur;
+        nbVilles = plateau.getNbVilles();
+        distances = new short[nbVilles * nbVilles];
+        routesDuJoueur = new BitSet(plateau.getNbRoutes());
+        if (joueur != null) {
+            plateau.ajouterEcouteur(this);
+        }
+    }
+
+    /**
+     * @return le nombre minimal de wagons (routes possédées par le joueur non comprises) nécessaires pour
+     * relier les villes d'identifiants {@code idVille1} et {@code idVille2}, ou {@code INFINI} si elles ne
+     * peuvent pas être reliées
+     */
+    public int getDistance(int idVille1, int idVille2) {
+        if (aRecalculer) {
+            calculer();
+            aRecalculer = false;
+        }
+        return distances[idVille1 * nbVilles + idVille2];
+    }
+
+    public int getDistance(Ville ville1, Ville ville2) {
+        return getDistance(ville1.getId(), ville2.getId());
+    }
+
+    /**
+     * @return le coût d'une route pour le joueur de la table ({@code INFINI} si elle est bloquée)
+     */
+    public int getCout(Route route) {
+        if (joueur == null) {
+            return route.getLongueur();
+        }
+        if (route.getProprietaire() == joueur) {
+            return 0;
+        }
+        return route.getProprietaire() == null ? route.getLongueur() : INFINI;
+    }
+
+    @Override
+    public void proprietaireModifie(Route route) {
+        boolean etaitAuJoueur = routesDuJoueur.get(route.getId());
+        routesDuJoueur.set(route.getId(), route.getProprietaire() == joueur);
+        if (aRecalculer) {
+            return;
+        }
+        int u = route.getVille1().getId();
+        int v = route.getVille2().getId();
+        int cout = coutEntre(route.getVille1(), route.getVille2());
+        int actuelle = distances[u * nbVilles + v];
+        // coût de la route avant le changement (libre si elle n'était pas au joueur : si elle était déjà à
+        // un adversaire, il n'y a au pire qu'un recalcul inutile)
+        int ancienCout = etaitAuJoueur ? 0 : route.getLongueur();
+        if (cout < actuelle) {
+            raccourcir(u, v, cout);
+        } else if (cout > actuelle && ancienCout <= actuelle) {
+            // la route était peut-être le seul plus court chemin entre ses villes, et a donc pu servir à
+            // d'autres distances : tout est recalculé à la prochaine lecture (un recalcul complet sur un
+            // plateau de cette taille coûte moins cher que de chercher les distances touchées)
+            aRecalculer = true;
+        }
+    }
+
+    /**
+     * @return le coût le plus faible des routes qui relient directement les deux villes
+     */
+    private int coutEntre(Ville ville1, Ville ville2) {
+        int cout = INFINI;
+        for (Route route : plateau.getRoutesEntre(ville1, ville2)) {
+            cout = Math.min(cout, getCout(route));
+        }
+        return cout;
+    }
+
+    /**
+     * Met à jour toutes les distances après que le coût du passage direct entre les villes {@code u} et
+     * {@code v} est descendu à {@code cout}
+     */
+    private void raccourcir(int u, int v, int cout) {
+        int baseU = u * nbVilles;
+        int baseV = v * nbVilles;
+        for (int i = 0; i < nbVilles; i++) {
+            int base = i * nbVilles;
+            int viaU = distances[base + u];
+            int viaV = distances[base + v];
+            for (int j = 0; j < nbVilles; j++) {
+                int d = Math.min(viaU + cout + distances[baseV + j], viaV + cout + distances[baseU + j]);
+                if (d < distances[base + j]) {
+                    distances[base + j] = (short) d;
+                }
+            }
+        }
+    }
+
+    private void calculer() {
+        Arrays.fill(distances, (short) INFINI);
+        for (int i = 0; i < nbVilles; i++) {
+            distances[i * nbVilles + i] = 0;
+        }
+        for (Route route : plateau.getRoutes()) {
+            int u = route.getVille1().getId();
+            int v = route.getVille2().getId();
+            int cout = getCout(route);
+            routesDuJoueur.set(route.getId(), joueur != null && route.getProprietaire() == joueur);
+            if (cout < distances[u * nbVilles + v]) {
+                distances[u * nbVilles + v] = (short) cout;
+                distances[v * nbVilles + u] = (short) cout;
+            }
+        }
+        // Floyd-Warshall (les sommes de deux distances finies ne débordent pas d'un int)
+        for (int k = 0; k < nbVilles; k++) {
+            int baseK = k * nbVilles;
+            for (int i = 0; i < nbVilles; i++) {
+                int base = i * nbVilles;
+                int dik = distances[base + k];
+                if (dik == INFINI) {
+                    continue;
+                }
+                for (int j = 0; j < nbVilles; j++) {
+                    int d = dik + distances[baseK + j];
+                    if (d < distances[base + j]) {
+                        distances[base + j] = (short) d;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package fr.umontpellier.iut.rails;
 
-public class Tunnel extends Route {
+public final class Tunnel extends Route {
     public Tunnel(Ville ville1, Ville ville2, int longueur, CouleurWagon couleur) {
         super(ville1, ville2, longueur, couleur);
     }
 
-
+    @Override
+    public boolean estTunnel() {
+        return true;
+    }
 
     @Override
     public String toString() {
@@ -11,6 +11,14 @@ public class Ville {
      * Joueur qui a construit une gare sur la ville (ou `null` si pas de gare)
      */
     private Joueur proprietaire;
+    /**
+     * Identifiant de la ville, attribué par le plateau (position dans la liste des villes)
+     */
+    private int id = -1;
+    /**
+     * Plateau auquel appartient la ville (prévenu des changements de propriétaire)
+     */
+    private Plateau plateau;
 
     public Ville(String nom) {
         this.nom = nom;
@@ -20,12 +28,27 @@ public class Ville {
         return nom;
     }
     
+    public int getId() {
+        return id;
+    }
+
+    void setId(int id) {
+        this.id = id;
+    }
+
+    void setPlateau(Plateau plateau) {
+        this.plateau = plateau;
+    }
+
     public Joueur getProprietaire() {
         return proprietaire;
     }
     
     public void setProprietaire(Joueur proprietaire) {
         this.proprietaire = proprietaire;
+        if (plateau != null) {
+            plateau.proprietaireModifie(this);
+        }
     }
     
     @Override
@@ -0,0 +1,309 @@
+package fr.umontpellier.iut.rails.ia;
+
+import fr.umontpellier.iut.rails.CouleurWagon;
+import fr.umontpellier.iut.rails.Coup;
+import fr.umontpellier.iut.rails.Decideur;
+import fr.umontpellier.iut.rails.Destination;
+import fr.umontpellier.iut.rails.GenerateurCoups;
+import fr.umontpellier.iut.rails.Joueur;
+import fr.umontpellier.iut.rails.Plateau;
+import fr.umontpellier.iut.rails.Route;
+import fr.umontpellier.iut.rails.TableDistances;
+import fr.umontpellier.iut.rails.Ville;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Robot à règles fixes, très rapide (quelques microsecondes par décision), destiné aux simulations en
+ * masse et aux tests de charge.
+ * <p>
+ * À chaque décision, le robot cherche pour chacune de ses destinations les plus courts chemins entre ses
+ * deux villes (les routes qu'il possède ne coûtent rien et les routes libres coûtent leur longueur) dans sa
+ * table des distances ; si les routes des adversaires bloquent la destination, il cherche un chemin qui les
+ * emprunte avec une pénalité, s'il lui reste des gares. Il joue ensuite, par ordre de priorité :
+ * <ol>
+ * <li>la plus longue route de ces chemins qu'il peut capturer ;</li>
+ * <li>une gare sur l'extrémité d'une route adverse qu'il doit emprunter ;</li>
+ * <li>une carte visible de la couleur dont il lui manque le plus de cartes pour ces chemins ;</li>
+ * <li>une carte de la pioche ;</li>
+ * <li>la plus longue route qu'il peut capturer, s'il n'a plus rien à relier ou plus rien à piocher.</li>
+ * </ol>
+ * Pour les choix secondaires, il paie avec la couleur dont il a le plus de cartes (les locomotives en
+ * dernier) et garde toutes les destinations proposées. Aux questions textuelles, il répond par le premier
+ * choix, ou passe s'il en a le droit.
+ * <p>
+ * Le robot n'a pas d'état : une même instance peut être partagée par plusieurs joueurs.
+ */
+public class DecideurGlouton implements Decideur {
+    /**
+     * Surcoût d'une route adverse dans le calcul des chemins (elle oblige à construire une gare)
+     */
+    private static final int PENALITE_EMPRUNT = 8;
+    private static final int INFINI = Integer.MAX_VALUE;
+    private static final CouleurWagon[] COULEURS = CouleurWagon.values();
+
+    @Override
+    public String choisir(Joueur joueur, String instruction, List<String> choix, boolean peutPasser) {
+        return peutPasser ? "" : choix.get(0);
+    }
+
+    @Override
+    public Coup choisirCoup(Joueur joueur, String instruction, List<Coup> coups, boolean peutPasser) {
+        // choix secondaires
+        Coup.Type type = coups.get(0).getType();
+        if (type == Coup.Type.PAYER) {
+            return payer(joueur, coups, peutPasser);
+        }
+        if (type == Coup.Type.DEFAUSSER_DESTINATION) {
+            return peutPasser ? Coup.PASSER : coups.get(0);
+        }
+
+        Plateau plateau = joueur.getJeu().getPlateau();
+        BitSet routesVoulues = new BitSet(plateau.getNbRoutes());
+        BitSet garesVoulues = new BitSet(plateau.getNbVilles());
+        planifier(joueur, plateau, routesVoulues, garesVoulues);
+
+        // 1. route d'un chemin, 2. gare nécessaire
+        Coup routeVoulue = null;
+        Coup routeQuelconque = null;
+        Coup gare = null;
+        for (Coup coup : coups) {
+            if (coup.getType() == Coup.Type.ROUTE) {
+                int longueur = plateau.getRoute(coup.getId()).getLongueur();
+                if (routesVoulues.get(coup.getId()) && plusLongue(plateau, coup, routeVoulue)) {
+                    routeVoulue = coup;
+                }
+                if (plusLongue(plateau, coup, routeQuelconque) && longueur <= joueur.getNbWagons()) {
+                    routeQuelconque = coup;
+                }
+            } else if (coup.getType() == Coup.Type.GARE && gare == null && garesVoulues.get(coup.getId())) {
+                gare = coup;
+            }
+        }
+        if (routeVoulue != null) {
+            return routeVoulue;
+        }
+        if (gare != null) {
+            return gare;
+        }
+        if (routesVoulues.isEmpty() && routeQuelconque != null) {
+            return routeQuelconque;
+        }
+
+        // 3. carte visible utile, 4. pioche
+        int[] manques = new int[COULEURS.length];
+        for (int id = routesVoulues.nextSetBit(0); id >= 0; id = routesVoulues.nextSetBit(id + 1)) {
+            Route route = plateau.getRoute(id);
+            manques[route.getCouleur().ordinal()] += route.getLongueur();
+        }
+        Coup carte = null;
+        int meilleurManque = 0;
+        Coup pioche = null;
+        Coup carteQuelconque = null;
+        for (Coup coup : coups) {
+            if (coup.getType() == Coup.Type.CARTE_VISIBLE && coup.getCouleur() != CouleurWagon.LOCOMOTIVE) {
+                int manque = manques[coup.getCouleur().ordinal()] - joueur.getNbCartesWagon(coup.getCouleur());
+                if (manque > meilleurManque) {
+                    carte = coup;
+                    meilleurManque = manque;
+                }
+                if (carteQuelconque == null) {
+                    carteQuelconque = coup;
+                }
+            } else if (coup.getType() == Coup.Type.CARTE_PIOCHE) {
+                pioche = coup;
+            }
+        }
+        if (carte != null) {
+            return carte;
+        }
+        if (pioche != null) {
+            return pioche;
+        }
+        if (carteQuelconque != null) {
+            return carteQuelconque;
+        }
+        // 5. plus rien à piocher
+        if (routeQuelconque != null) {
+            return routeQuelconque;
+        }
+        return peutPasser ? Coup.PASSER : coups.get(0);
+    }
+
+    /**
+     * @return la carte à payer : la couleur dont le joueur a le plus de cartes, sinon une locomotive (seules
+     * les couleurs dont le joueur a des cartes peuvent servir à payer)
+     */
+    private static Coup payer(Joueur joueur, List<Coup> coups, boolean peutPasser) {
+        Coup meilleur = null;
+        int meilleurNombre = 0;
+        Coup locomotive = null;
+        for (Coup coup : coups) {
+            int nombre = joueur.getNbCartesWagon(coup.getCouleur());
+            if (coup.getCouleur() == CouleurWagon.LOCOMOTIVE) {
+                if (nombre > 0) {
+                    locomotive = coup;
+                }
+            } else if (nombre > meilleurNombre) {
+                meilleur = coup;
+                meilleurNombre = nombre;
+            }
+        }
+        if (meilleur != null) {
+            return meilleur;
+        }
+        if (locomotive != null) {
+            return locomotive;
+        }
+        return peutPasser ? Coup.PASSER : coups.get(0);
+    }
+
+    /**
+     * Calcule les routes à capturer et les villes où construire une gare pour relier les destinations du
+     * joueur (les destinations dont les villes ne sont pas sur le plateau sont ignorées).
+     * <p>
+     * Quand les deux villes d'une destination peuvent être reliées sans emprunter de route adverse, toutes
+     * les routes libres qui sont sur un de ses plus courts chemins (d'après la table des distances du joueur)
+     * sont voulues. Sinon, le chemin est cherché en autorisant les emprunts.
+     */
+    private static void planifier(Joueur joueur, Plateau plateau, BitSet routesVoulues, BitSet garesVoulues) {
+        TableDistances table = joueur.getDistances();
+        int[] distances = null;
+        int[] precedents = null;
+        boolean[] atteintes = null;
+        int[] couts = null;
+        for (Destination destination : joueur.getDestinations()) {
+            Ville depart = plateau.getVille(destination.getVille1());
+            Ville arrivee = plateau.getVille(destination.getVille2());
+            if (depart == null || arrivee == null) {
+                continue;
+            }
+            int distance = table.getDistance(depart, arrivee);
+            if (distance == 0) {
+                continue;
+            }
+            if (distance != TableDistances.INFINI) {
+                for (Route route : plateau.getRoutes()) {
+                    if (route.getProprietaire() == null
+                            && estSurUnPlusCourtChemin(table, route, depart, arrivee, distance)) {
+                        routesVoulues.set(route.getId());
+                    }
+                }
+                continue;
+            }
+            if (couts == null) {
+                distances = new int[plateau.getNbVilles()];
+                precedents = new int[plateau.getNbVilles()];
+                atteintes = new boolean[plateau.getNbVilles()];
+                couts = couts(joueur, plateau);
+            }
+            cheminsDepuis(plateau, couts, depart.getId(), arrivee.getId(), distances, precedents, atteintes);
+            if (distances[arrivee.getId()] == INFINI) {
+                continue;
+            }
+            Ville ville = arrivee;
+            while (ville != depart) {
+                Route route = plateau.getRoute(precedents[ville.getId()]);
+                Joueur proprietaire = route.getProprietaire();
+                if (proprietaire == null) {
+                    routesVoulues.set(route.getId());
+                } else if (proprietaire != joueur && route.getVille1().getProprietaire() != joueur
+                        && route.getVille2().getProprietaire() != joueur) {
+                    for (Ville extremite : new Ville[] { route.getVille1(), route.getVille2() }) {
+                        if (plateau.estVilleLibre(extremite.getId())) {
+                            garesVoulues.set(extremite.getId());
+                            break;
+                        }
+                    }
+                }
+                ville = route.getVille1() == ville ? route.getVille2() : route.getVille1();
+            }
+        }
+    }
+
+    /**
+     * @return vrai si la route (libre) est sur un plus court chemin de longueur {@code distance} entre les
+     * deux villes
+     */
+    private static boolean estSurUnPlusCourtChemin(TableDistances table, Route route, Ville depart, Ville arrivee,
+                                                   int distance) {
+        int longueur = route.getLongueur();
+        Ville v1 = route.getVille1();
+        Ville v2 = route.getVille2();
+        return table.getDistance(depart, v1) + longueur + table.getDistance(v2, arrivee) == distance
+                || table.getDistance(depart, v2) + longueur + table.getDistance(v1, arrivee) == distance;
+    }
+
+    /**
+     * @return le coût de chaque route pour le joueur dans le calcul des chemins (-1 si elle est inutilisable)
+     */
+    private static int[] couts(Joueur joueur, Plateau plateau) {
+        GenerateurCoups generateur = joueur.getGenerateurCoups();
+        boolean peutEmprunter = joueur.getNbGares() > 0;
+        int[] couts = new int[plateau.getNbRoutes()];
+        for (Route route : plateau.getRoutes()) {
+            int cout;
+            if (route.getProprietaire() == joueur) {
+                cout = 0;
+            } else if (route.getProprietaire() == null) {
+                cout = generateur.estAutorisee(route) ? route.getLongueur() : -1;
+            } else {
+                cout = peutEmprunter ? route.getLongueur() + PENALITE_EMPRUNT : -1;
+            }
+            couts[route.getId()] = cout;
+        }
+        return couts;
+    }
+
+    /**
+     * Algorithme de Dijkstra depuis la ville {@code depart}, arrêté dès que la ville {@code arrivee} est
+     * atteinte. Après l'appel, {@code distances[arrivee]} est le coût du meilleur chemin ({@code INFINI} si
+     * elle n'est pas atteignable) et {@code precedents[v]} l'identifiant de la dernière route du meilleur
+     * chemin jusqu'à chaque ville {@code v} de ce chemin.
+     */
+    private static void cheminsDepuis(Plateau plateau, int[] couts, int depart, int arrivee, int[] distances,
+                                      int[] precedents, boolean[] atteintes) {
+        int nbVilles = distances.length;
+        Arrays.fill(distances, INFINI);
+        Arrays.fill(atteintes, false);
+        distances[depart] = 0;
+        for (int n = 0; n < nbVilles; n++) {
+            int courante = -1;
+            int distance = INFINI;
+            for (int v = 0; v < nbVilles; v++) {
+                if (!atteintes[v] && distances[v] < distance) {
+                    courante = v;
+                    distance = distances[v];
+                }
+            }
+            if (courante < 0 || courante == arrivee) {
+                return;
+            }
+            atteintes[courante] = true;
+            List<Route> routes = plateau.getRoutes(plateau.getVille(courante));
+            for (int i = 0; i < routes.size(); i++) {
+                Route route = routes.get(i);
+                int cout = couts[route.getId()];
+                if (cout < 0) {
+                    continue;
+                }
+                int voisine = (route.getVille1().getId() == courante ? route.getVille2() : route.getVille1()).getId();
+                if (distance + cout < distances[voisine]) {
+                    distances[voisine] = distance + cout;
+                    precedents[voisine] = route.getId();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return vrai si la route du coup est plus longue que celle du coup {@code meilleur} (ou s'il est `null`)
+     */
+    private static boolean plusLongue(Plateau plateau, Coup coup, Coup meilleur) {
+        return meilleur == null
+                || plateau.getRoute(coup.getId()).getLongueur() > plateau.getRoute(meilleur.getId()).getLongueur();
+    }
+
+}
@@ -0,0 +1,297 @@
+package fr.umontpellier.iut.rails.ia;
+
+import fr.umontpellier.iut.rails.Coup;
+import fr.umontpellier.iut.rails.Decideur;
+import fr.umontpellier.iut.rails.Joueur;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Robot qui choisit ses coups de début de tour par une recherche arborescente Monte-Carlo (UCT).
+ * <p>
+ * La recherche se fait sur un {@code EtatCompact} construit à partir de la partie. Plusieurs arbres
+ * indépendants sont explorés en parallèle (un par tâche, chacun avec son propre générateur), puis les
+ * nombres de visites des coups de la racine sont additionnés et le coup le plus visité est joué. Chaque
+ * itération tire au hasard l'ordre de la pioche, puis joue des coups aléatoires jusqu'à la fin de la partie
+ * ou jusqu'à une profondeur maximale, où la position est évaluée par l'écart de score avec le meilleur
+ * adversaire.
+ * <p>
+ * La recherche s'arrête quand le budget de temps ou le nombre d'itérations est épuisé (le premier des
+ * deux). Avec un budget de temps illimité, le choix ne dépend que de la graine du robot. Les robots des
+ * différentes tables du serveur partagent un {@code PoolRecherche}, qui règle le nombre de tâches de chaque
+ * décision selon la charge.
+ * <p>
+ * Les choix secondaires (coups {@code PAYER} et {@code DEFAUSSER_DESTINATION}) ne sont pas explorés : ils
+ * sont délégués aux règles du {@code DecideurGlouton}.
+ */
+public class DecideurMCTS implements Decideur {
+    /**
+     * Constante d'exploration de la formule UCT
+     */
+    private static final double EXPLORATION = 1.4;
+    /**
+     * Écart de score correspondant à une position gagnée (ou perdue) à coup sûr dans l'évaluation
+     */
+    private static final double ECART_DECISIF = 40;
+    /**
+     * Décideur des choix qui ne sont pas des coups de début de tour
+     */
+    private static final DecideurGlouton CHOIX_SECONDAIRES = new DecideurGlouton();
+
+    private final long dureeMaxMs;
+    private final int nbIterationsMax;
+    private final int nbTaches;
+    private final int profondeurMax;
+    private final Executor executeur;
+    /**
+     * Threads partagés qui fixent le nombre de tâches de chaque décision (`null` si ce nombre est fixe)
+     */
+    private final PoolRecherche pool;
+    /**
+     * Générateur des graines des recherches (utilisé uniquement par le thread de la partie)
+     */
+    private final Random random;
+
+    /**
+     * @param dureeMaxMs      temps maximal de réflexion par décision (0 pour ne pas limiter le temps)
+     * @param nbIterationsMax nombre maximal d'itérations par décision, toutes tâches confondues
+     * @param nbTaches        nombre d'arbres explorés en parallèle
+     * @param profondeurMax   nombre maximal de coups joués par simulation
+     * @param executeur       exécuteur des tâches de recherche
+     * @param random          générateur des graines des recherches
+     */
+    public DecideurMCTS(long dureeMaxMs, int nbIterationsMax, int nbTaches, int profondeurMax, Executor executeur,
+                        Random random) {
+        if (nbTaches < 1 || nbIterationsMax < 1) {
+            throw new IllegalArgumentException("il faut au moins une tâche et une itération");
+        }
+        this.dureeMaxMs = dureeMaxMs;
+        this.nbIterationsMax = nbIterationsMax;
+        this.nbTaches = nbTaches;
+        this.profondeurMax = profondeurMax;
+        this.executeur = executeur;
+        this.pool = null;
+        this.random = random;
+    }
+
+    /**
+     * Robot limité en temps, dont les recherches sont exécutées par des threads partagés : le nombre de
+     * tâches de chaque décision dépend du nombre de décisions en cours dans le pool
+     */
+    public DecideurMCTS(long dureeMaxMs, PoolRecherche pool, Random random) {
+        this.dureeMaxMs = dureeMaxMs;
+        this.nbIterationsMax = Integer.MAX_VALUE;
+        this.nbTaches = pool.getNbThreads();
+        this.profondeurMax = 60;
+        this.executeur = pool;
+        this.pool = pool;
+        this.random = random;
+    }
+
+    @Override
+    public String choisir(Joueur joueur, String instruction, List<String> choix, boolean peutPasser) {
+        return CHOIX_SECONDAIRES.choisir(joueur, instruction, choix, peutPasser);
+    }
+
+    @Override
+    public Coup choisirCoup(Joueur joueur, String instruction, List<Coup> coups, boolean peutPasser) {
+        Coup.Type type = coups.get(0).getType();
+        if (type == Coup.Type.PAYER || type == Coup.Type.DEFAUSSER_DESTINATION) {
+            return CHOIX_SECONDAIRES.choisirCoup(joueur, instruction, coups, peutPasser);
+        }
+        EtatCompact racine = EtatCompact.depuis(joueur.getJeu());
+        List<Coup> candidats = new ArrayList<>();
+        for (Coup coup : coups) {
+            // le modèle ne représente pas les destinations : il ne peut pas évaluer le coup qui en pioche
+            if (coup.getType() == Coup.Type.ROUTE
+                    ? racine.peutCapturer(racine.getJoueurCourant(), coup.getId())
+                    : coup.getType() != Coup.Type.DESTINATIONS) {
+                candidats.add(coup);
+            }
+        }
+        if (candidats.size() <= 1) {
+            return candidats.isEmpty() ? Coup.PASSER : candidats.get(0);
+        }
+        long echeance = dureeMaxMs > 0 ? System.nanoTime() + dureeMaxMs * 1_000_000 : Long.MAX_VALUE;
+        int taches = pool != null ? pool.debutDecision() : nbTaches;
+        Coup[] tableau = candidats.toArray(new Coup[0]);
+        long[] visites = new long[tableau.length];
+        try {
+            int iterationsParTache = Math.max(1, nbIterationsMax / taches);
+            List<CompletableFuture<long[]>> recherches = new ArrayList<>();
+            for (int t = 0; t < taches; t++) {
+                Recherche recherche = new Recherche(racine.copier(), tableau, new Random(random.nextLong()));
+                recherches.add(CompletableFuture.supplyAsync(
+                        () -> recherche.executer(iterationsParTache, echeance), executeur));
+            }
+            for (CompletableFuture<long[]> r : recherches) {
+                long[] v = r.join();
+                for (int i = 0; i < v.length; i++) {
+                    visites[i] += v[i];
+                }
+            }
+        } finally {
+            if (pool != null) {
+                pool.finDecision();
+            }
+        }
+        int meilleur = 0;
+        for (int i = 1; i < visites.length; i++) {
+            if (visites[i] > visites[meilleur]) {
+                meilleur = i;
+            }
+        }
+        return tableau[meilleur];
+    }
+
+    /**
+     * Nœud de l'arbre de recherche
+     */
+    private static final class Noeud {
+        final Noeud parent;
+        /**
+         * Coup qui mène à ce nœud, et joueur qui l'a joué
+         */
+        final Coup coup;
+        final int joueur;
+        final List<Noeud> enfants = new ArrayList<>(4);
+        /**
+         * Coups qui n'ont pas encore de nœud (`null` tant que le nœud n'a pas été développé)
+         */
+        Coup[] aExplorer;
+        int nbAExplorer;
+        int visites;
+        double gains;
+
+        Noeud(Noeud parent, Coup coup, int joueur) {
+            this.parent = parent;
+            this.coup = coup;
+            this.joueur = joueur;
+        }
+    }
+
+    /**
+     * Exploration d'un arbre, par un seul thread
+     */
+    private final class Recherche {
+        private final EtatCompact racine;
+        private final EtatCompact etat;
+        private final Coup[] candidats;
+        private final Random random;
+        private final Coup[] coups;
+        private final double[] recompenses;
+
+        Recherche(EtatCompact racine, Coup[] candidats, Random random) {
+            this.racine = racine;
+            this.etat = racine.copier();
+            this.candidats = candidats;
+            this.random = random;
+            racine.setAleatoire(random);
+            etat.setAleatoire(random);
+            coups = new Coup[racine.getNbMaxCoups()];
+            recompenses = new double[racine.getNbJoueurs()];
+        }
+
+        /**
+         * @return le nombre de visites de chaque candidat
+         */
+        long[] executer(int nbIterations, long echeance) {
+            Noeud arbre = new Noeud(null, null, -1);
+            arbre.aExplorer = candidats.clone();
+            arbre.nbAExplorer = candidats.length;
+            for (int i = 0; i < nbIterations && (i == 0 || System.nanoTime() < echeance); i++) {
+                iterer(arbre);
+            }
+            long[] visites = new long[candidats.length];
+            for (Noeud enfant : arbre.enfants) {
+                for (int i = 0; i < candidats.length; i++) {
+                    if (candidats[i] == enfant.coup) {
+                        visites[i] = enfant.visites;
+                    }
+                }
+            }
+            return visites;
+        }
+
+        private void iterer(Noeud arbre) {
+            etat.copierDepuis(racine);
+            etat.melangerPioche(random);
+            Noeud noeud = arbre;
+            int profondeur = 0;
+            // sélection
+            while (noeud.nbAExplorer == 0 && !noeud.enfants.isEmpty()) {
+                noeud = selectionner(noeud);
+                etat.jouer(noeud.coup);
+                profondeur++;
+            }
+            // développement
+            if (noeud.aExplorer == null) {
+                int n = etat.genererCoups(coups);
+                noeud.aExplorer = new Coup[n];
+                System.arraycopy(coups, 0, noeud.aExplorer, 0, n);
+                noeud.nbAExplorer = n;
+            }
+            if (noeud.nbAExplorer > 0) {
+                int i = random.nextInt(noeud.nbAExplorer);
+                Coup coup = noeud.aExplorer[i];
+                noeud.aExplorer[i] = noeud.aExplorer[--noeud.nbAExplorer];
+                Noeud enfant = new Noeud(noeud, coup, etat.getJoueurCourant());
+                noeud.enfants.add(enfant);
+                etat.jouer(coup);
+                profondeur++;
+                noeud = enfant;
+            }
+            // simulation
+            while (profondeur < profondeurMax && !etat.estTerminee()) {
+                int n = etat.genererCoups(coups);
+                etat.jouer(n == 0 ? Coup.PASSER : coups[random.nextInt(n)]);
+                profondeur++;
+            }
+            evaluer();
+            // rétropropagation
+            for (Noeud n = noeud; n != null; n = n.parent) {
+                n.visites++;
+                if (n.joueur >= 0) {
+                    n.gains += recompenses[n.joueur];
+                }
+            }
+        }
+
+        private Noeud selectionner(Noeud noeud) {
+            double logVisites = Math.log(noeud.visites);
+            Noeud meilleur = null;
+            double meilleureValeur = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < noeud.enfants.size(); i++) {
+                Noeud enfant = noeud.enfants.get(i);
+                double valeur = enfant.gains / enfant.visites
+                        + EXPLORATION * Math.sqrt(logVisites / enfant.visites);
+                if (valeur > meilleureValeur) {
+                    meilleureValeur = valeur;
+                    meilleur = enfant;
+                }
+            }
+            return meilleur;
+        }
+
+        /**
+         * Récompense de chaque joueur entre 0 et 1, selon son écart de score avec le meilleur adversaire
+         */
+        private void evaluer() {
+            int nbJoueurs = recompenses.length;
+            for (int j = 0; j < nbJoueurs; j++) {
+                int meilleurAdversaire = Integer.MIN_VALUE;
+                for (int k = 0; k < nbJoueurs; k++) {
+                    if (k != j) {
+                        meilleurAdversaire = Math.max(meilleurAdversaire, etat.getScore(k));
+                    }
+                }
+                double ecart = (etat.getScore(j) - meilleurAdversaire) / ECART_DECISIF;
+                recompenses[j] = Math.max(0, Math.min(1, 0.5 + ecart / 2));
+            }
+        }
+    }
+}
@@ -0,0 +1,544 @@
+package fr.umontpellier.iut.rails.ia;
+
+import fr.umontpellier.iut.rails.CouleurWagon;
+import fr.umontpellier.iut.rails.Coup;
+import fr.umontpellier.iut.rails.Jeu;
+import fr.umontpellier.iut.rails.Joueur;
+import fr.umontpellier.iut.rails.Plateau;
+import fr.umontpellier.iut.rails.Route;
+import fr.umontpellier.iut.rails.Ville;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Représentation compacte d'une partie, destinée aux robots qui explorent des milliers de coups par
+ * décision.
+ * <p>
+ * Tout l'état variable tient dans un seul tableau d'entiers, découpé en sections : propriétaire de chaque
+ * route et de chaque ville (indice du joueur ou {@code AUCUN}), nombre de cartes de chaque couleur, de
+ * wagons, de gares et score de chaque joueur, cartes visibles, pioche et défausse (couleurs par
+ * {@code ordinal()}, le dessus de la pioche étant à la fin), joueur courant et nombre de tours restants.
+ * {@code copier()} ne fait donc qu'une copie de tableau.
+ * <p>
+ * {@code jouer(coup)} enregistre l'ancienne valeur de chaque case modifiée dans un journal, et
+ * {@code annuler()} les restaure : jouer puis annuler un coup ne fait aucune allocation (hors agrandissement
+ * occasionnel du journal).
+ * <p>
+ * Le modèle simplifie les règles du jeu là où elles demandent des choix secondaires ou de l'information
+ * cachée :
+ * <ul>
+ * <li>prendre une carte visible (autre qu'une locomotive) ou piocher fait piocher aussitôt la seconde
+ * carte face cachée ;</li>
+ * <li>une route ou une gare est payée avec la couleur la plus nombreuse possible, complétée par des
+ * locomotives ; les tunnels sont payés comme des routes ordinaires ;</li>
+ * <li>les destinations ne sont pas représentées (le coup {@code DESTINATIONS} n'est jamais proposé) ;</li>
+ * <li>la fin de partie suit la règle officielle : quand un joueur a 2 wagons ou moins, chaque joueur joue
+ * encore un tour.</li>
+ * </ul>
+ */
+public class EtatCompact {
+    /**
+     * Propriétaire d'une route ou d'une ville libre
+     */
+    public static final int AUCUN = -1;
+    private static final CouleurWagon[] COULEURS = CouleurWagon.values();
+    private static final int NB_COULEURS = COULEURS.length;
+    private static final int LOCOMOTIVE = CouleurWagon.LOCOMOTIVE.ordinal();
+    private static final int GRIS = CouleurWagon.GRIS.ordinal();
+    private static final int NB_VISIBLES = 5;
+    /**
+     * Nombre total de cartes wagon dans le jeu
+     */
+    private static final int NB_CARTES = 110;
+    private static final int WAGONS = NB_COULEURS;
+    private static final int GARES = NB_COULEURS + 1;
+    private static final int SCORE = NB_COULEURS + 2;
+    private static final int TAILLE_JOUEUR = NB_COULEURS + 3;
+    private static final int[] POINTS = { 0, 1, 2, 4, 7, 0, 15, 0, 21 };
+
+    /**
+     * Données fixes du plateau et découpage du tableau d'état, partagés par toutes les copies
+     */
+    private static final class Structure {
+        final Plateau plateau;
+        final int nbJoueurs;
+        final int nbRoutes;
+        final int nbVilles;
+        final int[] longueurs;
+        final int[] couleurs;
+        final int[] locomotives;
+        /**
+         * Identifiant de l'autre voie de chaque route double (AUCUN pour une route simple)
+         */
+        final int[] paralleles;
+        final int debutVilles;
+        final int debutJoueurs;
+        final int debutVisibles;
+        final int debutPioche;
+        final int taillePioche;
+        final int debutDefausse;
+        final int tailleDefausse;
+        final int joueurCourant;
+        final int toursRestants;
+        final int taille;
+
+        Structure(Plateau plateau, int nbJoueurs) {
+            this.plateau = plateau;
+            this.nbJoueurs = nbJoueurs;
+            nbRoutes = plateau.getNbRoutes();
+            nbVilles = plateau.getNbVilles();
+            longueurs = new int[nbRoutes];
+            couleurs = new int[nbRoutes];
+            locomotives = new int[nbRoutes];
+            paralleles = new int[nbRoutes];
+            for (Route route : plateau.getRoutes()) {
+                int id = route.getId();
+                longueurs[id] = route.getLongueur();
+                couleurs[id] = route.getCouleur().ordinal();
+                locomotives[id] = route.getNbLocomotives();
+                paralleles[id] = AUCUN;
+                for (Route r : plateau.getRoutesParalleles(route)) {
+                    if (r != route) {
+                        paralleles[id] = r.getId();
+                    }
+                }
+            }
+            debutVilles = nbRoutes;
+            debutJoueurs = debutVilles + nbVilles;
+            debutVisibles = debutJoueurs + nbJoueurs * TAILLE_JOUEUR;
+            debutPioche = debutVisibles + NB_VISIBLES;
+            taillePioche = debutPioche + NB_CARTES;
+            debutDefausse = taillePioche + 1;
+            tailleDefausse = debutDefausse + NB_CARTES;
+            joueurCourant = tailleDefausse + 1;
+            toursRestants = joueurCourant + 1;
+            taille = toursRestants + 1;
+        }
+    }
+
+    private final Structure s;
+    private final int[] valeurs;
+    /**
+     * Couples (indice, ancienne valeur) des cases modifiées depuis le début du journal
+     */
+    private int[] journal = new int[1024];
+    private int tailleJournal;
+    /**
+     * Taille du journal au début de chaque coup joué (pile)
+     */
+    private int[] marques = new int[64];
+    private int nbMarques;
+    /**
+     * Générateur utilisé pour remélanger la défausse quand la pioche est vide
+     */
+    private Random aleatoire = new Random(0);
+
+    private EtatCompact(Structure s, int[] valeurs) {
+        this.s = s;
+        this.valeurs = valeurs;
+    }
+
+    /**
+     * @return l'état compact correspondant à la situation actuelle de la partie
+     */
+    public static EtatCompact depuis(Jeu jeu) {
+        List<Joueur> joueurs = jeu.getJoueurs();
+        Structure s = new Structure(jeu.getPlateau(), joueurs.size());
+        int[] v = new int[s.taille];
+        for (Route route : jeu.getRoutes()) {
+            v[route.getId()] = route.getProprietaire() == null ? AUCUN : joueurs.indexOf(route.getProprietaire());
+        }
+        for (Ville ville : jeu.getVilles()) {
+            v[s.debutVilles + ville.getId()] =
+                    ville.getProprietaire() == null ? AUCUN : joueurs.indexOf(ville.getProprietaire());
+        }
+        for (int j = 0; j < joueurs.size(); j++) {
+            Joueur joueur = joueurs.get(j);
+            int debut = s.debutJoueurs + j * TAILLE_JOUEUR;
+            for (CouleurWagon c : COULEURS) {
+                v[debut + c.ordinal()] = joueur.getNbCartesWagon(c);
+            }
+            v[debut + WAGONS] = joueur.getNbWagons();
+            v[debut + GARES] = joueur.getNbGares();
+            v[debut + SCORE] = joueur.getScore();
+        }
+        List<CouleurWagon> visibles = jeu.getCartesWagonVisibles();
+        for (int i = 0; i < NB_VISIBLES; i++) {
+            v[s.debutVisibles + i] = i < visibles.size() ? visibles.get(i).ordinal() : AUCUN;
+        }
+        List<CouleurWagon> pioche = jeu.getPileCartesWagon();
+        for (int i = 0; i < pioche.size(); i++) {
+            // le dessus de la pioche de Jeu (indice 0) est à la fin de la section
+            v[s.debutPioche + pioche.size() - 1 - i] = pioche.get(i).ordinal();
+        }
+        v[s.taillePioche] = pioche.size();
+        List<CouleurWagon> defausse = jeu.getDefausseCartesWagon();
+        for (int i = 0; i < defausse.size(); i++) {
+            v[s.debutDefausse + i] = defausse.get(i).ordinal();
+        }
+        v[s.tailleDefausse] = defausse.size();
+        v[s.joueurCourant] = joueurs.indexOf(jeu.getJoueurCourant());
+        v[s.toursRestants] = AUCUN;
+        return new EtatCompact(s, v);
+    }
+
+    /**
+     * @return une copie indépendante de l'état (avec un journal vide)
+     */
+    public EtatCompact copier() {
+        EtatCompact copie = new EtatCompact(s, valeurs.clone());
+        copie.aleatoire = aleatoire;
+        return copie;
+    }
+
+    /**
+     * Recopie l'état passé en argument dans celui-ci (les deux états doivent venir de la même partie), sans
+     * allocation. Le journal est vidé.
+     */
+    public void copierDepuis(EtatCompact autre) {
+        System.arraycopy(autre.valeurs, 0, valeurs, 0, valeurs.length);
+        tailleJournal = 0;
+        nbMarques = 0;
+    }
+
+    public void setAleatoire(Random aleatoire) {
+        this.aleatoire = aleatoire;
+    }
+
+    public Plateau getPlateau() {
+        return s.plateau;
+    }
+
+    public int getNbJoueurs() {
+        return s.nbJoueurs;
+    }
+
+    public int getJoueurCourant() {
+        return valeurs[s.joueurCourant];
+    }
+
+    public int getProprietaireRoute(int idRoute) {
+        return valeurs[idRoute];
+    }
+
+    public int getProprietaireVille(int idVille) {
+        return valeurs[s.debutVilles + idVille];
+    }
+
+    public int getNbCartes(int joueur, CouleurWagon couleur) {
+        return valeurs[s.debutJoueurs + joueur * TAILLE_JOUEUR + couleur.ordinal()];
+    }
+
+    public int getNbWagons(int joueur) {
+        return valeurs[s.debutJoueurs + joueur * TAILLE_JOUEUR + WAGONS];
+    }
+
+    public int getNbGares(int joueur) {
+        return valeurs[s.debutJoueurs + joueur * TAILLE_JOUEUR + GARES];
+    }
+
+    public int getScore(int joueur) {
+        return valeurs[s.debutJoueurs + joueur * TAILLE_JOUEUR + SCORE];
+    }
+
+    public int getTaillePioche() {
+        return valeurs[s.taillePioche];
+    }
+
+    public int getTailleDefausse() {
+        return valeurs[s.tailleDefausse];
+    }
+
+    /**
+     * @return la couleur de la carte visible d'indice {@code i} (`null` si l'emplacement est vide)
+     */
+    public CouleurWagon getCarteVisible(int i) {
+        int c = valeurs[s.debutVisibles + i];
+        return c == AUCUN ? null : COULEURS[c];
+    }
+
+    public boolean estTerminee() {
+        return valeurs[s.toursRestants] == 0;
+    }
+
+    /**
+     * @return le nombre de coups joués qui peuvent encore être annulés
+     */
+    public int getNbCoupsJoues() {
+        return nbMarques;
+    }
+
+    /**
+     * @return une taille de tableau suffisante pour {@code genererCoups}
+     */
+    public int getNbMaxCoups() {
+        return NB_COULEURS + 1 + s.nbRoutes + s.nbVilles;
+    }
+
+    /**
+     * Écrit dans le tableau passé en argument les coups possibles du joueur courant (cartes visibles, une
+     * fois par couleur, pioche, routes puis gares), sans allocation
+     *
+     * @param coups tableau d'au moins {@code getNbMaxCoups()} cases
+     * @return le nombre de coups écrits (0 si la partie est terminée)
+     */
+    public int genererCoups(Coup[] coups) {
+        if (estTerminee()) {
+            return 0;
+        }
+        int n = 0;
+        int j = getJoueurCourant();
+        int couleursVues = 0;
+        for (int i = 0; i < NB_VISIBLES; i++) {
+            int c = valeurs[s.debutVisibles + i];
+            if (c != AUCUN && (couleursVues & 1 << c) == 0) {
+                couleursVues |= 1 << c;
+                coups[n++] = Coup.de(Coup.Type.CARTE_VISIBLE, c);
+            }
+        }
+        if (valeurs[s.taillePioche] + valeurs[s.tailleDefausse] > 0) {
+            coups[n++] = Coup.CARTE_PIOCHE;
+        }
+        for (int r = 0; r < s.nbRoutes; r++) {
+            if (peutCapturer(j, r)) {
+                coups[n++] = Coup.de(Coup.Type.ROUTE, r);
+            }
+        }
+        int nbGares = getNbGares(j);
+        if (nbGares > 0 && nbLocomotivesAPayer(j, GRIS, 4 - nbGares, 0) >= 0) {
+            for (int v = 0; v < s.nbVilles; v++) {
+                if (valeurs[s.debutVilles + v] == AUCUN) {
+                    coups[n++] = Coup.de(Coup.Type.GARE, v);
+                }
+            }
+        }
+        return n;
+    }
+
+    /**
+     * @return vrai si le joueur peut capturer la route d'identifiant {@code r}
+     */
+    public boolean peutCapturer(int joueur, int r) {
+        return valeurs[r] == AUCUN
+                && (s.paralleles[r] == AUCUN || valeurs[s.paralleles[r]] != joueur)
+                && s.longueurs[r] <= getNbWagons(joueur)
+                && nbLocomotivesAPayer(joueur, s.couleurs[r], s.longueurs[r], s.locomotives[r]) >= 0;
+    }
+
+    /**
+     * Joue le coup passé en argument pour le joueur courant, puis passe au joueur suivant. Le coup doit être
+     * valide ({@code DESTINATIONS} et {@code PASSER} ne font que passer le tour).
+     *
+     * @throws IllegalArgumentException si le coup est un choix secondaire ({@code PAYER},
+     *                                  {@code DEFAUSSER_DESTINATION}), qui n'est pas un coup de début de tour
+     */
+    public void jouer(Coup coup) {
+        if (nbMarques == marques.length) {
+            marques = Arrays.copyOf(marques, 2 * nbMarques);
+        }
+        marques[nbMarques++] = tailleJournal;
+        int j = getJoueurCourant();
+        int debut = s.debutJoueurs + j * TAILLE_JOUEUR;
+        switch (coup.getType()) {
+            case CARTE_VISIBLE -> {
+                int c = coup.getId();
+                prendreCarteVisible(c, debut);
+                if (c != LOCOMOTIVE) {
+                    piocherDansMain(debut);
+                }
+            }
+            case CARTE_PIOCHE -> {
+                piocherDansMain(debut);
+                piocherDansMain(debut);
+            }
+            case ROUTE -> {
+                int r = coup.getId();
+                payer(j, s.couleurs[r], s.longueurs[r], s.locomotives[r]);
+                ecrire(r, j);
+                ecrire(debut + WAGONS, valeurs[debut + WAGONS] - s.longueurs[r]);
+                ecrire(debut + SCORE, valeurs[debut + SCORE] + POINTS[s.longueurs[r]]);
+            }
+            case GARE -> {
+                payer(j, GRIS, 4 - valeurs[debut + GARES], 0);
+                ecrire(s.debutVilles + coup.getId(), j);
+                ecrire(debut + GARES, valeurs[debut + GARES] - 1);
+                ecrire(debut + SCORE, valeurs[debut + SCORE] - 4);
+            }
+            case DESTINATIONS, PASSER -> {
+            }
+            case PAYER, DEFAUSSER_DESTINATION ->
+                    throw new IllegalArgumentException("Ce n'est pas un coup de début de tour : " + coup);
+        }
+        // fin de partie : un dernier tour pour chaque joueur
+        int toursRestants = valeurs[s.toursRestants];
+        if (toursRestants > 0) {
+            ecrire(s.toursRestants, toursRestants - 1);
+        } else if (toursRestants == AUCUN && valeurs[debut + WAGONS] <= 2) {
+            ecrire(s.toursRestants, s.nbJoueurs);
+        }
+        ecrire(s.joueurCourant, (j + 1) % s.nbJoueurs);
+    }
+
+    /**
+     * Annule le dernier coup joué (et non encore annulé)
+     */
+    public void annuler() {
+        if (nbMarques == 0) {
+            throw new IllegalStateException("aucun coup à annuler");
+        }
+        int marque = marques[--nbMarques];
+        while (tailleJournal > marque) {
+            tailleJournal -= 2;
+            valeurs[journal[tailleJournal]] = journal[tailleJournal + 1];
+        }
+    }
+
+    /**
+     * Remélange la pioche (par exemple pour tirer au hasard l'ordre des cartes cachées avant une simulation)
+     */
+    public void melangerPioche(Random random) {
+        int taille = valeurs[s.taillePioche];
+        for (int i = taille; i > 1; i--) {
+            echanger(s.debutPioche + i - 1, s.debutPioche + random.nextInt(i));
+        }
+    }
+
+    /**
+     * @return le nombre de locomotives à utiliser pour payer {@code longueur} cartes de la couleur donnée
+     * (GRIS : la couleur la plus nombreuse) dont {@code imposees} locomotives, ou -1 si le joueur ne peut
+     * pas payer
+     */
+    private int nbLocomotivesAPayer(int joueur, int couleur, int longueur, int imposees) {
+        int debut = s.debutJoueurs + joueur * TAILLE_JOUEUR;
+        int nbCouleur = valeurs[debut + (couleur == GRIS ? meilleureCouleur(debut) : couleur)];
+        int nbLocomotives = longueur - Math.min(nbCouleur, longueur - imposees);
+        return valeurs[debut + LOCOMOTIVE] >= nbLocomotives ? nbLocomotives : -1;
+    }
+
+    private int meilleureCouleur(int debut) {
+        int meilleure = 0;
+        for (int c = 1; c < NB_COULEURS; c++) {
+            if (c != LOCOMOTIVE && c != GRIS && valeurs[debut + c] > valeurs[debut + meilleure]) {
+                meilleure = c;
+            }
+        }
+        return meilleure;
+    }
+
+    private void payer(int joueur, int couleur, int longueur, int imposees) {
+        int debut = s.debutJoueurs + joueur * TAILLE_JOUEUR;
+        if (couleur == GRIS) {
+            couleur = meilleureCouleur(debut);
+        }
+        int nbLocomotives = nbLocomotivesAPayer(joueur, couleur, longueur, imposees);
+        if (nbLocomotives < 0) {
+            throw new IllegalStateException("le joueur " + joueur + " ne peut pas payer " + longueur + " cartes");
+        }
+        defausser(debut, couleur, longueur - nbLocomotives);
+        defausser(debut, LOCOMOTIVE, nbLocomotives);
+    }
+
+    private void defausser(int debutJoueur, int couleur, int n) {
+        if (n == 0) {
+            return;
+        }
+        ecrire(debutJoueur + couleur, valeurs[debutJoueur + couleur] - n);
+        int taille = valeurs[s.tailleDefausse];
+        for (int i = 0; i < n; i++) {
+            ecrire(s.debutDefausse + taille + i, couleur);
+        }
+        ecrire(s.tailleDefausse, taille + n);
+    }
+
+    private void prendreCarteVisible(int couleur, int debutJoueur) {
+        for (int i = 0; i < NB_VISIBLES; i++) {
+            if (valeurs[s.debutVisibles + i] == couleur) {
+                ecrire(debutJoueur + couleur, valeurs[debutJoueur + couleur] + 1);
+                ecrire(s.debutVisibles + i, piocher());
+                break;
+            }
+        }
+        int nbLocomotives = 0;
+        for (int i = 0; i < NB_VISIBLES; i++) {
+            if (valeurs[s.debutVisibles + i] == LOCOMOTIVE) {
+                nbLocomotives++;
+            }
+        }
+        if (nbLocomotives >= 3) {
+            // trois locomotives visibles : les cartes visibles sont défaussées et remplacées (une seule fois)
+            for (int i = 0; i < NB_VISIBLES; i++) {
+                int c = valeurs[s.debutVisibles + i];
+                if (c != AUCUN) {
+                    int taille = valeurs[s.tailleDefausse];
+                    ecrire(s.debutDefausse + taille, c);
+                    ecrire(s.tailleDefausse, taille + 1);
+                }
+                ecrire(s.debutVisibles + i, AUCUN);
+            }
+            for (int i = 0; i < NB_VISIBLES; i++) {
+                ecrire(s.debutVisibles + i, piocher());
+            }
+        }
+    }
+
+    private void piocherDansMain(int debutJoueur) {
+        int c = piocher();
+        if (c != AUCUN) {
+            ecrire(debutJoueur + c, valeurs[debutJoueur + c] + 1);
+        }
+    }
+
+    /**
+     * Retire la carte du dessus de la pioche (la défausse est remélangée si la pioche est vide)
+     *
+     * @return la couleur de la carte, ou AUCUN si la pioche et la défausse sont vides
+     */
+    private int piocher() {
+        int taille = valeurs[s.taillePioche];
+        if (taille == 0) {
+            int tailleDefausse = valeurs[s.tailleDefausse];
+            if (tailleDefausse == 0) {
+                return AUCUN;
+            }
+            for (int i = 0; i < tailleDefausse; i++) {
+                ecrire(s.debutPioche + i, valeurs[s.debutDefausse + i]);
+            }
+            ecrire(s.tailleDefausse, 0);
+            taille = tailleDefausse;
+            ecrire(s.taillePioche, taille);
+            melangerPioche(aleatoire);
+        }
+        ecrire(s.taillePioche, taille - 1);
+        return valeurs[s.debutPioche + taille - 1];
+    }
+
+    private void echanger(int i, int j) {
+        int v = valeurs[i];
+        ecrire(i, valeurs[j]);
+        ecrire(j, v);
+    }
+
+    /**
+     * Modifie une case de l'état en enregistrant son ancienne valeur dans le journal
+     */
+    private void ecrire(int indice, int valeur) {
+        if (tailleJournal + 2 > journal.length) {
+            journal = Arrays.copyOf(journal, 2 * journal.length);
+        }
+        journal[tailleJournal++] = indice;
+        journal[tailleJournal++] = valeurs[indice];
+        valeurs[indice] = valeur;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof EtatCompact && Arrays.equals(valeurs, ((EtatCompact) o).valeurs);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(valeurs);
+    }
+}
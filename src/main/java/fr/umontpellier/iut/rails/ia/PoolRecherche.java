@@ -0,0 +1,68 @@
+package fr.umontpellier.iut.rails.ia;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads partagés par les recherches des robots MCTS de plusieurs parties.
+ * <p>
+ * Le nombre de threads est fixe et la file des tâches est bornée : quand elle est pleine, la tâche est
+ * exécutée par le thread de la partie qui la soumet, si bien que les robots ralentissent au lieu
+ * d'accumuler du travail. Le nombre de tâches d'une décision dépend de la charge : il est divisé entre les
+ * décisions en cours, pour que plusieurs tables ne se disputent pas les mêmes threads (voir
+ * {@code debutDecision}).
+ */
+public class PoolRecherche implements Executor {
+    private final int nbThreads;
+    private final ThreadPoolExecutor executeur;
+    /**
+     * Nombre de décisions en cours sur l'ensemble des parties
+     */
+    private final AtomicInteger nbDecisions = new AtomicInteger();
+
+    /**
+     * @param nbThreads nombre de threads de recherche
+     * @param fabrique  fabrique des threads de recherche
+     */
+    public PoolRecherche(int nbThreads, ThreadFactory fabrique) {
+        this.nbThreads = nbThreads;
+        executeur = new ThreadPoolExecutor(nbThreads, nbThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(4 * nbThreads), fabrique, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public int getNbThreads() {
+        return nbThreads;
+    }
+
+    /**
+     * Signale le début d'une décision, qui doit être suivi d'un appel à {@code finDecision}
+     *
+     * @return le nombre de tâches de la décision (tous les threads si elle est seule, au moins une)
+     */
+    public int debutDecision() {
+        return Math.max(1, nbThreads / nbDecisions.incrementAndGet());
+    }
+
+    /**
+     * Signale la fin d'une décision commencée par {@code debutDecision}
+     */
+    public void finDecision() {
+        nbDecisions.decrementAndGet();
+    }
+
+    @Override
+    public void execute(Runnable tache) {
+        executeur.execute(tache);
+    }
+
+    /**
+     * Arrête les threads une fois les tâches en cours terminées
+     */
+    public void arreter() {
+        executeur.shutdown();
+    }
+}
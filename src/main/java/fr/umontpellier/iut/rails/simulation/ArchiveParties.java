@@ -0,0 +1,311 @@
+package fr.umontpellier.iut.rails.simulation;
+
+import fr.umontpellier.iut.rails.Destination;
+import fr.umontpellier.iut.rails.Jeu;
+import fr.umontpellier.iut.rails.Joueur;
+import fr.umontpellier.iut.rails.Route;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.LongStream;
+
+/**
+ * Archive des résultats de parties simulées, dans un fichier d'enregistrements de taille fixe projeté en
+ * mémoire.
+ * <p>
+ * Le fichier commence par un en-tête de {@code TAILLE_EN_TETE} octets (nombre magique, version, nombre de
+ * joueurs, nombre de routes, taille d'un enregistrement, nombre de parties, graine de la simulation et type
+ * des décideurs), suivi d'un enregistrement par partie, rangé à la position donnée par le numéro de la
+ * partie. Un enregistrement contient :
+ * <ul>
+ * <li>un octet de présence (0 tant que la partie n'a pas été écrite) ;</li>
+ * <li>le siège du vainqueur (octet) et le nombre de tours joués (entier court) ;</li>
+ * <li>le propriétaire de chaque route (octet, 0 si elle est libre, le siège + 1 sinon) ;</li>
+ * <li>le tour où chaque route a été capturée (entier court, -1 si elle est libre), ce qui donne l'ordre
+ * des captures ;</li>
+ * <li>pour chaque joueur, son score final (entier court), les destinations qu'il a gardées (masque des
+ * rangs donnés par {@code Destination.getRang}) et la destination "longue" qui lui a été proposée au
+ * début de la partie (octet, son rang ou -1).</li>
+ * </ul>
+ * Comme chaque partie a sa place réservée, plusieurs threads peuvent écrire en même temps dans l'archive
+ * sans se coordonner, et la lecture d'une partie ne coûte que quelques accès mémoire. Le fichier est
+ * projeté par segments de moins de 2 Go, ce qui permet d'archiver des millions de parties.
+ * <p>
+ * Les suites de coups, de longueur variable, ne sont pas archivées : une partie simulée ne dépend que de la
+ * graine de la simulation, de son numéro et des décideurs, si bien que
+ * {@code Simulateur.jouerPartie(getGraine(), numero)}, avec des décideurs du type {@code getDecideurs()},
+ * rejoue exactement la même suite de coups.
+ */
+public class ArchiveParties implements Closeable {
+    private static final int MAGIQUE = 0x52415243; // "RARC"
+    private static final int VERSION = 2;
+    private static final int TAILLE_EN_TETE = 64;
+    /**
+     * Position de la graine de la simulation dans l'en-tête, suivie de la longueur (octet) puis du nom
+     * (UTF-8) du type des décideurs
+     */
+    private static final int GRAINE = 28;
+    private static final int DECIDEURS = 36;
+    private static final int TOURS = 2;
+    private static final int PROPRIETAIRES = 4;
+
+    static {
+        if (Destination.getNbDestinations() > Long.SIZE) {
+            throw new IllegalStateException("Trop de destinations pour le masque des destinations gardées");
+        }
+    }
+
+    private final FileChannel canal;
+    private final boolean ecriture;
+    private final int nbJoueurs;
+    private final int nbRoutes;
+    private final long nbParties;
+    private final long graine;
+    private final String decideurs;
+    /**
+     * Taille d'un enregistrement, en octets
+     */
+    private final int taille;
+    /**
+     * Position des données des joueurs dans un enregistrement
+     */
+    private final int positionJoueurs;
+    private final int nbPartiesParSegment;
+    private final MappedByteBuffer[] segments;
+
+    private ArchiveParties(FileChannel canal, boolean ecriture, int nbJoueurs, int nbRoutes, long nbParties,
+                           long graine, String decideurs) throws IOException {
+        this.canal = canal;
+        this.ecriture = ecriture;
+        this.nbJoueurs = nbJoueurs;
+        this.nbRoutes = nbRoutes;
+        this.nbParties = nbParties;
+        this.graine = graine;
+        this.decideurs = decideurs;
+        positionJoueurs = PROPRIETAIRES + 3 * nbRoutes;
+        taille = positionJoueurs + 11 * nbJoueurs;
+        nbPartiesParSegment = Integer.MAX_VALUE / taille;
+        segments = new MappedByteBuffer[(int) ((nbParties + nbPartiesParSegment - 1) / nbPartiesParSegment)];
+        FileChannel.MapMode mode = ecriture ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+        for (int i = 0; i < segments.length; i++) {
+            long premiere = (long) i * nbPartiesParSegment;
+            long nombre = Math.min(nbPartiesParSegment, nbParties - premiere);
+            segments[i] = canal.map(mode, TAILLE_EN_TETE + premiere * taille, nombre * taille);
+        }
+    }
+
+    /**
+     * Crée une archive vide (le fichier est remplacé s'il existe)
+     *
+     * @param nbParties nombre de parties que l'archive peut contenir
+     * @param graine    graine de la simulation dont les parties sont archivées
+     * @param decideurs type des décideurs des joueurs (par exemple le nom de leur classe), qui permet de
+     *                  rejouer les parties
+     * @throws IllegalArgumentException si le type des décideurs ne tient pas dans l'en-tête
+     */
+    public static ArchiveParties creer(Path fichier, int nbJoueurs, int nbRoutes, long nbParties, long graine,
+                                       String decideurs) throws IOException {
+        byte[] nomDecideurs = decideurs.getBytes(StandardCharsets.UTF_8);
+        if (DECIDEURS + 1 + nomDecideurs.length > TAILLE_EN_TETE) {
+            throw new IllegalArgumentException("Type de décideurs trop long : " + decideurs);
+        }
+        FileChannel canal = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            ByteBuffer enTete = ByteBuffer.allocate(TAILLE_EN_TETE);
+            enTete.putInt(MAGIQUE).putInt(VERSION).putInt(nbJoueurs).putInt(nbRoutes);
+            ArchiveParties archive = new ArchiveParties(canal, true, nbJoueurs, nbRoutes, nbParties, graine,
+                    decideurs);
+            enTete.putInt(archive.taille).putLong(nbParties).putLong(graine);
+            enTete.put((byte) nomDecideurs.length).put(nomDecideurs);
+            canal.write(enTete.flip(), 0);
+            return archive;
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Ouvre une archive existante en lecture
+     *
+     * @throws IOException si le fichier n'est pas une archive dans une version connue
+     */
+    public static ArchiveParties ouvrir(Path fichier) throws IOException {
+        FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ);
+        try {
+            ByteBuffer enTete = ByteBuffer.allocate(TAILLE_EN_TETE);
+            if (canal.read(enTete, 0) < TAILLE_EN_TETE || enTete.getInt(0) != MAGIQUE) {
+                throw new IOException("Ce fichier n'est pas une archive de parties : " + fichier);
+            }
+            if (enTete.getInt(4) != VERSION) {
+                throw new IOException("Version d'archive inconnue : " + enTete.getInt(4));
+            }
+            String decideurs = new String(enTete.array(), DECIDEURS + 1, enTete.get(DECIDEURS),
+                    StandardCharsets.UTF_8);
+            ArchiveParties archive = new ArchiveParties(canal, false, enTete.getInt(8), enTete.getInt(12),
+                    enTete.getLong(20), enTete.getLong(GRAINE), decideurs);
+            if (archive.taille != enTete.getInt(16)) {
+                throw new IOException("Taille d'enregistrement incohérente : " + enTete.getInt(16));
+            }
+            return archive;
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Écrit le résultat d'une partie terminée (peut être appelée en même temps par plusieurs threads, pour
+     * des parties différentes)
+     *
+     * @param numero       numéro de la partie
+     * @param jeu          la partie terminée
+     * @param nbTours      nombre de tours joués
+     * @param toursCapture tour où chaque route a été capturée (-1 si elle est libre), dans l'ordre de
+     *                     {@code Jeu.getRoutes()}
+     */
+    public void ecrire(long numero, Jeu jeu, int nbTours, int[] toursCapture) {
+        ByteBuffer segment = segment(numero);
+        int debut = position(numero);
+        List<Joueur> joueurs = jeu.getJoueurs();
+        segment.put(debut + 1, (byte) joueurs.indexOf(jeu.getVainqueur()));
+        segment.putShort(debut + TOURS, (short) nbTours);
+        List<Route> routes = jeu.getRoutes();
+        for (int r = 0; r < nbRoutes; r++) {
+            segment.put(debut + PROPRIETAIRES + r, (byte) (joueurs.indexOf(routes.get(r).getProprietaire()) + 1));
+            segment.putShort(debut + PROPRIETAIRES + nbRoutes + 2 * r, (short) toursCapture[r]);
+        }
+        for (int j = 0; j < nbJoueurs; j++) {
+            Joueur joueur = joueurs.get(j);
+            int position = debut + positionJoueurs + 11 * j;
+            long destinations = 0;
+            for (Destination destination : joueur.getDestinations()) {
+                int rang = Destination.getRang(destination);
+                if (rang >= 0) {
+                    destinations |= 1L << rang;
+                }
+            }
+            Destination longue = joueur.getDestinationLongueInitiale();
+            segment.putShort(position, (short) joueur.getScore());
+            segment.putLong(position + 2, destinations);
+            segment.put(position + 10, (byte) (longue == null ? -1 : Destination.getRang(longue)));
+        }
+        // la présence est écrite en dernier
+        segment.put(debut, (byte) 1);
+    }
+
+    public int getNbJoueurs() {
+        return nbJoueurs;
+    }
+
+    public int getNbRoutes() {
+        return nbRoutes;
+    }
+
+    /**
+     * @return le nombre de parties que l'archive peut contenir
+     */
+    public long getNbParties() {
+        return nbParties;
+    }
+
+    /**
+     * @return la graine de la simulation dont les parties sont archivées
+     */
+    public long getGraine() {
+        return graine;
+    }
+
+    /**
+     * @return le type des décideurs des joueurs des parties archivées
+     */
+    public String getDecideurs() {
+        return decideurs;
+    }
+
+    /**
+     * @return les numéros des parties présentes dans l'archive, sous forme de flux parallèle
+     */
+    public LongStream parties() {
+        return LongStream.range(0, nbParties).parallel().filter(this::estPresente);
+    }
+
+    public boolean estPresente(long partie) {
+        return segment(partie).get(position(partie)) != 0;
+    }
+
+    /**
+     * @return le siège du vainqueur de la partie
+     */
+    public int getVainqueur(long partie) {
+        return segment(partie).get(position(partie) + 1);
+    }
+
+    public int getNbTours(long partie) {
+        return segment(partie).getShort(position(partie) + TOURS);
+    }
+
+    /**
+     * @return le siège du propriétaire de la route d'indice {@code route}, ou -1 si elle est libre
+     */
+    public int getProprietaire(long partie, int route) {
+        return segment(partie).get(position(partie) + PROPRIETAIRES + route) - 1;
+    }
+
+    /**
+     * @return le tour où la route d'indice {@code route} a été capturée, ou -1 si elle est libre
+     */
+    public int getTourCapture(long partie, int route) {
+        return segment(partie).getShort(position(partie) + PROPRIETAIRES + nbRoutes + 2 * route);
+    }
+
+    public int getScore(long partie, int siege) {
+        return segment(partie).getShort(position(partie) + positionJoueurs + 11 * siege);
+    }
+
+    /**
+     * @return le masque des rangs (voir {@code Destination.getRang}) des destinations gardées par le joueur
+     */
+    public long getDestinations(long partie, int siege) {
+        return segment(partie).getLong(position(partie) + positionJoueurs + 11 * siege + 2);
+    }
+
+    /**
+     * @return le rang de la destination "longue" proposée au joueur au début de la partie, ou -1
+     */
+    public int getDestinationLongueInitiale(long partie, int siege) {
+        return segment(partie).get(position(partie) + positionJoueurs + 11 * siege + 10);
+    }
+
+    /**
+     * Force l'écriture des parties sur le disque (si l'archive est ouverte en écriture) et ferme le fichier
+     */
+    @Override
+    public void close() throws IOException {
+        if (ecriture) {
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+        }
+        canal.close();
+    }
+
+    private ByteBuffer segment(long partie) {
+        if (partie < 0 || partie >= nbParties) {
+            throw new IndexOutOfBoundsException("Partie " + partie + " hors de l'archive");
+        }
+        return segments[(int) (partie / nbPartiesParSegment)];
+    }
+
+    private int position(long partie) {
+        return (int) (partie % nbPartiesParSegment) * taille;
+    }
+}
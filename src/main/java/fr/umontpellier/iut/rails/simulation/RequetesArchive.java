@@ -0,0 +1,112 @@
+package fr.umontpellier.iut.rails.simulation;
+
+import fr.umontpellier.iut.rails.Destination;
+import fr.umontpellier.iut.rails.Plateau;
+import fr.umontpellier.iut.rails.Route;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Requêtes d'agrégation sur une archive de parties simulées (voir {@code ArchiveParties}).
+ * <p>
+ * Chaque requête parcourt toutes les parties de l'archive avec un flux parallèle : chaque thread compte
+ * dans ses propres tableaux, qui sont additionnés à la fin.
+ */
+public final class RequetesArchive {
+    /**
+     * Proportion des cas favorables parmi un ensemble de cas
+     */
+    public record Taux(long total, long favorables) {
+        public double getTaux() {
+            return total == 0 ? 0 : (double) favorables / total;
+        }
+    }
+
+    private RequetesArchive() {
+    }
+
+    /**
+     * Taux de victoire des joueurs selon la destination "longue" qui leur a été proposée au début de la
+     * partie
+     *
+     * @return le taux de chaque destination, indexé par son rang (voir {@code Destination.getRang}) ; le
+     * total est nul pour les destinations qui ne sont pas "longues"
+     */
+    public static Taux[] tauxVictoireParDestinationLongue(ArchiveParties archive) {
+        int nbDestinations = Destination.getNbDestinations();
+        long[] comptes = archive.parties().collect(() -> new long[2 * nbDestinations], (c, partie) -> {
+            int vainqueur = archive.getVainqueur(partie);
+            for (int siege = 0; siege < archive.getNbJoueurs(); siege++) {
+                int rang = archive.getDestinationLongueInitiale(partie, siege);
+                if (rang >= 0) {
+                    c[2 * rang]++;
+                    if (siege == vainqueur) {
+                        c[2 * rang + 1]++;
+                    }
+                }
+            }
+        }, RequetesArchive::additionner);
+        Taux[] taux = new Taux[nbDestinations];
+        for (int i = 0; i < nbDestinations; i++) {
+            taux[i] = new Taux(comptes[2 * i], comptes[2 * i + 1]);
+        }
+        return taux;
+    }
+
+    /**
+     * Taux de capture de chaque route (proportion des parties dans lesquelles elle a été capturée)
+     *
+     * @return le taux de chaque route, dans l'ordre de {@code Plateau.getRoutes()}
+     */
+    public static Taux[] tauxCaptureRoutes(ArchiveParties archive) {
+        int nbRoutes = archive.getNbRoutes();
+        long[] comptes = archive.parties().collect(() -> new long[nbRoutes + 1], (c, partie) -> {
+            c[nbRoutes]++;
+            for (int r = 0; r < nbRoutes; r++) {
+                if (archive.getProprietaire(partie, r) >= 0) {
+                    c[r]++;
+                }
+            }
+        }, RequetesArchive::additionner);
+        Taux[] taux = new Taux[nbRoutes];
+        for (int r = 0; r < nbRoutes; r++) {
+            taux[r] = new Taux(comptes[nbRoutes], comptes[r]);
+        }
+        return taux;
+    }
+
+    private static void additionner(long[] comptes, long[] autres) {
+        for (int i = 0; i < comptes.length; i++) {
+            comptes[i] += autres[i];
+        }
+    }
+
+    /**
+     * Affiche le résultat des requêtes sur l'archive passée en argument
+     */
+    public static void main(String[] args) throws IOException {
+        try (ArchiveParties archive = ArchiveParties.ouvrir(Paths.get(args[0]))) {
+            long debut = System.nanoTime();
+            Taux[] victoires = tauxVictoireParDestinationLongue(archive);
+            Taux[] captures = tauxCaptureRoutes(archive);
+            double secondes = (System.nanoTime() - debut) / 1e9;
+
+            System.out.println("=== Victoires par destination longue proposée ===");
+            for (int i = 0; i < victoires.length; i++) {
+                if (victoires[i].total() > 0) {
+                    System.out.printf("  %-35s %.1f%% (%d joueurs)%n", Destination.getParRang(i),
+                            100 * victoires[i].getTaux(), victoires[i].total());
+                }
+            }
+            System.out.println("=== Captures des routes ===");
+            List<Route> routes = Plateau.makePlateauEurope().getRoutes();
+            for (int r = 0; r < captures.length; r++) {
+                System.out.printf("  %-35s %.1f%%%n", routes.get(r).getNom(), 100 * captures[r].getTaux());
+            }
+            long nbParties = captures.length > 0 ? captures[0].total() : 0;
+            System.out.printf("%d parties parcourues deux fois en %.2f s%n", nbParties, secondes);
+        }
+    }
+}
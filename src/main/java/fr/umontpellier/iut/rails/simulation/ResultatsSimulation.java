@@ -0,0 +1,133 @@
+package fr.umontpellier.iut.rails.simulation;
+
+import fr.umontpellier.iut.rails.Jeu;
+import fr.umontpellier.iut.rails.Joueur;
+import fr.umontpellier.iut.rails.Route;
+
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/**
+ * Statistiques agrégées sur un ensemble de parties simulées.
+ * <p>
+ * Une instance n'est pas partagée entre threads : chaque thread du simulateur remplit la sienne, et les
+ * résultats partiels sont ensuite fusionnés.
+ */
+public class ResultatsSimulation {
+    /**
+     * Noms des routes du plateau (dans l'ordre de {@code Jeu.getRoutes()})
+     */
+    private final String[] nomsRoutes;
+    /**
+     * Nombre de parties prises en compte
+     */
+    private long nbParties;
+    /**
+     * Nombre de victoires de chaque siège (ordre des joueurs dans la partie)
+     */
+    private final long[] victoires;
+    /**
+     * Somme des scores finaux de chaque siège
+     */
+    private final long[] sommeScores;
+    /**
+     * Nombre de fois que chaque score final a été obtenu (tous sièges confondus)
+     */
+    private final TreeMap<Integer, Long> histogrammeScores;
+    /**
+     * Nombre de parties dans lesquelles chaque route a été capturée
+     */
+    private final long[] capturesRoutes;
+
+    public ResultatsSimulation(int nbJoueurs, String[] nomsRoutes) {
+        this.nomsRoutes = nomsRoutes;
+        victoires = new long[nbJoueurs];
+        sommeScores = new long[nbJoueurs];
+        histogrammeScores = new TreeMap<>();
+        capturesRoutes = new long[nomsRoutes.length];
+    }
+
+    /**
+     * Ajoute aux statistiques le résultat d'une partie terminée
+     */
+    public void ajouter(Jeu jeu) {
+        nbParties++;
+        List<Joueur> joueurs = jeu.getJoueurs();
+        for (int i = 0; i < joueurs.size(); i++) {
+            int score = joueurs.get(i).getScore();
+            sommeScores[i] += score;
+            histogrammeScores.merge(score, 1L, Long::sum);
+            if (joueurs.get(i) == jeu.getVainqueur()) {
+                victoires[i]++;
+            }
+        }
+        List<Route> routes = jeu.getRoutes();
+        for (int i = 0; i < routes.size(); i++) {
+            if (routes.get(i).getProprietaire() != null) {
+                capturesRoutes[i]++;
+            }
+        }
+    }
+
+    /**
+     * Ajoute aux statistiques les résultats partiels d'un autre thread
+     */
+    public void fusionner(ResultatsSimulation autre) {
+        nbParties += autre.nbParties;
+        for (int i = 0; i < victoires.length; i++) {
+            victoires[i] += autre.victoires[i];
+            sommeScores[i] += autre.sommeScores[i];
+        }
+        for (Map.Entry<Integer, Long> e : autre.histogrammeScores.entrySet()) {
+            histogrammeScores.merge(e.getKey(), e.getValue(), Long::sum);
+        }
+        for (int i = 0; i < capturesRoutes.length; i++) {
+            capturesRoutes[i] += autre.capturesRoutes[i];
+        }
+    }
+
+    public long getNbParties() {
+        return nbParties;
+    }
+
+    public long[] getVictoires() {
+        return victoires;
+    }
+
+    public long[] getSommeScores() {
+        return sommeScores;
+    }
+
+    public TreeMap<Integer, Long> getHistogrammeScores() {
+        return histogrammeScores;
+    }
+
+    public long[] getCapturesRoutes() {
+        return capturesRoutes;
+    }
+
+    /**
+     * @return la proportion des parties dans lesquelles la route d'indice {@code i} a été capturée
+     */
+    public double getFrequenceCapture(int i) {
+        return nbParties == 0 ? 0 : (double) capturesRoutes[i] / nbParties;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner("\n");
+        joiner.add(String.format("=== %d parties ===", nbParties));
+        for (int i = 0; i < victoires.length; i++) {
+            joiner.add(String.format("  Siège %d : %.1f%% de victoires, score moyen %.1f", i + 1,
+                    100.0 * victoires[i] / Math.max(1, nbParties), (double) sommeScores[i] / Math.max(1, nbParties)));
+        }
+        joiner.add("  Scores : " + histogrammeScores);
+        joiner.add("  Captures :");
+        for (int i = 0; i < nomsRoutes.length; i++) {
+            joiner.add(String.format("    %-35s %.1f%%", nomsRoutes[i], 100 * getFrequenceCapture(i)));
+        }
+        return joiner.toString();
+    }
+}
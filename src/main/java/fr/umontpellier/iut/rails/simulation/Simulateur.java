@@ -0,0 +1,188 @@
+package fr.umontpellier.iut.rails.simulation;
+
+import fr.umontpellier.iut.rails.Decideur;
+import fr.umontpellier.iut.rails.DecideurAleatoire;
+import fr.umontpellier.iut.rails.EcouteurRoutes;
+import fr.umontpellier.iut.rails.Jeu;
+import fr.umontpellier.iut.rails.Joueur;
+import fr.umontpellier.iut.rails.Journal;
+import fr.umontpellier.iut.rails.Plateau;
+import fr.umontpellier.iut.rails.Route;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.LongStream;
+
+/**
+ * Exécute en parallèle un grand nombre de parties sans interface et agrège leurs résultats.
+ * <p>
+ * Chaque partie est indépendante : elle a sa propre instance de {@code Jeu}, son propre générateur
+ * aléatoire (dérivé de la graine de la simulation et du numéro de la partie) et ses propres décideurs.
+ * Les résultats sont accumulés dans un {@code ResultatsSimulation} par thread, fusionnés à la fin, si bien
+ * que les threads ne partagent aucun état pendant la simulation.
+ */
+public class Simulateur {
+    /**
+     * Crée le décideur d'un siège pour une partie
+     */
+    public interface FabriqueDecideur {
+        /**
+         * @param siege  indice du joueur dans la partie
+         * @param random générateur propre à la partie, à utiliser pour tous les tirages du décideur
+         */
+        Decideur creer(int siege, Random random);
+    }
+
+    /**
+     * Noms des joueurs de chaque partie
+     */
+    private final String[] nomJoueurs;
+    /**
+     * Fabrique des décideurs des joueurs
+     */
+    private final FabriqueDecideur fabrique;
+    /**
+     * Nombre de threads utilisés
+     */
+    private final int parallelisme;
+
+    public Simulateur(String[] nomJoueurs, FabriqueDecideur fabrique, int parallelisme) {
+        this.nomJoueurs = nomJoueurs;
+        this.fabrique = fabrique;
+        this.parallelisme = parallelisme;
+    }
+
+    public Simulateur(String[] nomJoueurs, FabriqueDecideur fabrique) {
+        this(nomJoueurs, fabrique, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Simule des parties et renvoie leurs statistiques agrégées.
+     * Le résultat ne dépend que de {@code nbParties} et de {@code graine} (pas du nombre de threads).
+     *
+     * @param nbParties nombre de parties à jouer
+     * @param graine    graine de la simulation
+     */
+    public ResultatsSimulation simuler(long nbParties, long graine) {
+        return simuler(nbParties, graine, null);
+    }
+
+    /**
+     * Simule des parties, écrit le résultat de chacune dans l'archive (à la place correspondant à son numéro)
+     * et renvoie leurs statistiques agrégées
+     *
+     * @param archive archive ouverte en écriture, qui peut contenir au moins {@code nbParties} parties
+     *                (`null` pour ne pas archiver)
+     */
+    public ResultatsSimulation simuler(long nbParties, long graine, ArchiveParties archive) {
+        String[] nomsRoutes = Plateau.makePlateauEurope().getRoutes().stream().map(Route::getNom).toArray(String[]::new);
+        ForkJoinPool pool = new ForkJoinPool(parallelisme);
+        try {
+            return pool.submit(() -> LongStream.range(0, nbParties)
+                    .parallel()
+                    .mapToObj(i -> jouerPartie(graine, i, archive))
+                    .collect(() -> new ResultatsSimulation(nomJoueurs.length, nomsRoutes),
+                            ResultatsSimulation::ajouter,
+                            ResultatsSimulation::fusionner))
+                    .join();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Joue entièrement la partie numéro {@code numero} de la simulation. La partie ne dépend que de la graine,
+     * du numéro et des décideurs : la même suite de coups est rejouée à chaque appel (c'est ainsi que les
+     * coups d'une partie archivée dans {@code ArchiveParties} peuvent être retrouvés).
+     */
+    public Jeu jouerPartie(long graine, long numero) {
+        return jouerPartie(graine, numero, null);
+    }
+
+    private Jeu jouerPartie(long graine, long numero, ArchiveParties archive) {
+        // graine mélangée pour que des parties de numéros voisins ne soient pas corrélées
+        Random random = new Random(new SplittableRandom(graine ^ (numero * 0x9E3779B97F4A7C15L)).nextLong());
+        Jeu jeu = new Jeu(nomJoueurs, random);
+        List<Joueur> joueurs = jeu.getJoueurs();
+        for (int i = 0; i < joueurs.size(); i++) {
+            joueurs.get(i).setDecideur(fabrique.creer(i, random));
+        }
+        jeu.setSansAffichage(true);
+        SuiviCaptures suivi = null;
+        if (archive != null) {
+            suivi = new SuiviCaptures(jeu);
+            jeu.setJournal(suivi);
+        }
+        jeu.run();
+        if (archive != null) {
+            archive.ecrire(numero, jeu, suivi.nbTours, suivi.toursCapture);
+        }
+        return jeu;
+    }
+
+    /**
+     * Retient le tour où chaque route est capturée, pour l'archive
+     */
+    private static class SuiviCaptures implements Journal, EcouteurRoutes {
+        private final int[] toursCapture;
+        private int nbTours;
+
+        SuiviCaptures(Jeu jeu) {
+            toursCapture = new int[jeu.getPlateau().getNbRoutes()];
+            Arrays.fill(toursCapture, -1);
+            jeu.getPlateau().ajouterEcouteur(this);
+        }
+
+        @Override
+        public void proprietaireModifie(Route route) {
+            toursCapture[route.getId()] = route.getProprietaire() == null ? -1 : nbTours - 1;
+        }
+
+        @Override
+        public void debutTour() {
+            nbTours++;
+        }
+
+        @Override
+        public void choix(int indice) {
+        }
+
+        @Override
+        public void coup(int indice) {
+        }
+    }
+
+    /**
+     * Lance une simulation de parties aléatoires.
+     * Arguments (optionnels) : nombre de parties, graine, nombre de threads, fichier d'archive (voir
+     * {@code RequetesArchive} pour l'interroger)
+     */
+    public static void main(String[] args) throws IOException {
+        long nbParties = args.length > 0 ? Long.parseLong(args[0]) : 10000;
+        long graine = args.length > 1 ? Long.parseLong(args[1]) : 0;
+        int parallelisme = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        String[] noms = {"Guybrush", "Largo", "LeChuck", "Elaine"};
+        Simulateur simulateur = new Simulateur(noms, (siege, random) -> new DecideurAleatoire(random), parallelisme);
+        long debut = System.nanoTime();
+        ResultatsSimulation resultats;
+        if (args.length > 3) {
+            try (ArchiveParties archive = ArchiveParties.creer(Paths.get(args[3]), noms.length,
+                    Plateau.makePlateauEurope().getNbRoutes(), nbParties, graine,
+                    DecideurAleatoire.class.getSimpleName())) {
+                resultats = simulateur.simuler(nbParties, graine, archive);
+            }
+        } else {
+            resultats = simulateur.simuler(nbParties, graine);
+        }
+        double secondes = (System.nanoTime() - debut) / 1e9;
+        System.out.println(resultats);
+        System.out.printf("%d parties en %.2f s (%.0f parties/s, %d threads)%n", nbParties, secondes,
+                nbParties / secondes, parallelisme);
+    }
+}
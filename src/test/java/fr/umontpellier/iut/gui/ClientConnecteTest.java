@@ -0,0 +1,119 @@
+package fr.umontpellier.iut.gui;
+
+import org.junit.jupiter.api.Test;
+
+import javax.websocket.CloseReason;
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ClientConnecteTest {
+
+    /**
+     * Session websocket dont les envois ne se terminent que lorsque le test le décide
+     */
+    private static class SessionFactice {
+        final List<String> envoyes = new ArrayList<>();
+        SendHandler envoiEnCours;
+        volatile CloseReason fermeture;
+        final Session session;
+
+        SessionFactice() {
+            RemoteEndpoint.Async distant = (RemoteEndpoint.Async) Proxy.newProxyInstance(
+                    getClass().getClassLoader(), new Class<?>[] { RemoteEndpoint.Async.class },
+                    (proxy, methode, arguments) -> {
+                        if (methode.getName().equals("sendText") && arguments.length == 2) {
+                            envoyes.add((String) arguments[0]);
+                            envoiEnCours = (SendHandler) arguments[1];
+                        }
+                        return null;
+                    });
+            session = (Session) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Session.class },
+                    (proxy, methode, arguments) -> {
+                        switch (methode.getName()) {
+                            case "getAsyncRemote":
+                                return distant;
+                            case "close":
+                                fermeture = (CloseReason) arguments[0];
+                                return null;
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            case "equals":
+                                return proxy == arguments[0];
+                            default:
+                                return null;
+                        }
+                    });
+        }
+
+        /**
+         * Termine l'envoi en cours
+         */
+        void terminerEnvoi() {
+            SendHandler handler = envoiEnCours;
+            envoiEnCours = null;
+            handler.onResult(new SendResult());
+        }
+    }
+
+    @Test
+    void testEtatsFusionnesPendantUnEnvoi() {
+        SessionFactice session = new SessionFactice();
+        ClientConnecte client = new ClientConnecte(session.session, false, new Histogramme());
+        client.envoyer("etat 1");
+        client.envoyer("etat 2");
+        client.envoyer("etat 3");
+        // un delta n'écrase pas l'état en attente
+        assertFalse(client.envoyerSiFileVide("delta"));
+        assertTrue(client.repondre("page de log"));
+        assertEquals(List.of("etat 1"), session.envoyes);
+
+        session.terminerEnvoi();
+        session.terminerEnvoi();
+        session.terminerEnvoi();
+        // les réponses passent avant l'état, et seul le dernier état est envoyé
+        assertEquals(List.of("etat 1", "page de log", "etat 3"), session.envoyes);
+        assertEquals(1, client.getNbMessagesFusionnes());
+        assertNull(session.envoiEnCours);
+        assertTrue(client.envoyerSiFileVide("delta"));
+        assertEquals("delta", session.envoyes.get(3));
+    }
+
+    @Test
+    void testClientTropLentDeconnecteSansNouveauDepot() throws InterruptedException {
+        SessionFactice session = new SessionFactice();
+        ClientConnecte client = new ClientConnecte(session.session, false, new Histogramme(), 50);
+        client.envoyer("etat 1");
+        // l'envoi ne se termine jamais et la partie ne dépose plus rien
+        long fin = System.nanoTime() + 5_000_000_000L;
+        while (session.fermeture == null && System.nanoTime() < fin) {
+            Thread.sleep(10);
+        }
+        assertEquals(CloseReason.CloseCodes.TRY_AGAIN_LATER, session.fermeture.getCloseCode());
+        assertEquals("client trop lent", session.fermeture.getReasonPhrase());
+
+        // plus rien n'est envoyé à un client déconnecté
+        session.terminerEnvoi();
+        client.envoyer("etat 2");
+        assertEquals(List.of("etat 1"), session.envoyes);
+    }
+
+    @Test
+    void testEnvoiTermineATempsNeDeconnectePas() throws InterruptedException {
+        SessionFactice session = new SessionFactice();
+        ClientConnecte client = new ClientConnecte(session.session, false, new Histogramme(), 50);
+        client.envoyer("etat 1");
+        session.terminerEnvoi();
+        Thread.sleep(150);
+        assertNull(session.fermeture);
+    }
+}
@@ -0,0 +1,106 @@
+package fr.umontpellier.iut.gui;
+
+import fr.umontpellier.iut.rails.Jeu;
+import fr.umontpellier.iut.rails.ia.DecideurGlouton;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GameServerTest {
+    private static final String[] NOMS = { "Guybrush", "Largo", "LeChuck", "Elaine" };
+
+    @Test
+    void testTableDeRobotsRetireeALaFinDeLaPartie() throws Exception {
+        GameServer.setRobots(4, DecideurGlouton::new);
+        try {
+            Table table = GameServer.getTable("test-robots");
+            assertNotNull(table);
+            assertTrue(attendre(table::estTerminee));
+            assertTrue(attendre(() -> !estEnregistree(table)));
+            assertTrue(GameServer.getTable("test-robots") != table);
+        } finally {
+            GameServer.setRobots(0, DecideurGlouton::new);
+        }
+    }
+
+    @Test
+    void testTableInactiveFermee() throws Exception {
+        GameServer.setRobots(0, DecideurGlouton::new);
+        Table table = GameServer.getTable("test-inactive");
+        assertNotNull(table);
+        // la partie attend la réponse d'un joueur humain qui n'est pas connecté
+        assertTrue(attendre(() -> table.getMetriques().getNbPrompts() > 0));
+        assertTrue(estEnregistree(table));
+
+        GameServer.setDelaiInactivite(0);
+        try {
+            GameServer.fermerTablesInactives();
+        } finally {
+            GameServer.setDelaiInactivite(600_000);
+        }
+        assertFalse(estEnregistree(table));
+        assertTrue(attendre(table::estTerminee));
+        assertFalse(table.addClient(null, false));
+    }
+
+    @Test
+    void testIdentifiantsDeTable() {
+        assertTrue(GameServer.estIdentifiantValide(GameServer.TABLE_PAR_DEFAUT));
+        assertTrue(GameServer.estIdentifiantValide("Table_12-b"));
+        assertTrue(GameServer.estIdentifiantValide("a".repeat(64)));
+        assertFalse(GameServer.estIdentifiantValide(null));
+        assertFalse(GameServer.estIdentifiantValide(""));
+        assertFalse(GameServer.estIdentifiantValide("a".repeat(65)));
+        assertFalse(GameServer.estIdentifiantValide("../partie"));
+        assertFalse(GameServer.estIdentifiantValide("a/b"));
+        assertFalse(GameServer.estIdentifiantValide("a\\b"));
+        assertFalse(GameServer.estIdentifiantValide("table.log"));
+        assertFalse(GameServer.estIdentifiantValide("table\n"));
+        assertFalse(GameServer.estIdentifiantValide("tablé"));
+    }
+
+    @Test
+    void testNombreMaximalDeTables() {
+        GameServer.setNbMaxTables(GameServer.getNbTables());
+        try {
+            assertNull(GameServer.getTable("test-max"));
+        } finally {
+            GameServer.setNbMaxTables(10_000);
+        }
+    }
+
+    @Test
+    void testTableActiveNonFermee() {
+        Table table = new Table("test-active", new Jeu(NOMS, 1));
+        assertFalse(table.fermerSiInactive(Long.MAX_VALUE));
+        assertTrue(table.fermerSiInactive(0));
+        // une table fermée refuse les nouveaux clients et ne démarre plus sa partie
+        assertFalse(table.addClient(null, false));
+        table.demarrer(Thread::new, () -> { });
+        assertFalse(table.estTerminee());
+    }
+
+    private static boolean estEnregistree(Table table) {
+        return ManagementFactory.getPlatformMBeanServer().isRegistered(MetriquesTable.getNom(table.getId()));
+    }
+
+    /**
+     * Attend (au plus 10 secondes) que la condition soit vraie
+     */
+    private static boolean attendre(BooleanSupplier condition) throws InterruptedException {
+        long fin = System.nanoTime() + 10_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > fin) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,75 @@
+package fr.umontpellier.iut.gui;
+
+import fr.umontpellier.iut.rails.Jeu;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MetriquesTableTest {
+    private static final String[] NOMS = { "Guybrush", "Largo", "LeChuck", "Elaine" };
+
+    @Test
+    void testCentilesHistogramme() {
+        Histogramme histogramme = new Histogramme();
+        for (int micros = 1; micros <= 1000; micros++) {
+            histogramme.enregistrer(micros * 1000L);
+        }
+        ResumeHistogramme resume = histogramme.getResume();
+        assertEquals(1000, resume.getNombre());
+        assertEquals(500.5, resume.getMoyenne(), 1e-9);
+        assertEquals(1000, resume.getMax());
+        // les centiles sont donnés à 25 % près, par la borne supérieure de leur intervalle
+        assertTrue(resume.getP50() >= 500 && resume.getP50() <= 625, "p50 = " + resume.getP50());
+        assertTrue(resume.getP99() >= 990 && resume.getP99() <= 1240, "p99 = " + resume.getP99());
+    }
+
+    @Test
+    void testIntervallesHistogramme() {
+        for (long valeur = 0; valeur < 100_000; valeur++) {
+            int intervalle = Histogramme.intervalle(valeur);
+            assertTrue(valeur <= Histogramme.borneSuperieure(intervalle));
+            assertTrue(intervalle == 0 || valeur > Histogramme.borneSuperieure(intervalle - 1));
+        }
+        assertEquals(Long.MAX_VALUE, Histogramme.borneSuperieure(Histogramme.intervalle(Long.MAX_VALUE)));
+    }
+
+    @Test
+    void testIndicateursPubliesParJmx() throws Exception {
+        Jeu jeu = new Jeu(NOMS, 1);
+        Table table = new Table("test-metriques", jeu);
+        MBeanServer serveur = ManagementFactory.getPlatformMBeanServer();
+        ObjectName nom = MetriquesTable.getNom(table.getId());
+        table.getMetriques().enregistrer();
+        try {
+            jeu.publierEtat("instruction", new ArrayList<>(), false);
+            jeu.publierEtat("instruction", new ArrayList<>(), false);
+            jeu.addInput("GRIS");
+            jeu.getJournal().debutTour();
+            jeu.getJournal().debutTour();
+
+            assertEquals(2L, serveur.getAttribute(nom, "NbPrompts"));
+            assertTrue((Integer) serveur.getAttribute(nom, "TailleDernierDelta") > 0);
+            assertEquals(0, serveur.getAttribute(nom, "NbSessions"));
+            assertEquals(1, serveur.getAttribute(nom, "NbEntreesEnAttente"));
+            assertEquals(false, serveur.getAttribute(nom, "Terminee"));
+            assertEquals(2L, ((CompositeData) serveur.getAttribute(nom, "LatencePublication")).get("nombre"));
+
+            TabularData durees = (TabularData) serveur.getAttribute(nom, "DureesTours");
+            assertEquals(NOMS.length, durees.size());
+            CompositeData premier = durees.get(new Object[] { jeu.getJoueurCourant().getNom() });
+            assertEquals(1L, ((CompositeData) premier.get("value")).get("nombre"));
+        } finally {
+            table.getMetriques().retirer();
+        }
+        assertFalse(serveur.isRegistered(nom));
+    }
+}
@@ -0,0 +1,82 @@
+package fr.umontpellier.iut.rails;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CheminLePlusLongTest {
+    private Plateau plateau;
+    private Joueur joueur;
+    private Joueur adversaire;
+
+    @BeforeEach
+    void init() {
+        Jeu jeu = new Jeu(new String[] { "Guybrush", "Largo" }, new Random(1));
+        plateau = jeu.getPlateau();
+        joueur = jeu.getJoueurs().get(0);
+        adversaire = jeu.getJoueurs().get(1);
+    }
+
+    private void capturer(Joueur j, String... routes) {
+        for (String route : routes) {
+            plateau.getRoute(route).setProprietaire(j);
+        }
+    }
+
+    @Test
+    void testAucuneRoute() {
+        assertEquals(0, joueur.getLongueurCheminLePlusLong());
+    }
+
+    @Test
+    void testEtoileNePeutPrendreQueDeuxBranches() {
+        capturer(joueur, "Brest - Paris", "Dieppe - Paris", "Marseille - Paris", "Pamplona - Paris(1)");
+        assertEquals(8, joueur.getLongueurCheminLePlusLong());
+    }
+
+    @Test
+    void testBoucleParcourueEnRepassantParUneVille() {
+        capturer(joueur, "Brest - Paris", "Brest - Dieppe", "Dieppe - Paris", "Frankfurt - Paris(1)");
+        assertEquals(3 + 3 + 2 + 1, joueur.getLongueurCheminLePlusLong());
+    }
+
+    @Test
+    void testRecalculApresUneCapture() {
+        capturer(joueur, "Brest - Paris");
+        assertEquals(3, joueur.getLongueurCheminLePlusLong());
+        capturer(adversaire, "Dieppe - Paris");
+        assertEquals(3, joueur.getLongueurCheminLePlusLong());
+        capturer(joueur, "Frankfurt - Paris(1)");
+        assertEquals(6, joueur.getLongueurCheminLePlusLong());
+        capturer(null, "Frankfurt - Paris(1)");
+        assertEquals(3, joueur.getLongueurCheminLePlusLong());
+    }
+
+    @Test
+    void testReseauDe45Wagons() {
+        // réseau connexe de routes courtes (le cas le plus coûteux), construit au hasard
+        Random random = new Random(152);
+        List<Ville> villes = new ArrayList<>();
+        villes.add(plateau.getVille(random.nextInt(plateau.getNbVilles())));
+        int wagons = 0;
+        for (int i = 0; i < 500 && wagons < 45; i++) {
+            List<Route> routes = plateau.getRoutes(villes.get(random.nextInt(villes.size())));
+            Route route = routes.get(random.nextInt(routes.size()));
+            if (route.getProprietaire() == null && route.getLongueur() <= 2 && wagons + route.getLongueur() <= 45) {
+                route.setProprietaire(joueur);
+                wagons += route.getLongueur();
+                villes.add(route.getVille1());
+                villes.add(route.getVille2());
+            }
+        }
+        long debut = System.nanoTime();
+        int longueur = joueur.getLongueurCheminLePlusLong();
+        assertTrue(System.nanoTime() - debut < 1_000_000_000L);
+        assertTrue(longueur > 0 && longueur <= wagons);
+    }
+}
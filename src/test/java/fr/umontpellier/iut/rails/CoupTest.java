@@ -0,0 +1,77 @@
+package fr.umontpellier.iut.rails;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CoupTest {
+    @Test
+    void testLibelles() {
+        Plateau plateau = Plateau.makePlateauEurope();
+        assertEquals("ROUGE", Coup.carteVisible(CouleurWagon.ROUGE).getLibelle(plateau));
+        assertEquals("GRIS", Coup.CARTE_PIOCHE.getLibelle(plateau));
+        assertEquals("destinations", Coup.DESTINATIONS.getLibelle(plateau));
+        assertEquals("", Coup.PASSER.getLibelle(plateau));
+        Route route = plateau.getRoutes().get(12);
+        assertEquals(route.getNom(), Coup.route(route).getLibelle(plateau));
+        assertEquals("Paris", Coup.gare(plateau.getVille("Paris")).getLibelle(plateau));
+    }
+
+    @Test
+    void testDecideurTypeNePassePasParLesChaines() {
+        Jeu jeu = new Jeu(new String[] { "Guybrush", "Largo" }, new Random(4));
+        Joueur joueur = jeu.getJoueurs().get(0);
+        joueur.setDecideur(new Decideur() {
+            @Override
+            public String choisir(Joueur j, String instruction, List<String> choix, boolean peutPasser) {
+                throw new AssertionError("choix textuel inattendu");
+            }
+
+            @Override
+            public Coup choisirCoup(Joueur j, String instruction, List<Coup> coups, boolean peutPasser) {
+                return coups.contains(Coup.CARTE_PIOCHE) ? Coup.CARTE_PIOCHE : Coup.PASSER;
+            }
+        });
+        int nbCartes = joueur.getCartesWagon().size();
+        joueur.jouerTour();
+        assertEquals(nbCartes + 2, joueur.getCartesWagon().size());
+    }
+
+    @Test
+    void testChoixSecondairesTypes() {
+        Jeu jeu = new Jeu(new String[] { "Guybrush", "Largo" }, new Random(9));
+        jeu.setSansAffichage(true);
+        DecideurAleatoire aleatoire = new DecideurAleatoire(new Random(10));
+        Set<Coup.Type> types = EnumSet.noneOf(Coup.Type.class);
+        jeu.setDecideur(new Decideur() {
+            @Override
+            public String choisir(Joueur j, String instruction, List<String> choix, boolean peutPasser) {
+                throw new AssertionError("choix textuel inattendu : " + instruction);
+            }
+
+            @Override
+            public Coup choisirCoup(Joueur j, String instruction, List<Coup> coups, boolean peutPasser) {
+                types.add(coups.get(0).getType());
+                return aleatoire.choisirCoup(j, instruction, coups, peutPasser);
+            }
+        });
+        jeu.run();
+        assertNotNull(jeu.getVainqueur());
+        assertTrue(types.contains(Coup.Type.PAYER));
+        assertTrue(types.contains(Coup.Type.DEFAUSSER_DESTINATION));
+        assertEquals("ROUGE", Coup.payer(CouleurWagon.ROUGE).getLibelle(jeu.getPlateau()));
+    }
+
+    @Test
+    void testEntreeTextuelleTraduiteEnCoup() {
+        Jeu jeu = new Jeu(new String[] { "Guybrush", "Largo" }, new Random(4));
+        Joueur joueur = jeu.getJoueurs().get(0);
+        joueur.setDecideur((j, instruction, choix, peutPasser) -> choix.contains("destinations") ? "destinations" : "");
+        assertEquals(Coup.DESTINATIONS, joueur.choisirCoup("?", joueur.getGenerateurCoups().getCoups(), true));
+    }
+}
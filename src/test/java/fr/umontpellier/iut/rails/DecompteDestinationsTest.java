@@ -0,0 +1,77 @@
+package fr.umontpellier.iut.rails;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DecompteDestinationsTest {
+    private Plateau plateau;
+    private Joueur joueur;
+    private Joueur adversaire;
+
+    @BeforeEach
+    void init() {
+        Jeu jeu = new Jeu(new String[] { "Guybrush", "Largo" }, new Random(1));
+        plateau = jeu.getPlateau();
+        joueur = jeu.getJoueurs().get(0);
+        adversaire = jeu.getJoueurs().get(1);
+    }
+
+    @Test
+    void testSansGare() {
+        plateau.getRoute("Brest - Paris").setProprietaire(joueur);
+        plateau.getRoute("Frankfurt - Paris(1)").setProprietaire(adversaire);
+        joueur.getDestinations().add(new Destination("Brest", "Frankfurt", 8));
+        joueur.getDestinations().add(new Destination("Brest", "Paris", 3));
+        DecompteDestinations decompte = new DecompteDestinations(joueur);
+        assertEquals(3 - 8, decompte.getPoints());
+        assertTrue(decompte.getRoutesEmpruntees().isEmpty());
+    }
+
+    @Test
+    void testLaGareEmprunteLaRouteLaPlusUtile() {
+        plateau.getRoute("Brest - Paris").setProprietaire(joueur);
+        plateau.getRoute("Dieppe - Paris").setProprietaire(adversaire);
+        plateau.getRoute("Frankfurt - Paris(1)").setProprietaire(adversaire);
+        plateau.getVille("Paris").setProprietaire(joueur);
+        joueur.getDestinations().add(new Destination("Brest", "Dieppe", 3));
+        joueur.getDestinations().add(new Destination("Brest", "Frankfurt", 8));
+        DecompteDestinations decompte = new DecompteDestinations(joueur);
+        assertEquals(8 - 3, decompte.getPoints());
+        BitSet attendu = new BitSet();
+        attendu.set(plateau.getRoute("Frankfurt - Paris(1)").getId());
+        assertEquals(attendu, decompte.getRoutesEmpruntees());
+    }
+
+    @Test
+    void testDeuxGaresSurUnMemeChemin() {
+        plateau.getRoute("Brest - Paris").setProprietaire(joueur);
+        plateau.getRoute("Frankfurt - Paris(1)").setProprietaire(adversaire);
+        plateau.getRoute("Berlin - Frankfurt(1)").setProprietaire(adversaire);
+        plateau.getVille("Paris").setProprietaire(joueur);
+        plateau.getVille("Berlin").setProprietaire(joueur);
+        joueur.getDestinations().add(new Destination("Brest", "Berlin", 9));
+        int score = joueur.getScore();
+        joueur.compterPointsDestinations();
+        assertEquals(score + 9, joueur.getScore());
+    }
+
+    @Test
+    void testTroisGaresSurDesVillesTresConnectees() {
+        for (Route route : plateau.getRoutes()) {
+            route.setProprietaire(adversaire);
+        }
+        for (String ville : new String[] { "Paris", "Wien", "Kyiv" }) {
+            plateau.getVille(ville).setProprietaire(joueur);
+        }
+        joueur.getDestinations().addAll(Destination.makeDestinationsEurope());
+        long debut = System.nanoTime();
+        DecompteDestinations decompte = new DecompteDestinations(joueur);
+        assertTrue(System.nanoTime() - debut < 100_000_000L);
+        assertEquals(3, decompte.getRoutesEmpruntees().cardinality());
+    }
+}
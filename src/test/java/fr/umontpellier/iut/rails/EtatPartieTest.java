@@ -0,0 +1,105 @@
+package fr.umontpellier.iut.rails;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EtatPartieTest {
+    private Jeu jeu;
+    private List<EtatPartie> publications;
+
+    @BeforeEach
+    void init() {
+        jeu = new Jeu(new String[] { "Guybrush", "Largo", "LeChuck", "Elaine" }, new Random(1));
+        publications = new ArrayList<>();
+        jeu.setSortieEtat(publications::add);
+    }
+
+    /**
+     * Applique un delta à un état complet, comme le ferait un client différentiel
+     */
+    private static void appliquer(JsonObject etat, JsonObject delta) {
+        etat.add("prompt", delta.get("prompt"));
+        for (String section : new String[] { "villes", "routes" }) {
+            if (delta.has(section)) {
+                for (JsonElement element : delta.getAsJsonArray(section)) {
+                    String nom = element.getAsJsonObject().get("nom").getAsString();
+                    for (int i = 0; i < etat.getAsJsonArray(section).size(); i++) {
+                        if (etat.getAsJsonArray(section).get(i).getAsJsonObject().get("nom").getAsString().equals(nom)) {
+                            etat.getAsJsonArray(section).set(i, element);
+                        }
+                    }
+                }
+            }
+        }
+        if (delta.has("joueurs")) {
+            for (Map.Entry<String, JsonElement> e : delta.getAsJsonObject("joueurs").entrySet()) {
+                etat.getAsJsonArray("joueurs").set(Integer.parseInt(e.getKey()), e.getValue());
+            }
+        }
+        if (delta.has("piles")) {
+            etat.add("piles", delta.get("piles"));
+        }
+        if (delta.has("log")) {
+            etat.getAsJsonArray("log").addAll(delta.getAsJsonArray("log"));
+        }
+    }
+
+    @Test
+    void testDeltaNeContientQueLesChangements() {
+        jeu.prompt("premier", new ArrayList<>(), false);
+        EtatPartie etat = jeu.getEtatPartie();
+        assertEquals(1, publications.size());
+        assertEquals(1, etat.getSequence());
+
+        jeu.prompt("second", new ArrayList<>(), false);
+        JsonObject delta = JsonParser.parseString(etat.getDelta()).getAsJsonObject();
+        assertEquals(2, delta.get("seq").getAsLong());
+        assertEquals(1, delta.get("base").getAsLong());
+        assertEquals("second", delta.getAsJsonObject("prompt").get("instruction").getAsString());
+        assertFalse(delta.has("routes"));
+        assertFalse(delta.has("villes"));
+        assertFalse(delta.has("piles"));
+
+        Route route = jeu.getRoutes().get(3);
+        route.setProprietaire(jeu.getJoueurs().get(1));
+        jeu.log("capture");
+        jeu.prompt("troisieme", new ArrayList<>(), false);
+        delta = JsonParser.parseString(etat.getDelta()).getAsJsonObject();
+        assertEquals(1, delta.getAsJsonArray("routes").size());
+        assertEquals(route.getNom(), delta.getAsJsonArray("routes").get(0).getAsJsonObject().get("nom").getAsString());
+        assertEquals(1, delta.getAsJsonArray("log").size());
+        assertFalse(delta.has("villes"));
+    }
+
+    @Test
+    void testDeltasSuccessifsReconstituentLEtatComplet() {
+        jeu.prompt("debut", new ArrayList<>(), false);
+        EtatPartie etat = jeu.getEtatPartie();
+        JsonObject client = JsonParser.parseString(etat.getCompletVersionne()).getAsJsonObject().getAsJsonObject("etat");
+
+        Joueur joueur = jeu.getJoueurs().get(2);
+        jeu.getRoutes().get(10).setProprietaire(joueur);
+        jeu.getVilles().get(5).setProprietaire(joueur);
+        joueur.getCartesWagon().add(jeu.piocherCarteWagon());
+        jeu.log("un");
+        jeu.prompt("suite", List.of("a", "b"), true);
+        appliquer(client, JsonParser.parseString(etat.getDelta()).getAsJsonObject());
+
+        jeu.retirerCarteWagonVisible(jeu.getCartesWagonVisibles().get(0));
+        jeu.log("deux");
+        jeu.prompt("fin", new ArrayList<>(), false);
+        appliquer(client, JsonParser.parseString(etat.getDelta()).getAsJsonObject());
+
+        assertEquals(JsonParser.parseString(etat.getComplet()), client);
+    }
+}
@@ -0,0 +1,86 @@
+package fr.umontpellier.iut.rails;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GenerateurCoupsTest {
+    private Jeu jeu;
+    private Joueur joueur;
+
+    @BeforeEach
+    void init() {
+        jeu = new Jeu(new String[] { "Guybrush", "Largo", "LeChuck", "Elaine" }, new Random(2));
+        joueur = jeu.getJoueurs().get(0);
+    }
+
+    /**
+     * Calcul direct (sans mise à jour incrémentale) des routes que le joueur peut capturer
+     */
+    private BitSet routesCapturablesAttendues() {
+        BitSet attendues = new BitSet();
+        MainCartesWagon main = new MainCartesWagon(joueur.getCartesWagon());
+        for (Route route : jeu.getRoutes()) {
+            boolean autorisee = route.getProprietaire() == null;
+            for (Route r : jeu.getPlateau().getRoutesParalleles(route)) {
+                autorisee &= r == route || r.getProprietaire() != joueur;
+            }
+            if (autorisee && route.getLongueur() <= joueur.getNbWagons() && route.peutEtrePayeeAvec(main)) {
+                attendues.set(route.getId());
+            }
+        }
+        return attendues;
+    }
+
+    @Test
+    void testMisesAJourIncrementales() {
+        GenerateurCoups generateur = joueur.getGenerateurCoups();
+        Random random = new Random(7);
+        CouleurWagon[] couleurs = CouleurWagon.values();
+        for (int i = 0; i < 3000; i++) {
+            switch (random.nextInt(5)) {
+                case 0, 1 -> {
+                    CouleurWagon c = couleurs[random.nextInt(couleurs.length)];
+                    if (c != CouleurWagon.GRIS) {
+                        joueur.getCartesWagon().add(c);
+                    }
+                }
+                case 2 -> {
+                    if (!joueur.getCartesWagon().isEmpty()) {
+                        joueur.getCartesWagon().remove(random.nextInt(joueur.getCartesWagon().size()));
+                    }
+                }
+                case 3 -> {
+                    Route route = jeu.getRoutes().get(random.nextInt(jeu.getRoutes().size()));
+                    route.setProprietaire(random.nextInt(3) == 0 ? null : jeu.getJoueurs().get(random.nextInt(4)));
+                }
+                default -> joueur.setNbWagons(random.nextInt(46));
+            }
+            assertEquals(routesCapturablesAttendues(), generateur.getRoutesCapturables(), "étape " + i);
+        }
+    }
+
+    @Test
+    void testCoupsDeDebutDeTour() {
+        TestUtils.setCartesWagon(joueur, CouleurWagon.ROUGE, CouleurWagon.ROUGE, CouleurWagon.LOCOMOTIVE);
+        List<Coup> coups = joueur.getGenerateurCoups().getCoups();
+        assertTrue(coups.contains(Coup.CARTE_PIOCHE));
+        assertTrue(coups.contains(Coup.DESTINATIONS));
+        assertTrue(coups.contains(Coup.carteVisible(jeu.getCartesWagonVisibles().get(0))));
+        assertTrue(coups.contains(Coup.gare(jeu.getVilles().get(0))));
+        for (Coup coup : coups) {
+            if (coup.getType() == Coup.Type.ROUTE) {
+                assertTrue(jeu.getPlateau().getRoute(coup.getId()).getLongueur() <= 3);
+            }
+        }
+        assertSame(Coup.route(jeu.getRoutes().get(4)), Coup.de(Coup.Type.ROUTE, jeu.getRoutes().get(4).getId()));
+
+        jeu.getVilles().get(0).setProprietaire(jeu.getJoueurs().get(1));
+        assertFalse(joueur.getGenerateurCoups().getCoups().contains(Coup.gare(jeu.getVilles().get(0))));
+    }
+}
@@ -0,0 +1,146 @@
+package fr.umontpellier.iut.rails;
+
+import fr.umontpellier.iut.rails.ia.DecideurGlouton;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class InstantanePartieTest {
+    private static final String[] NOMS = { "Guybrush", "Largo", "LeChuck", "Elaine" };
+
+    /**
+     * Journal qui appelle une action au début d'un tour donné
+     */
+    private static class JournalTour implements Journal {
+        private final int tour;
+        private final Runnable action;
+        private int nbTours;
+
+        JournalTour(int tour, Runnable action) {
+            this.tour = tour;
+            this.action = action;
+        }
+
+        @Override
+        public void debutTour() {
+            if (nbTours++ == tour) {
+                action.run();
+            }
+        }
+
+        @Override
+        public void choix(int indice) {
+        }
+
+        @Override
+        public void coup(int indice) {
+        }
+    }
+
+    private static String etat(Jeu jeu) {
+        SerialiseurEtat serialiseur = new SerialiseurEtat();
+        return SerialiseurEtat.GSON.toJson(jeu) + serialiseur.versJsonPiles(jeu) + jeu.getPileCartesWagon()
+                + jeu.getDefausseCartesWagon() + jeu.getPileDestinations() + jeu.getJoueurCourant().getNom();
+    }
+
+    @Test
+    void testGenerateurIdentiqueARandom() {
+        GenerateurAleatoire generateur = new GenerateurAleatoire(1234);
+        Random random = new Random(1234);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(random.nextInt(i + 1), generateur.nextInt(i + 1));
+        }
+        List<Integer> a = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            a.add(i);
+        }
+        List<Integer> b = new ArrayList<>(a);
+        Collections.shuffle(a, random);
+        Collections.shuffle(b, generateur);
+        assertEquals(a, b);
+
+        GenerateurAleatoire copie = new GenerateurAleatoire(0);
+        copie.setEtat(generateur.getEtat());
+        assertEquals(generateur.nextLong(), copie.nextLong());
+    }
+
+    @Test
+    void testCaptureRestaurationCapture() throws IOException {
+        for (int tour : new int[] { 0, 15, 60 }) {
+            Jeu jeu = new Jeu(NOMS, tour);
+            jeu.setDecideur(new DecideurAleatoire(new Random(tour)));
+            List<Jeu> restauree = new ArrayList<>();
+            List<byte[]> instantanes = new ArrayList<>();
+            List<String> etats = new ArrayList<>();
+            jeu.setJournal(new JournalTour(tour, () -> {
+                byte[] instantane = InstantanePartie.capturer(jeu);
+                instantanes.add(instantane);
+                etats.add(etat(jeu));
+                try {
+                    restauree.add(InstantanePartie.restaurer(instantane));
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+            }));
+            jeu.run();
+
+            assertEquals(etats.get(0), etat(restauree.get(0)));
+            assertArrayEquals(instantanes.get(0), InstantanePartie.capturer(restauree.get(0)));
+        }
+    }
+
+    @Test
+    void testPartieRestaureeTermineeALIdentique() throws IOException {
+        Jeu jeu = new Jeu(NOMS, 5);
+        jeu.setDecideur(new DecideurGlouton());
+        List<byte[]> instantanes = new ArrayList<>();
+        jeu.setJournal(new JournalTour(30, () -> instantanes.add(InstantanePartie.capturer(jeu))));
+        jeu.run();
+
+        Jeu restauree = InstantanePartie.restaurer(instantanes.get(0));
+        restauree.setDecideur(new DecideurGlouton());
+        restauree.run();
+        assertEquals(etat(jeu), etat(restauree));
+        assertEquals(jeu.getVainqueur().getNom(), restauree.getVainqueur().getNom());
+    }
+
+    @Test
+    void testSauvegardePeriodique() throws IOException {
+        Path dossier = Files.createTempDirectory("instantanes");
+        Path fichier = dossier.resolve("table.instantane");
+        Jeu jeu = new Jeu(NOMS, 9);
+        jeu.setDecideur(new DecideurAleatoire(new Random(9)));
+        List<byte[]> lus = new ArrayList<>();
+        List<byte[]> attendus = new ArrayList<>();
+        JournalTour verification = new JournalTour(20, () -> {
+            attendus.add(InstantanePartie.capturer(jeu));
+            try {
+                lus.add(Files.readAllBytes(fichier));
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        });
+        jeu.setJournal(new SauvegardePeriodique(jeu, fichier, 10, Runnable::run, verification));
+        jeu.run();
+
+        assertArrayEquals(attendus.get(0), lus.get(0));
+        assertFalse(Files.exists(fichier));
+        Files.delete(dossier);
+    }
+
+    @Test
+    void testInstantaneInvalide() {
+        assertThrows(IOException.class, () -> InstantanePartie.restaurer(new byte[] { 0, 1, 2, 3, 4, 5 }));
+    }
+}
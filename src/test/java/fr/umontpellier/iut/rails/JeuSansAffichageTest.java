@@ -0,0 +1,29 @@
+package fr.umontpellier.iut.rails;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JeuSansAffichageTest {
+
+    @Test
+    void testPartiesCompletesSansEntrees() {
+        for (int graine = 0; graine < 50; graine++) {
+            Jeu jeu = new Jeu(new String[] { "Guybrush", "Largo", "LeChuck", "Elaine" });
+            jeu.setDecideur(new DecideurAleatoire(new Random(graine)));
+            jeu.run();
+
+            assertNotNull(jeu.getVainqueur());
+            boolean finDePartie = false;
+            for (Joueur j : jeu.getJoueurs()) {
+                if (j.getNbWagons() <= 2) {
+                    finDePartie = true;
+                }
+            }
+            assertTrue(finDePartie);
+        }
+    }
+}
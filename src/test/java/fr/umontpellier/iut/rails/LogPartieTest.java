@@ -0,0 +1,78 @@
+package fr.umontpellier.iut.rails;
+
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class LogPartieTest {
+
+    @Test
+    void testSeulesLesDernieresLignesSontConservees() {
+        LogPartie log = new LogPartie(3);
+        for (int i = 0; i < 5; i++) {
+            log.ajouter("ligne " + i);
+        }
+        assertEquals(5, log.getNbMessages());
+        assertEquals(2, log.getPremierConserve());
+        assertEquals(List.of("ligne 2", "ligne 3", "ligne 4"), log.getMessages(0, 5));
+        assertEquals(List.of("ligne 3"), log.getMessages(3, 4));
+        assertEquals(List.of(), log.getMessages(5, 10));
+    }
+
+    @Test
+    void testHistoriqueCompletRecopieDansUnFichier() throws IOException {
+        Path fichier = Files.createTempFile("partie", ".log");
+        fichier.toFile().deleteOnExit();
+        LogPartie log = new LogPartie(2);
+        log.deverserDans(fichier);
+        log.ajouter("un");
+        log.ajouter("deux\ntrois");
+        log.ajouter("quatre");
+        log.fermer();
+
+        assertEquals(List.of("un", "deux\\ntrois", "quatre"), Files.readAllLines(fichier));
+        assertEquals(List.of("deux\ntrois", "quatre"), log.getMessages(0, 3));
+    }
+
+    @Test
+    void testErreurDEcritureAbandonneLaRecopie() throws IOException {
+        // l'écriture dans /dev/full échoue toujours (disque plein)
+        Path plein = Paths.get("/dev/full");
+        assumeTrue(Files.isWritable(plein));
+        LogPartie log = new LogPartie(2);
+        log.deverserDans(plein);
+        log.ajouter("un");
+        log.vider();
+        assertFalse(log.estRecopie());
+
+        log.ajouter("deux");
+        log.vider();
+        log.fermer();
+        assertEquals(List.of("un", "deux"), log.getMessages(0, 2));
+    }
+
+    @Test
+    void testEtatCompletNeContientQueLesLignesConservees() {
+        Jeu jeu = new Jeu(new String[] { "Guybrush", "Largo" });
+        jeu.setSortieEtat(etat -> {
+        });
+        for (int i = 0; i < LogPartie.CAPACITE_PAR_DEFAUT + 50; i++) {
+            jeu.log("ligne " + i);
+        }
+        jeu.prompt("test", List.of(), false);
+
+        String complet = jeu.getEtatPartie().getComplet();
+        assertEquals(LogPartie.CAPACITE_PAR_DEFAUT,
+                JsonParser.parseString(complet).getAsJsonObject().getAsJsonArray("log").size());
+        assertEquals(50, JsonParser.parseString(complet).getAsJsonObject().get("logDebut").getAsLong());
+    }
+}
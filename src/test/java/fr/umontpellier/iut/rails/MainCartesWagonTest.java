@@ -0,0 +1,50 @@
+package fr.umontpellier.iut.rails;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MainCartesWagonTest {
+    @Test
+    void testComptesEtVueOrdonnee() {
+        MainCartesWagon main = new MainCartesWagon(List.of(CouleurWagon.ROUGE, CouleurWagon.LOCOMOTIVE,
+                CouleurWagon.BLEU, CouleurWagon.ROUGE));
+        assertEquals(4, main.size());
+        assertEquals(2, main.nombre(CouleurWagon.ROUGE));
+        assertEquals(1, main.nombre(CouleurWagon.LOCOMOTIVE));
+        assertEquals(2, main.maxHorsLocomotives());
+        assertTrue(TestUtils.contientExactement(main, CouleurWagon.ROUGE, CouleurWagon.ROUGE, CouleurWagon.BLEU,
+                CouleurWagon.LOCOMOTIVE));
+        for (int i = 1; i < main.size(); i++) {
+            assertTrue(main.get(i - 1).compareTo(main.get(i)) <= 0);
+        }
+        assertEquals(main.indexOf(CouleurWagon.ROUGE) + 1, main.lastIndexOf(CouleurWagon.ROUGE));
+    }
+
+    @Test
+    void testModifications() {
+        MainCartesWagon main = new MainCartesWagon();
+        main.add(0, CouleurWagon.VERT);
+        main.add(CouleurWagon.JAUNE);
+        assertTrue(main.remove(CouleurWagon.VERT));
+        assertFalse(main.remove(CouleurWagon.VERT));
+        assertEquals(CouleurWagon.JAUNE, main.set(0, CouleurWagon.NOIR));
+        assertEquals(1, main.nombre(CouleurWagon.NOIR));
+        assertEquals(0, main.nombre(CouleurWagon.JAUNE));
+        main.ajouter(CouleurWagon.ROSE, 3);
+        Iterator<CouleurWagon> it = main.iterator();
+        while (it.hasNext()) {
+            if (it.next() == CouleurWagon.ROSE) {
+                it.remove();
+            }
+        }
+        assertEquals(List.of(CouleurWagon.NOIR), main);
+        assertThrows(IllegalArgumentException.class, () -> main.retirer(CouleurWagon.ROSE, 1));
+        main.clear();
+        assertTrue(main.isEmpty());
+        assertThrows(IndexOutOfBoundsException.class, () -> main.get(0));
+    }
+}
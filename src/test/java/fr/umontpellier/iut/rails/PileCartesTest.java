@@ -0,0 +1,67 @@
+package fr.umontpellier.iut.rails;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PileCartesTest {
+    @Test
+    void testPiocherEtPoserDessusDessous() {
+        PileCartes<Integer> pile = new PileCartes<>();
+        assertNull(pile.piocher());
+        for (int i = 0; i < 40; i++) {
+            pile.add(i);
+            pile.add(0, -i - 1);
+        }
+        assertEquals(80, pile.size());
+        assertEquals(-40, pile.get(0));
+        assertEquals(39, pile.get(79));
+        assertEquals(-40, pile.piocher());
+        assertEquals(-39, pile.remove(0));
+        assertEquals(78, pile.size());
+    }
+
+    @Test
+    void testMemeComportementQuUneListe() {
+        Random random = new Random(5);
+        PileCartes<Integer> pile = new PileCartes<>();
+        List<Integer> reference = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            int operation = random.nextInt(5);
+            if (operation <= 1 || reference.isEmpty()) {
+                int index = operation == 0 ? 0 : random.nextInt(reference.size() + 1);
+                pile.add(index, i);
+                reference.add(index, i);
+            } else if (operation == 2) {
+                assertEquals(reference.remove(0), pile.remove(0));
+            } else if (operation == 3) {
+                int index = random.nextInt(reference.size());
+                assertEquals(reference.remove(index), pile.remove(index));
+            } else {
+                pile.add(i);
+                reference.add(i);
+            }
+            assertEquals(reference, pile);
+        }
+    }
+
+    @Test
+    void testMelangeIdentiqueACollectionsShuffle() {
+        List<Integer> reference = new ArrayList<>();
+        for (int i = 0; i < 110; i++) {
+            reference.add(i);
+        }
+        PileCartes<Integer> pile = new PileCartes<>();
+        pile.add(-1);
+        pile.piocher();
+        pile.addAll(reference);
+        Collections.shuffle(reference, new Random(42));
+        pile.melanger(new Random(42));
+        assertEquals(reference, pile);
+    }
+}
@@ -0,0 +1,59 @@
+package fr.umontpellier.iut.rails;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PlateauTest {
+    private Plateau plateau;
+
+    @BeforeEach
+    void init() {
+        plateau = Plateau.makePlateauEurope();
+    }
+
+    @Test
+    void testIdentifiantsDenses() {
+        for (int i = 0; i < plateau.getNbVilles(); i++) {
+            assertEquals(i, plateau.getVille(i).getId());
+        }
+        for (int i = 0; i < plateau.getNbRoutes(); i++) {
+            assertEquals(i, plateau.getRoute(i).getId());
+        }
+    }
+
+    @Test
+    void testVoisinages() {
+        int total = 0;
+        for (Ville ville : plateau.getVilles()) {
+            for (Route route : plateau.getRoutes(ville)) {
+                assertTrue(route.getVille1() == ville || route.getVille2() == ville);
+            }
+            total += plateau.getRoutes(ville).size();
+        }
+        assertEquals(2 * plateau.getNbRoutes(), total);
+    }
+
+    @Test
+    void testRoutesDoubles() {
+        Route route = plateau.getRoute("Frankfurt - Paris(1)");
+        assertNotNull(route);
+        List<Route> paralleles = plateau.getRoutesParalleles(route);
+        assertEquals(2, paralleles.size());
+        assertTrue(paralleles.contains(plateau.getRoute("Frankfurt - Paris(2)")));
+        assertEquals(paralleles, plateau.getRoutesEntre(route.getVille2(), route.getVille1()));
+        assertTrue(plateau.getRoutesEntre(plateau.getVille("Lisboa"), plateau.getVille("Moskva")).isEmpty());
+    }
+
+    @Test
+    void testRechercheParNom() {
+        for (Route route : plateau.getRoutes()) {
+            assertSame(route, plateau.getRoute(route.getNom()));
+        }
+        assertSame(plateau.getVille(3), plateau.getVille(plateau.getVille(3).getNom()));
+        assertNull(plateau.getRoute("Paris - Lyon"));
+    }
+}
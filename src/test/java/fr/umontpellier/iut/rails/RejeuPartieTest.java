@@ -0,0 +1,184 @@
+package fr.umontpellier.iut.rails;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RejeuPartieTest {
+    private static final String[] NOMS = { "Guybrush", "Largo", "LeChuck", "Elaine" };
+
+    /**
+     * Journal qui recopie les événements dans un journal binaire et retient l'état de la partie au début
+     * d'un tour donné
+     */
+    private static class JournalEspion implements Journal {
+        private final Jeu jeu;
+        private final ByteArrayOutputStream sortie;
+        private final JournalBinaire journal;
+        private final int tourObserve;
+        private int nbTours;
+        private String etatObserve;
+        /**
+         * Taille du journal écrit avant le début du tour observé
+         */
+        private int tailleObservee;
+
+        JournalEspion(Jeu jeu, ByteArrayOutputStream sortie, int tourObserve) throws IOException {
+            this.jeu = jeu;
+            this.sortie = sortie;
+            this.journal = new JournalBinaire(sortie, jeu);
+            this.tourObserve = tourObserve;
+        }
+
+        @Override
+        public void debutTour() {
+            // le journal binaire est vidé au début de chaque tour
+            journal.debutTour();
+            if (nbTours++ == tourObserve) {
+                etatObserve = etat(jeu);
+                tailleObservee = sortie.size();
+            }
+        }
+
+        @Override
+        public void choix(int indice) {
+            journal.choix(indice);
+        }
+
+        @Override
+        public void coup(int indice) {
+            journal.coup(indice);
+        }
+
+        @Override
+        public void fermer() {
+            journal.fermer();
+        }
+    }
+
+    private static String etat(Jeu jeu) {
+        SerialiseurEtat serialiseur = new SerialiseurEtat();
+        return SerialiseurEtat.GSON.toJson(jeu) + serialiseur.versJsonPiles(jeu)
+                + jeu.getPileCartesWagon() + jeu.getDefausseCartesWagon() + jeu.getPileDestinations();
+    }
+
+    @Test
+    void testRejeuCompletIdentique() throws IOException {
+        for (long graine = 0; graine < 10; graine++) {
+            Jeu jeu = new Jeu(NOMS, graine);
+            jeu.setDecideur(new DecideurAleatoire(new Random(graine)));
+            ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+            jeu.setJournal(new JournalBinaire(sortie, jeu));
+            jeu.run();
+
+            RejeuPartie rejeu = new RejeuPartie(sortie.toByteArray());
+            assertEquals(graine, rejeu.getGraine());
+            assertArrayEquals(NOMS, rejeu.getNomsJoueurs());
+            Jeu rejoue = rejeu.rejouer();
+            assertEquals(etat(jeu), etat(rejoue));
+            assertEquals(jeu.getVainqueur().getNom(), rejoue.getVainqueur().getNom());
+            for (int i = 0; i < NOMS.length; i++) {
+                assertEquals(jeu.getJoueurs().get(i).getScore(), rejoue.getJoueurs().get(i).getScore());
+            }
+        }
+    }
+
+    @Test
+    void testRejeuJusquAuDebutDUnTour() throws IOException {
+        Jeu jeu = new Jeu(NOMS, 42);
+        jeu.setDecideur(new DecideurAleatoire(new Random(42)));
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+        JournalEspion espion = new JournalEspion(jeu, sortie, 30);
+        jeu.setJournal(espion);
+        jeu.run();
+
+        RejeuPartie rejeu = new RejeuPartie(sortie.toByteArray());
+        assertEquals(espion.nbTours, rejeu.getNbTours());
+        Jeu rejoue = rejeu.rejouer(30);
+        assertEquals(espion.etatObserve, etat(rejoue));
+        assertNull(rejoue.getVainqueur());
+    }
+
+    @Test
+    void testRejeuJournalTronque() throws IOException {
+        Jeu jeu = new Jeu(NOMS, 7);
+        jeu.setDecideur(new DecideurAleatoire(new Random(7)));
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+        JournalEspion espion = new JournalEspion(jeu, sortie, 20);
+        jeu.setJournal(espion);
+        jeu.run();
+
+        // journal d'une partie interrompue au début du 21e tour
+        RejeuPartie tronque = new RejeuPartie(Arrays.copyOf(sortie.toByteArray(), espion.tailleObservee));
+        assertEquals(20, tronque.getNbTours());
+        Jeu rejoue = tronque.rejouer();
+        assertEquals(espion.etatObserve, etat(rejoue));
+        assertEquals(etat(new RejeuPartie(sortie.toByteArray()).rejouer(20)), etat(rejoue));
+    }
+
+    @Test
+    void testRejeuJournalCoupeAuMilieuDUnEvenement() throws IOException {
+        Jeu jeu = new Jeu(NOMS, 7);
+        jeu.setDecideur(new DecideurAleatoire(new Random(7)));
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+        jeu.setJournal(new JournalBinaire(sortie, jeu));
+        jeu.run();
+        byte[] journal = sortie.toByteArray();
+
+        // premier événement sur plusieurs octets (après l'en-tête), et nombre de tours qui le précèdent
+        int debut = 4 + 1 + 8 + 1;
+        for (String nom : NOMS) {
+            debut += 2 + nom.length();
+        }
+        int nbTours = 0;
+        while (journal[debut] >= 0) {
+            if ((journal[debut] & 3) == JournalBinaire.TOUR) {
+                nbTours++;
+            }
+            debut++;
+        }
+
+        // journal coupé après le premier octet de cet événement
+        RejeuPartie coupe = new RejeuPartie(Arrays.copyOf(journal, debut + 1));
+        assertEquals(nbTours, coupe.getNbTours());
+        Jeu rejoue = coupe.rejouer();
+        assertNull(rejoue.getVainqueur());
+        assertEquals(etat(new RejeuPartie(Arrays.copyOf(journal, debut)).rejouer()), etat(rejoue));
+    }
+
+    @Test
+    void testErreurDEcritureAbandonneLeJournal() throws IOException {
+        Jeu jeu = new Jeu(NOMS, 3);
+        jeu.setDecideur(new DecideurAleatoire(new Random(3)));
+        // flux qui refuse toute écriture (disque plein par exemple)
+        JournalBinaire journal = new JournalBinaire(new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("disque plein");
+            }
+        }, jeu);
+        jeu.setJournal(journal);
+        jeu.run();
+
+        assertFalse(journal.estOuvert());
+        assertNotNull(jeu.getVainqueur());
+    }
+
+    @Test
+    void testJournalInvalide() {
+        assertThrows(IOException.class, () -> new RejeuPartie(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 }));
+        assertThrows(IllegalArgumentException.class,
+                () -> new JournalBinaire(new ByteArrayOutputStream(), new Jeu(NOMS, new Random(1))));
+    }
+}
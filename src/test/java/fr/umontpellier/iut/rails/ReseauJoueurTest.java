@@ -0,0 +1,77 @@
+package fr.umontpellier.iut.rails;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReseauJoueurTest {
+    private Jeu jeu;
+    private Plateau plateau;
+    private Joueur joueur;
+    private Joueur adversaire;
+
+    @BeforeEach
+    void init() {
+        jeu = new Jeu(new String[] { "Guybrush", "Largo" }, new Random(1));
+        plateau = jeu.getPlateau();
+        joueur = jeu.getJoueurs().get(0);
+        adversaire = jeu.getJoueurs().get(1);
+    }
+
+    private boolean sontReliees(String ville1, String ville2) {
+        return joueur.getReseau().sontReliees(plateau.getVille(ville1).getId(), plateau.getVille(ville2).getId());
+    }
+
+    @Test
+    void testRoutesCaptureesReliesLesVilles() {
+        assertFalse(sontReliees("Brest", "Frankfurt"));
+        plateau.getRoute("Brest - Paris").setProprietaire(joueur);
+        plateau.getRoute("Frankfurt - Paris(1)").setProprietaire(joueur);
+        plateau.getRoute("Dieppe - Paris").setProprietaire(adversaire);
+        assertTrue(sontReliees("Brest", "Frankfurt"));
+        assertFalse(sontReliees("Brest", "Dieppe"));
+        assertTrue(joueur.estRealisee(new Destination("Frankfurt", "Brest", 8)));
+        assertFalse(adversaire.estRealisee(new Destination("Frankfurt", "Brest", 8)));
+    }
+
+    @Test
+    void testRouteRetireeReconstruitLeReseau() {
+        joueur.getReseau();
+        plateau.getRoute("Brest - Paris").setProprietaire(joueur);
+        plateau.getRoute("Frankfurt - Paris(1)").setProprietaire(joueur);
+        plateau.getRoute("Frankfurt - Paris(1)").setProprietaire(null);
+        assertTrue(sontReliees("Brest", "Paris"));
+        assertFalse(sontReliees("Brest", "Frankfurt"));
+    }
+
+    @Test
+    void testReseauCreeApresLesCaptures() {
+        plateau.getRoute("Brest - Paris").setProprietaire(joueur);
+        assertTrue(sontReliees("Brest", "Paris"));
+    }
+
+    @Test
+    void testCompterPointsDestinations() {
+        plateau.getRoute("Brest - Paris").setProprietaire(joueur);
+        joueur.getDestinations().add(new Destination("Paris", "Brest", 5));
+        joueur.getDestinations().add(new Destination("Paris", "Wien", 8));
+        int score = joueur.getScore();
+        joueur.compterPointsDestinations();
+        assertEquals(score + 5 - 8, joueur.getScore());
+    }
+
+    @Test
+    void testToutesLesDestinationsExistentSurLePlateau() {
+        for (Destination d : Destination.makeDestinationsEurope()) {
+            assertNotNull(plateau.getVille(d.getVille1()), d.getNom());
+            assertNotNull(plateau.getVille(d.getVille2()), d.getNom());
+        }
+        for (Destination d : Destination.makeDestinationsLonguesEurope()) {
+            assertNotNull(plateau.getVille(d.getVille1()), d.getNom());
+            assertNotNull(plateau.getVille(d.getVille2()), d.getNom());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package fr.umontpellier.iut.rails;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RouteTest {
+    private final Ville paris = new Ville("Paris");
+    private final Ville brest = new Ville("Brest");
+
+    private static MainCartesWagon main(CouleurWagon... cartes) {
+        return new MainCartesWagon(List.of(cartes));
+    }
+
+    @Test
+    void testRouteDeCouleur() {
+        Route route = new Route(paris, brest, 3, CouleurWagon.ORANGE);
+        assertTrue(route.peutEtrePayeeAvec(main(CouleurWagon.ORANGE, CouleurWagon.ORANGE, CouleurWagon.LOCOMOTIVE)));
+        assertFalse(route.peutEtrePayeeAvec(main(CouleurWagon.ORANGE, CouleurWagon.ROUGE, CouleurWagon.LOCOMOTIVE)));
+        assertFalse(route.estTunnel());
+        assertEquals(0, route.getNbLocomotives());
+    }
+
+    @Test
+    void testRouteGriseUneSeuleCouleur() {
+        Route route = new Route(paris, brest, 3, CouleurWagon.GRIS);
+        assertTrue(route.peutEtrePayeeAvec(main(CouleurWagon.VERT, CouleurWagon.VERT, CouleurWagon.LOCOMOTIVE)));
+        assertFalse(route.peutEtrePayeeAvec(main(CouleurWagon.VERT, CouleurWagon.BLEU, CouleurWagon.LOCOMOTIVE)));
+        assertTrue(route.peutEtrePayeeAvec(main(CouleurWagon.LOCOMOTIVE, CouleurWagon.LOCOMOTIVE,
+                CouleurWagon.LOCOMOTIVE)));
+    }
+
+    @Test
+    void testFerryImposeDesLocomotives() {
+        Route ferry = new Ferry(paris, brest, 3, CouleurWagon.GRIS, 2);
+        assertEquals(2, ferry.getNbLocomotives());
+        assertFalse(ferry.peutEtrePayeeAvec(main(CouleurWagon.VERT, CouleurWagon.VERT, CouleurWagon.LOCOMOTIVE)));
+        assertTrue(ferry.peutEtrePayeeAvec(main(CouleurWagon.VERT, CouleurWagon.LOCOMOTIVE,
+                CouleurWagon.LOCOMOTIVE)));
+    }
+
+    @Test
+    void testTunnel() {
+        Route tunnel = new Tunnel(paris, brest, 2, CouleurWagon.ROSE);
+        assertTrue(tunnel.estTunnel());
+        assertTrue(tunnel.peutEtrePayeeAvec(main(CouleurWagon.ROSE, CouleurWagon.ROSE)));
+    }
+}
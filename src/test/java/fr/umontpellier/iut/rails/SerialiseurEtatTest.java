@@ -0,0 +1,88 @@
+package fr.umontpellier.iut.rails;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SerialiseurEtatTest {
+    private static final Gson GSON_POJO = new Gson();
+    private Jeu jeu;
+    private SerialiseurEtat serialiseur;
+
+    @BeforeEach
+    void init() {
+        jeu = new Jeu(new String[] { "Guybrush", "Largo", "LeChuck", "Elaine" }, new Random(3));
+        serialiseur = new SerialiseurEtat();
+        Joueur joueur = jeu.getJoueurs().get(1);
+        jeu.getRoutes().get(7).setProprietaire(joueur);
+        jeu.getVilles().get(2).setProprietaire(joueur);
+        joueur.getDestinations().add(jeu.piocherDestination());
+        joueur.getCartesWagon().add(CouleurWagon.ROUGE);
+        joueur.getCartesWagon().add(CouleurWagon.LOCOMOTIVE);
+        joueur.getCartesWagonPosees().add(CouleurWagon.BLEU);
+        jeu.getDefausseCartesWagon().add(CouleurWagon.JAUNE);
+    }
+
+    @Test
+    void testMemeJsonQueAsPOJO() {
+        for (Ville ville : jeu.getVilles()) {
+            assertEquals(JsonParser.parseString(GSON_POJO.toJson(ville.asPOJO())),
+                    JsonParser.parseString(serialiseur.versJson(ville)));
+        }
+        for (Route route : jeu.getRoutes()) {
+            assertEquals(JsonParser.parseString(GSON_POJO.toJson(route.asPOJO())),
+                    JsonParser.parseString(serialiseur.versJson(route)));
+        }
+        for (Joueur joueur : jeu.getJoueurs()) {
+            assertEquals(JsonParser.parseString(GSON_POJO.toJson(joueur.asPOJO())),
+                    JsonParser.parseString(serialiseur.versJson(joueur)));
+        }
+    }
+
+    @Test
+    void testTamponReutiliseSansMelange() {
+        String premier = serialiseur.versJson(jeu.getRoutes().get(7));
+        serialiseur.versJson(jeu.getJoueurs().get(0));
+        assertEquals(premier, serialiseur.versJson(jeu.getRoutes().get(7)));
+    }
+
+    @Test
+    void testJeuCompletIdentiqueALAssemblageDesFragments() {
+        jeu.log("un");
+        jeu.setSortieEtat(etat -> {
+        });
+        jeu.prompt("instruction", List.of("a"), true);
+        JsonObject complet = JsonParser.parseString(jeu.getEtatPartie().getComplet()).getAsJsonObject();
+        complet.remove("prompt");
+        assertEquals(complet, JsonParser.parseString(SerialiseurEtat.GSON.toJson(jeu)));
+    }
+
+    @Test
+    void testPromptEtPiles() {
+        JsonObject prompt = JsonParser.parseString(
+                serialiseur.versJsonPrompt(jeu, "choix", new ArrayList<>(List.of("x", "y")), false)).getAsJsonObject();
+        assertEquals("choix", prompt.get("instruction").getAsString());
+        assertEquals(2, prompt.getAsJsonArray("boutons").size());
+        assertEquals(jeu.getJoueurCourant().getNom(), prompt.get("nomJoueurCourant").getAsString());
+
+        JsonObject piles = JsonParser.parseString(serialiseur.versJsonPiles(jeu)).getAsJsonObject();
+        assertEquals(jeu.getPileCartesWagon().size(), piles.get("pileCartesWagon").getAsInt());
+        assertEquals("JAUNE", piles.getAsJsonArray("defausseCartesWagon").get(0).getAsString());
+    }
+
+    @Test
+    void testLectureRefusee() {
+        String json = serialiseur.versJson(jeu.getVilles().get(0));
+        assertThrows(JsonIOException.class, () -> SerialiseurEtat.GSON.fromJson(json, Ville.class));
+        assertNull(SerialiseurEtat.GSON.fromJson("null", Ville.class));
+    }
+}
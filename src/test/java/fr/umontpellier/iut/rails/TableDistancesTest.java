@@ -0,0 +1,74 @@
+package fr.umontpellier.iut.rails;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TableDistancesTest {
+    private Plateau plateau;
+    private Joueur joueur;
+    private Joueur adversaire;
+
+    @BeforeEach
+    void init() {
+        Jeu jeu = new Jeu(new String[] { "Guybrush", "Largo" }, new Random(1));
+        plateau = jeu.getPlateau();
+        joueur = jeu.getJoueurs().get(0);
+        adversaire = jeu.getJoueurs().get(1);
+    }
+
+    private Ville ville(String nom) {
+        return plateau.getVille(nom);
+    }
+
+    @Test
+    void testDistancesDuPlateau() {
+        assertEquals(0, plateau.getDistance(ville("Paris"), ville("Paris")));
+        assertEquals(3, plateau.getDistance(ville("Brest"), ville("Paris")));
+        assertEquals(6, plateau.getDistance(ville("Brest"), ville("Frankfurt")));
+        assertEquals(6, plateau.getDistance(ville("Frankfurt"), ville("Brest")));
+    }
+
+    @Test
+    void testRoutesDuJoueurGratuitesEtRoutesAdversesBloquees() {
+        TableDistances table = joueur.getDistances();
+        assertEquals(6, table.getDistance(ville("Brest"), ville("Frankfurt")));
+        plateau.getRoute("Brest - Paris").setProprietaire(joueur);
+        assertEquals(3, table.getDistance(ville("Brest"), ville("Frankfurt")));
+        plateau.getRoute("Frankfurt - Paris(1)").setProprietaire(adversaire);
+        assertEquals(3, table.getDistance(ville("Brest"), ville("Frankfurt")));
+        plateau.getRoute("Frankfurt - Paris(2)").setProprietaire(adversaire);
+        // Paris - Bruxelles - Frankfurt
+        assertEquals(4, table.getDistance(ville("Brest"), ville("Frankfurt")));
+        // la table du plateau ignore les propriétaires
+        assertEquals(6, plateau.getDistance(ville("Brest"), ville("Frankfurt")));
+    }
+
+    @Test
+    void testMiseAJourIncrementaleIdentiqueAUnCalculComplet() {
+        TableDistances table = joueur.getDistances();
+        table.getDistance(0, 0);
+        List<Route> routes = new ArrayList<>(plateau.getRoutes());
+        Collections.shuffle(routes, new Random(2));
+        Random random = new Random(3);
+        Joueur[] proprietaires = { joueur, adversaire, adversaire, null };
+        // captures, puis changements de propriétaire quelconques
+        routes.addAll(routes);
+        for (int k = 0; k < routes.size(); k++) {
+            Route route = routes.get(k);
+            route.setProprietaire(proprietaires[random.nextInt(k < routes.size() / 2 ? 3 : 4)]);
+            TableDistances complete = new TableDistances(plateau, joueur);
+            for (int i = 0; i < plateau.getNbVilles(); i++) {
+                for (int j = 0; j < plateau.getNbVilles(); j++) {
+                    assertEquals(complete.getDistance(i, j), table.getDistance(i, j), route.getNom());
+                }
+            }
+        }
+    }
+}
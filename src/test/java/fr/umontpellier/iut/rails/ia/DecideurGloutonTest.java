@@ -0,0 +1,95 @@
+package fr.umontpellier.iut.rails.ia;
+
+import fr.umontpellier.iut.rails.CouleurWagon;
+import fr.umontpellier.iut.rails.Coup;
+import fr.umontpellier.iut.rails.DecideurAleatoire;
+import fr.umontpellier.iut.rails.Destination;
+import fr.umontpellier.iut.rails.Jeu;
+import fr.umontpellier.iut.rails.Joueur;
+import fr.umontpellier.iut.rails.Route;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DecideurGloutonTest {
+
+    @Test
+    void testCaptureUneRouteDuCheminDeSaDestination() {
+        Jeu jeu = new Jeu(new String[] { "Guybrush", "Largo" }, new Random(1));
+        Joueur joueur = jeu.getJoueurCourant();
+        joueur.getDestinations().add(new Destination("Paris", "Frankfurt", 5));
+        joueur.getCartesWagon().clear();
+        for (int i = 0; i < 6; i++) {
+            joueur.getCartesWagon().add(CouleurWagon.LOCOMOTIVE);
+        }
+        Coup coup = new DecideurGlouton().choisirCoup(joueur, "", joueur.getGenerateurCoups().getCoups(), true);
+        assertEquals(Coup.Type.ROUTE, coup.getType());
+        Route route = jeu.getPlateau().getRoute(coup.getId());
+        assertEquals(Set.of("Paris", "Frankfurt"), Set.of(route.getVille1().getNom(), route.getVille2().getNom()));
+    }
+
+    @Test
+    void testPiocheLaCouleurQuiLuiManque() {
+        Jeu jeu = new Jeu(new String[] { "Guybrush", "Largo" }, new Random(1));
+        Joueur joueur = jeu.getJoueurCourant();
+        joueur.getDestinations().add(new Destination("Brest", "Dieppe", 2));
+        joueur.getCartesWagon().clear();
+        jeu.getCartesWagonVisibles().clear();
+        jeu.getCartesWagonVisibles().add(CouleurWagon.JAUNE);
+        jeu.getCartesWagonVisibles().add(CouleurWagon.ORANGE);
+        // Brest - Dieppe est une route orange de longueur 2
+        Coup coup = new DecideurGlouton().choisirCoup(joueur, "", joueur.getGenerateurCoups().getCoups(), true);
+        assertSame(Coup.carteVisible(CouleurWagon.ORANGE), coup);
+    }
+
+    @Test
+    void testGagneContreDesJoueursAleatoires() {
+        int victoires = 0;
+        for (int i = 0; i < 20; i++) {
+            Jeu jeu = new Jeu(new String[] { "Guybrush", "Largo", "LeChuck" }, new Random(i));
+            jeu.setDecideur(new DecideurAleatoire(new Random(i)));
+            jeu.getJoueurs().get(1).setDecideur(new DecideurGlouton());
+            jeu.run();
+            if (jeu.getVainqueur() == jeu.getJoueurs().get(1)) {
+                victoires++;
+            }
+        }
+        assertTrue(victoires >= 15, victoires + " victoires sur 20");
+    }
+
+    @Test
+    void testConserveLesCartesWagon() {
+        for (int i = 0; i < 60; i++) {
+            Jeu jeu = new Jeu(new String[] { "Guybrush", "Largo", "LeChuck", "Elaine" }, new Random(i));
+            jeu.setDecideur(new DecideurGlouton());
+            jeu.run();
+            assertEquals(110, compterCartesWagon(jeu), "partie " + i);
+        }
+    }
+
+    @Test
+    void testTunnelNeCreePasDeCartesAvecUnDecideurAleatoire() {
+        for (int i = 0; i < 60; i++) {
+            Random random = new Random(i);
+            Jeu jeu = new Jeu(new String[] { "Guybrush", "Largo", "LeChuck", "Elaine" }, random);
+            jeu.setDecideur(new DecideurAleatoire(random));
+            jeu.run();
+            assertEquals(110, compterCartesWagon(jeu), "partie " + i);
+        }
+    }
+
+    /**
+     * @return le nombre de cartes wagon en jeu (pioche, défausse, cartes visibles et cartes des joueurs)
+     */
+    private static int compterCartesWagon(Jeu jeu) {
+        int nombre = jeu.getPileCartesWagon().size() + jeu.getDefausseCartesWagon().size()
+                + jeu.getCartesWagonVisibles().size();
+        for (Joueur joueur : jeu.getJoueurs()) {
+            nombre += joueur.getCartesWagon().size() + joueur.getCartesWagonPosees().size();
+        }
+        return nombre;
+    }
+}
@@ -0,0 +1,81 @@
+package fr.umontpellier.iut.rails.ia;
+
+import fr.umontpellier.iut.rails.Coup;
+import fr.umontpellier.iut.rails.DecideurAleatoire;
+import fr.umontpellier.iut.rails.Jeu;
+import fr.umontpellier.iut.rails.Joueur;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DecideurMCTSTest {
+
+    @Test
+    void testPartieCompleteAvecRobots() {
+        // le robot joue contre deux joueurs aléatoires, à une place différente à chaque partie
+        int nbVictoires = 0;
+        for (int partie = 0; partie < 6; partie++) {
+            Jeu jeu = new Jeu(new String[] { "Guybrush", "Largo", "LeChuck" }, new Random(partie));
+            jeu.setDecideur(new DecideurAleatoire(new Random(100 + partie)));
+            Joueur robot = jeu.getJoueurs().get(partie % 3);
+            robot.setDecideur(new DecideurMCTS(0, 100, 1, 30, Runnable::run, new Random(200 + partie)));
+            jeu.run();
+            assertNotNull(jeu.getVainqueur());
+            if (jeu.getVainqueur() == robot) {
+                nbVictoires++;
+            }
+        }
+        assertTrue(nbVictoires >= 5, nbVictoires + " victoires sur 6");
+    }
+
+    @Test
+    void testChoixDeterministeSansLimiteDeTemps() {
+        Jeu jeu = new Jeu(new String[] { "Guybrush", "Largo" }, new Random(4));
+        Joueur joueur = jeu.getJoueurCourant();
+        List<Coup> coups = joueur.getGenerateurCoups().getCoups();
+        Coup c1 = new DecideurMCTS(0, 400, 2, 60, Runnable::run, new Random(5))
+                .choisirCoup(joueur, "", coups, false);
+        Coup c2 = new DecideurMCTS(0, 400, 2, 60, Runnable::run, new Random(5))
+                .choisirCoup(joueur, "", coups, false);
+        assertTrue(coups.contains(c1));
+        assertSame(c1, c2);
+    }
+
+    @Test
+    void testRespecteLeBudgetDeTemps() {
+        Jeu jeu = new Jeu(new String[] { "Guybrush", "Largo", "LeChuck", "Elaine" }, new Random(7));
+        Joueur joueur = jeu.getJoueurCourant();
+        List<Coup> coups = joueur.getGenerateurCoups().getCoups();
+        PoolRecherche pool = new PoolRecherche(2, Thread::new);
+        try {
+            DecideurMCTS robot = new DecideurMCTS(50, pool, new Random(8));
+            long debut = System.nanoTime();
+            Coup coup = robot.choisirCoup(joueur, "", coups, false);
+            long dureeMs = (System.nanoTime() - debut) / 1_000_000;
+            assertTrue(coups.contains(coup));
+            assertTrue(dureeMs < 200, "décision en " + dureeMs + " ms");
+        } finally {
+            pool.arreter();
+        }
+    }
+
+    @Test
+    void testTachesRepartiesEntreLesDecisionsEnCours() {
+        PoolRecherche pool = new PoolRecherche(4, Thread::new);
+        try {
+            assertEquals(4, pool.debutDecision());
+            assertEquals(2, pool.debutDecision());
+            assertEquals(1, pool.debutDecision());
+            pool.finDecision();
+            pool.finDecision();
+            assertEquals(2, pool.debutDecision());
+            assertEquals(1, pool.debutDecision());
+            assertEquals(1, pool.debutDecision());
+        } finally {
+            pool.arreter();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package fr.umontpellier.iut.rails.ia;
+
+import fr.umontpellier.iut.rails.CouleurWagon;
+import fr.umontpellier.iut.rails.Coup;
+import fr.umontpellier.iut.rails.Jeu;
+import fr.umontpellier.iut.rails.Route;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EtatCompactTest {
+    private Jeu jeu;
+    private EtatCompact etat;
+
+    @BeforeEach
+    void init() {
+        jeu = new Jeu(new String[] { "Guybrush", "Largo", "LeChuck" }, new Random(6));
+        etat = EtatCompact.depuis(jeu);
+    }
+
+    private int nbCartesTotal() {
+        int total = etat.getTaillePioche() + etat.getTailleDefausse();
+        for (int i = 0; i < 5; i++) {
+            total += etat.getCarteVisible(i) == null ? 0 : 1;
+        }
+        for (int j = 0; j < etat.getNbJoueurs(); j++) {
+            for (CouleurWagon c : CouleurWagon.values()) {
+                total += etat.getNbCartes(j, c);
+            }
+        }
+        return total;
+    }
+
+    @Test
+    void testEtatInitial() {
+        assertEquals(0, etat.getJoueurCourant());
+        assertEquals(45, etat.getNbWagons(1));
+        assertEquals(3, etat.getNbGares(2));
+        assertEquals(jeu.getPileCartesWagon().size(), etat.getTaillePioche());
+        assertEquals(jeu.getCartesWagonVisibles().get(0), etat.getCarteVisible(0));
+        assertEquals(110, nbCartesTotal());
+    }
+
+    @Test
+    void testPartieAleatoirePuisAnnulationComplete() {
+        EtatCompact initial = etat.copier();
+        Random random = new Random(3);
+        Coup[] coups = new Coup[etat.getNbMaxCoups()];
+        List<EtatCompact> historique = new ArrayList<>();
+        while (!etat.estTerminee()) {
+            int n = etat.genererCoups(coups);
+            assertTrue(n > 0);
+            historique.add(etat.copier());
+            Coup coup = coups[random.nextInt(n)];
+            etat.jouer(coup);
+            assertEquals(110, nbCartesTotal());
+        }
+        assertEquals(historique.size(), etat.getNbCoupsJoues());
+        for (int i = historique.size() - 1; i >= 0; i--) {
+            etat.annuler();
+            assertEquals(historique.get(i), etat);
+        }
+        assertEquals(initial, etat);
+        assertThrows(IllegalStateException.class, () -> etat.annuler());
+    }
+
+    @Test
+    void testCaptureDeRoute() {
+        Route route = null;
+        for (Route r : jeu.getRoutes()) {
+            if (r.getCouleur() == CouleurWagon.GRIS && r.getLongueur() == 2 && r.getNbLocomotives() == 0) {
+                route = r;
+            }
+        }
+        jeu.getJoueurs().get(0).getCartesWagon().clear();
+        jeu.getJoueurs().get(0).getCartesWagon().add(CouleurWagon.BLEU);
+        jeu.getJoueurs().get(0).getCartesWagon().add(CouleurWagon.LOCOMOTIVE);
+        etat = EtatCompact.depuis(jeu);
+        int score = etat.getScore(0);
+        assertTrue(etat.peutCapturer(0, route.getId()));
+        etat.jouer(Coup.route(route));
+        assertEquals(0, etat.getProprietaireRoute(route.getId()));
+        assertEquals(43, etat.getNbWagons(0));
+        assertEquals(score + 2, etat.getScore(0));
+        assertEquals(0, etat.getNbCartes(0, CouleurWagon.LOCOMOTIVE));
+        assertEquals(1, etat.getJoueurCourant());
+        assertFalse(etat.peutCapturer(1, route.getId()));
+    }
+}
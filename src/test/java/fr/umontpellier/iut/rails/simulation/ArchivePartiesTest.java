@@ -0,0 +1,93 @@
+package fr.umontpellier.iut.rails.simulation;
+
+import fr.umontpellier.iut.rails.DecideurAleatoire;
+import fr.umontpellier.iut.rails.Destination;
+import fr.umontpellier.iut.rails.Jeu;
+import fr.umontpellier.iut.rails.Plateau;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ArchivePartiesTest {
+    private static final String[] NOMS = { "Guybrush", "Largo", "LeChuck", "Elaine" };
+
+    @Test
+    void testArchiveCoherenteAvecLesResultats() throws IOException {
+        Path fichier = Files.createTempFile("archive", ".parties");
+        int nbRoutes = Plateau.makePlateauEurope().getNbRoutes();
+        Simulateur simulateur = new Simulateur(NOMS, (siege, random) -> new DecideurAleatoire(random), 2);
+        ResultatsSimulation resultats;
+        try (ArchiveParties archive = ArchiveParties.creer(fichier, NOMS.length, nbRoutes, 50, 3,
+                DecideurAleatoire.class.getSimpleName())) {
+            resultats = simulateur.simuler(40, 3, archive);
+        }
+
+        try (ArchiveParties archive = ArchiveParties.ouvrir(fichier)) {
+            assertEquals(50, archive.getNbParties());
+            assertEquals(40, archive.parties().count());
+            assertFalse(archive.estPresente(45));
+            assertEquals(3, archive.getGraine());
+            assertEquals(DecideurAleatoire.class.getSimpleName(), archive.getDecideurs());
+
+            long[] victoires = new long[NOMS.length];
+            long sommeScores = 0;
+            for (long partie = 0; partie < 40; partie++) {
+                victoires[archive.getVainqueur(partie)]++;
+                for (int siege = 0; siege < NOMS.length; siege++) {
+                    sommeScores += archive.getScore(partie, siege);
+                    assertTrue(Long.bitCount(archive.getDestinations(partie, siege)) >= 2);
+                    assertTrue(archive.getDestinationLongueInitiale(partie, siege)
+                            >= Destination.makeDestinationsEurope().size());
+                }
+                for (int r = 0; r < nbRoutes; r++) {
+                    int tour = archive.getTourCapture(partie, r);
+                    assertEquals(archive.getProprietaire(partie, r) >= 0, tour >= 0);
+                    assertTrue(tour < archive.getNbTours(partie));
+                }
+            }
+            assertEquals(Arrays.toString(resultats.getVictoires()), Arrays.toString(victoires));
+            assertEquals(Arrays.stream(resultats.getSommeScores()).sum(), sommeScores);
+
+            RequetesArchive.Taux[] captures = RequetesArchive.tauxCaptureRoutes(archive);
+            for (int r = 0; r < nbRoutes; r++) {
+                assertEquals(40, captures[r].total());
+                assertEquals(resultats.getCapturesRoutes()[r], captures[r].favorables());
+            }
+            RequetesArchive.Taux[] parDestination = RequetesArchive.tauxVictoireParDestinationLongue(archive);
+            assertEquals(160, Arrays.stream(parDestination).mapToLong(RequetesArchive.Taux::total).sum());
+            assertEquals(40, Arrays.stream(parDestination).mapToLong(RequetesArchive.Taux::favorables).sum());
+
+            // une partie archivée est rejouée à l'identique à partir de la graine de l'archive
+            Jeu jeu = simulateur.jouerPartie(archive.getGraine(), 17);
+            assertEquals(archive.getVainqueur(17), jeu.getJoueurs().indexOf(jeu.getVainqueur()));
+            for (int siege = 0; siege < NOMS.length; siege++) {
+                assertEquals(archive.getScore(17, siege), jeu.getJoueurs().get(siege).getScore());
+            }
+            for (int r = 0; r < nbRoutes; r++) {
+                assertEquals(archive.getProprietaire(17, r),
+                        jeu.getJoueurs().indexOf(jeu.getRoutes().get(r).getProprietaire()));
+            }
+        } finally {
+            Files.delete(fichier);
+        }
+    }
+
+    @Test
+    void testFichierQuiNEstPasUneArchive() throws IOException {
+        Path fichier = Files.createTempFile("archive", ".parties");
+        try {
+            Files.write(fichier, new byte[64]);
+            assertThrows(IOException.class, () -> ArchiveParties.ouvrir(fichier));
+        } finally {
+            Files.delete(fichier);
+        }
+    }
+}
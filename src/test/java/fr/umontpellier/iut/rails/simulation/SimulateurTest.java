@@ -0,0 +1,36 @@
+package fr.umontpellier.iut.rails.simulation;
+
+import fr.umontpellier.iut.rails.DecideurAleatoire;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SimulateurTest {
+    private static final String[] NOMS = { "Guybrush", "Largo", "LeChuck", "Elaine" };
+
+    @Test
+    void testResultatsAgreges() {
+        Simulateur simulateur = new Simulateur(NOMS, (siege, random) -> new DecideurAleatoire(random), 2);
+        ResultatsSimulation resultats = simulateur.simuler(20, 42);
+
+        assertEquals(20, resultats.getNbParties());
+        assertEquals(20, Arrays.stream(resultats.getVictoires()).sum());
+        assertEquals(80, resultats.getHistogrammeScores().values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    void testSimulationReproductibleQuelQueSoitLeNombreDeThreads() {
+        ResultatsSimulation r1 = new Simulateur(NOMS, (siege, random) -> new DecideurAleatoire(random), 1)
+                .simuler(20, 7);
+        ResultatsSimulation r2 = new Simulateur(NOMS, (siege, random) -> new DecideurAleatoire(random), 4)
+                .simuler(20, 7);
+
+        assertArrayEquals(r1.getVictoires(), r2.getVictoires());
+        assertArrayEquals(r1.getSommeScores(), r2.getSommeScores());
+        assertArrayEquals(r1.getCapturesRoutes(), r2.getCapturesRoutes());
+        assertEquals(r1.getHistogrammeScores(), r2.getHistogrammeScores());
+    }
+}